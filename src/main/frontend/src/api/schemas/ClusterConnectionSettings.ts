@@ -5,6 +5,7 @@
  * OpenAPI spec version: v0
  */
 import type { ClusterConnectionSettingsAuthenticationMethod } from './ClusterConnectionSettingsAuthenticationMethod';
+import type { ClusterConnectionSettingsTuningProfile } from './ClusterConnectionSettingsTuningProfile';
 
 export interface ClusterConnectionSettings {
   id?: number;
@@ -12,4 +13,5 @@ export interface ClusterConnectionSettings {
   serviceUrl: string;
   authenticationMethod: ClusterConnectionSettingsAuthenticationMethod;
   authenticationDetails?: string;
+  tuningProfile?: ClusterConnectionSettingsTuningProfile;
 }
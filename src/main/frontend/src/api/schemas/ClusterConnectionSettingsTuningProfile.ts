@@ -0,0 +1,16 @@
+/**
+ * Generated by orval v7.20.0 🍺
+ * Do not edit manually.
+ * OpenAPI definition
+ * OpenAPI spec version: v0
+ */
+
+export type ClusterConnectionSettingsTuningProfile = typeof ClusterConnectionSettingsTuningProfile[keyof typeof ClusterConnectionSettingsTuningProfile];
+
+
+// eslint-disable-next-line @typescript-eslint/no-redeclare
+export const ClusterConnectionSettingsTuningProfile = {
+  MINIMAL: 'MINIMAL',
+  STANDARD: 'STANDARD',
+  LARGE: 'LARGE',
+} as const;
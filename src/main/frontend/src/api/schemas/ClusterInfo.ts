@@ -4,6 +4,7 @@
  * OpenAPI definition
  * OpenAPI spec version: v0
  */
+import type { ClusterInfoHealthStatus } from './ClusterInfoHealthStatus';
 
 export interface ClusterInfo {
   clusterId?: string;
@@ -17,4 +18,6 @@ export interface ClusterInfo {
    * @pattern ^#([A-Fa-f0-9]{6})$
    */
   color: string;
+  healthStatus?: ClusterInfoHealthStatus;
+  error?: string;
 }
@@ -0,0 +1,16 @@
+/**
+ * Generated by orval v7.20.0 🍺
+ * Do not edit manually.
+ * OpenAPI definition
+ * OpenAPI spec version: v0
+ */
+
+export type ClusterInfoHealthStatus = typeof ClusterInfoHealthStatus[keyof typeof ClusterInfoHealthStatus];
+
+
+// eslint-disable-next-line @typescript-eslint/no-redeclare
+export const ClusterInfoHealthStatus = {
+  HEALTHY: 'HEALTHY',
+  DEGRADED: 'DEGRADED',
+  OPEN: 'OPEN',
+} as const;
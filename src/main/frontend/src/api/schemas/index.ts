@@ -8,5 +8,7 @@
 export * from './AccountInfo';
 export * from './ClusterConnectionSettings';
 export * from './ClusterConnectionSettingsAuthenticationMethod';
+export * from './ClusterConnectionSettingsTuningProfile';
 export * from './ClusterCreation';
-export * from './ClusterInfo';
\ No newline at end of file
+export * from './ClusterInfo';
+export * from './ClusterInfoHealthStatus';
\ No newline at end of file
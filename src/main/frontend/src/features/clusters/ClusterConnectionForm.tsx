@@ -1,8 +1,8 @@
-import type {ClusterConnectionSettings} from "@/api/schemas";
+import type {ClusterConnectionSettings, ClusterConnectionSettingsTuningProfile} from "@/api/schemas";
 import {useEffect, useState} from "react";
 import {Field, FieldLabel, FieldDescription} from "@/components/ui/field.tsx";
 import {Tabs, TabsContent, TabsList, TabsTrigger} from "@/components/ui/tabs.tsx";
-import {IdCard, KeyRound, ShieldOff, SquareAsterisk} from "lucide-react";
+import {Gauge, IdCard, KeyRound, Rocket, ShieldOff, SquareAsterisk, Sprout} from "lucide-react";
 import {useDebounce} from "use-debounce";
 import {InputGroup, InputGroupAddon, InputGroupInput, InputGroupText} from "@/components/ui/input-group.tsx";
 import {Spinner} from "@/components/ui/spinner.tsx";
@@ -21,7 +21,8 @@ interface ClusterConnectionFormProps {
 
 const emptyClusterConnectionSettings: ClusterConnectionSettings = {
     serviceUrl: '',
-    authenticationMethod: "NO_AUTH"
+    authenticationMethod: "NO_AUTH",
+    tuningProfile: "STANDARD"
 }
 
 export default function ClusterConnectionForm({initialConnectionSettings, title, description, serviceUrlLabel,
@@ -43,6 +44,15 @@ export default function ClusterConnectionForm({initialConnectionSettings, title,
         });
     };
 
+    const handleTuningProfileChange = (tuningProfile: string) => {
+        setClusterConnectionSettings(prev => {
+            return {
+                ...prev,
+                tuningProfile: tuningProfile as ClusterConnectionSettingsTuningProfile
+            }
+        });
+    };
+
     const verifyConnection = () => {
         const isComplete = debouncedConnectionSettings.serviceUrl.match(serviceUrlRegex) !== null;
 
@@ -119,6 +129,35 @@ export default function ClusterConnectionForm({initialConnectionSettings, title,
                     <p className={"text-sm text-secondary-foreground"}>Connect without authentication.</p>
                 </TabsContent>
             </Tabs>
+
+            <Tabs value={clusterConnectionSettings.tuningProfile || "STANDARD"}
+                  onValueChange={handleTuningProfileChange}
+                  className={"mt-4"}>
+                <TabsList variant={"line"}>
+                    <TabsTrigger value={"MINIMAL"}>
+                        <Sprout/>
+                        Minimal
+                    </TabsTrigger>
+                    <TabsTrigger value={"STANDARD"}>
+                        <Gauge/>
+                        Standard
+                    </TabsTrigger>
+                    <TabsTrigger value={"LARGE"}>
+                        <Rocket/>
+                        Large
+                    </TabsTrigger>
+                </TabsList>
+
+                <TabsContent value={"MINIMAL"} className={"my-1"}>
+                    <p className={"text-sm text-secondary-foreground"}>Single connection per broker and short timeouts for small or local clusters.</p>
+                </TabsContent>
+                <TabsContent value={"STANDARD"} className={"my-1"}>
+                    <p className={"text-sm text-secondary-foreground"}>Balanced connection pool and timeouts suitable for most clusters.</p>
+                </TabsContent>
+                <TabsContent value={"LARGE"} className={"my-1"}>
+                    <p className={"text-sm text-secondary-foreground"}>More connections per broker and longer timeouts for large, busy clusters.</p>
+                </TabsContent>
+            </Tabs>
         </div>
     );
 }
\ No newline at end of file
@@ -1,13 +1,18 @@
 package io.interfero;
 
+import io.interfero.clusters.ClusterClientsConfiguration;
+import io.interfero.clusters.ClusterHealthConfiguration;
+import io.interfero.clusters.ClustersConfiguration;
 import io.interfero.frontend.StaticResourcesConfiguration;
 import io.interfero.frontend.ViteConfiguration;
+import io.interfero.stats.StatsConfiguration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.jdbc.autoconfigure.DataSourceAutoConfiguration;
 import org.springframework.boot.liquibase.autoconfigure.LiquibaseAutoConfiguration;
 import org.springframework.boot.pulsar.autoconfigure.PulsarAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -17,9 +22,14 @@ import org.springframework.web.bind.annotation.RestController;
         LiquibaseAutoConfiguration.class,
         PulsarAutoConfiguration.class
 })
+@EnableScheduling
 @EnableConfigurationProperties(value = {
         ViteConfiguration.class,
-        StaticResourcesConfiguration.class
+        StaticResourcesConfiguration.class,
+        ClusterClientsConfiguration.class,
+        ClusterHealthConfiguration.class,
+        ClustersConfiguration.class,
+        StatsConfiguration.class
 })
 public class InterferoApplication
 {
@@ -0,0 +1,24 @@
+package io.interfero.clusters;
+
+import lombok.Getter;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@ConfigurationProperties("interfero.clusters.clients")
+public class ClusterClientsConfiguration
+{
+    private final Duration initializationTimeout;
+    private final boolean lazyClientCreation;
+    private final Duration idleTimeout;
+
+    public ClusterClientsConfiguration(@Nullable Duration initializationTimeout, @Nullable Boolean lazyClientCreation,
+                                       @Nullable Duration idleTimeout)
+    {
+        this.initializationTimeout = initializationTimeout == null ? Duration.ofSeconds(30) : initializationTimeout;
+        this.lazyClientCreation = lazyClientCreation != null && lazyClientCreation;
+        this.idleTimeout = idleTimeout == null ? Duration.ofMinutes(5) : idleTimeout;
+    }
+}
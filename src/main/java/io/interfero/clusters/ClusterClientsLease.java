@@ -0,0 +1,39 @@
+package io.interfero.clusters;
+
+import org.apache.pulsar.client.admin.PulsarAdmin;
+import org.apache.pulsar.client.api.PulsarClient;
+
+/**
+ * Lease on the Pulsar Client and Admin registered for a cluster. As long as the lease is held, the clients will not be
+ * closed - even if the cluster is re-registered in the meantime. Leases should be held only for the duration of a
+ * single operation and must be closed afterward, preferably with try-with-resources.
+ */
+public interface ClusterClientsLease extends AutoCloseable
+{
+    /**
+     * Returns the id (or configured name) of the cluster the clients belong to.
+     * @return Cluster id
+     */
+    String getClusterId();
+
+    /**
+     * Returns the leased Pulsar Admin.
+     * @return The Pulsar Admin
+     * @throws IllegalStateException if the lease was already closed
+     */
+    PulsarAdmin getPulsarAdmin();
+
+    /**
+     * Returns the leased Pulsar Client. If lazy client creation is enabled, the Pulsar Client is created on the first
+     * call of this method, so it should only be called by features actually requiring the binary protocol.
+     * @return The Pulsar Client
+     * @throws IllegalStateException if the lease was already closed
+     */
+    PulsarClient getPulsarClient();
+
+    /**
+     * Releases the lease. Calling this method more than once has no effect.
+     */
+    @Override
+    void close();
+}
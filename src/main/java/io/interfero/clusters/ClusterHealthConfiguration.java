@@ -0,0 +1,21 @@
+package io.interfero.clusters;
+
+import lombok.Getter;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@ConfigurationProperties("interfero.clusters.health")
+public class ClusterHealthConfiguration
+{
+    private final Duration probeTimeout;
+    private final int failureThreshold;
+
+    public ClusterHealthConfiguration(@Nullable Duration probeTimeout, @Nullable Integer failureThreshold)
+    {
+        this.probeTimeout = probeTimeout == null ? Duration.ofSeconds(3) : probeTimeout;
+        this.failureThreshold = failureThreshold == null ? 3 : failureThreshold;
+    }
+}
@@ -0,0 +1,9 @@
+package io.interfero.clusters;
+
+public class ClusterUnavailableException extends RuntimeException
+{
+    public ClusterUnavailableException(String message)
+    {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package io.interfero.clusters;
+
+import lombok.Getter;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@ConfigurationProperties("interfero.clusters")
+public class ClustersConfiguration
+{
+    private final Duration listingTimeout;
+
+    public ClustersConfiguration(@Nullable Duration listingTimeout)
+    {
+        this.listingTimeout = listingTimeout == null ? Duration.ofSeconds(2) : listingTimeout;
+    }
+}
@@ -1,96 +1,34 @@
 package io.interfero.clusters;
 
-import io.interfero.pulsar.PulsarConfiguration;
-import org.apache.pulsar.client.admin.PulsarAdmin;
-import org.apache.pulsar.client.api.PulsarClient;
-import org.springframework.boot.pulsar.autoconfigure.PulsarProperties;
-import org.springframework.stereotype.Service;
-
-import java.util.*;
-
-@Service
-public class PulsarClusterRegistry
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Registry holding the Pulsar Clients and Admins of all clusters - both the ones stored in the data storage and the
+ * ones configured via <code>interfero.pulsar.clusters</code>. The clients are handed out as leases, so they can be
+ * swapped at any time without breaking in-flight calls.
+ */
+public interface PulsarClusterRegistry
 {
-    private final PulsarConfiguration pulsarConfiguration;
-    private final Map<String, PulsarClient> pulsarClients = new HashMap<>();
-    private final Map<String, PulsarAdmin> pulsarAdmins = new HashMap<>();
-
-    PulsarClusterRegistry(PulsarConfiguration pulsarConfiguration)
-    {
-        this.pulsarConfiguration = pulsarConfiguration;
-
-        initPulsarClientsAndAdmins();
-    }
-
     /**
      * Returns a list of configured Pulsar cluster names. These names must not match the actual cluster names in Pulsar,
      * they are just identifiers from the configuration.
      * @return Set of configured cluster names
      */
-    public Set<String> getConfiguredClusterNames()
-    {
-        return pulsarClients.keySet();
-    }
+    Set<String> getConfiguredClusterNames();
 
     /**
-     * Returns the Pulsar client for the given cluster name.
-     * @param clusterName The name of the cluster as defined in the configuration
-     * @return Pulsar client for the given cluster name
-     * @throws IllegalArgumentException if the cluster name is not found
+     * Returns the ids of all clusters with registered clients, including the names of the configured clusters.
+     * @return Set of cluster ids
      */
-    public PulsarClient getPulsarClient(String clusterName)
-    {
-        if (!pulsarClients.containsKey(clusterName))
-            throw new IllegalArgumentException("Pulsar cluster not found: " + clusterName);
-        return pulsarClients.get(clusterName);
-    }
+    Set<String> getRegisteredClusterIds();
 
     /**
-     * Returns the Pulsar admin for the given cluster name.
-     * @param clusterName The name of the cluster as defined in the configuration
-     * @return Pulsar admin for the given cluster name
-     * @throws IllegalArgumentException if the cluster name is not found
+     * Acquires a lease on the Pulsar Client and Admin of the given cluster. The lease must be closed once the
+     * operation has finished.
+     * @param clusterId Cluster id or the name of the cluster as defined in the configuration
+     * @return Lease on the registered clients, or empty if no clients are registered for the given cluster
+     * @throws ClusterUnavailableException if the circuit for the cluster is open
      */
-    public PulsarAdmin getPulsarAdmin(String clusterName)
-    {
-        if (!pulsarAdmins.containsKey(clusterName))
-            throw new IllegalArgumentException("Pulsar cluster not found: " + clusterName);
-        return pulsarAdmins.get(clusterName);
-    }
-
-    private void initPulsarClientsAndAdmins()
-    {
-        pulsarConfiguration.getClusters().forEach(this::initPulsarClient);
-        pulsarConfiguration.getClusters().forEach(this::initPulsarAdmin);
-    }
-
-    private void initPulsarClient(String clusterName, PulsarProperties properties)
-    {
-        try
-        {
-            var client = PulsarClient.builder()
-                    .serviceUrl(properties.getClient().getServiceUrl())
-                    .build();
-            pulsarClients.put(clusterName, client);
-        }
-        catch (Exception e)
-        {
-            throw new RuntimeException("Failed to create Pulsar client for cluster: " + clusterName, e);
-        }
-    }
-
-    private void initPulsarAdmin(String clusterName, PulsarProperties properties)
-    {
-        try
-        {
-            var admin = PulsarAdmin.builder()
-                    .serviceHttpUrl(properties.getAdmin().getServiceUrl())
-                    .build();
-            pulsarAdmins.put(clusterName, admin);
-        }
-        catch (Exception e)
-        {
-            throw new RuntimeException("Failed to create Pulsar admin for cluster: " + clusterName, e);
-        }
-    }
+    Optional<ClusterClientsLease> acquireClients(String clusterId);
 }
@@ -2,11 +2,30 @@ package io.interfero.clusters.domain;
 
 import org.jspecify.annotations.Nullable;
 
+import java.util.Objects;
+
+/**
+ * Stored connection settings of a cluster. A missing tuning profile falls back to
+ * {@link ClusterConnectionTuningProfile#STANDARD}.
+ */
 public record ClusterConnectionSettingsEntity(@Nullable Long id,
                                               String serviceUrl,
                                               ClusterAuthenticationMethod authenticationMethod,
-                                              @Nullable String authenticationDetails)
+                                              @Nullable String authenticationDetails,
+                                              @Nullable ClusterConnectionTuningProfile tuningProfile)
 {
+    public ClusterConnectionSettingsEntity
+    {
+        tuningProfile = Objects.requireNonNullElse(tuningProfile, ClusterConnectionTuningProfile.STANDARD);
+    }
+
+    public ClusterConnectionSettingsEntity(@Nullable Long id, String serviceUrl,
+                                           ClusterAuthenticationMethod authenticationMethod,
+                                           @Nullable String authenticationDetails)
+    {
+        this(id, serviceUrl, authenticationMethod, authenticationDetails, ClusterConnectionTuningProfile.STANDARD);
+    }
+
     @Override
     public String toString()
     {
@@ -14,6 +33,7 @@ public record ClusterConnectionSettingsEntity(@Nullable Long id,
                 "id=" + id +
                 ", serviceUrl='" + serviceUrl + '\'' +
                 ", authenticationMethod=" + authenticationMethod +
+                ", tuningProfile=" + tuningProfile +
                 ']';
     }
 }
@@ -0,0 +1,27 @@
+package io.interfero.clusters.domain;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+
+/**
+ * Tuning profile applied when building the Pulsar Client or Admin for a cluster connection. Small clusters should use
+ * {@link #MINIMAL} to keep the resource usage low, large clusters with many concurrent admin requests benefit from
+ * {@link #LARGE}. {@link #STANDARD} matches the Pulsar defaults.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ClusterConnectionTuningProfile
+{
+    MINIMAL(1, Duration.ofSeconds(30), Duration.ofSeconds(10), Duration.ofSeconds(30), Duration.ofSeconds(60), 2),
+    STANDARD(1, Duration.ofSeconds(30), Duration.ofSeconds(60), Duration.ofSeconds(60), Duration.ofSeconds(300), 16),
+    LARGE(4, Duration.ofSeconds(60), Duration.ofSeconds(10), Duration.ofSeconds(120), Duration.ofSeconds(300), 64);
+
+    private final int connectionsPerBroker;
+    private final Duration operationTimeout;
+    private final Duration adminConnectTimeout;
+    private final Duration adminReadTimeout;
+    private final Duration adminRequestTimeout;
+    private final int adminMaxConnectionsPerHost;
+}
@@ -19,6 +19,15 @@ public class ClusterEntity
     @Nullable
     private String internalName;
 
+    @Setter
+    @EqualsAndHashCode.Exclude
+    private ClusterHealthStatus healthStatus = ClusterHealthStatus.HEALTHY;
+
+    @Setter
+    @Nullable
+    @EqualsAndHashCode.Exclude
+    private String error;
+
     public ClusterEntity(@Nullable String id, String displayName, String icon, String color,
                          Long clientConnectionSettingsId, Long adminConnectionSettingsId)
     {
@@ -29,4 +38,15 @@ public class ClusterEntity
         this.adminConnectionSettingsId = adminConnectionSettingsId;
         this.clientConnectionSettingsId = clientConnectionSettingsId;
     }
+
+    /**
+     * Copies the persistent attributes of the cluster, so stored or cached instances cannot be modified by callers.
+     * @return A copy of this cluster without health status and error
+     */
+    public ClusterEntity copy()
+    {
+        var copy = new ClusterEntity(id, displayName, icon, color, clientConnectionSettingsId, adminConnectionSettingsId);
+        copy.setInternalName(internalName);
+        return copy;
+    }
 }
@@ -0,0 +1,41 @@
+package io.interfero.clusters.domain;
+
+import org.jspecify.annotations.Nullable;
+
+import java.time.Instant;
+
+/**
+ * Result of the health probes for a single cluster.
+ * @param clusterId ID of the cluster
+ * @param status Current health status
+ * @param consecutiveFailures Number of failed probes since the last successful one
+ * @param message Error message of the last failed probe, or null if the last probe succeeded
+ * @param timestamp Point in time of the last probe
+ */
+public record ClusterHealth(String clusterId,
+                            ClusterHealthStatus status,
+                            int consecutiveFailures,
+                            @Nullable String message,
+                            Instant timestamp)
+{
+    public static ClusterHealth healthy(String clusterId)
+    {
+        return new ClusterHealth(clusterId, ClusterHealthStatus.HEALTHY, 0, null, Instant.now());
+    }
+
+    /**
+     * Creates the health following a failed probe. The circuit opens once the failure threshold is reached.
+     * @param previous Health before the probe, or null if the cluster was not probed before
+     * @param clusterId ID of the cluster
+     * @param message Error message of the failed probe
+     * @param failureThreshold Number of consecutive failures after which the circuit opens
+     * @return Health after the failed probe
+     */
+    public static ClusterHealth failed(@Nullable ClusterHealth previous, String clusterId, String message,
+                                       int failureThreshold)
+    {
+        var failures = previous == null ? 1 : previous.consecutiveFailures() + 1;
+        var status = failures >= failureThreshold ? ClusterHealthStatus.OPEN : ClusterHealthStatus.DEGRADED;
+        return new ClusterHealth(clusterId, status, failures, message, Instant.now());
+    }
+}
@@ -0,0 +1,23 @@
+package io.interfero.clusters.domain;
+
+/**
+ * Health of a cluster as determined by the periodic health probes.
+ */
+public enum ClusterHealthStatus
+{
+    /**
+     * The last probe succeeded.
+     */
+    HEALTHY,
+
+    /**
+     * At least one of the recent probes failed, but the failure threshold is not reached yet. Calls are still executed.
+     */
+    DEGRADED,
+
+    /**
+     * The failure threshold is reached and the circuit is open. Calls against the cluster fail immediately until a
+     * probe succeeds again.
+     */
+    OPEN
+}
@@ -3,11 +3,18 @@ package io.interfero.clusters.domain;
 import org.jspecify.annotations.Nullable;
 
 public record ClusterInfo(String name,
-                          String internalName,
+                          @Nullable String internalName,
                           @Nullable String displayName,
                           @Nullable String icon,
-                          @Nullable String color)
+                          @Nullable String color,
+                          @Nullable String error)
 {
+    public ClusterInfo(String name, @Nullable String internalName, @Nullable String displayName,
+                       @Nullable String icon, @Nullable String color)
+    {
+        this(name, internalName, displayName, icon, color, null);
+    }
+
     /**
      * Indicates whether this cluster info has all attributes defined.
      * @return true if all attributes are defined, false otherwise
@@ -19,7 +26,7 @@ public record ClusterInfo(String name,
                 color != null && !color.isBlank();
     }
 
-    public static ClusterInfo from(ClusterInfoRecord record, String internalName)
+    public static ClusterInfo from(ClusterInfoRecord record, @Nullable String internalName)
     {
         return new ClusterInfo(
                 record.name(),
@@ -29,4 +36,22 @@ public record ClusterInfo(String name,
                 record.color()
         );
     }
+
+    /**
+     * Creates a cluster info for a cluster whose internal name could not be determined.
+     * @param record Stored cluster info record
+     * @param error Reason why the internal name could not be determined
+     * @return Cluster info without internal name
+     */
+    public static ClusterInfo failed(ClusterInfoRecord record, String error)
+    {
+        return new ClusterInfo(
+                record.name(),
+                null,
+                record.displayName(),
+                record.icon(),
+                record.color(),
+                error
+        );
+    }
 }
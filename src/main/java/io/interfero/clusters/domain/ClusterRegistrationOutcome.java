@@ -0,0 +1,33 @@
+package io.interfero.clusters.domain;
+
+import org.jspecify.annotations.Nullable;
+
+import java.time.Instant;
+
+/**
+ * Outcome of the Pulsar Client and Admin registration for a single cluster.
+ * @param clusterId ID of the cluster
+ * @param status Current registration status
+ * @param message Reason for a degraded or failed registration (or null if registered)
+ * @param timestamp Point in time the status was determined
+ */
+public record ClusterRegistrationOutcome(String clusterId,
+                                         ClusterRegistrationStatus status,
+                                         @Nullable String message,
+                                         Instant timestamp)
+{
+    public static ClusterRegistrationOutcome registered(String clusterId)
+    {
+        return new ClusterRegistrationOutcome(clusterId, ClusterRegistrationStatus.REGISTERED, null, Instant.now());
+    }
+
+    public static ClusterRegistrationOutcome degraded(String clusterId, String message)
+    {
+        return new ClusterRegistrationOutcome(clusterId, ClusterRegistrationStatus.DEGRADED, message, Instant.now());
+    }
+
+    public static ClusterRegistrationOutcome failed(String clusterId, String message)
+    {
+        return new ClusterRegistrationOutcome(clusterId, ClusterRegistrationStatus.FAILED, message, Instant.now());
+    }
+}
@@ -0,0 +1,19 @@
+package io.interfero.clusters.domain;
+
+public enum ClusterRegistrationStatus
+{
+    /**
+     * Pulsar Client and Admin are registered and ready to use.
+     */
+    REGISTERED,
+
+    /**
+     * The registration did not complete within the startup deadline and is still running in the background.
+     */
+    DEGRADED,
+
+    /**
+     * The registration failed and will be retried in the background.
+     */
+    FAILED
+}
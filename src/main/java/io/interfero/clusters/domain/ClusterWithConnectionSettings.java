@@ -0,0 +1,15 @@
+package io.interfero.clusters.domain;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A stored cluster together with its client and admin connection settings, loaded in one go.
+ * @param cluster The cluster
+ * @param clientConnectionSettings Connection settings for the Pulsar Client (or null if they do not exist)
+ * @param adminConnectionSettings Connection settings for the Pulsar Admin (or null if they do not exist)
+ */
+public record ClusterWithConnectionSettings(ClusterEntity cluster,
+                                            @Nullable ClusterConnectionSettingsEntity clientConnectionSettings,
+                                            @Nullable ClusterConnectionSettingsEntity adminConnectionSettings)
+{
+}
@@ -1,6 +1,7 @@
 package io.interfero.clusters.dtos;
 
 import io.interfero.clusters.domain.ClusterAuthenticationMethod;
+import io.interfero.clusters.domain.ClusterConnectionTuningProfile;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import org.jspecify.annotations.Nullable;
@@ -13,12 +14,22 @@ import org.jspecify.annotations.Nullable;
  * @param authenticationDetails Details required for the authentication method (e.g., token, username/password, etc.) -
  *                              can be null if no authentication ({@link ClusterAuthenticationMethod#NO_AUTH}) is
  *                              required
+ * @param tuningProfile Tuning profile applied to the client or admin - defaults to
+ *                      {@link ClusterConnectionTuningProfile#STANDARD} if null
  */
 public record ClusterConnectionSettings(@Nullable @jakarta.annotation.Nullable Long id,
                                         @NotNull @NotBlank String serviceUrl,
                                         @NotNull ClusterAuthenticationMethod authenticationMethod,
-                                        @Nullable String authenticationDetails)
+                                        @Nullable String authenticationDetails,
+                                        @Nullable @jakarta.annotation.Nullable ClusterConnectionTuningProfile tuningProfile)
 {
+    public ClusterConnectionSettings(@Nullable Long id, String serviceUrl,
+                                     ClusterAuthenticationMethod authenticationMethod,
+                                     @Nullable String authenticationDetails)
+    {
+        this(id, serviceUrl, authenticationMethod, authenticationDetails, null);
+    }
+
     @Override
     public String toString()
     {
@@ -26,6 +37,7 @@ public record ClusterConnectionSettings(@Nullable @jakarta.annotation.Nullable L
                 "id=" + id +
                 ", serviceUrl='" + serviceUrl + '\'' +
                 ", authenticationMethod=" + authenticationMethod +
+                ", tuningProfile=" + tuningProfile +
                 ']';
     }
 }
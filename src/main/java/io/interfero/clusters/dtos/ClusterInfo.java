@@ -1,5 +1,6 @@
 package io.interfero.clusters.dtos;
 
+import io.interfero.clusters.domain.ClusterHealthStatus;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
@@ -12,13 +13,23 @@ import org.jspecify.annotations.Nullable;
  * @param displayName Display name of the cluster
  * @param icon Icon representing the cluster
  * @param color Color representing the cluster in HEX format (e.g., #FF12AB)
+ * @param healthStatus Health of the cluster as determined by the last probes (or null on creation)
+ * @param error Reason why the cluster could not be fully resolved, or null if it was resolved successfully
  */
 public record ClusterInfo(@Nullable @jakarta.annotation.Nullable String clusterId,
                           @Nullable @jakarta.annotation.Nullable String internalName,
                           @NotNull @NotBlank String displayName,
                           @NotNull @NotBlank String icon,
-                          @NotNull @NotBlank @Pattern(regexp = "^#([A-Fa-f0-9]{6})$") String color)
+                          @NotNull @NotBlank @Pattern(regexp = "^#([A-Fa-f0-9]{6})$") String color,
+                          @Nullable @jakarta.annotation.Nullable ClusterHealthStatus healthStatus,
+                          @Nullable @jakarta.annotation.Nullable String error)
 {
+    public ClusterInfo(@Nullable String clusterId, @Nullable String internalName, String displayName, String icon,
+                       String color)
+    {
+        this(clusterId, internalName, displayName, icon, color, null, null);
+    }
+
     @Override
     public String toString()
     {
@@ -26,6 +37,8 @@ public record ClusterInfo(@Nullable @jakarta.annotation.Nullable String clusterI
                 "clusterId='" + clusterId + '\'' +
                 ", internalName='" + internalName + '\'' +
                 ", displayName='" + displayName + '\'' +
+                ", healthStatus=" + healthStatus +
+                ", error='" + error + '\'' +
                 ']';
     }
 }
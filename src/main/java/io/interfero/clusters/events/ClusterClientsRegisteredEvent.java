@@ -1,10 +1,10 @@
 package io.interfero.clusters.events;
 
-import org.apache.pulsar.client.admin.PulsarAdmin;
-import org.apache.pulsar.client.api.PulsarClient;
-
-public record ClusterClientsRegisteredEvent(String clusterId,
-                                            PulsarClient pulsarClient,
-                                            PulsarAdmin pulsarAdmin)
+/**
+ * Published once the Pulsar Client and Admin for a cluster are registered. The clients themselves are not part of the
+ * event, as they might be swapped at any time - acquire a lease from the registry to use them.
+ * @param clusterId ID of the cluster
+ */
+public record ClusterClientsRegisteredEvent(String clusterId)
 {
 }
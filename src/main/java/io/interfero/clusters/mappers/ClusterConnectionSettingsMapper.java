@@ -18,7 +18,7 @@ public class ClusterConnectionSettingsMapper
     public ClusterConnectionSettingsEntity toEntity(ClusterConnectionSettings dto)
     {
         return new ClusterConnectionSettingsEntity(dto.id(), dto.serviceUrl(),
-                dto.authenticationMethod(), dto.authenticationDetails());
+                dto.authenticationMethod(), dto.authenticationDetails(), dto.tuningProfile());
     }
 
     /**
@@ -29,6 +29,6 @@ public class ClusterConnectionSettingsMapper
     public ClusterConnectionSettings toDto(ClusterConnectionSettingsEntity entity)
     {
         return new ClusterConnectionSettings(entity.id(), entity.serviceUrl(),
-                entity.authenticationMethod(), entity.authenticationDetails());
+                entity.authenticationMethod(), entity.authenticationDetails(), entity.tuningProfile());
     }
 }
@@ -22,7 +22,9 @@ public class ClusterInfoMapper
                 cluster.getInternalName(),
                 cluster.getDisplayName(),
                 cluster.getIcon(),
-                cluster.getColor());
+                cluster.getColor(),
+                cluster.getHealthStatus(),
+                cluster.getError());
     }
 
     /**
@@ -0,0 +1,102 @@
+package io.interfero.clusters.repositories;
+
+import io.interfero.clusters.domain.ClusterConnectionSettingsEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Caches the connection settings of the {@link ClusterConnectionSettingsJdbcRepository} locally, so they are not read
+ * from the database on every request. Invalidated like the {@link CachingClusterRepository}.
+ */
+@Slf4j
+@Primary
+@Repository
+@ConditionalOnProperty(value = "interfero.database.enabled", havingValue = "true")
+public class CachingClusterConnectionSettingsRepository implements ClusterConnectionSettingsRepository
+{
+    private final ClusterConnectionSettingsJdbcRepository delegate;
+    private final ClusterChangeChannel changeChannel;
+    private final RepositoryCache<Long, ClusterConnectionSettingsEntity> cache =
+            new RepositoryCache<>(ClusterConnectionSettingsEntity::id, UnaryOperator.identity());
+
+    CachingClusterConnectionSettingsRepository(ClusterConnectionSettingsJdbcRepository delegate,
+                                               ClusterChangeChannel changeChannel)
+    {
+        this.delegate = delegate;
+        this.changeChannel = changeChannel;
+    }
+
+    @Override
+    public Set<ClusterConnectionSettingsEntity> findAll()
+    {
+        return cache.findAll(delegate::findAll);
+    }
+
+    @Override
+    public Optional<ClusterConnectionSettingsEntity> findById(Long id)
+    {
+        return cache.find(id, delegate::findById);
+    }
+
+    @Override
+    public ClusterConnectionSettingsEntity save(ClusterConnectionSettingsEntity clusterConnectionSettings)
+    {
+        var savedSettings = delegate.save(clusterConnectionSettings);
+        changed(savedSettings.id());
+        return savedSettings;
+    }
+
+    @Override
+    public List<ClusterConnectionSettingsEntity> saveAll(Collection<ClusterConnectionSettingsEntity> clusterConnectionSettings)
+    {
+        var savedSettings = delegate.saveAll(clusterConnectionSettings);
+        savedSettings.forEach(settings -> changed(settings.id()));
+        return savedSettings;
+    }
+
+    @Override
+    public void deleteById(Long id)
+    {
+        delegate.deleteById(id);
+        changed(id);
+    }
+
+    @Override
+    public void deleteAll()
+    {
+        delegate.deleteAll();
+        cache.invalidateAll();
+        changeChannel.publish(RemoteClusterChangeEvent.Type.CONNECTION_SETTINGS, null);
+    }
+
+    private void changed(Long id)
+    {
+        cache.invalidate(id);
+        changeChannel.publish(RemoteClusterChangeEvent.Type.CONNECTION_SETTINGS, id);
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE) // Before other listeners read the changed settings
+    void onRemoteClusterChange(RemoteClusterChangeEvent event)
+    {
+        if (event.type() != RemoteClusterChangeEvent.Type.CONNECTION_SETTINGS)
+            return;
+
+        log.debug("Invalidating cached connection settings changed by another replica: {}", event);
+        if (event.id() == null)
+            cache.invalidateAll();
+        else
+            cache.invalidate(Long.valueOf(event.id()));
+    }
+}
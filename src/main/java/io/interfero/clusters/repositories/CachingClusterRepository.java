@@ -0,0 +1,124 @@
+package io.interfero.clusters.repositories;
+
+import io.interfero.clusters.domain.ClusterEntity;
+import io.interfero.clusters.domain.ClusterWithConnectionSettings;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Caches the clusters of the {@link ClusterJdbcRepository} locally, so they are not read from the database on every
+ * request. Local modifications invalidate the cached clusters and are announced to the other replicas via the
+ * {@link ClusterChangeChannel}, modifications of other replicas invalidate them via {@link RemoteClusterChangeEvent}s.
+ * The joined clusters with their connection settings are only loaded on startup and retries, so they are not cached.
+ */
+@Slf4j
+@Primary
+@Repository
+@ConditionalOnProperty(value = "interfero.database.enabled", havingValue = "true")
+public class CachingClusterRepository implements ClusterRepository
+{
+    private final ClusterJdbcRepository delegate;
+    private final ClusterChangeChannel changeChannel;
+    private final RepositoryCache<String, ClusterEntity> cache = new RepositoryCache<>(ClusterEntity::getId,
+            ClusterEntity::copy);
+
+    CachingClusterRepository(ClusterJdbcRepository delegate, ClusterChangeChannel changeChannel)
+    {
+        this.delegate = delegate;
+        this.changeChannel = changeChannel;
+    }
+
+    @Override
+    public Set<ClusterEntity> findAll()
+    {
+        return cache.findAll(delegate::findAll);
+    }
+
+    @Override
+    public Optional<ClusterEntity> findById(String id)
+    {
+        return cache.find(id, delegate::findById);
+    }
+
+    @Override
+    public List<ClusterWithConnectionSettings> findAllWithConnectionSettings()
+    {
+        return delegate.findAllWithConnectionSettings();
+    }
+
+    @Override
+    public Optional<ClusterWithConnectionSettings> findByIdWithConnectionSettings(String id)
+    {
+        return delegate.findByIdWithConnectionSettings(id);
+    }
+
+    @Override
+    public ClusterEntity save(ClusterEntity cluster)
+    {
+        var savedCluster = delegate.save(cluster);
+        changed(savedCluster.getId());
+        return savedCluster;
+    }
+
+    @Override
+    public List<ClusterEntity> saveAll(Collection<ClusterEntity> clusters)
+    {
+        var savedClusters = delegate.saveAll(clusters);
+        savedClusters.forEach(cluster -> changed(cluster.getId()));
+        return savedClusters;
+    }
+
+    @Override
+    public void updateInternalName(String id, String internalName)
+    {
+        delegate.updateInternalName(id, internalName);
+        cache.invalidate(id);
+        changeChannel.publish(RemoteClusterChangeEvent.Type.CLUSTER_INTERNAL_NAME, id);
+    }
+
+    @Override
+    public void deleteById(String id)
+    {
+        delegate.deleteById(id);
+        changed(id);
+    }
+
+    @Override
+    public void deleteAll()
+    {
+        delegate.deleteAll();
+        cache.invalidateAll();
+        changeChannel.publish(RemoteClusterChangeEvent.Type.CLUSTER, null);
+    }
+
+    private void changed(String id)
+    {
+        cache.invalidate(id);
+        changeChannel.publish(RemoteClusterChangeEvent.Type.CLUSTER, id);
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE) // Before other listeners read the changed clusters
+    void onRemoteClusterChange(RemoteClusterChangeEvent event)
+    {
+        if (event.type() != RemoteClusterChangeEvent.Type.CLUSTER
+                && event.type() != RemoteClusterChangeEvent.Type.CLUSTER_INTERNAL_NAME)
+            return;
+
+        log.debug("Invalidating cached cluster changed by another replica: {}", event);
+        if (event.id() == null)
+            cache.invalidateAll();
+        else
+            cache.invalidate(event.id());
+    }
+}
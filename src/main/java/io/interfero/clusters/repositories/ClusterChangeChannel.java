@@ -0,0 +1,219 @@
+package io.interfero.clusters.repositories;
+
+import io.interfero.database.DatabaseConnectionConsumer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Propagates changes of clusters and connection settings between all Interfero replicas sharing the same database via
+ * Postgres <code>LISTEN/NOTIFY</code>. Local changes are announced on the {@value #CHANNEL} channel, tagged with the id
+ * of this replica. Notifications of other replicas are published as {@link RemoteClusterChangeEvent}s.
+ * <p>
+ * The notifications are received on a dedicated pooled connection by a virtual thread. If that connection is lost, it
+ * is re-established after the configured reconnect interval - as notifications might have been missed in the meantime,
+ * all clusters and connection settings are considered changed then.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "interfero.database.enabled", havingValue = "true")
+class ClusterChangeChannel implements DatabaseConnectionConsumer
+{
+    static final String CHANNEL = "interfero_cluster_changes";
+
+    private static final int POLL_TIMEOUT_MILLIS = 1000;
+
+    private final DataSource dataSource;
+    private final JdbcClient jdbcClient;
+    private final JsonMapper jsonMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration reconnectInterval;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private volatile boolean closing;
+
+    @Nullable
+    private Thread listenerThread;
+
+    ClusterChangeChannel(DataSource dataSource,
+                         JdbcClient jdbcClient,
+                         JsonMapper jsonMapper,
+                         ApplicationEventPublisher eventPublisher,
+                         @Value("${interfero.database.notification-reconnect-interval:5s}") Duration reconnectInterval)
+    {
+        this.dataSource = dataSource;
+        this.jdbcClient = jdbcClient;
+        this.jsonMapper = jsonMapper;
+        this.eventPublisher = eventPublisher;
+        this.reconnectInterval = reconnectInterval;
+    }
+
+    @Override
+    public int getRequiredConnections()
+    {
+        return 1; // Held permanently for listening
+    }
+
+    /**
+     * Notifies all other replicas about a local change. A failed notification is only logged, as the change itself is
+     * already stored - the other replicas pick it up once their caches are invalidated the next time.
+     * @param type Type of the changed entity
+     * @param id ID of the changed entity, or null if all entities of the type were changed
+     */
+    void publish(RemoteClusterChangeEvent.Type type, @Nullable Object id)
+    {
+        var notification = new Notification(instanceId, type, id == null ? null : id.toString());
+
+        try
+        {
+            jdbcClient.sql("SELECT pg_notify(:channel, :payload)")
+                    .param("channel", CHANNEL)
+                    .param("payload", jsonMapper.writeValueAsString(notification))
+                    .query()
+                    .listOfRows();
+        }
+        catch (DataAccessException e)
+        {
+            log.warn("Failed to notify other replicas about change: {}", notification, e);
+        }
+    }
+
+    @PostConstruct
+    void start()
+    {
+        listenerThread = Thread.ofVirtual().name("cluster-change-listener").start(this::listen);
+    }
+
+    private void listen()
+    {
+        var reconnect = false;
+
+        while (!closing)
+        {
+            try (var connection = dataSource.getConnection())
+            {
+                var pgConnection = connection.unwrap(PGConnection.class);
+                try (var statement = connection.createStatement())
+                {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.debug("Listening for cluster changes of other replicas on channel '{}'", CHANNEL);
+
+                if (reconnect)
+                {
+                    dispatch(new RemoteClusterChangeEvent(RemoteClusterChangeEvent.Type.CLUSTER, null));
+                    dispatch(new RemoteClusterChangeEvent(RemoteClusterChangeEvent.Type.CONNECTION_SETTINGS, null));
+                }
+
+                while (!closing)
+                {
+                    var notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications == null)
+                        continue;
+
+                    for (var notification : notifications)
+                        receive(notification.getParameter());
+                }
+
+                try (var statement = connection.createStatement())
+                {
+                    statement.execute("UNLISTEN " + CHANNEL);
+                }
+            }
+            catch (SQLException e)
+            {
+                if (closing)
+                    return;
+
+                log.warn("Lost connection for cluster change notifications - reconnecting in {}", reconnectInterval, e);
+                reconnect = true;
+                sleep(reconnectInterval);
+            }
+        }
+    }
+
+    private void receive(String payload)
+    {
+        try
+        {
+            var notification = jsonMapper.readValue(payload, Notification.class);
+            if (instanceId.equals(notification.origin()))
+                return; // Already applied locally
+
+            log.debug("Received cluster change of another replica: {}", notification);
+            dispatch(new RemoteClusterChangeEvent(notification.type(), notification.id()));
+        }
+        catch (JacksonException e)
+        {
+            log.warn("Ignoring malformed cluster change notification: {}", payload, e);
+        }
+    }
+
+    private void dispatch(RemoteClusterChangeEvent event)
+    {
+        try
+        {
+            eventPublisher.publishEvent(event);
+        }
+        catch (RuntimeException e)
+        {
+            log.error("Failed to handle {}", event, e);
+        }
+    }
+
+    private void sleep(Duration duration)
+    {
+        try
+        {
+            Thread.sleep(duration);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            closing = true;
+        }
+    }
+
+    @PreDestroy
+    void close()
+    {
+        closing = true;
+        if (listenerThread == null)
+            return;
+
+        // Not interrupted, as this would break the pooled connection - the listener stops after the next poll
+        try
+        {
+            listenerThread.join(POLL_TIMEOUT_MILLIS * 2L);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Payload of a notification on the {@value #CHANNEL} channel.
+     * @param origin ID of the replica which made the change
+     * @param type Type of the changed entity
+     * @param id ID of the changed entity, or null if all entities of the type were changed
+     */
+    record Notification(String origin, RemoteClusterChangeEvent.Type type, @Nullable String id)
+    {
+    }
+}
@@ -2,154 +2,121 @@ package io.interfero.clusters.repositories;
 
 import io.interfero.clusters.domain.ClusterConnectionSettingsEntity;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.FileUtils;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
-import tools.jackson.core.type.TypeReference;
-import tools.jackson.databind.ObjectWriter;
-import tools.jackson.databind.json.JsonMapper;
 
-import java.io.File;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.UnaryOperator;
 
 /**
- * File-based implementation of {@link ClusterConnectionSettingsRepository}.
+ * File-based implementation of {@link ClusterConnectionSettingsRepository}. The settings are kept in memory and written
+ * through to the file on every modification.
  */
 @Slf4j
 @Repository
 @ConditionalOnProperty(value = "interfero.database.enabled", havingValue = "false", matchIfMissing = true)
 public class ClusterConnectionSettingsFileRepository implements ClusterConnectionSettingsRepository
 {
-    private static final String CLUSTER_CONNECTION_SETTINGS_FILE = "cluster-connection-settings.json";
+    private static final String CLUSTER_CONNECTION_SETTINGS_FILE = "cluster-connection-settings";
 
-    private final JsonMapper jsonMapper;
-    private final ObjectWriter objectWriter;
-    private final File settingsFile;
+    private final FileStore<Long, ClusterConnectionSettingsEntity> fileStore;
 
-    public ClusterConnectionSettingsFileRepository(JsonMapper jsonMapper,
-                                                   @Value("${interfero.directories.data}") String dataDirectoryPath)
+    public ClusterConnectionSettingsFileRepository(FileStoreFactory fileStoreFactory)
     {
-        this.jsonMapper = jsonMapper;
-        this.objectWriter = jsonMapper.writerWithDefaultPrettyPrinter();
-        this.settingsFile = new File(dataDirectoryPath, CLUSTER_CONNECTION_SETTINGS_FILE);
+        this.fileStore = fileStoreFactory.create(CLUSTER_CONNECTION_SETTINGS_FILE, Long.class,
+                ClusterConnectionSettingsEntity.class, ClusterConnectionSettingsEntity::id, UnaryOperator.identity());
     }
 
     @Override
     public Set<ClusterConnectionSettingsEntity> findAll()
     {
-        try
-        {
-            log.trace("Reading all cluster connection settings from {}", settingsFile.getAbsolutePath());
-            return jsonMapper.readValue(settingsFile, new TypeReference<>() {});
-        }
-        catch (Exception e)
-        {
-            log.error("Error reading cluster connection settings from {}", settingsFile.getAbsolutePath(), e);
-            throw new RuntimeException(e);
-        }
+        return fileStore.findAll();
     }
 
     @Override
     public Optional<ClusterConnectionSettingsEntity> findById(Long id)
     {
-        return findById(findAll(), id);
+        return fileStore.find(id);
     }
 
-    private Optional<ClusterConnectionSettingsEntity> findById(Set<ClusterConnectionSettingsEntity> allSettings, Long id)
+    @Override
+    public ClusterConnectionSettingsEntity save(ClusterConnectionSettingsEntity clusterConnectionSettings)
     {
-        for (var settings : allSettings)
-        {
-            if (id.equals(settings.id()))
-                return Optional.of(settings);
-        }
-
-        return Optional.empty();
+        return saveAll(List.of(clusterConnectionSettings)).getFirst();
     }
 
     @Override
-    public ClusterConnectionSettingsEntity save(ClusterConnectionSettingsEntity clusterConnectionSettings)
+    public List<ClusterConnectionSettingsEntity> saveAll(Collection<ClusterConnectionSettingsEntity> clusterConnectionSettings)
     {
-        Set<ClusterConnectionSettingsEntity> allSettingsToSave = new HashSet<>(findAll());
-        var id = determineIdToSave(allSettingsToSave, clusterConnectionSettings);
-
-        var clusterSettingsToSave = new ClusterConnectionSettingsEntity(id,
-                clusterConnectionSettings.serviceUrl(),
-                clusterConnectionSettings.authenticationMethod(),
-                clusterConnectionSettings.authenticationDetails());
-
-        allSettingsToSave.removeIf(existingEntry ->
-                clusterSettingsToSave.id() != null && clusterSettingsToSave.id().equals(existingEntry.id()));
-        allSettingsToSave.add(clusterSettingsToSave);
-
-        saveAll(allSettingsToSave);
-        return findById(id).orElseThrow();
+        return fileStore.modify(allSettings -> {
+            var savedSettings = new ArrayList<ClusterConnectionSettingsEntity>(clusterConnectionSettings.size());
+            for (var settings : clusterConnectionSettings)
+            {
+                var id = determineIdToSave(allSettings, settings);
+                var clusterSettingsToSave = new ClusterConnectionSettingsEntity(id,
+                        settings.serviceUrl(),
+                        settings.authenticationMethod(),
+                        settings.authenticationDetails(),
+                        settings.tuningProfile());
+
+                allSettings.put(id, clusterSettingsToSave);
+                savedSettings.add(clusterSettingsToSave);
+            }
+
+            return savedSettings;
+        });
     }
 
-    private Long determineIdToSave(Set<ClusterConnectionSettingsEntity> allSettings,
+    private Long determineIdToSave(Map<Long, ClusterConnectionSettingsEntity> allSettings,
                                    ClusterConnectionSettingsEntity settingsToSave)
     {
-        if (settingsToSave.id() != null && findById(allSettings, settingsToSave.id()).isPresent())
+        if (settingsToSave.id() != null && allSettings.containsKey(settingsToSave.id()))
             return settingsToSave.id();
 
-        return getNextId();
+        return getNextId(allSettings);
     }
 
-    private Long getNextId()
+    private Long getNextId(Map<Long, ClusterConnectionSettingsEntity> allSettings)
     {
-        var existingSettings = findAll();
         long maxId = 0L;
 
-        for (var settings : existingSettings)
+        for (var id : allSettings.keySet())
         {
-            if (settings.id() != null && settings.id() > maxId)
-                maxId = settings.id();
+            if (id > maxId)
+                maxId = id;
         }
 
         return maxId + 1;
     }
 
-    private void saveAll(Set<ClusterConnectionSettingsEntity> settings)
-    {
-        log.trace("Saving {} cluster connection settings to file {}", settings.size(), settingsFile.getAbsolutePath());
-
-        try
-        {
-            FileUtils.createParentDirectories(settingsFile);
-            objectWriter.writeValue(settingsFile, settings);
-        }
-        catch (Exception e)
-        {
-            log.error("Error saving cluster connection settings to {}", settingsFile.getAbsolutePath(), e);
-            throw new RuntimeException(e);
-        }
-    }
-
     @Override
     public void deleteById(Long id)
     {
-        Set<ClusterConnectionSettingsEntity> allSettingsToSave = new HashSet<>(findAll());
-        allSettingsToSave.removeIf(existingEntry -> id.equals(existingEntry.id()));
-
-        saveAll(allSettingsToSave);
+        fileStore.remove(id);
     }
 
     @Override
     public void deleteAll()
     {
-        saveAll(Set.of());
+        fileStore.clear();
     }
 
     @PostConstruct
-    void createFileIfNotExists()
+    void open()
     {
-        if (settingsFile.exists())
-            return;
+        fileStore.open();
+    }
 
-        log.trace("Creating cluster info file {}", settingsFile.getAbsolutePath());
-        saveAll(Set.of());
+    @PreDestroy
+    void close()
+    {
+        fileStore.close();
     }
 }
@@ -1,16 +1,22 @@
 package io.interfero.clusters.repositories;
 
+import io.interfero.clusters.domain.ClusterAuthenticationMethod;
 import io.interfero.clusters.domain.ClusterConnectionSettingsEntity;
+import io.interfero.clusters.domain.ClusterConnectionTuningProfile;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.stereotype.Repository;
 
-import java.util.Objects;
-import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.*;
 
 /**
  * JDBC-based implementation of {@link ClusterConnectionSettingsRepository}. Currently, this implementation only
@@ -21,83 +27,160 @@ import java.util.stream.Collectors;
 @ConditionalOnProperty(value = "interfero.database.enabled", havingValue = "true")
 public class ClusterConnectionSettingsJdbcRepository implements ClusterConnectionSettingsRepository
 {
+    static final String COLUMNS = "id, service_url, authentication_method, authentication_details, tuning_profile";
+
+    static final RowMapper<ClusterConnectionSettingsEntity> ROW_MAPPER = (resultSet, _) -> mapColumns(resultSet, 1);
+
     private final JdbcClient jdbcClient;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
     @Override
     public Set<ClusterConnectionSettingsEntity> findAll()
     {
-        var sql = "SELECT * FROM cluster_connection_settings";
+        var sql = "SELECT " + COLUMNS + " FROM cluster_connection_settings";
 
         return jdbcClient.sql(sql)
-                .query(ClusterConnectionSettingsEntity.class)
-                .set()
-                .stream().filter(Objects::nonNull)
-                .collect(Collectors.toSet());
+                .query(ROW_MAPPER)
+                .set();
     }
 
     @Override
     public Optional<ClusterConnectionSettingsEntity> findById(Long id)
     {
-        var sql = "SELECT * FROM cluster_connection_settings WHERE id = :id";
+        var sql = "SELECT " + COLUMNS + " FROM cluster_connection_settings WHERE id = :id";
 
         return jdbcClient.sql(sql)
                 .param("id", id)
-                .query(ClusterConnectionSettingsEntity.class)
+                .query(ROW_MAPPER)
                 .optional();
     }
 
     @Override
     public ClusterConnectionSettingsEntity save(ClusterConnectionSettingsEntity clusterConnectionSettings)
     {
-        Long id = null;
-        if (clusterConnectionSettings.id() != null && findById(clusterConnectionSettings.id()).isPresent())
-            id = clusterConnectionSettings.id();
-
-        if (id != null)
-            return update(id, clusterConnectionSettings);
+        // Updates the settings if they exist, otherwise inserts them with a generated id - in a single round trip
+        var sql = """
+                WITH updated AS (
+                    UPDATE cluster_connection_settings
+                    SET service_url = :serviceUrl,
+                        authentication_method = :authenticationMethod,
+                        authentication_details = :authenticationDetails,
+                        tuning_profile = :tuningProfile
+                    WHERE id = :id
+                    RETURNING %1$s
+                ), inserted AS (
+                    INSERT INTO cluster_connection_settings (service_url, authentication_method, authentication_details, tuning_profile)
+                    SELECT :serviceUrl, :authenticationMethod, :authenticationDetails, :tuningProfile
+                    WHERE NOT EXISTS (SELECT 1 FROM updated)
+                    RETURNING %1$s
+                )
+                SELECT %1$s FROM updated
+                UNION ALL
+                SELECT %1$s FROM inserted
+                """.formatted(COLUMNS);
 
-        return insert(clusterConnectionSettings);
+        return jdbcClient.sql(sql)
+                .paramSource(toParameters(clusterConnectionSettings))
+                .query(ROW_MAPPER)
+                .single();
     }
 
-    private ClusterConnectionSettingsEntity update(Long id, ClusterConnectionSettingsEntity clusterConnectionSettings)
+    @Override
+    public List<ClusterConnectionSettingsEntity> saveAll(Collection<ClusterConnectionSettingsEntity> clusterConnectionSettings)
     {
-        var sql = """
-                UPDATE cluster_connection_settings
-                SET service_url = :serviceUrl,
-                    authentication_method = :authenticationMethod,
-                    authentication_details = :authenticationDetails
-                WHERE id = :id
-                """;
-
-        jdbcClient.sql(sql)
-                .param("id", clusterConnectionSettings.id())
-                .param("serviceUrl", clusterConnectionSettings.serviceUrl())
-                .param("authenticationMethod", clusterConnectionSettings.authenticationMethod().name())
-                .param("authenticationDetails", clusterConnectionSettings.authenticationDetails())
-                .update();
-
-        return findById(id).orElseThrow();
+        var settingsToSave = List.copyOf(clusterConnectionSettings);
+        var savedIds = new Long[settingsToSave.size()];
+
+        var updates = new ArrayList<Integer>();
+        for (var i = 0; i < settingsToSave.size(); i++)
+        {
+            if (settingsToSave.get(i).id() != null)
+                updates.add(i);
+        }
+
+        var inserts = new ArrayList<Integer>();
+        if (!updates.isEmpty())
+        {
+            var updateSql = """
+                    UPDATE cluster_connection_settings
+                    SET service_url = :serviceUrl,
+                        authentication_method = :authenticationMethod,
+                        authentication_details = :authenticationDetails,
+                        tuning_profile = :tuningProfile
+                    WHERE id = :id
+                    """;
+
+            var updateCounts = namedParameterJdbcTemplate.batchUpdate(updateSql, updates.stream()
+                    .map(i -> toParameters(settingsToSave.get(i)))
+                    .toArray(SqlParameterSource[]::new));
+
+            for (var i = 0; i < updates.size(); i++)
+            {
+                var index = updates.get(i);
+                if (updateCounts[i] == 0) // Settings with an unknown id are inserted with a generated id
+                    inserts.add(index);
+                else
+                    savedIds[index] = settingsToSave.get(index).id();
+            }
+        }
+
+        for (var i = 0; i < settingsToSave.size(); i++)
+        {
+            if (settingsToSave.get(i).id() == null)
+                inserts.add(i);
+        }
+
+        if (!inserts.isEmpty())
+        {
+            var insertSql = """
+                    INSERT INTO cluster_connection_settings (service_url, authentication_method, authentication_details, tuning_profile)
+                    VALUES (:serviceUrl, :authenticationMethod, :authenticationDetails, :tuningProfile)
+                    """;
+
+            var keyHolder = new GeneratedKeyHolder();
+            namedParameterJdbcTemplate.batchUpdate(insertSql, inserts.stream()
+                    .map(i -> toParameters(settingsToSave.get(i)))
+                    .toArray(SqlParameterSource[]::new), keyHolder, new String[]{"id"});
+
+            var generatedKeys = keyHolder.getKeyList();
+            for (var i = 0; i < inserts.size(); i++)
+                savedIds[inserts.get(i)] = ((Number) generatedKeys.get(i).get("id")).longValue();
+        }
+
+        var savedSettings = new ArrayList<ClusterConnectionSettingsEntity>(settingsToSave.size());
+        for (var i = 0; i < settingsToSave.size(); i++)
+        {
+            var settings = settingsToSave.get(i);
+            savedSettings.add(new ClusterConnectionSettingsEntity(savedIds[i], settings.serviceUrl(),
+                    settings.authenticationMethod(), settings.authenticationDetails(), settings.tuningProfile()));
+        }
+
+        return savedSettings;
     }
 
-    private ClusterConnectionSettingsEntity insert(ClusterConnectionSettingsEntity clusterConnectionSettings)
+    /**
+     * Maps the {@link #COLUMNS} of the settings, starting at the given column index. This allows mapping the settings
+     * as part of a join with other tables.
+     */
+    static ClusterConnectionSettingsEntity mapColumns(ResultSet resultSet, int firstColumn) throws SQLException
     {
-        var keyHolder = new GeneratedKeyHolder();
-        var sql = """
-                INSERT INTO cluster_connection_settings (service_url, authentication_method, authentication_details)
-                VALUES (:serviceUrl, :authenticationMethod, :authenticationDetails)
-                """;
-
-        jdbcClient.sql(sql)
-                .param("serviceUrl", clusterConnectionSettings.serviceUrl())
-                .param("authenticationMethod", clusterConnectionSettings.authenticationMethod().name())
-                .param("authenticationDetails", clusterConnectionSettings.authenticationDetails())
-                .update(keyHolder, "id");
-
-        var savedId = keyHolder.getKeyAs(Long.class);
-        if (savedId == null)
-            throw new IllegalStateException("Failed to retrieve generated ID after insert");
+        var tuningProfile = resultSet.getString(firstColumn + 4);
+        return new ClusterConnectionSettingsEntity(
+                resultSet.getLong(firstColumn),
+                resultSet.getString(firstColumn + 1),
+                ClusterAuthenticationMethod.valueOf(resultSet.getString(firstColumn + 2)),
+                resultSet.getString(firstColumn + 3),
+                tuningProfile == null ? null : ClusterConnectionTuningProfile.valueOf(tuningProfile));
+    }
 
-        return findById(savedId).orElseThrow();
+    private static SqlParameterSource toParameters(ClusterConnectionSettingsEntity clusterConnectionSettings)
+    {
+        return new MapSqlParameterSource()
+                .addValue("id", clusterConnectionSettings.id(), Types.BIGINT)
+                .addValue("serviceUrl", clusterConnectionSettings.serviceUrl())
+                .addValue("authenticationMethod", clusterConnectionSettings.authenticationMethod().name())
+                .addValue("authenticationDetails", clusterConnectionSettings.authenticationDetails())
+                .addValue("tuningProfile", clusterConnectionSettings.tuningProfile().name());
     }
 
     @Override
@@ -2,6 +2,8 @@ package io.interfero.clusters.repositories;
 
 import io.interfero.clusters.domain.ClusterConnectionSettingsEntity;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -28,6 +30,14 @@ public interface ClusterConnectionSettingsRepository
      */
     ClusterConnectionSettingsEntity save(ClusterConnectionSettingsEntity clusterConnectionSettings);
 
+    /**
+     * Saves multiple cluster connection settings to the data store in one batch.
+     * @param clusterConnectionSettings The cluster connection settings to save
+     * @return The saved cluster connection settings, in the order of the given settings
+     * @see #save(ClusterConnectionSettingsEntity)
+     */
+    List<ClusterConnectionSettingsEntity> saveAll(Collection<ClusterConnectionSettingsEntity> clusterConnectionSettings);
+
     /**
      * Deletes the settings for a cluster connection by its ID.
      * @param id The unique identifier of the connection settings
@@ -1,118 +1,132 @@
 package io.interfero.clusters.repositories;
 
 import io.interfero.clusters.domain.ClusterEntity;
+import io.interfero.clusters.domain.ClusterWithConnectionSettings;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.FileUtils;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
-import tools.jackson.core.type.TypeReference;
-import tools.jackson.databind.ObjectWriter;
-import tools.jackson.databind.json.JsonMapper;
 
-import java.io.File;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 /**
- * File-based implementation of {@link ClusterRepository}.
+ * File-based implementation of {@link ClusterRepository}. The clusters are kept in memory and written through to the
+ * file on every modification.
  */
 @Slf4j
 @Repository
 @ConditionalOnProperty(value = "interfero.database.enabled", havingValue = "false", matchIfMissing = true)
 public class ClusterFileRepository implements ClusterRepository
 {
-    private static final String CLUSTER_FILE = "cluster.json";
+    private static final String CLUSTER_FILE = "cluster";
 
-    private final JsonMapper jsonMapper;
-    private final ObjectWriter objectWriter;
-    private final File clusterFile;
+    private final FileStore<String, ClusterEntity> fileStore;
+    private final ClusterConnectionSettingsFileRepository connectionSettingsRepository;
 
-    public ClusterFileRepository(JsonMapper jsonMapper,
-                                 @Value("${interfero.directories.data}") String dataDirectoryPath)
+    public ClusterFileRepository(FileStoreFactory fileStoreFactory,
+                                 ClusterConnectionSettingsFileRepository connectionSettingsRepository)
     {
-        this.jsonMapper = jsonMapper;
-        this.objectWriter = jsonMapper.writerWithDefaultPrettyPrinter();
-        this.clusterFile = new File(dataDirectoryPath, CLUSTER_FILE);
+        this.connectionSettingsRepository = connectionSettingsRepository;
+        this.fileStore = fileStoreFactory.create(CLUSTER_FILE, String.class, ClusterEntity.class, ClusterEntity::getId,
+                ClusterEntity::copy);
     }
 
     @Override
     public Set<ClusterEntity> findAll()
     {
-        try
-        {
-            log.trace("Reading all clusters from {}", clusterFile.getAbsolutePath());
-            return jsonMapper.readValue(clusterFile, new TypeReference<>() {});
-        }
-        catch (Exception e)
-        {
-            log.error("Error reading clusters from {}", clusterFile.getAbsolutePath());
-            throw new RuntimeException(e);
-        }
+        return fileStore.findAll();
     }
 
     @Override
     public Optional<ClusterEntity> findById(String id)
     {
-        var clusters = findAll();
+        return fileStore.find(id);
+    }
 
-        return clusters.stream()
-                .filter(cluster -> cluster.getId().equals(id))
-                .findFirst();
+    @Override
+    public List<ClusterWithConnectionSettings> findAllWithConnectionSettings()
+    {
+        // Both stores are held in memory, so joining them is a single pass over the clusters
+        return fileStore.findAll().stream()
+                .map(this::withConnectionSettings)
+                .toList();
     }
 
     @Override
-    public ClusterEntity save(ClusterEntity cluster)
+    public Optional<ClusterWithConnectionSettings> findByIdWithConnectionSettings(String id)
     {
-        Set<ClusterEntity> clustersToSave = new HashSet<>(findAll());
+        return fileStore.find(id).map(this::withConnectionSettings);
+    }
 
-        clustersToSave.removeIf(entry -> entry.getId().equals(cluster.getId()));
-        clustersToSave.add(cluster);
-        saveAll(clustersToSave);
+    private ClusterWithConnectionSettings withConnectionSettings(ClusterEntity cluster)
+    {
+        return new ClusterWithConnectionSettings(cluster,
+                connectionSettingsRepository.findById(cluster.getClientConnectionSettingsId()).orElse(null),
+                connectionSettingsRepository.findById(cluster.getAdminConnectionSettingsId()).orElse(null));
+    }
+
+    @Override
+    public ClusterEntity save(ClusterEntity cluster)
+    {
+        return saveAll(List.of(cluster)).getFirst();
+    }
 
-        return findById(cluster.getId()).orElseThrow();
+    @Override
+    public List<ClusterEntity> saveAll(Collection<ClusterEntity> clustersToSave)
+    {
+        return fileStore.modify(clusters -> {
+            var savedClusters = new ArrayList<ClusterEntity>(clustersToSave.size());
+            for (var cluster : clustersToSave)
+            {
+                var clusterToSave = cluster.copy();
+                var existingCluster = clusters.get(clusterToSave.getId());
+                if (clusterToSave.getInternalName() == null && existingCluster != null)
+                    clusterToSave.setInternalName(existingCluster.getInternalName());
+
+                clusters.put(clusterToSave.getId(), clusterToSave);
+                savedClusters.add(clusterToSave.copy());
+            }
+
+            return savedClusters;
+        });
     }
 
-    private void saveAll(Set<ClusterEntity> clusters)
+    @Override
+    public void updateInternalName(String id, String internalName)
     {
-        log.trace("Saving {} clusters to file {}", clusters.size(), clusterFile.getAbsolutePath());
-
-        try
-        {
-            FileUtils.createParentDirectories(clusterFile);
-            objectWriter.writeValue(clusterFile, clusters);
-        }
-        catch (Exception e)
-        {
-            log.error("Error saving clusters to {}", clusterFile.getAbsolutePath(), e);
-            throw new RuntimeException(e);
-        }
+        fileStore.modify(clusters -> clusters.computeIfPresent(id, (_, cluster) -> {
+            var updatedCluster = cluster.copy();
+            updatedCluster.setInternalName(internalName);
+            return updatedCluster;
+        }));
     }
 
     @Override
     public void deleteById(String id)
     {
-        Set<ClusterEntity> clustersToSave = new HashSet<>(findAll());
-        clustersToSave.removeIf(entry -> entry.getId().equals(id));
-
-        saveAll(clustersToSave);
+        fileStore.remove(id);
     }
 
     @Override
     public void deleteAll()
     {
-        saveAll(Set.of());
+        fileStore.clear();
     }
 
     @PostConstruct
-    void createFileIfNotExists()
+    void open()
     {
-        if (clusterFile.exists())
-            return;
+        fileStore.open();
+    }
 
-        log.trace("Creating cluster info file {}", clusterFile.getAbsolutePath());
-        saveAll(Set.of());
+    @PreDestroy
+    void close()
+    {
+        fileStore.close();
     }
 }
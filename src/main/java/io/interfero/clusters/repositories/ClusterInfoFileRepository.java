@@ -2,119 +2,83 @@ package io.interfero.clusters.repositories;
 
 import io.interfero.clusters.domain.ClusterInfoRecord;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.FileUtils;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
-import tools.jackson.core.type.TypeReference;
-import tools.jackson.databind.ObjectWriter;
-import tools.jackson.databind.json.JsonMapper;
 
-import java.io.File;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.UnaryOperator;
 
 /**
- * File-based implementation of the ClusterInfoRepository interface.
+ * File-based implementation of the ClusterInfoRepository interface. The records are kept in memory and written through
+ * to the file on every modification.
  */
 @Slf4j
 @Repository
 @ConditionalOnProperty(value = "interfero.database.enabled", havingValue = "false", matchIfMissing = true)
 public class ClusterInfoFileRepository implements ClusterInfoRepository
 {
-    private static final String CLUSTER_INFO_FILE = "cluster-info.json";
+    private static final String CLUSTER_INFO_FILE = "cluster-info";
 
-    private final JsonMapper jsonMapper;
-    private final ObjectWriter objectWriter;
-    private final File clusterInfoFile;
+    private final FileStore<String, ClusterInfoRecord> fileStore;
 
-    public ClusterInfoFileRepository(JsonMapper jsonMapper,
-                                     @Value("${interfero.directories.data}") String dataDirectoryPath)
+    public ClusterInfoFileRepository(FileStoreFactory fileStoreFactory)
     {
-        this.jsonMapper = jsonMapper;
-        this.objectWriter = jsonMapper.writerWithDefaultPrettyPrinter();
-        this.clusterInfoFile = new File(dataDirectoryPath, CLUSTER_INFO_FILE);
+        this.fileStore = fileStoreFactory.create(CLUSTER_INFO_FILE, String.class, ClusterInfoRecord.class,
+                ClusterInfoRecord::name, UnaryOperator.identity());
     }
 
     @Override
     public Set<ClusterInfoRecord> findAll()
     {
-        try
-        {
-            log.trace("Reading all cluster info records from file {}", clusterInfoFile.getAbsolutePath());
-            return jsonMapper.readValue(clusterInfoFile, new TypeReference<>() {});
-        }
-        catch (Exception e)
-        {
-            log.error("Error reading cluster info records from file {}", clusterInfoFile.getAbsolutePath(), e);
-            throw e;
-        }
+        return fileStore.findAll();
     }
 
     @Override
     public Optional<ClusterInfoRecord> findByName(String name)
     {
-        var existingClusterInfoRecords = findAll();
-        for (ClusterInfoRecord clusterInfoRecord : existingClusterInfoRecords)
-        {
-            if (clusterInfoRecord.name().equals(name))
-                return Optional.of(clusterInfoRecord);
-        }
-
-        return Optional.empty();
+        return fileStore.find(name);
     }
 
     @Override
     public ClusterInfoRecord save(ClusterInfoRecord clusterInfoRecord)
     {
-        var existingClusterInfoRecords = findAll();
-        Set<ClusterInfoRecord> clusterInfoRecordRecordsToSave = new HashSet<>();
+        log.trace("Saving cluster info record '{}'", clusterInfoRecord.name());
+        return fileStore.put(clusterInfoRecord);
+    }
 
-        for (ClusterInfoRecord existingClusterInfoRecord : existingClusterInfoRecords)
-        {
-            if (!existingClusterInfoRecord.name().equals(clusterInfoRecord.name()))
-                clusterInfoRecordRecordsToSave.add(existingClusterInfoRecord);
-        }
+    @Override
+    public List<ClusterInfoRecord> saveAll(Collection<ClusterInfoRecord> clusterInfoRecords)
+    {
+        log.trace("Saving {} cluster info records", clusterInfoRecords.size());
+        fileStore.modify(records -> {
+            clusterInfoRecords.forEach(clusterInfoRecord -> records.put(clusterInfoRecord.name(), clusterInfoRecord));
+            return null;
+        });
 
-        clusterInfoRecordRecordsToSave.add(clusterInfoRecord);
-        saveAll(clusterInfoRecordRecordsToSave);
-        return findByName(clusterInfoRecord.name()).orElseThrow();
+        return List.copyOf(clusterInfoRecords);
     }
 
     @Override
     public void deleteAll()
     {
-        log.debug("Deleting all cluster info records from file {}", clusterInfoFile.getAbsolutePath());
-        saveAll(Set.of());
+        log.debug("Deleting all cluster info records");
+        fileStore.clear();
     }
 
-    private void saveAll(Set<ClusterInfoRecord> clusterInfoRecordRecords)
+    @PostConstruct
+    void open()
     {
-        var clusterNames = clusterInfoRecordRecords.stream().map(ClusterInfoRecord::name).toList();
-        log.trace("Saving {} cluster info records to file {}: {}", clusterInfoRecordRecords.size(),
-                clusterInfoFile.getAbsolutePath(), clusterNames);
-
-        try
-        {
-            FileUtils.createParentDirectories(clusterInfoFile);
-            objectWriter.writeValue(clusterInfoFile, clusterInfoRecordRecords);
-        }
-        catch (Exception e)
-        {
-            log.error("Error saving cluster info records to file {}", clusterInfoFile.getAbsolutePath(), e);
-            throw new RuntimeException(e);
-        }
+        fileStore.open();
     }
 
-    @PostConstruct
-    void createFileIfNotExists()
+    @PreDestroy
+    void close()
     {
-        if (clusterInfoFile.exists())
-            return;
-
-        log.debug("Creating cluster info file {}", clusterInfoFile.getAbsolutePath());
-        saveAll(Set.of());
+        fileStore.close();
     }
 }
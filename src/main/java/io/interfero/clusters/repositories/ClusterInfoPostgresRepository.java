@@ -4,13 +4,17 @@ import io.interfero.clusters.domain.ClusterInfoRecord;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.stereotype.Repository;
 
-import java.util.Objects;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Postgres-based implementation of the ClusterInfoRepository interface. This is also used if TimescaleDB is selected
@@ -22,51 +26,79 @@ import java.util.stream.Collectors;
 @ConditionalOnProperty(value = "interfero.database.enabled", havingValue = "true")
 public class ClusterInfoPostgresRepository implements ClusterInfoRepository
 {
+    static final String COLUMNS = "name, display_name, icon, color";
+
+    static final RowMapper<ClusterInfoRecord> ROW_MAPPER = (resultSet, _) -> new ClusterInfoRecord(
+            resultSet.getString(1),
+            resultSet.getString(2),
+            resultSet.getString(3),
+            resultSet.getString(4));
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO cluster_info (name, display_name, icon, color)
+            VALUES (:name, :displayName, :icon, :color)
+            ON CONFLICT (name) DO UPDATE SET
+                display_name = EXCLUDED.display_name,
+                icon = EXCLUDED.icon,
+                color = EXCLUDED.color
+            """;
+
     private final JdbcClient jdbcClient;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
     @Override
     public Set<ClusterInfoRecord> findAll()
     {
-        var sql = "SELECT * FROM cluster_info";
+        var sql = "SELECT " + COLUMNS + " FROM cluster_info";
 
         return jdbcClient.sql(sql)
-                .query(ClusterInfoRecord.class)
-                .set()
-                .stream().filter(Objects::nonNull)
-                .collect(Collectors.toSet());
+                .query(ROW_MAPPER)
+                .set();
     }
 
     @Override
     public Optional<ClusterInfoRecord> findByName(String name)
     {
-        var sql = "SELECT * FROM cluster_info WHERE name = :name";
+        var sql = "SELECT " + COLUMNS + " FROM cluster_info WHERE name = :name";
 
         return jdbcClient.sql(sql)
                 .param("name", name)
-                .query(ClusterInfoRecord.class)
+                .query(ROW_MAPPER)
                 .optional();
     }
 
     @Override
     public ClusterInfoRecord save(ClusterInfoRecord clusterInfoRecord)
     {
-        var sql = """
-                INSERT INTO cluster_info (name, display_name, icon, color)
-                VALUES (:name, :displayName, :icon, :color)
-                ON CONFLICT (name) DO UPDATE SET
-                    display_name = EXCLUDED.display_name,
-                    icon = EXCLUDED.icon,
-                    color = EXCLUDED.color
-                """;
-
-        jdbcClient.sql(sql)
-                .param("name", clusterInfoRecord.name())
-                .param("displayName", clusterInfoRecord.displayName())
-                .param("icon", clusterInfoRecord.icon())
-                .param("color", clusterInfoRecord.color())
-                .update();
-
-        return findByName(clusterInfoRecord.name()).orElseThrow();
+        return jdbcClient.sql(UPSERT_SQL + " RETURNING " + COLUMNS)
+                .paramSource(toParameters(clusterInfoRecord))
+                .query(ROW_MAPPER)
+                .single();
+    }
+
+    @Override
+    public List<ClusterInfoRecord> saveAll(Collection<ClusterInfoRecord> clusterInfoRecords)
+    {
+        if (clusterInfoRecords.isEmpty())
+            return List.of();
+
+        log.debug("Saving {} cluster info records in one batch", clusterInfoRecords.size());
+        var parameters = clusterInfoRecords.stream()
+                .map(ClusterInfoPostgresRepository::toParameters)
+                .toArray(SqlParameterSource[]::new);
+        namedParameterJdbcTemplate.batchUpdate(UPSERT_SQL, parameters);
+
+        // The upsert stores all values as given, so there is no need to read them again
+        return List.copyOf(clusterInfoRecords);
+    }
+
+    private static SqlParameterSource toParameters(ClusterInfoRecord clusterInfoRecord)
+    {
+        return new MapSqlParameterSource()
+                .addValue("name", clusterInfoRecord.name())
+                .addValue("displayName", clusterInfoRecord.displayName())
+                .addValue("icon", clusterInfoRecord.icon())
+                .addValue("color", clusterInfoRecord.color());
     }
 
     @Override
@@ -2,6 +2,8 @@ package io.interfero.clusters.repositories;
 
 import io.interfero.clusters.domain.ClusterInfoRecord;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -30,6 +32,13 @@ public interface ClusterInfoRepository
      */
     ClusterInfoRecord save(ClusterInfoRecord clusterInfoRecord);
 
+    /**
+     * Saves multiple cluster info records to the data store in one batch.
+     * @param clusterInfoRecords the cluster infos to save
+     * @return the saved cluster infos, in the order of the given cluster infos
+     */
+    List<ClusterInfoRecord> saveAll(Collection<ClusterInfoRecord> clusterInfoRecords);
+
     /**
      * Deletes all cluster info records from the data store.
      */
@@ -1,15 +1,21 @@
 package io.interfero.clusters.repositories;
 
 import io.interfero.clusters.domain.ClusterEntity;
+import io.interfero.clusters.domain.ClusterWithConnectionSettings;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.stereotype.Repository;
 
-import java.util.Objects;
-import java.util.Optional;
-import java.util.Set;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -22,55 +28,149 @@ import java.util.stream.Collectors;
 @ConditionalOnProperty(value = "interfero.database.enabled", havingValue = "true")
 public class ClusterJdbcRepository implements ClusterRepository
 {
+    static final String COLUMNS =
+            "id, display_name, icon, color, client_connection_settings_id, admin_connection_settings_id, internal_name";
+
+    static final RowMapper<ClusterEntity> ROW_MAPPER = (resultSet, _) -> mapColumns(resultSet);
+
+    /**
+     * Joins the client and admin connection settings, so a cluster and both of its settings are loaded in a single
+     * query. The settings columns follow the cluster columns in the order of
+     * {@link ClusterConnectionSettingsJdbcRepository#COLUMNS}.
+     */
+    private static final String SELECT_WITH_CONNECTION_SETTINGS_SQL = """
+            SELECT c.id, c.display_name, c.icon, c.color, c.client_connection_settings_id, c.admin_connection_settings_id, c.internal_name,
+                   cs.id, cs.service_url, cs.authentication_method, cs.authentication_details, cs.tuning_profile,
+                   acs.id, acs.service_url, acs.authentication_method, acs.authentication_details, acs.tuning_profile
+            FROM cluster c
+            LEFT JOIN cluster_connection_settings cs ON cs.id = c.client_connection_settings_id
+            LEFT JOIN cluster_connection_settings acs ON acs.id = c.admin_connection_settings_id
+            """;
+
+    private static final RowMapper<ClusterWithConnectionSettings> WITH_CONNECTION_SETTINGS_ROW_MAPPER = (resultSet, _) ->
+            new ClusterWithConnectionSettings(
+                    mapColumns(resultSet),
+                    resultSet.getObject(8) == null ? null : ClusterConnectionSettingsJdbcRepository.mapColumns(resultSet, 8),
+                    resultSet.getObject(13) == null ? null : ClusterConnectionSettingsJdbcRepository.mapColumns(resultSet, 13));
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO cluster (id, display_name, icon, color, client_connection_settings_id, admin_connection_settings_id, internal_name)
+            VALUES (:id, :displayName, :icon, :color, :clientConnectionSettingsId, :adminConnectionSettingsId, :internalName)
+            ON CONFLICT (id) DO UPDATE SET
+                display_name = EXCLUDED.display_name,
+                icon = EXCLUDED.icon,
+                color = EXCLUDED.color,
+                client_connection_settings_id = EXCLUDED.client_connection_settings_id,
+                admin_connection_settings_id = EXCLUDED.admin_connection_settings_id,
+                internal_name = COALESCE(EXCLUDED.internal_name, cluster.internal_name)
+            """;
+
     private final JdbcClient jdbcClient;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
     @Override
     public Set<ClusterEntity> findAll()
     {
-        var sql = "SELECT * FROM cluster";
+        var sql = "SELECT " + COLUMNS + " FROM cluster";
 
         return jdbcClient.sql(sql)
-                .query(ClusterEntity.class)
-                .set()
-                .stream().filter(Objects::nonNull)
-                .collect(Collectors.toSet());
+                .query(ROW_MAPPER)
+                .set();
     }
 
     @Override
     public Optional<ClusterEntity> findById(String id)
     {
-        var sql = "SELECT * FROM cluster WHERE id = :id";
+        var sql = "SELECT " + COLUMNS + " FROM cluster WHERE id = :id";
 
         return jdbcClient.sql(sql)
                 .param("id", id)
-                .query(ClusterEntity.class)
+                .query(ROW_MAPPER)
+                .optional();
+    }
+
+    @Override
+    public List<ClusterWithConnectionSettings> findAllWithConnectionSettings()
+    {
+        return jdbcClient.sql(SELECT_WITH_CONNECTION_SETTINGS_SQL)
+                .query(WITH_CONNECTION_SETTINGS_ROW_MAPPER)
+                .list();
+    }
+
+    @Override
+    public Optional<ClusterWithConnectionSettings> findByIdWithConnectionSettings(String id)
+    {
+        return jdbcClient.sql(SELECT_WITH_CONNECTION_SETTINGS_SQL + " WHERE c.id = :id")
+                .param("id", id)
+                .query(WITH_CONNECTION_SETTINGS_ROW_MAPPER)
                 .optional();
     }
 
     @Override
     public ClusterEntity save(ClusterEntity clusterEntity)
     {
-        var sql = """
-                INSERT INTO cluster (id, display_name, icon, color, client_connection_settings_id, admin_connection_settings_id)
-                VALUES (:id, :displayName, :icon, :color, :clientConnectionSettingsId, :adminConnectionSettingsId)
-                ON CONFLICT (id) DO UPDATE SET
-                    display_name = EXCLUDED.display_name,
-                    icon = EXCLUDED.icon,
-                    color = EXCLUDED.color,
-                    client_connection_settings_id = EXCLUDED.client_connection_settings_id,
-                    admin_connection_settings_id = EXCLUDED.admin_connection_settings_id
-                """;
+        return jdbcClient.sql(UPSERT_SQL + " RETURNING " + COLUMNS)
+                .paramSource(toParameters(clusterEntity))
+                .query(ROW_MAPPER)
+                .single();
+    }
+
+    @Override
+    public List<ClusterEntity> saveAll(Collection<ClusterEntity> clusterEntities)
+    {
+        if (clusterEntities.isEmpty())
+            return List.of();
+
+        var parameters = clusterEntities.stream()
+                .map(ClusterJdbcRepository::toParameters)
+                .toArray(SqlParameterSource[]::new);
+        namedParameterJdbcTemplate.batchUpdate(UPSERT_SQL, parameters);
+
+        // Re-read the clusters in one query, as stored internal names are kept if none is given
+        var ids = clusterEntities.stream().map(ClusterEntity::getId).toList();
+        var savedClusters = jdbcClient.sql("SELECT " + COLUMNS + " FROM cluster WHERE id IN (:ids)")
+                .param("ids", ids)
+                .query(ROW_MAPPER)
+                .stream()
+                .collect(Collectors.toMap(ClusterEntity::getId, Function.identity()));
+
+        return ids.stream().map(savedClusters::get).toList();
+    }
+
+    private static ClusterEntity mapColumns(ResultSet resultSet) throws SQLException
+    {
+        var clusterEntity = new ClusterEntity(
+                resultSet.getString(1),
+                resultSet.getString(2),
+                resultSet.getString(3),
+                resultSet.getString(4),
+                resultSet.getObject(5, Long.class),
+                resultSet.getObject(6, Long.class));
+        clusterEntity.setInternalName(resultSet.getString(7));
+        return clusterEntity;
+    }
+
+    private static SqlParameterSource toParameters(ClusterEntity clusterEntity)
+    {
+        return new MapSqlParameterSource()
+                .addValue("id", clusterEntity.getId())
+                .addValue("displayName", clusterEntity.getDisplayName())
+                .addValue("icon", clusterEntity.getIcon())
+                .addValue("color", clusterEntity.getColor())
+                .addValue("clientConnectionSettingsId", clusterEntity.getClientConnectionSettingsId())
+                .addValue("adminConnectionSettingsId", clusterEntity.getAdminConnectionSettingsId())
+                .addValue("internalName", clusterEntity.getInternalName());
+    }
+
+    @Override
+    public void updateInternalName(String id, String internalName)
+    {
+        var sql = "UPDATE cluster SET internal_name = :internalName WHERE id = :id";
 
         jdbcClient.sql(sql)
-                .param("id", clusterEntity.getId())
-                .param("displayName", clusterEntity.getDisplayName())
-                .param("icon", clusterEntity.getIcon())
-                .param("color", clusterEntity.getColor())
-                .param("clientConnectionSettingsId", clusterEntity.getClientConnectionSettingsId())
-                .param("adminConnectionSettingsId", clusterEntity.getAdminConnectionSettingsId())
+                .param("id", id)
+                .param("internalName", internalName)
                 .update();
-
-        return findById(clusterEntity.getId()).orElseThrow();
     }
 
     @Override
@@ -1,7 +1,10 @@
 package io.interfero.clusters.repositories;
 
 import io.interfero.clusters.domain.ClusterEntity;
+import io.interfero.clusters.domain.ClusterWithConnectionSettings;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -24,12 +27,42 @@ public interface ClusterRepository
     Optional<ClusterEntity> findById(String id);
 
     /**
-     * Saves a cluster to the data store. The ID of the cluster is used as the unique identifier.
+     * Returns all configured clusters together with their client and admin connection settings, loaded at once instead
+     * of looking up the connection settings per cluster.
+     * @return A list of all configured clusters with their connection settings
+     */
+    List<ClusterWithConnectionSettings> findAllWithConnectionSettings();
+
+    /**
+     * Returns a cluster together with its client and admin connection settings by its unique identifier.
+     * @param id The unique identifier of the cluster
+     * @return An Optional containing the cluster with its connection settings if found, or empty if not found
+     */
+    Optional<ClusterWithConnectionSettings> findByIdWithConnectionSettings(String id);
+
+    /**
+     * Saves a cluster to the data store. The ID of the cluster is used as the unique identifier. If the cluster has no
+     * internal name, an already stored internal name is kept.
      * @param cluster The cluster to save
      * @return The saved cluster
      */
     ClusterEntity save(ClusterEntity cluster);
 
+    /**
+     * Updates the stored internal Pulsar cluster name of a cluster, leaving all other attributes untouched.
+     * @param id The unique identifier of the cluster
+     * @param internalName The internal Pulsar cluster name
+     */
+    void updateInternalName(String id, String internalName);
+
+    /**
+     * Saves multiple clusters to the data store in one batch.
+     * @param clusters The clusters to save
+     * @return The saved clusters, in the order of the given clusters
+     * @see #save(ClusterEntity)
+     */
+    List<ClusterEntity> saveAll(Collection<ClusterEntity> clusters);
+
     /**
      * Deletes a cluster by its unique identifier.
      * @param id The unique identifier of the cluster to delete
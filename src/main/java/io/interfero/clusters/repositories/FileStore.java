@@ -0,0 +1,900 @@
+package io.interfero.clusters.repositories;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import tools.jackson.databind.JavaType;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * In-memory indexed copy of the entries stored in a file. The file is read once when the store is opened, so reads
+ * are served from memory without any file access.
+ * <p>
+ * The file itself is a snapshot of all entries. Modifications are not written to the snapshot, but appended as change
+ * records to a journal next to it and flushed to disk before they become visible to readers, so a failed write leaves
+ * the store unchanged. All modifications are queued and applied by a single writer thread, which collects them for the
+ * configured flush interval and commits the whole batch with a single append and fsync (group commit). Once the
+ * journal exceeds {@value #COMPACTION_THRESHOLD} records, a new snapshot is written to a temporary file, atomically
+ * moved over the old snapshot and the journal is truncated. On startup, the journal is replayed on top of the
+ * snapshot - a record torn by a crash during the append is skipped.
+ * <p>
+ * The snapshot is written in the configured {@link FileStoreFormat}, the journal always consists of JSON lines. If no
+ * snapshot exists in the configured format, but in another one, it is migrated to the configured format on startup.
+ * <p>
+ * Modifications only see and journal the keys they change, so the cost of a write does not grow with the number of
+ * entries - the committed changes are applied to the index in place.
+ * <p>
+ * Changes made to the snapshot by someone else are detected by a {@link WatchService} on the parent directory. The
+ * writer thread reloads the snapshot after such a change and replays the journal on top of it, so committed
+ * modifications which were not compacted yet are kept.
+ * @param <K> Type of the unique key of an entry
+ * @param <V> Type of the entries
+ */
+@Slf4j
+class FileStore<K, V>
+{
+    static final int COMPACTION_THRESHOLD = 1000;
+
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File file;
+    private final Path journalPath;
+    private final String name;
+    private final FileStoreFormat format;
+    private final JsonMapper jsonMapper;
+    private final ObjectMapper snapshotMapper;
+    private final ObjectWriter objectWriter;
+    private final JavaType entriesType;
+    private final Class<K> keyType;
+    private final Class<V> entryType;
+    private final Function<V, K> keyExtractor;
+    private final UnaryOperator<V> copyFunction;
+    private final Duration flushInterval;
+
+    private final BlockingQueue<PendingModification<K, V, ?>> pendingModifications = new LinkedBlockingQueue<>();
+    private volatile boolean closing;
+
+    @Nullable
+    private Thread writerThread;
+
+    private volatile Map<K, V> index = new ConcurrentHashMap<>();
+    private volatile boolean modifiedExternally;
+    private long lastWrittenModificationTime;
+    private long lastWrittenLength;
+
+    @Nullable
+    private FileChannel journal;
+    private int journalRecords;
+
+    @Nullable
+    private WatchService watchService;
+
+    @Nullable
+    private Thread watchThread;
+
+    /**
+     * @param directory Directory holding the snapshot and the journal
+     * @param name Name of the snapshot and journal files, without extension
+     * @param format Format of the snapshot
+     * @param jsonMapper Mapper to read and write the journal and JSON snapshots with
+     * @param keyType Type of the keys
+     * @param entryType Type of the entries
+     * @param keyExtractor Function extracting the unique key from an entry
+     * @param copyFunction Function creating a defensive copy of mutable entries, or {@link UnaryOperator#identity()}
+     *                     for immutable ones
+     * @param flushInterval How long the writer collects modifications before committing them as one batch
+     */
+    FileStore(File directory, String name, FileStoreFormat format, JsonMapper jsonMapper, Class<K> keyType,
+              Class<V> entryType, Function<V, K> keyExtractor, UnaryOperator<V> copyFunction, Duration flushInterval)
+    {
+        this.file = new File(directory, name + "." + format.getFileExtension());
+        this.journalPath = new File(directory, name + JOURNAL_SUFFIX).toPath();
+        this.name = name;
+        this.format = format;
+        this.jsonMapper = jsonMapper;
+        this.snapshotMapper = format.createMapper(jsonMapper);
+        this.objectWriter = format == FileStoreFormat.JSON
+                ? snapshotMapper.writerWithDefaultPrettyPrinter()
+                : snapshotMapper.writer();
+        this.entriesType = snapshotMapper.getTypeFactory().constructCollectionType(List.class, entryType);
+        this.keyType = keyType;
+        this.entryType = entryType;
+        this.keyExtractor = keyExtractor;
+        this.copyFunction = copyFunction;
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * Loads the snapshot and replays the journal into memory, compacts the journal and starts watching the snapshot
+     * for external changes. The snapshot is created if it does not exist yet.
+     */
+    synchronized void open()
+    {
+        try
+        {
+            Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+            if (!file.exists())
+                migrateOrCreateSnapshot();
+
+            index = replayJournal(readSnapshot());
+            journal = openJournal(journalPath);
+            compact();
+        }
+        catch (IOException e)
+        {
+            log.error("Error opening {}", file.getAbsolutePath(), e);
+            throw new RuntimeException(e);
+        }
+
+        startWatching();
+        writerThread = Thread.ofVirtual().name("file-store-writer-" + file.getName()).start(this::writePendingModifications);
+    }
+
+    /**
+     * Commits all pending modifications, compacts the journal into a new snapshot and stops watching the snapshot for
+     * external changes.
+     */
+    void close()
+    {
+        closing = true;
+
+        try
+        {
+            if (writerThread != null)
+                writerThread.join();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (this)
+        {
+            PendingModification<K, V, ?> pendingModification;
+            while ((pendingModification = pendingModifications.poll()) != null)
+                pendingModification.future().completeExceptionally(
+                        new IllegalStateException("File store " + file.getAbsolutePath() + " is closed"));
+
+            if (watchThread != null)
+                watchThread.interrupt();
+
+            try
+            {
+                if (watchService != null)
+                    watchService.close();
+
+                if (journal != null && journal.isOpen())
+                {
+                    compact();
+                    journal.close();
+                }
+            }
+            catch (Exception e)
+            {
+                log.warn("Failed to close {}", file.getAbsolutePath(), e);
+            }
+        }
+    }
+
+    /**
+     * Returns copies of all entries.
+     * @return All entries
+     */
+    Set<V> findAll()
+    {
+        var entries = new HashSet<V>();
+        for (var entry : index.values())
+            entries.add(copyFunction.apply(entry));
+
+        return entries;
+    }
+
+    /**
+     * Returns a copy of the entry with the given key.
+     * @param key Key of the entry
+     * @return The entry, or empty if no entry with this key exists
+     */
+    Optional<V> find(K key)
+    {
+        return Optional.ofNullable(index.get(key)).map(copyFunction);
+    }
+
+    /**
+     * Queues a modification of the entries. The modification works on a mutable view of the index, which tracks the
+     * changed keys, and is applied by the writer thread, so concurrent modifications are serialized.
+     * @param modification Modification to apply, receiving the entries by key
+     * @return Future completing with the result of the modification once it is durably committed to the journal
+     * @param <R> Type of the result
+     */
+    <R> CompletableFuture<R> modifyAsync(Function<Map<K, V>, R> modification)
+    {
+        var future = new CompletableFuture<R>();
+        if (closing)
+            future.completeExceptionally(new IllegalStateException("File store " + file.getAbsolutePath() + " is closed"));
+        else
+            pendingModifications.add(new PendingModification<>(modification, future));
+
+        return future;
+    }
+
+    /**
+     * Applies a modification to the entries and waits until it is durably committed to the journal.
+     * @param modification Modification to apply, receiving the entries by key
+     * @return The result of the modification
+     * @param <R> Type of the result
+     * @see #modifyAsync(Function)
+     */
+    <R> R modify(Function<Map<K, V>, R> modification)
+    {
+        try
+        {
+            return modifyAsync(modification).join();
+        }
+        catch (CompletionException e)
+        {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+
+            throw e;
+        }
+    }
+
+    /**
+     * Stores an entry, replacing an existing entry with the same key.
+     * @param entry Entry to store
+     * @return Copy of the stored entry
+     */
+    V put(V entry)
+    {
+        var entryToStore = copyFunction.apply(entry);
+        modify(entries -> entries.put(keyExtractor.apply(entryToStore), entryToStore));
+
+        return copyFunction.apply(entryToStore);
+    }
+
+    /**
+     * Removes the entry with the given key.
+     * @param key Key of the entry to remove
+     */
+    void remove(K key)
+    {
+        modify(entries -> entries.remove(key));
+    }
+
+    /**
+     * Removes all entries.
+     */
+    void clear()
+    {
+        modify(entries -> {
+            entries.clear();
+            return null;
+        });
+    }
+
+    /**
+     * Writes the current entries to a new snapshot and truncates the journal.
+     */
+    synchronized void compact()
+    {
+        if (journal == null)
+            return;
+
+        try
+        {
+            if (journal.size() == 0)
+                return;
+
+            log.debug("Compacting {} journal records into {}", journalRecords, file.getAbsolutePath());
+            writeSnapshot(index);
+            journal.truncate(0);
+            journal.force(true);
+            journalRecords = 0;
+        }
+        catch (IOException e)
+        {
+            // The journal is still intact, so compaction is simply retried with the next modification
+            log.error("Error compacting journal of {}", file.getAbsolutePath(), e);
+        }
+    }
+
+    private void writePendingModifications()
+    {
+        while (!closing || !pendingModifications.isEmpty())
+        {
+            try
+            {
+                var first = pendingModifications.poll(100, TimeUnit.MILLISECONDS);
+                if (modifiedExternally)
+                    reloadIfModified();
+
+                if (first == null)
+                    continue;
+
+                if (!flushInterval.isZero() && !closing)
+                    Thread.sleep(flushInterval);
+
+                var batch = new ArrayList<PendingModification<K, V, ?>>();
+                batch.add(first);
+                pendingModifications.drainTo(batch);
+                commit(batch);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Applies a batch of modifications to a view of the index and commits all resulting changes with a single append
+     * to the journal. A modification which throws is rolled back individually, without affecting the others.
+     */
+    private synchronized void commit(List<PendingModification<K, V, ?>> batch)
+    {
+        if (modifiedExternally)
+            reloadIfModified();
+
+        var modifiedIndex = new ModifiedIndex<>(index);
+        var completions = new ArrayList<Runnable>(batch.size());
+
+        for (var pendingModification : batch)
+            completions.add(apply(pendingModification, modifiedIndex));
+
+        var records = modifiedIndex.toJournalRecords(jsonMapper);
+        if (!records.isEmpty())
+        {
+            try
+            {
+                appendToJournal(records);
+            }
+            catch (RuntimeException e)
+            {
+                batch.forEach(pendingModification -> pendingModification.future().completeExceptionally(e));
+                return;
+            }
+
+            modifiedIndex.applyTo(index);
+            log.trace("Committed batch of {} modifications with {} journal records to {}", batch.size(),
+                    records.size(), file.getAbsolutePath());
+
+            if (journalRecords >= COMPACTION_THRESHOLD)
+                compact();
+        }
+
+        completions.forEach(Runnable::run);
+    }
+
+    private <R> Runnable apply(PendingModification<K, V, R> pendingModification, ModifiedIndex<K, V> modifiedIndex)
+    {
+        modifiedIndex.savepoint();
+
+        try
+        {
+            var result = pendingModification.modification().apply(modifiedIndex);
+            return () -> pendingModification.future().complete(result);
+        }
+        catch (RuntimeException e)
+        {
+            modifiedIndex.rollback();
+            return () -> pendingModification.future().completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Reloads the externally modified snapshot and replays the journal on top of it. Only called by the writer thread,
+     * so no append to the journal can happen concurrently.
+     */
+    private synchronized void reloadIfModified()
+    {
+        if (!modifiedExternally)
+            return;
+
+        modifiedExternally = false;
+        if (file.lastModified() == lastWrittenModificationTime && file.length() == lastWrittenLength)
+            return;
+
+        log.info("Detected external modification of {} - reloading and replaying the journal", file.getAbsolutePath());
+
+        try
+        {
+            index = replayJournal(readSnapshot());
+        }
+        catch (Exception e)
+        {
+            // The current index stays in place, the reload is retried with the next detected modification
+            log.error("Error reloading {}", file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Opens the journal for appending.
+     * @param journalPath Path of the journal
+     * @return Channel appending to the journal
+     * @throws IOException if the journal cannot be opened
+     */
+    FileChannel openJournal(Path journalPath) throws IOException
+    {
+        return FileChannel.open(journalPath, CREATE, WRITE, APPEND);
+    }
+
+    /**
+     * Appends the records to the journal and flushes it to disk. If this fails, the journal is truncated back to its
+     * previous size, so neither a partial record merges with the records of the next batch nor are the records of the
+     * failed batch replayed on the next start.
+     */
+    private void appendToJournal(List<JournalRecord> records)
+    {
+        var journal = Objects.requireNonNull(this.journal);
+        var previousSize = -1L;
+        try
+        {
+            var buffer = new ByteArrayOutputStream();
+            for (var record : records)
+            {
+                buffer.write(jsonMapper.writeValueAsBytes(record));
+                buffer.write('\n');
+            }
+
+            previousSize = journal.size();
+            var bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining())
+                journal.write(bytes);
+
+            journal.force(false);
+            journalRecords += records.size();
+        }
+        catch (Exception e)
+        {
+            log.error("Error appending {} records to journal of {}", records.size(), file.getAbsolutePath(), e);
+            if (previousSize >= 0)
+                truncateJournal(journal, previousSize, e);
+
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void truncateJournal(FileChannel journal, long size, Exception cause)
+    {
+        try
+        {
+            journal.truncate(size);
+            journal.force(false);
+        }
+        catch (IOException e)
+        {
+            cause.addSuppressed(e);
+            log.error("Error truncating journal of {} after a failed append", file.getAbsolutePath(), e);
+        }
+    }
+
+    private Map<K, V> replayJournal(Map<K, V> snapshot) throws IOException
+    {
+        var replayedIndex = new ConcurrentHashMap<>(snapshot);
+        journalRecords = 0;
+
+        if (!Files.exists(journalPath))
+            return replayedIndex;
+
+        for (var line : Files.readAllLines(journalPath))
+        {
+            if (line.isBlank())
+                continue;
+
+            try
+            {
+                var record = jsonMapper.readValue(line, JournalRecord.class);
+                switch (record.operation())
+                {
+                    case PUT ->
+                    {
+                        var entry = jsonMapper.treeToValue(Objects.requireNonNull(record.entry()), entryType);
+                        replayedIndex.put(keyExtractor.apply(entry), entry);
+                    }
+                    case REMOVE -> replayedIndex.remove(jsonMapper.treeToValue(Objects.requireNonNull(record.key()), keyType));
+                    case CLEAR -> replayedIndex.clear();
+                }
+
+                journalRecords++;
+            }
+            catch (Exception e)
+            {
+                log.warn("Skipping unreadable journal record of {} - probably torn by a crash: {}",
+                        file.getAbsolutePath(), line, e);
+            }
+        }
+
+        log.debug("Replayed {} journal records of {}", journalRecords, file.getAbsolutePath());
+        return replayedIndex;
+    }
+
+    private void migrateOrCreateSnapshot() throws IOException
+    {
+        for (var otherFormat : FileStoreFormat.values())
+        {
+            var otherFile = new File(file.getParentFile(), name + "." + otherFormat.getFileExtension());
+            if (otherFormat == format || !otherFile.exists())
+                continue;
+
+            log.info("Migrating {} from {} to {}", otherFile.getAbsolutePath(), otherFormat, format);
+            writeSnapshot(readSnapshot(otherFile, otherFormat.createMapper(jsonMapper)));
+            Files.delete(otherFile.toPath());
+            return;
+        }
+
+        log.debug("Creating file {}", file.getAbsolutePath());
+        writeSnapshot(Map.of());
+    }
+
+    private Map<K, V> readSnapshot()
+    {
+        var snapshot = readSnapshot(file, snapshotMapper);
+        rememberWrittenState();
+
+        return snapshot;
+    }
+
+    private Map<K, V> readSnapshot(File snapshotFile, ObjectMapper mapper)
+    {
+        log.trace("Loading entries from {}", snapshotFile.getAbsolutePath());
+
+        try
+        {
+            List<V> entries = mapper.readValue(snapshotFile, entriesType);
+            Map<K, V> loadedIndex = new LinkedHashMap<>();
+            for (var entry : entries)
+                loadedIndex.put(keyExtractor.apply(entry), entry);
+
+            return loadedIndex;
+        }
+        catch (Exception e)
+        {
+            log.error("Error reading entries from {}", snapshotFile.getAbsolutePath(), e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void writeSnapshot(Map<K, V> entries) throws IOException
+    {
+        log.trace("Writing snapshot of {} entries to {}", entries.size(), file.getAbsolutePath());
+        var tempPath = new File(file.getPath() + TEMP_SUFFIX).toPath();
+
+        try (var channel = FileChannel.open(tempPath, CREATE, WRITE, TRUNCATE_EXISTING))
+        {
+            var bytes = ByteBuffer.wrap(objectWriter.writeValueAsBytes(entries.values()));
+            while (bytes.hasRemaining())
+                channel.write(bytes);
+
+            channel.force(true);
+        }
+
+        Files.move(tempPath, file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        rememberWrittenState();
+    }
+
+    private void rememberWrittenState()
+    {
+        lastWrittenModificationTime = file.lastModified();
+        lastWrittenLength = file.length();
+    }
+
+    private void startWatching()
+    {
+        var directory = file.getAbsoluteFile().getParentFile().toPath();
+        var fileName = file.getName();
+        WatchService watchService;
+
+        try
+        {
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        }
+        catch (IOException e)
+        {
+            log.warn("Could not watch {} for external modifications", file.getAbsolutePath(), e);
+            return;
+        }
+
+        this.watchService = watchService;
+        watchThread = Thread.ofVirtual().name("file-store-watch-" + fileName).start(() -> watch(watchService, fileName));
+    }
+
+    private void watch(WatchService watchService, String fileName)
+    {
+        try
+        {
+            while (!Thread.currentThread().isInterrupted())
+            {
+                var key = watchService.take();
+                for (var event : key.pollEvents())
+                {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                            || event.context() instanceof Path path && path.toString().equals(fileName))
+                        modifiedExternally = true;
+                }
+
+                if (!key.reset())
+                    return;
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch (ClosedWatchServiceException e)
+        {
+            log.trace("Stopped watching {}", file.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Mutable view of the index for a batch of modifications. Changed keys are tracked on top of the unchanged index,
+     * so neither applying a modification nor determining the journal records requires copying the whole index. Only
+     * iterating the view visits all entries.
+     */
+    private static final class ModifiedIndex<K, V> extends AbstractMap<K, V>
+    {
+        private final Map<K, V> committedIndex;
+
+        // Changed keys mapped to their new entry, or to null if removed
+        private final Map<K, @Nullable V> changes = new LinkedHashMap<>();
+        private boolean cleared;
+
+        // State before the current modification, to roll it back. Keys without a change before are mapped to null.
+        private final Map<K, @Nullable PreviousChange<V>> changesBeforeModification = new HashMap<>();
+        private boolean clearedBeforeModification;
+
+        @Nullable
+        private Map<K, @Nullable V> changesBeforeClear;
+
+        private ModifiedIndex(Map<K, V> committedIndex)
+        {
+            this.committedIndex = committedIndex;
+        }
+
+        private void savepoint()
+        {
+            changesBeforeModification.clear();
+            changesBeforeClear = null;
+            clearedBeforeModification = cleared;
+        }
+
+        private void rollback()
+        {
+            if (changesBeforeClear != null)
+            {
+                changes.clear();
+                changes.putAll(changesBeforeClear);
+            }
+
+            for (var change : changesBeforeModification.entrySet())
+            {
+                if (change.getValue() != null)
+                    changes.put(change.getKey(), change.getValue().entry());
+                else
+                    changes.remove(change.getKey());
+            }
+
+            cleared = clearedBeforeModification;
+        }
+
+        @Override
+        @Nullable
+        public V get(Object key)
+        {
+            if (changes.containsKey(key))
+                return changes.get(key);
+
+            return cleared ? null : committedIndex.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key)
+        {
+            return get(key) != null;
+        }
+
+        @Override
+        @Nullable
+        public V put(K key, V entry)
+        {
+            var previousEntry = get(key);
+            rememberChange(key);
+            changes.put(key, entry);
+            return previousEntry;
+        }
+
+        @Override
+        @Nullable
+        @SuppressWarnings("unchecked")
+        public V remove(Object key)
+        {
+            var previousEntry = get(key);
+            if (previousEntry == null)
+                return null;
+
+            rememberChange((K) key);
+            changes.put((K) key, null);
+            return previousEntry;
+        }
+
+        @Override
+        public void clear()
+        {
+            if (changesBeforeClear == null)
+                changesBeforeClear = new LinkedHashMap<>(changes);
+
+            changes.clear();
+            cleared = true;
+        }
+
+        private void rememberChange(K key)
+        {
+            // Once cleared, the modification is rolled back to the changes before the clear anyway
+            if (changesBeforeClear == null && !changesBeforeModification.containsKey(key))
+                changesBeforeModification.put(key, changes.containsKey(key)
+                        ? new PreviousChange<>(changes.get(key))
+                        : null);
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet()
+        {
+            var entries = new ArrayList<Entry<K, V>>();
+            if (!cleared)
+            {
+                for (var entry : committedIndex.entrySet())
+                {
+                    if (!changes.containsKey(entry.getKey()))
+                        entries.add(new ModifiableEntry(entry.getKey(), entry.getValue()));
+                }
+            }
+
+            for (var change : changes.entrySet())
+            {
+                if (change.getValue() != null)
+                    entries.add(new ModifiableEntry(change.getKey(), change.getValue()));
+            }
+
+            return new AbstractSet<>()
+            {
+                @Override
+                public Iterator<Entry<K, V>> iterator()
+                {
+                    var iterator = entries.iterator();
+                    return new Iterator<>()
+                    {
+                        @Nullable
+                        private Entry<K, V> current;
+
+                        @Override
+                        public boolean hasNext()
+                        {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<K, V> next()
+                        {
+                            current = iterator.next();
+                            return current;
+                        }
+
+                        @Override
+                        public void remove()
+                        {
+                            iterator.remove();
+                            ModifiedIndex.this.remove(Objects.requireNonNull(current).getKey());
+                        }
+                    };
+                }
+
+                @Override
+                public int size()
+                {
+                    return entries.size();
+                }
+            };
+        }
+
+        /**
+         * Determines the journal records for the changed keys.
+         */
+        private List<JournalRecord> toJournalRecords(JsonMapper jsonMapper)
+        {
+            var records = new ArrayList<JournalRecord>();
+            if (cleared && !committedIndex.isEmpty())
+                records.add(new JournalRecord(Operation.CLEAR, null, null));
+
+            for (var change : changes.entrySet())
+            {
+                var committedEntry = cleared ? null : committedIndex.get(change.getKey());
+                if (change.getValue() == null && committedEntry != null)
+                    records.add(new JournalRecord(Operation.REMOVE, jsonMapper.valueToTree(change.getKey()), null));
+                else if (change.getValue() != null && !change.getValue().equals(committedEntry))
+                    records.add(new JournalRecord(Operation.PUT, null, jsonMapper.valueToTree(change.getValue())));
+            }
+
+            return records;
+        }
+
+        /**
+         * Applies the changed keys to the index.
+         */
+        private void applyTo(Map<K, V> index)
+        {
+            if (cleared)
+                index.clear();
+
+            for (var change : changes.entrySet())
+            {
+                if (change.getValue() == null)
+                    index.remove(change.getKey());
+                else
+                    index.put(change.getKey(), change.getValue());
+            }
+        }
+
+        private record PreviousChange<V>(@Nullable V entry)
+        {
+        }
+
+        private final class ModifiableEntry extends SimpleEntry<K, V>
+        {
+            private ModifiableEntry(K key, V entry)
+            {
+                super(key, entry);
+            }
+
+            @Override
+            public V setValue(V entry)
+            {
+                put(getKey(), entry);
+                return super.setValue(entry);
+            }
+        }
+    }
+
+    private record PendingModification<K, V, R>(Function<Map<K, V>, R> modification, CompletableFuture<R> future)
+    {
+    }
+
+    enum Operation
+    {
+        PUT, REMOVE, CLEAR
+    }
+
+    /**
+     * Single change record in the journal, stored as one line of JSON.
+     * @param operation Kind of change
+     * @param key Key of the removed entry (only for {@link Operation#REMOVE})
+     * @param entry The stored entry (only for {@link Operation#PUT})
+     */
+    record JournalRecord(Operation operation, @Nullable JsonNode key, @Nullable JsonNode entry)
+    {
+    }
+}
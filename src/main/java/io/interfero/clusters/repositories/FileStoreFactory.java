@@ -0,0 +1,53 @@
+package io.interfero.clusters.repositories;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Creates the {@link FileStore}s of the file-based repositories in the configured data directory.
+ */
+@Component
+@ConditionalOnProperty(value = "interfero.database.enabled", havingValue = "false", matchIfMissing = true)
+class FileStoreFactory
+{
+    private final JsonMapper jsonMapper;
+    private final File dataDirectory;
+    private final FileStoreFormat format;
+    private final Duration flushInterval;
+
+    FileStoreFactory(JsonMapper jsonMapper,
+                     @Value("${interfero.directories.data}") String dataDirectoryPath,
+                     @Value("${interfero.directories.format:JSON}") FileStoreFormat format,
+                     @Value("${interfero.directories.flush-interval:5ms}") Duration flushInterval)
+    {
+        this.jsonMapper = jsonMapper;
+        this.dataDirectory = new File(dataDirectoryPath);
+        this.format = format;
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * Creates a file store in the data directory, using the configured format. The store still needs to be opened.
+     * @param name Name of the files in the data directory, without extension
+     * @param keyType Type of the keys
+     * @param entryType Type of the entries
+     * @param keyExtractor Function extracting the unique key from an entry
+     * @param copyFunction Function creating a defensive copy of mutable entries
+     * @return The file store
+     * @param <K> Type of the keys
+     * @param <V> Type of the entries
+     */
+    <K, V> FileStore<K, V> create(String name, Class<K> keyType, Class<V> entryType, Function<V, K> keyExtractor,
+                                  UnaryOperator<V> copyFunction)
+    {
+        return new FileStore<>(dataDirectory, name, format, jsonMapper, keyType, entryType, keyExtractor,
+                copyFunction, flushInterval);
+    }
+}
@@ -0,0 +1,43 @@
+package io.interfero.clusters.repositories;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+/**
+ * On-disk format of the snapshots written by the {@link FileStore}. JSON is human-readable and can be edited manually,
+ * Smile and CBOR are compact binary formats which are smaller and faster to read and write.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum FileStoreFormat
+{
+    JSON("json"),
+    SMILE("smile"),
+    CBOR("cbor");
+
+    private final String fileExtension;
+
+    /**
+     * Returns the mapper to read and write snapshots in this format.
+     * @param jsonMapper The application's JSON mapper, used as is for the JSON format
+     * @return The mapper for this format
+     */
+    ObjectMapper createMapper(JsonMapper jsonMapper)
+    {
+        return switch (this)
+        {
+            case JSON -> jsonMapper;
+            case SMILE -> SmileMapper.builder()
+                    .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                    .build();
+            case CBOR -> CBORMapper.builder()
+                    .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                    .build();
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package io.interfero.clusters.repositories;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Published once another Interfero replica changed a cluster or connection settings in the shared database. The local
+ * repository caches are invalidated before the event reaches other listeners, so they read the changed state.
+ * @param type Type of the changed entity
+ * @param id ID of the changed entity, or null if all entities of the type might have changed
+ */
+public record RemoteClusterChangeEvent(Type type, @Nullable String id)
+{
+    public enum Type
+    {
+        CLUSTER,
+
+        /**
+         * Only the resolved internal name of a cluster changed, which only requires invalidating cached clusters - its
+         * clients are not affected.
+         */
+        CLUSTER_INTERNAL_NAME,
+
+        CONNECTION_SETTINGS
+    }
+}
@@ -0,0 +1,119 @@
+package io.interfero.clusters.repositories;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Local read-through cache for the entries of a repository. Entries are loaded on the first read and kept until they
+ * are invalidated - either by a local modification or by a change notification of another replica. Loads which
+ * overlap with an invalidation are returned to the caller, but not cached, so a stale result never outlives the
+ * invalidation.
+ * @param <K> Type of the entry keys
+ * @param <V> Type of the entries
+ */
+class RepositoryCache<K, V>
+{
+    private final Function<V, K> keyExtractor;
+    private final UnaryOperator<V> copyFunction;
+
+    private final Map<K, V> entries = new HashMap<>();
+    private long generation;
+    private boolean complete;
+
+    /**
+     * @param keyExtractor Extracts the key of an entry
+     * @param copyFunction Copies mutable entries, so callers cannot modify cached instances
+     */
+    RepositoryCache(Function<V, K> keyExtractor, UnaryOperator<V> copyFunction)
+    {
+        this.keyExtractor = keyExtractor;
+        this.copyFunction = copyFunction;
+    }
+
+    /**
+     * Returns all entries. They are loaded once and served from the cache until an entry is invalidated.
+     * @param loader Loads all entries from the repository
+     * @return Copies of all entries
+     */
+    Set<V> findAll(Supplier<Set<V>> loader)
+    {
+        long loadedGeneration;
+        synchronized (this)
+        {
+            if (complete)
+                return entries.values().stream().map(copyFunction).collect(Collectors.toSet());
+
+            loadedGeneration = generation;
+        }
+
+        var loadedEntries = loader.get();
+        synchronized (this)
+        {
+            if (generation == loadedGeneration)
+            {
+                entries.clear();
+                loadedEntries.forEach(entry -> entries.put(keyExtractor.apply(entry), copyFunction.apply(entry)));
+                complete = true;
+            }
+        }
+
+        return loadedEntries;
+    }
+
+    /**
+     * Returns the entry with the given key, loading and caching it if it is not cached yet. If all entries are cached,
+     * missing entries are not looked up in the repository.
+     * @param key Key of the entry
+     * @param loader Loads the entry from the repository
+     * @return A copy of the entry, or empty if it does not exist
+     */
+    Optional<V> find(K key, Function<K, Optional<V>> loader)
+    {
+        long loadedGeneration;
+        synchronized (this)
+        {
+            var entry = entries.get(key);
+            if (entry != null || complete)
+                return Optional.ofNullable(entry).map(copyFunction);
+
+            loadedGeneration = generation;
+        }
+
+        var loadedEntry = loader.apply(key);
+        synchronized (this)
+        {
+            if (generation == loadedGeneration)
+                loadedEntry.ifPresent(entry -> entries.put(key, copyFunction.apply(entry)));
+        }
+
+        return loadedEntry;
+    }
+
+    /**
+     * Removes the entry with the given key, so it is loaded again on the next read. As the entry might have been
+     * created, the cached list of all entries is invalidated as well.
+     * @param key Key of the entry
+     */
+    synchronized void invalidate(K key)
+    {
+        generation++;
+        complete = false;
+        entries.remove(key);
+    }
+
+    /**
+     * Removes all entries, so they are loaded again on the next read.
+     */
+    synchronized void invalidateAll()
+    {
+        generation++;
+        complete = false;
+        entries.clear();
+    }
+}
@@ -0,0 +1,115 @@
+package io.interfero.clusters.services;
+
+import io.interfero.clusters.domain.ClusterWithConnectionSettings;
+import io.interfero.clusters.repositories.ClusterRepository;
+import io.interfero.clusters.repositories.RemoteClusterChangeEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps the registered Pulsar Clients and Admins in sync with the clusters changed by other Interfero replicas. Changed
+ * clusters - and clusters using changed connection settings - are registered again, deleted clusters are unregistered.
+ * If notifications might have been missed, all stored clusters are compared with the registered ones. The registrations
+ * run on virtual threads, so slow clusters do not delay the processing of further changes.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class ClusterChangeSynchronizer
+{
+    private final ClusterRepository clusterRepository;
+    private final ClusterClientRegistry clientRegistry;
+
+    private final ExecutorService registrationExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @EventListener
+    void onRemoteClusterChange(RemoteClusterChangeEvent event)
+    {
+        switch (event.type())
+        {
+            case CLUSTER -> {
+                if (event.id() == null)
+                    synchronizeAllClusters();
+                else
+                    synchronizeCluster(event.id());
+            }
+            case CLUSTER_INTERNAL_NAME -> {
+                // Does not affect the clients of the cluster
+            }
+            case CONNECTION_SETTINGS -> {
+                if (event.id() == null)
+                    synchronizeAllClusters();
+                else
+                    reregisterClustersUsingConnectionSettings(Long.valueOf(event.id()));
+            }
+        }
+    }
+
+    private void synchronizeCluster(String clusterId)
+    {
+        clusterRepository.findByIdWithConnectionSettings(clusterId).ifPresentOrElse(this::registerClientsAsync, () -> {
+            log.info("Cluster with id '{}' was deleted by another replica - unregistering its clients", clusterId);
+            clientRegistry.unregisterClientsForCluster(clusterId);
+        });
+    }
+
+    /**
+     * Registers all clusters created or changed by other replicas and unregisters all clusters deleted by them. Clusters
+     * which are registered with the same connection settings already keep their clients.
+     */
+    private void synchronizeAllClusters()
+    {
+        var storedClusters = clusterRepository.findAllWithConnectionSettings();
+        var registeredClusterIds = new HashSet<>(clientRegistry.getRegisteredClusterIds());
+        registeredClusterIds.removeAll(clientRegistry.getConfiguredClusterNames());
+
+        for (var cluster : storedClusters)
+        {
+            registeredClusterIds.remove(cluster.cluster().getId());
+            if (!clientRegistry.isRegisteredWith(cluster))
+                registerClientsAsync(cluster);
+        }
+
+        registeredClusterIds.forEach(clientRegistry::unregisterClientsForCluster);
+    }
+
+    private void reregisterClustersUsingConnectionSettings(Long connectionSettingsId)
+    {
+        clusterRepository.findAllWithConnectionSettings().stream()
+                .filter(cluster -> Objects.equals(cluster.cluster().getClientConnectionSettingsId(), connectionSettingsId)
+                        || Objects.equals(cluster.cluster().getAdminConnectionSettingsId(), connectionSettingsId))
+                .forEach(this::registerClientsAsync);
+    }
+
+    private void registerClientsAsync(ClusterWithConnectionSettings cluster)
+    {
+        log.info("Cluster with id '{}' was changed by another replica - registering its clients again",
+                cluster.cluster().getId());
+
+        registrationExecutor.execute(() -> {
+            try
+            {
+                clientRegistry.registerClientsForCluster(cluster);
+            }
+            catch (RuntimeException e)
+            {
+                log.error("Failed to register clients for cluster with id '{}' changed by another replica",
+                        cluster.cluster().getId(), e);
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown()
+    {
+        registrationExecutor.shutdownNow();
+    }
+}
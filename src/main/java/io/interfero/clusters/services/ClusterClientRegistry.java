@@ -1,32 +1,76 @@
 package io.interfero.clusters.services;
 
+import io.interfero.clusters.ClusterClientsConfiguration;
+import io.interfero.clusters.ClusterClientsLease;
+import io.interfero.clusters.PulsarClusterRegistry;
+import io.interfero.clusters.domain.ClusterAuthenticationMethod;
 import io.interfero.clusters.domain.ClusterConnectionSettingsEntity;
 import io.interfero.clusters.ClusterConnectionVerificationException;
+import io.interfero.clusters.ClusterUnavailableException;
 import io.interfero.clusters.domain.ClusterEntity;
+import io.interfero.clusters.domain.ClusterWithConnectionSettings;
 import io.interfero.clusters.events.ClusterClientsRegisteredEvent;
 import io.interfero.clusters.events.ClusterClientsUnregisteredEvent;
+import io.interfero.pulsar.PulsarClientFactory;
+import io.interfero.pulsar.PulsarConfiguration;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.pulsar.client.admin.PulsarAdmin;
 import org.apache.pulsar.client.api.PulsarClient;
 import org.apache.pulsar.client.api.PulsarClientException;
+import org.jspecify.annotations.Nullable;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.*;
 
+/**
+ * Concurrent registry for the Pulsar Clients and Admins of all clusters. Callers acquire leases on the clients, which
+ * allows re-registrations to swap in new clients atomically - the replaced clients are closed in the background once
+ * their in-flight leases are released. While the {@link ClusterHealthProber} holds the circuit of a cluster open, no
+ * leases are handed out, so callers fail immediately instead of waiting for HTTP timeouts.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class ClusterClientRegistry
+public class ClusterClientRegistry implements PulsarClusterRegistry
 {
     private final ClusterConnectionSettingsService connectionSettingsService;
     private final ApplicationEventPublisher eventPublisher;
+    private final ClusterClientsConfiguration clientsConfiguration;
+    private final PulsarClientFactory pulsarClientFactory;
+    private final MeterRegistry meterRegistry;
+    private final PulsarConfiguration pulsarConfiguration;
 
-    private final Map<String, PulsarClient> pulsarClients = new ConcurrentHashMap<>();
-    private final Map<String, PulsarAdmin> pulsarAdmins = new ConcurrentHashMap<>();
+    private final Map<String, ClusterClients> clusterClients = new ConcurrentHashMap<>();
+    private final Map<String, RegisteredConnectionSettings> registeredConnectionSettings = new ConcurrentHashMap<>();
+    private final Set<String> configuredClusterNames = ConcurrentHashMap.newKeySet();
+    private final Map<String, String> openCircuits = new ConcurrentHashMap<>();
+    private final ExecutorService closeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @PostConstruct
+    void registerMetrics()
+    {
+        Gauge.builder("interfero.pulsar.clients.active", clusterClients,
+                        clients -> clients.values().stream().filter(ClusterClients::hasPulsarClient).count())
+                .description("Number of Pulsar Clients currently open for registered clusters")
+                .register(meterRegistry);
+        Gauge.builder("interfero.pulsar.admins.active", clusterClients, Map::size)
+                .description("Number of Pulsar Admins currently open for registered clusters")
+                .register(meterRegistry);
+        Gauge.builder("interfero.pulsar.clients.leases", clusterClients,
+                        clients -> clients.values().stream().mapToInt(ClusterClients::getLeases).sum())
+                .description("Number of leases currently held on the Pulsar Clients and Admins of registered clusters")
+                .register(meterRegistry);
+    }
 
     /**
      * Verifies that a Pulsar Client connection can be established with the given connection settings. If the connection
@@ -106,87 +150,240 @@ public class ClusterClientRegistry
         }
     }
 
+    @Override
+    public Set<String> getConfiguredClusterNames()
+    {
+        return configuredClusterNames;
+    }
+
+    @Override
+    public Set<String> getRegisteredClusterIds()
+    {
+        return Set.copyOf(clusterClients.keySet());
+    }
+
     /**
-     * Returns a Pulsar Admin for the given cluster id, if registered.
-     * @param clusterId Cluster id
-     * @return The registered Pulsar Admin, or empty if no client found for the given cluster id
+     * Checks whether clients are registered for the given cluster with exactly the given connection settings.
+     * @param clusterWithConnectionSettings Cluster together with its connection settings
+     * @return Whether the registered clients use the given connection settings
+     */
+    boolean isRegisteredWith(ClusterWithConnectionSettings clusterWithConnectionSettings)
+    {
+        var settings = registeredConnectionSettings.get(clusterWithConnectionSettings.cluster().getId());
+        return settings != null && clusterClients.containsKey(clusterWithConnectionSettings.cluster().getId())
+                && settings.equals(new RegisteredConnectionSettings(
+                        clusterWithConnectionSettings.clientConnectionSettings(),
+                        clusterWithConnectionSettings.adminConnectionSettings()));
+    }
+
+    @Override
+    public Optional<ClusterClientsLease> acquireClients(String clusterId)
+    {
+        var reason = openCircuits.get(clusterId);
+        if (reason != null)
+            throw new ClusterUnavailableException("Cluster with id '" + clusterId + "' is unavailable: " + reason);
+
+        return acquireClientsIgnoringCircuit(clusterId);
+    }
+
+    /**
+     * Acquires a lease on the clients of the given cluster even if its circuit is open, for the health probes which
+     * close the circuit again.
+     * @param clusterId Cluster id or the name of the cluster as defined in the configuration
+     * @return Lease on the registered clients, or empty if no clients are registered for the given cluster
+     */
+    Optional<ClusterClientsLease> acquireClientsIgnoringCircuit(String clusterId)
+    {
+        while (true)
+        {
+            var clients = clusterClients.get(clusterId);
+            if (clients == null)
+                return Optional.empty();
+
+            var lease = clients.tryAcquire();
+            if (lease != null)
+                return Optional.of(lease);
+
+            // Clients were swapped concurrently, retry with the newly registered ones
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Registers the Pulsar Clients and Admins for all clusters configured via <code>interfero.pulsar.clusters</code>.
+     * The clusters are registered by their configured name.
+     * @throws RuntimeException if an error occurs while creating the clients
      */
-    Optional<PulsarAdmin> getPulsarAdminForCluster(String clusterId)
+    @PostConstruct
+    void registerConfiguredClusters()
     {
-        return Optional.ofNullable(pulsarAdmins.get(clusterId));
+        pulsarConfiguration.getClusters().forEach((clusterName, properties) -> {
+            var clientConnectionSettings = new ClusterConnectionSettingsEntity(null,
+                    properties.getClient().getServiceUrl(), ClusterAuthenticationMethod.NO_AUTH, null);
+            var adminConnectionSettings = new ClusterConnectionSettingsEntity(null,
+                    properties.getAdmin().getServiceUrl(), ClusterAuthenticationMethod.NO_AUTH, null);
+
+            swapClusterClients(createClusterClients(clusterName, clientConnectionSettings, adminConnectionSettings));
+            configuredClusterNames.add(clusterName);
+        });
     }
 
     /**
      * Registers Pulsar Client and Admin for the given cluster. If there are already clients registered for the cluster,
-     * they will be unregistered first. With the successful registration, a {@link ClusterClientsRegisteredEvent} will
-     * be published containing the registered Pulsar Client and Admin.
+     * they are atomically replaced by the new ones. The replaced clients are closed asynchronously once all of their
+     * leases are released, so in-flight calls are not interrupted. With the successful registration, a
+     * {@link ClusterClientsRegisteredEvent} will be published. If the new clients cannot be created, the previously
+     * registered clients are kept. If lazy client creation is enabled, the Pulsar Client is only created once it is
+     * requested via {@link ClusterClientsLease#getPulsarClient()}.
      * @param cluster Cluster to register clients for
      * @throws IllegalArgumentException if the connection settings for the cluster are invalid
      * @throws RuntimeException if an error occurs while creating the clients
      */
     void registerClientsForCluster(ClusterEntity cluster)
     {
-        unregisterClientsForCluster(cluster.getId());
-
         var clientConnectionSettings = connectionSettingsService.findById(cluster.getClientConnectionSettingsId())
                 .orElseThrow(() -> new IllegalArgumentException("Client connection settings with id [" + cluster.getClientConnectionSettingsId() + "] not found"));
         var adminConnectionSettings = connectionSettingsService.findById(cluster.getAdminConnectionSettingsId())
                 .orElseThrow(() -> new IllegalArgumentException("Admin connection settings with id [" + cluster.getAdminConnectionSettingsId() + "] not found"));
-        try
-        {
-            var pulsarClient = createPulsarClientForConnectionSettings(clientConnectionSettings);
-            pulsarClients.put(cluster.getId(), pulsarClient);
 
-            var pulsarAdmin = createPulsarAdminForConnectionSettings(adminConnectionSettings);
-            pulsarAdmins.put(cluster.getId(), pulsarAdmin);
+        registerClients(cluster, clientConnectionSettings, adminConnectionSettings);
+    }
 
-            eventPublisher.publishEvent(new ClusterClientsRegisteredEvent(cluster.getId(), pulsarClient, pulsarAdmin));
+    /**
+     * Registers Pulsar Client and Admin for the given cluster with its already loaded connection settings, e.g. for
+     * registering all stored clusters at once without looking up the settings per cluster.
+     * @param clusterWithConnectionSettings Cluster to register clients for, together with its connection settings
+     * @throws IllegalArgumentException if the connection settings for the cluster are missing
+     * @throws RuntimeException if an error occurs while creating the clients
+     * @see #registerClientsForCluster(ClusterEntity)
+     */
+    void registerClientsForCluster(ClusterWithConnectionSettings clusterWithConnectionSettings)
+    {
+        var cluster = clusterWithConnectionSettings.cluster();
+        var clientConnectionSettings = Optional.ofNullable(clusterWithConnectionSettings.clientConnectionSettings())
+                .orElseThrow(() -> new IllegalArgumentException("Client connection settings with id [" + cluster.getClientConnectionSettingsId() + "] not found"));
+        var adminConnectionSettings = Optional.ofNullable(clusterWithConnectionSettings.adminConnectionSettings())
+                .orElseThrow(() -> new IllegalArgumentException("Admin connection settings with id [" + cluster.getAdminConnectionSettingsId() + "] not found"));
+
+        registerClients(cluster, clientConnectionSettings, adminConnectionSettings);
+    }
+
+    private void registerClients(ClusterEntity cluster, ClusterConnectionSettingsEntity clientConnectionSettings,
+                                 ClusterConnectionSettingsEntity adminConnectionSettings)
+    {
+        try
+        {
+            swapClusterClients(createClusterClients(cluster.getId(), clientConnectionSettings, adminConnectionSettings));
+            registeredConnectionSettings.put(cluster.getId(),
+                    new RegisteredConnectionSettings(clientConnectionSettings, adminConnectionSettings));
+            eventPublisher.publishEvent(new ClusterClientsRegisteredEvent(cluster.getId()));
         }
         catch (Exception e)
         {
-            unregisterPulsarClientForCluster(cluster.getId());
-            unregisterPulsarAdminForCluster(cluster.getId());
+            // The previously registered clients, if any, stay in place, so bad settings do not take a cluster offline
             throw new RuntimeException("Failed to create Pulsar Client and Admin for Cluster with id '" + cluster.getId() + "'", e);
         }
     }
 
-    private void unregisterClientsForCluster(String clusterId)
+    private ClusterClients createClusterClients(String clusterId, ClusterConnectionSettingsEntity clientConnectionSettings,
+                                                ClusterConnectionSettingsEntity adminConnectionSettings)
     {
-        unregisterPulsarClientForCluster(clusterId);
-        unregisterPulsarAdminForCluster(clusterId);
+        var pulsarAdmin = createPulsarAdminForConnectionSettings(adminConnectionSettings);
+        var clients = new ClusterClients(clusterId, pulsarAdmin,
+                () -> createPulsarClientForConnectionSettings(clientConnectionSettings),
+                clientsConfiguration.isLazyClientCreation());
+
+        if (clientsConfiguration.isLazyClientCreation())
+            return clients;
+
+        try
+        {
+            clients.getPulsarClient();
+            return clients;
+        }
+        catch (RuntimeException e)
+        {
+            clients.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens the circuit of the given cluster, so leases on its clients are rejected until it is closed again.
+     * @param clusterId Cluster id
+     * @param reason Reason reported to the rejected callers
+     */
+    void openCircuit(String clusterId, String reason)
+    {
+        if (clusterClients.containsKey(clusterId))
+            openCircuits.put(clusterId, reason);
+    }
+
+    /**
+     * Closes the circuit of the given cluster, so leases on its clients are handed out again.
+     * @param clusterId Cluster id
+     */
+    void closeCircuit(String clusterId)
+    {
+        openCircuits.remove(clusterId);
+    }
+
+    private void swapClusterClients(ClusterClients clients)
+    {
+        openCircuits.remove(clients.getClusterId()); // New clients, possibly with new connection settings
+        var previousClients = clusterClients.put(clients.getClusterId(), clients);
+        log.debug("Registered Pulsar Client and Admin for cluster with id '{}'", clients.getClusterId());
+
+        if (previousClients != null)
+            previousClients.retire(closeExecutor);
+    }
+
+    /**
+     * Unregisters and closes the Pulsar Client and Admin of the given cluster once all of their leases are released.
+     * With the unregistration, a {@link ClusterClientsUnregisteredEvent} will be published.
+     * @param clusterId ID of the cluster to unregister the clients for
+     */
+    void unregisterClientsForCluster(String clusterId)
+    {
+        registeredConnectionSettings.remove(clusterId);
+        openCircuits.remove(clusterId);
+        var clients = clusterClients.remove(clusterId);
+        if (clients == null)
+            return;
+
+        log.debug("Unregistering Pulsar Client and Admin for cluster with id '{}'", clusterId);
+        clients.retire(closeExecutor);
 
         var event = new ClusterClientsUnregisteredEvent(clusterId);
         log.debug("Publishing: {}", event);
         eventPublisher.publishEvent(event);
     }
 
-    private void unregisterPulsarClientForCluster(String clusterId)
+    /**
+     * Closes all lazily created Pulsar Clients which have not been used within the configured idle timeout. They will
+     * be re-created on their next use.
+     */
+    @Scheduled(fixedDelayString = "${interfero.clusters.clients.idle-check-interval:30s}")
+    void closeIdlePulsarClients()
     {
-        log.debug("Unregistering Pulsar Client for cluster with id '{}'", clusterId);
-        var pulsarClient = pulsarClients.remove(clusterId);
-        if (pulsarClient == null)
+        if (!clientsConfiguration.isLazyClientCreation())
             return;
 
-        try {
-            pulsarClient.close();
-        } catch (PulsarClientException e) {
-            log.error("Failed to close Pulsar Client for cluster id '{}'", clusterId, e);
-        }
+        var idleTimeout = clientsConfiguration.getIdleTimeout();
+        var closedClients = clusterClients.values().stream()
+                .filter(clients -> clients.closePulsarClientIfIdle(idleTimeout))
+                .count();
+
+        if (closedClients > 0)
+            log.debug("Closed {} idle Pulsar Clients", closedClients);
     }
 
-    private void unregisterPulsarAdminForCluster(String clusterId)
+    @PreDestroy
+    void closeAll()
     {
-        log.debug("Unregistering Pulsar Admin for cluster with id '{}'", clusterId);
-        var pulsarAdmin = pulsarAdmins.remove(clusterId);
-        if (pulsarAdmin == null)
-            return;
-
-        try
-        {
-            pulsarAdmin.close();
-        } catch (Exception e) {
-            log.error("Failed to close Pulsar Admin for cluster id '{}'", clusterId, e);
-        }
+        closeExecutor.shutdown();
+        clusterClients.values().forEach(ClusterClients::close);
+        clusterClients.clear();
     }
 
     private PulsarClient createPulsarClientForConnectionSettings(ClusterConnectionSettingsEntity connectionSettings)
@@ -195,9 +392,11 @@ public class ClusterClientRegistry
 
         try
         {
-            return PulsarClient.builder()
+            var tuningProfile = connectionSettings.tuningProfile();
+            return pulsarClientFactory.createClient(builder -> builder
                     .serviceUrl(connectionSettings.serviceUrl())
-                    .build();
+                    .connectionsPerBroker(tuningProfile.getConnectionsPerBroker())
+                    .operationTimeout((int) tuningProfile.getOperationTimeout().toMillis(), TimeUnit.MILLISECONDS));
         }
         catch (PulsarClientException e)
         {
@@ -212,9 +411,13 @@ public class ClusterClientRegistry
 
         try
         {
-            return PulsarAdmin.builder()
+            var tuningProfile = connectionSettings.tuningProfile();
+            return pulsarClientFactory.createAdmin(builder -> builder
                     .serviceHttpUrl(connectionSettings.serviceUrl())
-                    .build();
+                    .connectionTimeout((int) tuningProfile.getAdminConnectTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                    .readTimeout((int) tuningProfile.getAdminReadTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                    .requestTimeout((int) tuningProfile.getAdminRequestTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                    .maxConnectionsPerHost(tuningProfile.getAdminMaxConnectionsPerHost()));
         }
         catch (PulsarClientException e)
         {
@@ -222,4 +425,9 @@ public class ClusterClientRegistry
             throw new RuntimeException("Failed to create Pulsar Admin for " + connectionSettings, e);
         }
     }
+
+    private record RegisteredConnectionSettings(@Nullable ClusterConnectionSettingsEntity client,
+                                                @Nullable ClusterConnectionSettingsEntity admin)
+    {
+    }
 }
@@ -0,0 +1,211 @@
+package io.interfero.clusters.services;
+
+import io.interfero.clusters.ClusterClientsLease;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pulsar.client.admin.PulsarAdmin;
+import org.apache.pulsar.client.api.PulsarClient;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Holds the Pulsar Admin and Pulsar Client registered for a single cluster. The Pulsar Client is created on first use.
+ * In lazy mode, it is closed again once it has not been used for the configured idle timeout and will be re-created on
+ * the next access.
+ * <p>
+ * Callers access the clients through reference-counted leases. Once the clients are replaced by a re-registration,
+ * they are retired and closed asynchronously as soon as the last lease is released.
+ */
+@Slf4j
+class ClusterClients
+{
+    @Getter
+    private final String clusterId;
+
+    @Getter
+    private final PulsarAdmin pulsarAdmin;
+
+    private final Supplier<PulsarClient> pulsarClientFactory;
+    private final boolean lazy;
+
+    @Nullable
+    private PulsarClient pulsarClient;
+    private long lastClientAccess;
+    private int leases;
+
+    @Nullable
+    private Executor closeExecutor;
+
+    ClusterClients(String clusterId, PulsarAdmin pulsarAdmin, Supplier<PulsarClient> pulsarClientFactory, boolean lazy)
+    {
+        this.clusterId = clusterId;
+        this.pulsarAdmin = pulsarAdmin;
+        this.pulsarClientFactory = pulsarClientFactory;
+        this.lazy = lazy;
+    }
+
+    /**
+     * Acquires a lease on the clients, unless they were already retired.
+     * @return The lease, or null if the clients are retired
+     */
+    synchronized @Nullable ClusterClientsLease tryAcquire()
+    {
+        if (closeExecutor != null)
+            return null;
+
+        leases++;
+        return new Lease();
+    }
+
+    private synchronized void release()
+    {
+        leases--;
+
+        if (closeExecutor != null && leases == 0)
+            closeExecutor.execute(this::close);
+    }
+
+    /**
+     * Marks the clients as retired, so no further leases can be acquired. The clients are closed on the given executor
+     * once all leases are released - or immediately if no lease is held.
+     * @param closeExecutor Executor to close the clients on
+     */
+    synchronized void retire(Executor closeExecutor)
+    {
+        if (this.closeExecutor != null)
+            return;
+
+        this.closeExecutor = closeExecutor;
+        log.debug("Retired Pulsar Client and Admin for cluster with id '{}' with {} leases in flight", clusterId, leases);
+
+        if (leases == 0)
+            closeExecutor.execute(this::close);
+    }
+
+    /**
+     * Returns the Pulsar Client of the cluster and creates it if it does not exist yet.
+     * @return The Pulsar Client
+     */
+    synchronized PulsarClient getPulsarClient()
+    {
+        lastClientAccess = System.nanoTime();
+
+        if (pulsarClient == null)
+        {
+            log.debug("Creating Pulsar Client for cluster with id '{}' on first use", clusterId);
+            pulsarClient = pulsarClientFactory.get();
+        }
+
+        return pulsarClient;
+    }
+
+    /**
+     * Indicates whether the Pulsar Client is currently materialized.
+     * @return true if the Pulsar Client exists, false otherwise
+     */
+    synchronized boolean hasPulsarClient()
+    {
+        return pulsarClient != null;
+    }
+
+    /**
+     * Returns the number of currently held leases.
+     * @return Number of leases
+     */
+    synchronized int getLeases()
+    {
+        return leases;
+    }
+
+    /**
+     * Closes the Pulsar Client if it was created lazily, is not leased and has not been used for the given idle
+     * timeout.
+     * @param idleTimeout Duration after which an unused Pulsar Client is closed
+     * @return true if the Pulsar Client was closed, false otherwise
+     */
+    synchronized boolean closePulsarClientIfIdle(Duration idleTimeout)
+    {
+        if (!lazy || pulsarClient == null || leases > 0 || System.nanoTime() - lastClientAccess < idleTimeout.toNanos())
+            return false;
+
+        log.debug("Closing Pulsar Client for cluster with id '{}' after being idle for {}", clusterId, idleTimeout);
+        closePulsarClient();
+        return true;
+    }
+
+    /**
+     * Closes the Pulsar Client and the Pulsar Admin of the cluster.
+     */
+    synchronized void close()
+    {
+        closePulsarClient();
+
+        try
+        {
+            pulsarAdmin.close();
+        }
+        catch (Exception e)
+        {
+            log.error("Failed to close Pulsar Admin for cluster id '{}'", clusterId, e);
+        }
+    }
+
+    private void closePulsarClient()
+    {
+        if (pulsarClient == null)
+            return;
+
+        try
+        {
+            pulsarClient.close();
+        }
+        catch (Exception e)
+        {
+            log.error("Failed to close Pulsar Client for cluster id '{}'", clusterId, e);
+        }
+
+        pulsarClient = null;
+    }
+
+    private class Lease implements ClusterClientsLease
+    {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public String getClusterId()
+        {
+            return clusterId;
+        }
+
+        @Override
+        public PulsarAdmin getPulsarAdmin()
+        {
+            ensureNotReleased();
+            return pulsarAdmin;
+        }
+
+        @Override
+        public PulsarClient getPulsarClient()
+        {
+            ensureNotReleased();
+            return ClusterClients.this.getPulsarClient();
+        }
+
+        @Override
+        public void close()
+        {
+            if (released.compareAndSet(false, true))
+                release();
+        }
+
+        private void ensureNotReleased()
+        {
+            if (released.get())
+                throw new IllegalStateException("Lease on clients for cluster with id '" + clusterId + "' already closed");
+        }
+    }
+}
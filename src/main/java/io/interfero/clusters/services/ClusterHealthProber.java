@@ -0,0 +1,201 @@
+package io.interfero.clusters.services;
+
+import io.interfero.clusters.ClusterHealthConfiguration;
+import io.interfero.clusters.ClusterUnavailableException;
+import io.interfero.clusters.domain.ClusterHealth;
+import io.interfero.clusters.domain.ClusterHealthStatus;
+import io.interfero.clusters.events.ClusterClientsRegisteredEvent;
+import io.interfero.clusters.events.ClusterClientsUnregisteredEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+
+/**
+ * Periodically probes all registered clusters via their Pulsar Admin and maintains a circuit breaker per cluster. A
+ * cluster becomes {@link ClusterHealthStatus#DEGRADED} after a failed probe and {@link ClusterHealthStatus#OPEN} once
+ * the configured number of consecutive probes failed. Calls against an open cluster are rejected immediately instead
+ * of waiting for HTTP timeouts, as the {@link ClusterClientRegistry} hands out no leases on their clients. The next
+ * successful probe closes the circuit again.
+ * <p>
+ * The scheduled method only starts the probes and returns, so it does not block the scheduler thread shared with all
+ * other scheduled tasks. A probe round is skipped while the previous one is still running.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ClusterHealthProber
+{
+    private final ClusterClientRegistry clusterClientRegistry;
+    private final ClusterHealthConfiguration healthConfiguration;
+    private final MeterRegistry meterRegistry;
+
+    private final ExecutorService probeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, ClusterHealth> clusterHealth = new ConcurrentHashMap<>();
+
+    private CompletableFuture<Void> runningProbes = CompletableFuture.completedFuture(null);
+
+    @PostConstruct
+    void registerMetrics()
+    {
+        for (var status : ClusterHealthStatus.values())
+        {
+            Gauge.builder("interfero.clusters.health", clusterHealth,
+                            health -> health.values().stream().filter(h -> h.status() == status).count())
+                    .description("Number of clusters per health status")
+                    .tag("status", status.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${interfero.clusters.health.probe-interval:15s}",
+            fixedDelayString = "${interfero.clusters.health.probe-interval:15s}")
+    void probeClusters()
+    {
+        probeClustersAsync();
+    }
+
+    /**
+     * Starts probing all registered clusters in parallel without waiting for them. Every probe is bounded by the
+     * configured probe timeout. If the previous probes are still running, no new probes are started.
+     * @return Future completing once all clusters are probed, or the still running probes
+     */
+    synchronized CompletableFuture<Void> probeClustersAsync()
+    {
+        if (!runningProbes.isDone())
+        {
+            log.debug("Skipping health probes, as the previous probes are still running");
+            return runningProbes;
+        }
+
+        var probes = clusterClientRegistry.getRegisteredClusterIds().stream()
+                .map(clusterId -> CompletableFuture.runAsync(() -> probeCluster(clusterId), probeExecutor))
+                .toArray(CompletableFuture[]::new);
+        runningProbes = CompletableFuture.allOf(probes)
+                .exceptionally(e -> null); // Handled per cluster
+        return runningProbes;
+    }
+
+    private void probeCluster(String clusterId)
+    {
+        var lease = clusterClientRegistry.acquireClientsIgnoringCircuit(clusterId);
+        if (lease.isEmpty())
+        {
+            clusterHealth.remove(clusterId);
+            return;
+        }
+
+        try (var clients = lease.get())
+        {
+            var future = clients.getPulsarAdmin().clusters().getClustersAsync();
+
+            try
+            {
+                future.get(healthConfiguration.getProbeTimeout().toMillis(), TimeUnit.MILLISECONDS);
+                onProbeSucceeded(clusterId);
+            }
+            catch (Exception e)
+            {
+                future.cancel(false);
+                throw e;
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch (Exception e)
+        {
+            var cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            onProbeFailed(clusterId, cause);
+        }
+    }
+
+    private void onProbeSucceeded(String clusterId)
+    {
+        var previous = clusterHealth.put(clusterId, ClusterHealth.healthy(clusterId));
+        clusterClientRegistry.closeCircuit(clusterId);
+
+        if (previous != null && previous.status() != ClusterHealthStatus.HEALTHY)
+            log.info("Cluster with id '{}' is healthy again", clusterId);
+    }
+
+    private void onProbeFailed(String clusterId, Throwable cause)
+    {
+        var message = cause instanceof TimeoutException
+                ? "Probe did not complete within " + healthConfiguration.getProbeTimeout()
+                : String.valueOf(cause.getMessage());
+        var health = clusterHealth.compute(clusterId, (id, previous) ->
+                ClusterHealth.failed(previous, id, message, healthConfiguration.getFailureThreshold()));
+
+        if (health.status() == ClusterHealthStatus.OPEN)
+        {
+            clusterClientRegistry.openCircuit(clusterId, message);
+            log.warn("Circuit for cluster with id '{}' is open after {} failed probes: {}", clusterId,
+                    health.consecutiveFailures(), message);
+        }
+        else
+            log.info("Health probe for cluster with id '{}' failed: {}", clusterId, message);
+    }
+
+    /**
+     * Returns the health status of the given cluster. Clusters which were not probed yet are considered healthy.
+     * @param clusterId Cluster id
+     * @return Current health status
+     */
+    public ClusterHealthStatus getHealthStatus(String clusterId)
+    {
+        var health = clusterHealth.get(clusterId);
+        return health == null ? ClusterHealthStatus.HEALTHY : health.status();
+    }
+
+    /**
+     * Ensures that the circuit for the given cluster is not open.
+     * @param clusterId Cluster id
+     * @throws ClusterUnavailableException if the circuit for the cluster is open
+     */
+    public void ensureAvailable(String clusterId)
+    {
+        var health = clusterHealth.get(clusterId);
+
+        if (health != null && health.status() == ClusterHealthStatus.OPEN)
+            throw new ClusterUnavailableException("Cluster with id '" + clusterId + "' is unavailable: " + health.message());
+    }
+
+    /**
+     * Returns the health of every probed cluster, sorted by cluster id.
+     * @return Health by cluster id
+     */
+    public Map<String, ClusterHealth> getClusterHealth()
+    {
+        return new TreeMap<>(clusterHealth);
+    }
+
+    @EventListener
+    void onClusterClientsRegistered(ClusterClientsRegisteredEvent event)
+    {
+        // New clients, possibly with new connection settings - start over with a closed circuit
+        clusterHealth.remove(event.clusterId());
+    }
+
+    @EventListener
+    void onClusterClientsUnregistered(ClusterClientsUnregisteredEvent event)
+    {
+        clusterHealth.remove(event.clusterId());
+    }
+
+    @PreDestroy
+    void shutdown()
+    {
+        probeExecutor.shutdownNow();
+    }
+}
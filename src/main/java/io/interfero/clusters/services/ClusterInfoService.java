@@ -1,18 +1,23 @@
 package io.interfero.clusters.services;
 
+import io.interfero.clusters.ClustersConfiguration;
 import io.interfero.clusters.PulsarClusterRegistry;
 import io.interfero.clusters.domain.ClusterInfo;
 import io.interfero.clusters.domain.ClusterInfoRecord;
 import io.interfero.clusters.repositories.ClusterInfoRepository;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.pulsar.client.admin.PulsarAdminException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.*;
 
 @Slf4j
 @Service
@@ -21,20 +26,53 @@ public class ClusterInfoService
 {
     private final ClusterInfoRepository clusterInfoRepository;
     private final PulsarClusterRegistry clusterRegistry;
+    private final ClustersConfiguration clustersConfiguration;
+
+    private final ExecutorService lookupExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     /**
      * Returns the cluster infos for all configured clusters. This also includes clusters that do not have any
-     * additional info defined in the data storage yet.
+     * additional info defined in the data storage yet. The internal names of all clusters are determined concurrently
+     * and the call waits at most for the configured listing timeout. Clusters which could not be resolved in time or
+     * failed are returned without internal name, but with an error.
      * @return A set of cluster infos.
      */
     public Set<ClusterInfo> getClusterInfos()
     {
         log.debug("Retrieving cluster infos for all configured clusters");
         var clusterNames = clusterRegistry.getConfiguredClusterNames();
-        Set<ClusterInfo> clusterInfos = new HashSet<>();
+        Map<String, CompletableFuture<String>> internalNames = new HashMap<>();
 
         for (var clusterName : clusterNames)
-            getClusterInfoByName(clusterName).ifPresent(clusterInfos::add);
+            internalNames.put(clusterName, CompletableFuture.supplyAsync(() -> lookupInternalClusterName(clusterName),
+                    lookupExecutor));
+
+        var timeout = clustersConfiguration.getListingTimeout();
+        CompletableFuture.allOf(internalNames.values().toArray(CompletableFuture[]::new))
+                .exceptionally(e -> null) // Handled per cluster
+                .completeOnTimeout(null, timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .join();
+
+        Set<ClusterInfo> clusterInfos = new HashSet<>();
+        internalNames.forEach((clusterName, internalName) -> {
+            var clusterInfoRecord = clusterInfoRepository.findByName(clusterName)
+                    .orElse(new ClusterInfoRecord(clusterName));
+
+            var clusterInfo = switch (internalName.state())
+            {
+                case SUCCESS -> ClusterInfo.from(clusterInfoRecord, internalName.resultNow());
+                case FAILED -> ClusterInfo.failed(clusterInfoRecord, getRootCause(internalName.exceptionNow()).getMessage());
+                default -> {
+                    internalName.cancel(true);
+                    yield ClusterInfo.failed(clusterInfoRecord, "Internal name could not be resolved within " + timeout);
+                }
+            };
+
+            if (clusterInfo.error() != null)
+                log.error("Error retrieving cluster info for cluster '{}': {}", clusterName, clusterInfo.error());
+
+            clusterInfos.add(clusterInfo);
+        });
 
         log.debug("Retrieved {} cluster infos", clusterInfos.size());
         clusterInfos.forEach(info -> log.trace(" - {}", info));
@@ -65,30 +103,51 @@ public class ClusterInfoService
         }
     }
 
+    private String lookupInternalClusterName(String clusterName)
+    {
+        try
+        {
+            return getInternalClusterName(clusterName);
+        }
+        catch (PulsarAdminException e)
+        {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static Throwable getRootCause(Throwable e)
+    {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
     /**
      * Determines the internal cluster name for the given configured cluster name.
      * @param clusterName The configured cluster name.
      * @return The internal cluster name.
      * @throws PulsarAdminException If an error occurs while retrieving cluster information.
+     * @throws io.interfero.clusters.ClusterUnavailableException If the circuit for the cluster is open.
      */
     public String getInternalClusterName(String clusterName) throws PulsarAdminException
     {
         log.debug("Determining internal cluster name for configured cluster: {}", clusterName);
-        var pulsarAdmin = clusterRegistry.getPulsarAdmin(clusterName);
-
-        var internalClusters = pulsarAdmin.clusters().getClusters();
-        log.trace("Found {} internal clusters configured in cluster '{}': {}", internalClusters.size(),
-                clusterName, internalClusters);
-
-        for (var internalClusterName : internalClusters)
+        try (var clients = clusterRegistry.acquireClients(clusterName)
+                .orElseThrow(() -> new IllegalArgumentException("Pulsar cluster not found: " + clusterName)))
         {
-            var clusterData = pulsarAdmin.clusters().getCluster(internalClusterName);
-            log.trace("Service URL for '{}': {}", internalClusterName, clusterData.getServiceUrl());
+            var pulsarAdmin = clients.getPulsarAdmin();
+            var internalClusters = pulsarAdmin.clusters().getClusters();
+            log.trace("Found {} internal clusters configured in cluster '{}': {}", internalClusters.size(),
+                    clusterName, internalClusters);
 
-            if (clusterData.getServiceUrl().contains("localhost"))
+            for (var internalClusterName : internalClusters)
             {
-                log.debug("Determined internal cluster name '{}' for configured cluster '{}' - matching 'localhost'", internalClusterName, clusterName);
-                return internalClusterName;
+                var clusterData = pulsarAdmin.clusters().getCluster(internalClusterName);
+                log.trace("Service URL for '{}': {}", internalClusterName, clusterData.getServiceUrl());
+
+                if (clusterData.getServiceUrl().contains("localhost"))
+                {
+                    log.debug("Determined internal cluster name '{}' for configured cluster '{}' - matching 'localhost'", internalClusterName, clusterName);
+                    return internalClusterName;
+                }
             }
         }
 
@@ -113,4 +172,10 @@ public class ClusterInfoService
         var savedRecord = clusterInfoRepository.save(record);
         return ClusterInfo.from(savedRecord, clusterInfo.internalName());
     }
+
+    @PreDestroy
+    void shutdown()
+    {
+        lookupExecutor.shutdownNow();
+    }
 }
@@ -1,30 +1,163 @@
 package io.interfero.clusters.services;
 
+import io.interfero.clusters.ClusterClientsConfiguration;
+import io.interfero.clusters.domain.ClusterWithConnectionSettings;
+import io.interfero.clusters.domain.ClusterRegistrationOutcome;
+import io.interfero.clusters.domain.ClusterRegistrationStatus;
+import io.interfero.clusters.events.ClusterClientsRegisteredEvent;
 import io.interfero.clusters.repositories.ClusterRepository;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+
+/**
+ * Registers the Pulsar Clients and Admins for all stored clusters on startup. The registrations run in parallel on
+ * virtual threads and the startup only waits until the configured initialization timeout is reached. Clusters which
+ * did not finish in time keep registering in the background, failed registrations are retried periodically.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class ClusterInitializer {
+public class ClusterInitializer
+{
     private final ClusterRepository clusterRepository;
     private final ClusterClientRegistry clientRegistry;
+    private final ClusterClientsConfiguration clientsConfiguration;
+
+    private final ExecutorService registrationExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, ClusterRegistrationOutcome> registrationOutcomes = new ConcurrentHashMap<>();
 
     @EventListener(ApplicationReadyEvent.class)
-    public void initializeClients() {
+    public void initializeClients()
+    {
         log.info("Initializing Pulsar clients and admins for configured clusters...");
-        var clusters = clusterRepository.findAll();
-
-        for (var cluster : clusters) {
-            try {
-                clientRegistry.registerClientsForCluster(cluster);
-            } catch (Exception e) {
-                log.error("Failed to initialize Pulsar clients for cluster: {}", cluster.getId(), e);
-            }
+        var clusters = clusterRepository.findAllWithConnectionSettings();
+        var registrations = clusters.stream()
+                .map(this::registerClientsAsync)
+                .toList();
+
+        awaitRegistrations(registrations);
+        markUnfinishedRegistrationsAsDegraded(clusters);
+
+        log.info("Initialized Pulsar clients and admins for {} of {} clusters", countRegisteredClusters(),
+                clusters.size());
+    }
+
+    private CompletableFuture<Void> registerClientsAsync(ClusterWithConnectionSettings cluster)
+    {
+        return CompletableFuture.runAsync(() -> clientRegistry.registerClientsForCluster(cluster), registrationExecutor)
+                .whenComplete((result, e) -> onRegistrationCompleted(cluster.cluster().getId(), e));
+    }
+
+    private void onRegistrationCompleted(String clusterId, @Nullable Throwable e)
+    {
+        if (e == null)
+        {
+            registrationOutcomes.put(clusterId, ClusterRegistrationOutcome.registered(clusterId));
+            return;
         }
+
+        var cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        log.error("Failed to initialize Pulsar clients for cluster: {}", clusterId, cause);
+        registrationOutcomes.put(clusterId, ClusterRegistrationOutcome.failed(clusterId, String.valueOf(cause.getMessage())));
+    }
+
+    private void awaitRegistrations(List<CompletableFuture<Void>> registrations)
+    {
+        var timeout = clientsConfiguration.getInitializationTimeout();
+
+        try
+        {
+            CompletableFuture.allOf(registrations.toArray(CompletableFuture[]::new))
+                    .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        catch (TimeoutException e)
+        {
+            log.warn("Not all clusters could be registered within {} - continuing registration in the background",
+                    timeout);
+        }
+        catch (ExecutionException e)
+        {
+            log.trace("At least one cluster registration failed", e); // Already handled per cluster
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void markUnfinishedRegistrationsAsDegraded(Iterable<ClusterWithConnectionSettings> clusters)
+    {
+        var message = "Registration did not complete within " + clientsConfiguration.getInitializationTimeout();
+
+        for (var cluster : clusters)
+        {
+            var clusterId = cluster.cluster().getId();
+            registrationOutcomes.putIfAbsent(clusterId, ClusterRegistrationOutcome.degraded(clusterId, message));
+        }
+    }
+
+    private long countRegisteredClusters()
+    {
+        return registrationOutcomes.values().stream()
+                .filter(outcome -> outcome.status() == ClusterRegistrationStatus.REGISTERED)
+                .count();
+    }
+
+    /**
+     * Retries the registration for all clusters whose last registration attempt failed. Clusters which were deleted
+     * in the meantime are removed from the registration outcomes.
+     */
+    @Scheduled(initialDelayString = "${interfero.clusters.clients.registration-retry-interval:1m}",
+            fixedDelayString = "${interfero.clusters.clients.registration-retry-interval:1m}")
+    void retryFailedRegistrations()
+    {
+        var failedClusterIds = registrationOutcomes.values().stream()
+                .filter(outcome -> outcome.status() == ClusterRegistrationStatus.FAILED)
+                .map(ClusterRegistrationOutcome::clusterId)
+                .toList();
+
+        if (failedClusterIds.isEmpty())
+            return;
+
+        log.info("Retrying registration of Pulsar clients for {} clusters: {}", failedClusterIds.size(), failedClusterIds);
+        for (var clusterId : failedClusterIds)
+        {
+            clusterRepository.findByIdWithConnectionSettings(clusterId).ifPresentOrElse(cluster -> {
+                registrationOutcomes.put(clusterId, ClusterRegistrationOutcome.degraded(clusterId, "Retrying registration"));
+                registerClientsAsync(cluster);
+            }, () -> registrationOutcomes.remove(clusterId));
+        }
+    }
+
+    @EventListener
+    void onClusterClientsRegistered(ClusterClientsRegisteredEvent event)
+    {
+        registrationOutcomes.put(event.clusterId(), ClusterRegistrationOutcome.registered(event.clusterId()));
+    }
+
+    /**
+     * Returns the registration outcome for every known cluster, sorted by cluster id.
+     * @return Registration outcomes by cluster id
+     */
+    public Map<String, ClusterRegistrationOutcome> getRegistrationOutcomes()
+    {
+        return new TreeMap<>(registrationOutcomes);
+    }
+
+    @PreDestroy
+    void shutdown()
+    {
+        registrationExecutor.shutdownNow();
     }
 }
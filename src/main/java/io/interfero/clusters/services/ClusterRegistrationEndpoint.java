@@ -0,0 +1,26 @@
+package io.interfero.clusters.services;
+
+import io.interfero.clusters.domain.ClusterRegistrationOutcome;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint exposing the Pulsar Client and Admin registration outcome of every cluster.
+ */
+@Component
+@Endpoint(id = "clusters")
+@RequiredArgsConstructor
+class ClusterRegistrationEndpoint
+{
+    private final ClusterInitializer clusterInitializer;
+
+    @ReadOperation
+    public Map<String, ClusterRegistrationOutcome> registrationOutcomes()
+    {
+        return clusterInitializer.getRegistrationOutcomes();
+    }
+}
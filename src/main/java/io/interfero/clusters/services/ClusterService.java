@@ -1,16 +1,19 @@
 package io.interfero.clusters.services;
 
+import io.interfero.clusters.ClusterUnavailableException;
+import io.interfero.clusters.ClustersConfiguration;
 import io.interfero.clusters.domain.ClusterEntity;
+import io.interfero.clusters.domain.ClusterHealthStatus;
 import io.interfero.clusters.repositories.ClusterRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.text.RandomStringGenerator;
-import org.apache.pulsar.client.admin.PulsarAdminException;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
@@ -25,6 +28,9 @@ public class ClusterService
 
     private final ClusterRepository clusterRepository;
     private final ClusterClientRegistry clusterClientRegistry;
+    private final ClusterHealthProber clusterHealthProber;
+    private final InternalClusterNameCache internalClusterNameCache;
+    private final ClustersConfiguration clustersConfiguration;
 
     public Set<ClusterEntity> getAll()
     {
@@ -34,7 +40,7 @@ public class ClusterService
         log.debug("Found {} clusters in repository", clusters.size());
         clusters.forEach(cluster -> log.debug(" - {}", cluster));
 
-        clusters.forEach(c -> c.setInternalName(getInternalClusterName(c.getId())));
+        applyHealthAndInternalNames(clusters);
         return clusters;
     }
 
@@ -44,11 +50,67 @@ public class ClusterService
         var cluster = clusterRepository.findById(clusterId);
 
         log.debug("Found cluster for id '{}': {}", clusterId, cluster);
-        cluster.ifPresent(c -> c.setInternalName(getInternalClusterName(c.getId())));
+        cluster.ifPresent(c -> applyHealthAndInternalNames(List.of(c)));
 
         return cluster;
     }
 
+    /**
+     * Applies the health status and internal name to the given clusters. Stored and cached internal names are applied
+     * directly, all others are resolved concurrently. The call waits at most for the configured listing timeout -
+     * clusters which could not be resolved in time, failed or have an open circuit are returned with an error instead.
+     * @param clusters Clusters to apply the health status and internal name to
+     */
+    private void applyHealthAndInternalNames(Collection<ClusterEntity> clusters)
+    {
+        Map<String, CompletableFuture<String>> pendingNames = new HashMap<>();
+
+        for (var cluster : clusters)
+        {
+            var healthStatus = clusterHealthProber.getHealthStatus(cluster.getId());
+            cluster.setHealthStatus(healthStatus);
+            if (cluster.getInternalName() != null)
+                continue;
+
+            var internalName = internalClusterNameCache.getIfPresent(cluster.getId());
+            if (internalName.isPresent())
+                cluster.setInternalName(internalName.get());
+            else if (healthStatus == ClusterHealthStatus.OPEN)
+                cluster.setError("Cluster is unavailable");
+            else
+                pendingNames.put(cluster.getId(), internalClusterNameCache.get(cluster.getId()));
+        }
+
+        if (pendingNames.isEmpty())
+            return;
+
+        var timeout = clustersConfiguration.getListingTimeout();
+        log.debug("Resolving internal names of {} clusters within {}", pendingNames.size(), timeout);
+        CompletableFuture.allOf(pendingNames.values().toArray(CompletableFuture[]::new))
+                .exceptionally(e -> null) // Handled per cluster
+                .completeOnTimeout(null, timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .join();
+
+        for (var cluster : clusters)
+        {
+            var pendingName = pendingNames.get(cluster.getId());
+            if (pendingName == null)
+                continue;
+
+            switch (pendingName.state())
+            {
+                case SUCCESS -> cluster.setInternalName(pendingName.resultNow());
+                case FAILED -> cluster.setError(getRootCause(pendingName.exceptionNow()).getMessage());
+                default -> cluster.setError("Internal name could not be resolved within " + timeout);
+            }
+        }
+    }
+
+    private static Throwable getRootCause(Throwable e)
+    {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
     ClusterEntity create(ClusterEntity cluster)
     {
         log.info("Creating new cluster: {}", cluster);
@@ -62,7 +124,10 @@ public class ClusterService
         var savedCluster = clusterRepository.save(clusterToSave);
         clusterClientRegistry.registerClientsForCluster(savedCluster);
 
-        savedCluster.setInternalName(getInternalClusterName(savedCluster.getId()));
+        var internalName = getInternalClusterName(savedCluster.getId());
+        clusterRepository.updateInternalName(savedCluster.getId(), internalName);
+        savedCluster.setInternalName(internalName);
+
         return savedCluster;
     }
 
@@ -78,42 +143,25 @@ public class ClusterService
     }
 
     /**
-     * Determines the internal cluster name for the given cluster.
+     * Determines the internal cluster name for the given cluster. The name is served from the cache if already
+     * resolved, otherwise this call blocks until it is resolved.
      * @param clusterId The id of the cluster.
      * @return The internal cluster name.
+     * @throws ClusterUnavailableException If the circuit for the cluster is open.
      * @throws RuntimeException If an error occurs while retrieving cluster information.
      */
     public String getInternalClusterName(String clusterId)
     {
-        log.debug("Determining internal cluster name for cluster with id '{}'", clusterId);
-        var pulsarAdmin = clusterClientRegistry.getPulsarAdminForCluster(clusterId)
-                .orElseThrow(() -> new RuntimeException("No Pulsar-Admin registered for cluster with id '" + clusterId + "'"));
-
         try
         {
-            var internalClusters = pulsarAdmin.clusters().getClusters();
-            log.trace("Found {} internal clusters in cluster with id '{}': {}", internalClusters.size(),
-                    clusterId, internalClusters);
-
-            for (var internalClusterName : internalClusters)
-            {
-                var clusterData = pulsarAdmin.clusters().getCluster(internalClusterName);
-                log.trace("Service URL for '{}': {}", internalClusterName, clusterData.getServiceUrl());
-
-                if (clusterData.getServiceUrl().contains("localhost"))
-                {
-                    log.debug("Determined internal cluster name '{}' for cluster with id '{}' - matching 'localhost'", internalClusterName, clusterId);
-                    return internalClusterName;
-                }
-            }
+            return internalClusterNameCache.get(clusterId).join();
         }
-        catch (PulsarAdminException e)
+        catch (CompletionException e)
         {
-            log.error("Failed to load internal clusters from cluster with id '{}'", clusterId, e);
-            throw new RuntimeException(e);
-        }
-
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
 
-        throw new RuntimeException("Could not determine internal cluster name for cluster with id '" + clusterId + "'");
+            throw e;
+        }
     }
 }
@@ -0,0 +1,154 @@
+package io.interfero.clusters.services;
+
+import io.interfero.clusters.events.ClusterClientsRegisteredEvent;
+import io.interfero.clusters.events.ClusterClientsUnregisteredEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pulsar.client.admin.PulsarAdminException;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Caches the internal Pulsar cluster name per cluster id. Resolving the name requires one admin call for the list of
+ * internal clusters plus one per internal cluster, so it is done asynchronously and only once per registration. The
+ * cache is invalidated and refreshed whenever the clients of a cluster are (re-)registered or unregistered.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class InternalClusterNameCache
+{
+    private final ClusterClientRegistry clusterClientRegistry;
+    private final ClusterHealthProber clusterHealthProber;
+
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, String> internalNames = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<String>> pendingRefreshes = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the cached internal cluster name without contacting the cluster.
+     * @param clusterId Cluster id
+     * @return The cached internal name, or empty if not resolved yet
+     */
+    Optional<String> getIfPresent(String clusterId)
+    {
+        return Optional.ofNullable(internalNames.get(clusterId));
+    }
+
+    /**
+     * Returns the internal cluster name, resolving it if it is not cached yet. Concurrent callers for the same cluster
+     * share a single resolution.
+     * @param clusterId Cluster id
+     * @return Future completing with the internal cluster name
+     */
+    CompletableFuture<String> get(String clusterId)
+    {
+        var internalName = internalNames.get(clusterId);
+        if (internalName != null)
+            return CompletableFuture.completedFuture(internalName);
+
+        return refresh(clusterId);
+    }
+
+    /**
+     * Resolves the internal cluster name asynchronously and stores it in the cache. If a resolution for the cluster
+     * is already in progress, its future is returned instead.
+     * @param clusterId Cluster id
+     * @return Future completing with the internal cluster name
+     */
+    CompletableFuture<String> refresh(String clusterId)
+    {
+        var future = new CompletableFuture<String>();
+        var pendingRefresh = pendingRefreshes.putIfAbsent(clusterId, future);
+        if (pendingRefresh != null)
+            return pendingRefresh;
+
+        refreshExecutor.execute(() -> {
+            try
+            {
+                var internalName = resolveInternalClusterName(clusterId);
+
+                // Only cache the result if the cluster was not invalidated in the meantime
+                if (pendingRefreshes.remove(clusterId, future))
+                    internalNames.put(clusterId, internalName);
+
+                future.complete(internalName);
+            }
+            catch (Exception e)
+            {
+                pendingRefreshes.remove(clusterId, future);
+                future.completeExceptionally(e);
+            }
+        });
+
+        return future;
+    }
+
+    @EventListener
+    void onClusterClientsRegistered(ClusterClientsRegisteredEvent event)
+    {
+        invalidate(event.clusterId());
+        refresh(event.clusterId());
+    }
+
+    @EventListener
+    void onClusterClientsUnregistered(ClusterClientsUnregisteredEvent event)
+    {
+        invalidate(event.clusterId());
+    }
+
+    private void invalidate(String clusterId)
+    {
+        log.debug("Invalidating internal cluster name of cluster with id '{}'", clusterId);
+        pendingRefreshes.remove(clusterId);
+        internalNames.remove(clusterId);
+    }
+
+    private String resolveInternalClusterName(String clusterId)
+    {
+        log.debug("Determining internal cluster name for cluster with id '{}'", clusterId);
+        clusterHealthProber.ensureAvailable(clusterId);
+
+        try (var clients = clusterClientRegistry.acquireClients(clusterId)
+                .orElseThrow(() -> new RuntimeException("No Pulsar-Admin registered for cluster with id '" + clusterId + "'")))
+        {
+            var pulsarAdmin = clients.getPulsarAdmin();
+            var internalClusters = pulsarAdmin.clusters().getClusters();
+            log.trace("Found {} internal clusters in cluster with id '{}': {}", internalClusters.size(),
+                    clusterId, internalClusters);
+
+            for (var internalClusterName : internalClusters)
+            {
+                var clusterData = pulsarAdmin.clusters().getCluster(internalClusterName);
+                log.trace("Service URL for '{}': {}", internalClusterName, clusterData.getServiceUrl());
+
+                if (clusterData.getServiceUrl().contains("localhost"))
+                {
+                    log.debug("Determined internal cluster name '{}' for cluster with id '{}' - matching 'localhost'", internalClusterName, clusterId);
+                    return internalClusterName;
+                }
+            }
+        }
+        catch (PulsarAdminException e)
+        {
+            log.error("Failed to load internal clusters from cluster with id '{}'", clusterId, e);
+            throw new RuntimeException(e);
+        }
+
+        throw new RuntimeException("Could not determine internal cluster name for cluster with id '" + clusterId + "'");
+    }
+
+    @PreDestroy
+    void shutdown()
+    {
+        refreshExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,65 @@
+package io.interfero.clusters.services;
+
+import io.interfero.clusters.domain.ClusterEntity;
+import io.interfero.clusters.domain.ClusterHealthStatus;
+import io.interfero.clusters.repositories.ClusterRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically resolves the internal Pulsar cluster names of all stored clusters again and compares them with the
+ * stored names. Drifted names - e.g. after the internal cluster was renamed - and missing names of clusters stored
+ * before the internal name was persisted are written back to the repository. The resolution runs asynchronously, so
+ * slow or unreachable clusters do not block the scheduler.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class InternalClusterNameVerifier
+{
+    private final ClusterRepository clusterRepository;
+    private final ClusterHealthProber clusterHealthProber;
+    private final InternalClusterNameCache internalClusterNameCache;
+
+    @Scheduled(initialDelayString = "${interfero.clusters.internal-name-refresh-interval:10m}",
+            fixedDelayString = "${interfero.clusters.internal-name-refresh-interval:10m}")
+    void verifyInternalNames()
+    {
+        var clusters = clusterRepository.findAll();
+        log.debug("Verifying stored internal names of {} clusters", clusters.size());
+
+        for (var cluster : clusters)
+        {
+            if (clusterHealthProber.getHealthStatus(cluster.getId()) == ClusterHealthStatus.OPEN)
+            {
+                log.debug("Skipping verification of internal name for cluster with id '{}' - circuit is open",
+                        cluster.getId());
+                continue;
+            }
+
+            internalClusterNameCache.refresh(cluster.getId()).whenComplete((internalName, e) -> {
+                if (e != null)
+                    log.debug("Could not verify internal name of cluster with id '{}'", cluster.getId(), e);
+                else
+                    verifyInternalName(cluster, internalName);
+            });
+        }
+    }
+
+    private synchronized void verifyInternalName(ClusterEntity cluster, String resolvedInternalName)
+    {
+        var storedInternalName = cluster.getInternalName();
+        if (resolvedInternalName.equals(storedInternalName))
+            return;
+
+        if (storedInternalName == null)
+            log.info("Storing internal name '{}' for cluster with id '{}'", resolvedInternalName, cluster.getId());
+        else
+            log.warn("Internal name of cluster with id '{}' drifted from '{}' to '{}' - updating stored name",
+                    cluster.getId(), storedInternalName, resolvedInternalName);
+
+        clusterRepository.updateInternalName(cluster.getId(), resolvedInternalName);
+    }
+}
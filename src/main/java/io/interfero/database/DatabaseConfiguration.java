@@ -1,5 +1,8 @@
 package io.interfero.database;
 
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import liquibase.integration.spring.SpringLiquibase;
 import lombok.extern.slf4j.Slf4j;
@@ -11,6 +14,7 @@ import org.springframework.boot.jdbc.autoconfigure.DataSourceTransactionManagerA
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 
@@ -22,6 +26,9 @@ import javax.sql.DataSource;
 @Import(DataSourceTransactionManagerAutoConfiguration.class)
 class DatabaseConfiguration
 {
+    static final String POOL_NAME = "interfero";
+    static final int MIN_POOL_SIZE = 5;
+
     @Value("${interfero.database.vendor}")
     private DatabaseVendor databaseVendor;
 
@@ -32,11 +39,37 @@ class DatabaseConfiguration
         return new DataSourceProperties();
     }
 
+    /**
+     * Creates the Hikari connection pool with tuned defaults, which can be overridden via
+     * <code>interfero.database.hikari.*</code>. The pool metrics are published to the given registry, so they are
+     * exposed on the Prometheus endpoint.
+     */
     @Bean
     @ConfigurationProperties("interfero.database.hikari")
-    DataSource dataSource(DataSourceProperties dataSourceProperties)
+    HikariDataSource dataSource(DataSourceProperties dataSourceProperties, MeterRegistry meterRegistry)
+    {
+        var dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+
+        applyTunedDefaults(dataSource);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+
+    /**
+     * Sizes the pool relative to the available cores and enables server-side prepared statements, their cache and the
+     * rewriting of batched inserts into multi-row inserts in pgjdbc.
+     */
+    static void applyTunedDefaults(HikariDataSource dataSource)
     {
-        return dataSourceProperties.initializeDataSourceBuilder().build();
+        dataSource.setPoolName(POOL_NAME);
+        dataSource.setMaximumPoolSize(Math.max(MIN_POOL_SIZE, Runtime.getRuntime().availableProcessors() * 2 + 1));
+
+        dataSource.addDataSourceProperty("prepareThreshold", 5);
+        dataSource.addDataSourceProperty("preparedStatementCacheQueries", 256);
+        dataSource.addDataSourceProperty("preparedStatementCacheSizeMiB", 5);
+        dataSource.addDataSourceProperty("reWriteBatchedInserts", true);
     }
 
     @Bean
@@ -46,9 +79,15 @@ class DatabaseConfiguration
     }
 
     @Bean
-    JdbcClient jdbcClient(DataSource dataSource)
+    NamedParameterJdbcTemplate namedParameterJdbcTemplate(DataSource dataSource)
+    {
+        return new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    @Bean
+    JdbcClient jdbcClient(NamedParameterJdbcTemplate namedParameterJdbcTemplate)
     {
-        return JdbcClient.create(dataSource);
+        return JdbcClient.create(namedParameterJdbcTemplate);
     }
 
     @Bean
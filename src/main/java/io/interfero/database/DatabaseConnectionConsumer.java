@@ -0,0 +1,14 @@
+package io.interfero.database;
+
+/**
+ * Implemented by components which hold database connections permanently or use several of them concurrently, e.g.
+ * notification listeners or collectors. Their demand is checked against the size of the connection pool on startup.
+ */
+public interface DatabaseConnectionConsumer
+{
+    /**
+     * Returns the number of pooled connections this component uses at the same time.
+     * @return Number of required connections
+     */
+    int getRequiredConnections();
+}
@@ -0,0 +1,49 @@
+package io.interfero.database;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Warns on startup if the connection pool is too small for the configured {@link DatabaseConnectionConsumer}s. Next to
+ * their connections, a few connections are left for handling requests - otherwise requests would wait for a
+ * connection until the pool's connection timeout.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "interfero.database.enabled", havingValue = "true")
+class DatabasePoolSizeCheck
+{
+    static final int REQUEST_CONNECTIONS = 2;
+
+    private final HikariDataSource dataSource;
+    private final ObjectProvider<DatabaseConnectionConsumer> connectionConsumers;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void checkPoolSize()
+    {
+        var requiredConnections = getRequiredConnections();
+        var maximumPoolSize = dataSource.getMaximumPoolSize();
+
+        if (maximumPoolSize < requiredConnections)
+            log.warn("Database connection pool is undersized: {} connections are required by the configured collectors "
+                    + "and listeners plus requests, but 'interfero.database.hikari.maximum-pool-size' is {}",
+                    requiredConnections, maximumPoolSize);
+        else
+            log.debug("Database connection pool provides {} of {} required connections", maximumPoolSize,
+                    requiredConnections);
+    }
+
+    int getRequiredConnections()
+    {
+        return connectionConsumers.stream()
+                .mapToInt(DatabaseConnectionConsumer::getRequiredConnections)
+                .sum() + REQUEST_CONNECTIONS;
+    }
+}
@@ -19,13 +19,17 @@ public class NamespaceService
                                            Policies policies) throws PulsarAdminException
     {
         log.debug("Creating namespace '{}/{}' in cluster '{}' if it does not exist", tenant, namespace, clusterName);
-        var pulsarAdmin = clusterRegistry.getPulsarAdmin(clusterName);
+        try (var clients = clusterRegistry.acquireClients(clusterName)
+                .orElseThrow(() -> new IllegalArgumentException("Pulsar cluster not found: " + clusterName)))
+        {
+            var pulsarAdmin = clients.getPulsarAdmin();
 
-        if (namespaceExists(pulsarAdmin, tenant, namespace))
-            return;
+            if (namespaceExists(pulsarAdmin, tenant, namespace))
+                return;
 
-        pulsarAdmin.namespaces().createNamespace(tenant + "/" + namespace, policies);
-        log.info("Created namespace '{}/{}' in cluster '{}'", tenant, namespace, clusterName);
+            pulsarAdmin.namespaces().createNamespace(tenant + "/" + namespace, policies);
+            log.info("Created namespace '{}/{}' in cluster '{}'", tenant, namespace, clusterName);
+        }
     }
 
     private boolean namespaceExists(PulsarAdmin pulsarAdmin, String tenant, String namespace) throws PulsarAdminException
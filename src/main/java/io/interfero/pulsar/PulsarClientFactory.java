@@ -0,0 +1,140 @@
+package io.interfero.pulsar;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pulsar.client.admin.PulsarAdmin;
+import org.apache.pulsar.client.admin.PulsarAdminBuilder;
+import org.apache.pulsar.client.api.ClientBuilder;
+import org.apache.pulsar.client.api.PulsarClient;
+import org.apache.pulsar.client.api.PulsarClientException;
+import org.apache.pulsar.client.api.PulsarClientSharedResources;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.UnaryOperator;
+
+/**
+ * Factory for all Pulsar Clients and Admins created by Interfero. Every Pulsar Client built by this factory shares the
+ * same Netty event loop, timer, listener executor and DNS resolver instead of allocating its own, so the number of
+ * threads stays constant regardless of the number of registered clusters.
+ * <p>
+ * How busy the shared threads are is exported as their accumulated CPU time. The Pulsar API does not expose the shared
+ * event loop or listener executor, so their queued tasks cannot be measured - the CPU time is read from the JVM for the
+ * threads carrying the names of the shared pools.
+ */
+@Slf4j
+@Component
+public class PulsarClientFactory
+{
+    static final String IO_THREAD_NAME = "interfero-pulsar-io";
+    static final String LISTENER_THREAD_NAME = "interfero-pulsar-listener";
+
+    private final PulsarClientSharedResources sharedResources;
+    private final Counter createdClients;
+    private final Counter createdAdmins;
+
+    PulsarClientFactory(PulsarConfiguration pulsarConfiguration, MeterRegistry meterRegistry)
+    {
+        var sharedResourcesConfiguration = pulsarConfiguration.getSharedResources();
+        log.debug("Creating shared Pulsar Client resources with {} IO threads and {} listener threads",
+                sharedResourcesConfiguration.getIoThreads(), sharedResourcesConfiguration.getListenerThreads());
+
+        this.sharedResources = PulsarClientSharedResources.builder()
+                .configureEventLoop(eventLoop -> eventLoop
+                        .name(IO_THREAD_NAME)
+                        .numberOfThreads(sharedResourcesConfiguration.getIoThreads()))
+                .configureThreadPool(PulsarClientSharedResources.SharedResource.ListenerExecutor, listener -> listener
+                        .name(LISTENER_THREAD_NAME)
+                        .numberOfThreads(sharedResourcesConfiguration.getListenerThreads()))
+                .build();
+
+        registerCpuTime(meterRegistry, "io", IO_THREAD_NAME);
+        registerCpuTime(meterRegistry, "listener", LISTENER_THREAD_NAME);
+        this.createdClients = Counter.builder("interfero.pulsar.clients.created")
+                .description("Number of Pulsar Clients created on top of the shared resources")
+                .register(meterRegistry);
+        this.createdAdmins = Counter.builder("interfero.pulsar.admins.created")
+                .description("Number of Pulsar Admins created")
+                .register(meterRegistry);
+    }
+
+    private static void registerCpuTime(MeterRegistry meterRegistry, String pool, String threadName)
+    {
+        var threadBean = ManagementFactory.getThreadMXBean();
+        if (!threadBean.isThreadCpuTimeSupported() || !threadBean.isThreadCpuTimeEnabled())
+        {
+            log.debug("Thread CPU time is not available in the JVM - not exporting the CPU time of the {} threads",
+                    threadName);
+            return;
+        }
+
+        FunctionCounter.builder("interfero.pulsar.shared.cpu.time", threadName, PulsarClientFactory::cpuSeconds)
+                .description("CPU time spent by the threads shared by all Pulsar Clients")
+                .baseUnit("seconds")
+                .tag("pool", pool)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sums up the CPU time of all live threads of a shared pool. The shared threads live as long as the factory, so the
+     * sum only grows.
+     * @param threadName Name of the shared pool, which prefixes the names of its threads
+     * @return CPU time in seconds
+     */
+    static double cpuSeconds(String threadName)
+    {
+        var threadBean = ManagementFactory.getThreadMXBean();
+        var cpuNanos = 0L;
+
+        for (var thread : threadBean.getThreadInfo(threadBean.getAllThreadIds()))
+        {
+            if (thread != null && thread.getThreadName().startsWith(threadName))
+                cpuNanos += Math.max(threadBean.getThreadCpuTime(thread.getThreadId()), 0); // -1 once terminated
+        }
+
+        return cpuNanos / 1e9;
+    }
+
+    /**
+     * Builds a new client which uses the shared resources.
+     * @param configurer Configures the builder, which is already wired to the shared resources
+     * @return Pulsar Client using the shared resources
+     * @throws PulsarClientException If the client could not be built
+     */
+    public PulsarClient createClient(UnaryOperator<ClientBuilder> configurer) throws PulsarClientException
+    {
+        var pulsarClient = configurer.apply(PulsarClient.builder().sharedResources(sharedResources)).build();
+        createdClients.increment();
+        return pulsarClient;
+    }
+
+    /**
+     * Builds a new admin. The HTTP client of a Pulsar Admin cannot be shared between instances, so every admin still
+     * owns its connection pool.
+     * @param configurer Configures the builder
+     * @return Pulsar Admin
+     * @throws PulsarClientException If the admin could not be built
+     */
+    public PulsarAdmin createAdmin(UnaryOperator<PulsarAdminBuilder> configurer) throws PulsarClientException
+    {
+        var pulsarAdmin = configurer.apply(PulsarAdmin.builder()).build();
+        createdAdmins.increment();
+        return pulsarAdmin;
+    }
+
+    @PreDestroy
+    void close()
+    {
+        try
+        {
+            sharedResources.close();
+        }
+        catch (Exception e)
+        {
+            log.error("Failed to close shared Pulsar Client resources", e);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package io.interfero.pulsar;
 
 import jakarta.annotation.PostConstruct;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.pulsar.autoconfigure.PulsarProperties;
@@ -16,6 +17,7 @@ import java.util.*;
 public class PulsarConfiguration
 {
     private final Map<String, PulsarProperties> clusters = new HashMap<>();
+    private final SharedResources sharedResources = new SharedResources();
 
     @PostConstruct
     public void printClusters()
@@ -28,4 +30,16 @@ public class PulsarConfiguration
 
         log.debug("{} Pulsar clusters configured: {}", clusters.size(), clusters.keySet());
     }
+
+    /**
+     * Sizing of the resources shared by all Pulsar Clients. Both thread pools default to the number of available
+     * processors.
+     */
+    @Getter
+    @Setter
+    public static class SharedResources
+    {
+        private int ioThreads = Runtime.getRuntime().availableProcessors();
+        private int listenerThreads = Runtime.getRuntime().availableProcessors();
+    }
 }
@@ -0,0 +1,36 @@
+package io.interfero.stats;
+
+import lombok.Getter;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@ConfigurationProperties("interfero.stats")
+public class StatsConfiguration
+{
+    private final Duration collectionInterval;
+    private final StatsSource source;
+    private final int maxConcurrentRequests;
+    private final Duration scrapeTimeout;
+    private final int batchSize;
+    private final int maxPendingRows;
+    private final Duration recentWindow;
+    private final int recentMaxSeries;
+
+    public StatsConfiguration(@Nullable Duration collectionInterval, @Nullable StatsSource source,
+                              @Nullable Integer maxConcurrentRequests, @Nullable Duration scrapeTimeout,
+                              @Nullable Integer batchSize, @Nullable Integer maxPendingRows,
+                              @Nullable Duration recentWindow, @Nullable Integer recentMaxSeries)
+    {
+        this.collectionInterval = collectionInterval == null ? Duration.ofMinutes(1) : collectionInterval;
+        this.source = source == null ? StatsSource.ADMIN : source;
+        this.maxConcurrentRequests = maxConcurrentRequests == null ? 64 : maxConcurrentRequests;
+        this.scrapeTimeout = scrapeTimeout == null ? Duration.ofSeconds(30) : scrapeTimeout;
+        this.batchSize = batchSize == null ? 5000 : batchSize;
+        this.maxPendingRows = maxPendingRows == null ? 200_000 : maxPendingRows;
+        this.recentWindow = recentWindow == null ? Duration.ofHours(1) : recentWindow;
+        this.recentMaxSeries = recentMaxSeries == null ? 100_000 : recentMaxSeries;
+    }
+}
@@ -0,0 +1,13 @@
+package io.interfero.stats;
+
+/**
+ * Source the topic and subscription stats are collected from. {@link #ADMIN} requests the stats of every topic via the
+ * Pulsar Admin, which takes one HTTP call per topic. {@link #BROKER_METRICS} scrapes the Prometheus endpoint of every
+ * active broker instead, which returns the stats of all topics owned by the broker in a single call - this requires
+ * topic level metrics to be exposed by the brokers and the brokers to be reachable from Interfero.
+ */
+public enum StatsSource
+{
+    ADMIN,
+    BROKER_METRICS
+}
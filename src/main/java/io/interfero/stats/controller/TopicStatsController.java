@@ -0,0 +1,73 @@
+package io.interfero.stats.controller;
+
+import io.interfero.stats.dtos.SubscriptionStatsSeries;
+import io.interfero.stats.dtos.TopicStatsSeries;
+import io.interfero.stats.mappers.StatsSeriesMapper;
+import io.interfero.stats.services.TopicStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+public class TopicStatsController
+{
+    private final TopicStatsService topicStatsService;
+    private final StatsSeriesMapper statsSeriesMapper;
+
+    @GetMapping("/topics")
+    ResponseEntity<TopicStatsSeries> getTopicStats(@RequestParam String clusterId,
+                                                   @RequestParam String topic,
+                                                   @RequestParam Instant from,
+                                                   @RequestParam Instant to,
+                                                   @RequestParam(required = false) @Nullable Duration resolution)
+    {
+        log.debug("HTTP GET '/api/stats/topics' called for topic '{}' in cluster with id '{}' from {} to {}", topic,
+                clusterId, from, to);
+        if (!from.isBefore(to))
+            return ResponseEntity.badRequest().build();
+
+        var effectiveResolution = topicStatsService.getEffectiveResolution(from, to, resolution);
+        var stats = topicStatsService.getTopicStats(clusterId, topic, from, to, effectiveResolution);
+        var response = ResponseEntity.ok(statsSeriesMapper.toDto(clusterId, topic, effectiveResolution, stats));
+
+        log.debug("HTTP GET '/api/stats/topics' returned {} points with resolution {}", stats.size(),
+                effectiveResolution);
+        return response;
+    }
+
+    @GetMapping("/subscriptions")
+    ResponseEntity<SubscriptionStatsSeries> getSubscriptionStats(@RequestParam String clusterId,
+                                                                 @RequestParam String topic,
+                                                                 @RequestParam String subscription,
+                                                                 @RequestParam Instant from,
+                                                                 @RequestParam Instant to,
+                                                                 @RequestParam(required = false) @Nullable
+                                                                 Duration resolution)
+    {
+        log.debug("HTTP GET '/api/stats/subscriptions' called for subscription '{}' of topic '{}' in cluster with " +
+                "id '{}' from {} to {}", subscription, topic, clusterId, from, to);
+        if (!from.isBefore(to))
+            return ResponseEntity.badRequest().build();
+
+        var effectiveResolution = topicStatsService.getEffectiveResolution(from, to, resolution);
+        var stats = topicStatsService.getSubscriptionStats(clusterId, topic, subscription, from, to,
+                effectiveResolution);
+        var response = ResponseEntity.ok(statsSeriesMapper.toDto(clusterId, topic, subscription, effectiveResolution,
+                stats));
+
+        log.debug("HTTP GET '/api/stats/subscriptions' returned {} points with resolution {}", stats.size(),
+                effectiveResolution);
+        return response;
+    }
+}
@@ -0,0 +1,4 @@
+@NullMarked
+package io.interfero.stats.controller;
+
+import org.jspecify.annotations.NullMarked;
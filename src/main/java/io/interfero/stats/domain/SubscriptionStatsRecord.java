@@ -0,0 +1,23 @@
+package io.interfero.stats.domain;
+
+import java.time.Instant;
+
+/**
+ * Stats of a single subscription at a point in time.
+ * @param time Point in time the stats were collected
+ * @param clusterId Cluster id or the name of the cluster as defined in the configuration
+ * @param topic Fully qualified name of the subscribed topic
+ * @param subscription Name of the subscription
+ * @param msgRateOut Dispatched messages per second
+ * @param msgThroughputOut Dispatched bytes per second
+ * @param msgBacklog Number of messages in the backlog
+ */
+public record SubscriptionStatsRecord(Instant time,
+                                      String clusterId,
+                                      String topic,
+                                      String subscription,
+                                      double msgRateOut,
+                                      double msgThroughputOut,
+                                      long msgBacklog)
+{
+}
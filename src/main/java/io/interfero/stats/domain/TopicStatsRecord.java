@@ -0,0 +1,27 @@
+package io.interfero.stats.domain;
+
+import java.time.Instant;
+
+/**
+ * Stats of a single topic at a point in time, as reported by the broker owning the topic.
+ * @param time Point in time the stats were collected
+ * @param clusterId Cluster id or the name of the cluster as defined in the configuration
+ * @param topic Fully qualified topic name, partitions are recorded individually
+ * @param msgRateIn Published messages per second
+ * @param msgRateOut Dispatched messages per second across all subscriptions
+ * @param msgThroughputIn Published bytes per second
+ * @param msgThroughputOut Dispatched bytes per second across all subscriptions
+ * @param backlogSize Size of the backlog in bytes
+ * @param storageSize Storage size of the topic in bytes
+ */
+public record TopicStatsRecord(Instant time,
+                               String clusterId,
+                               String topic,
+                               double msgRateIn,
+                               double msgRateOut,
+                               double msgThroughputIn,
+                               double msgThroughputOut,
+                               long backlogSize,
+                               long storageSize)
+{
+}
@@ -0,0 +1,4 @@
+@NullMarked
+package io.interfero.stats.domain;
+
+import org.jspecify.annotations.NullMarked;
@@ -0,0 +1,28 @@
+package io.interfero.stats.dtos;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * DTO representing the stats of a subscription over a time range.
+ * @param clusterId ID of the cluster
+ * @param topic Fully qualified name of the subscribed topic
+ * @param subscription Name of the subscription
+ * @param resolution Width of the buckets the stats are aggregated into
+ * @param points Stats per bucket, ordered by time
+ */
+public record SubscriptionStatsSeries(String clusterId, String topic, String subscription, Duration resolution,
+                                      List<Point> points)
+{
+    /**
+     * Stats of the subscription in a single bucket.
+     * @param time Start of the bucket
+     * @param msgRateOut Average dispatched messages per second
+     * @param msgThroughputOut Average dispatched bytes per second
+     * @param msgBacklog Maximum number of messages in the backlog
+     */
+    public record Point(Instant time, double msgRateOut, double msgThroughputOut, long msgBacklog)
+    {
+    }
+}
@@ -0,0 +1,35 @@
+package io.interfero.stats.dtos;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * DTO representing the stats of a topic over a time range.
+ * @param clusterId ID of the cluster
+ * @param topic Fully qualified topic name
+ * @param resolution Width of the buckets the stats are aggregated into
+ * @param points Stats per bucket, ordered by time
+ */
+public record TopicStatsSeries(String clusterId, String topic, Duration resolution, List<Point> points)
+{
+    /**
+     * Stats of the topic in a single bucket.
+     * @param time Start of the bucket
+     * @param msgRateIn Average published messages per second
+     * @param msgRateOut Average dispatched messages per second
+     * @param msgThroughputIn Average published bytes per second
+     * @param msgThroughputOut Average dispatched bytes per second
+     * @param backlogSize Maximum size of the backlog in bytes
+     * @param storageSize Maximum storage size in bytes
+     */
+    public record Point(Instant time,
+                        double msgRateIn,
+                        double msgRateOut,
+                        double msgThroughputIn,
+                        double msgThroughputOut,
+                        long backlogSize,
+                        long storageSize)
+    {
+    }
+}
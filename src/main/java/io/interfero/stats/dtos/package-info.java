@@ -0,0 +1,4 @@
+@NullMarked
+package io.interfero.stats.dtos;
+
+import org.jspecify.annotations.NullMarked;
@@ -0,0 +1,62 @@
+package io.interfero.stats.mappers;
+
+import io.interfero.stats.domain.SubscriptionStatsRecord;
+import io.interfero.stats.domain.TopicStatsRecord;
+import io.interfero.stats.dtos.SubscriptionStatsSeries;
+import io.interfero.stats.dtos.TopicStatsSeries;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Mapper for converting {@link TopicStatsRecord} and {@link SubscriptionStatsRecord} records to series DTOs.
+ */
+@Component
+public class StatsSeriesMapper
+{
+    /**
+     * Converts the stats of a topic to a {@link TopicStatsSeries} DTO.
+     * @param clusterId ID of the cluster
+     * @param topic Fully qualified topic name
+     * @param resolution Width of the buckets the stats are aggregated into
+     * @param records Stats per bucket, ordered by time
+     * @return TopicStatsSeries DTO
+     */
+    public TopicStatsSeries toDto(String clusterId, String topic, Duration resolution, List<TopicStatsRecord> records)
+    {
+        var points = records.stream()
+                .map(stats -> new TopicStatsSeries.Point(stats.time(),
+                        stats.msgRateIn(),
+                        stats.msgRateOut(),
+                        stats.msgThroughputIn(),
+                        stats.msgThroughputOut(),
+                        stats.backlogSize(),
+                        stats.storageSize()))
+                .toList();
+
+        return new TopicStatsSeries(clusterId, topic, resolution, points);
+    }
+
+    /**
+     * Converts the stats of a subscription to a {@link SubscriptionStatsSeries} DTO.
+     * @param clusterId ID of the cluster
+     * @param topic Fully qualified name of the subscribed topic
+     * @param subscription Name of the subscription
+     * @param resolution Width of the buckets the stats are aggregated into
+     * @param records Stats per bucket, ordered by time
+     * @return SubscriptionStatsSeries DTO
+     */
+    public SubscriptionStatsSeries toDto(String clusterId, String topic, String subscription, Duration resolution,
+                                         List<SubscriptionStatsRecord> records)
+    {
+        var points = records.stream()
+                .map(stats -> new SubscriptionStatsSeries.Point(stats.time(),
+                        stats.msgRateOut(),
+                        stats.msgThroughputOut(),
+                        stats.msgBacklog()))
+                .toList();
+
+        return new SubscriptionStatsSeries(clusterId, topic, subscription, resolution, points);
+    }
+}
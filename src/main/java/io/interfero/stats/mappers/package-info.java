@@ -0,0 +1,4 @@
+@NullMarked
+package io.interfero.stats.mappers;
+
+import org.jspecify.annotations.NullMarked;
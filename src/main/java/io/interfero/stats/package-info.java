@@ -0,0 +1,4 @@
+@NullMarked
+package io.interfero.stats;
+
+import org.jspecify.annotations.NullMarked;
@@ -0,0 +1,128 @@
+package io.interfero.stats.repositories;
+
+import org.postgresql.copy.CopyIn;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Instant;
+
+/**
+ * Encodes rows in the binary format of <code>COPY ... FROM STDIN (FORMAT binary)</code> and streams them to the
+ * database. The rows are encoded into a reusable buffer, which is sent whenever it is full - so the memory used is
+ * independent of the number of rows. Compared to inserts, the values neither have to be bound as parameters nor parsed
+ * from text by the database.
+ * <p>
+ * The caller is responsible for writing the fields of each row in the order and with the types of the copied columns.
+ * Closing the writer before {@link #finish()} cancels the copy, so no partial rows are stored.
+ */
+final class BinaryCopyWriter implements AutoCloseable
+{
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final short TRAILER = -1;
+
+    /**
+     * Microseconds between the Unix epoch and the Postgres epoch (2000-01-01 UTC), which binary timestamps are relative
+     * to.
+     */
+    private static final long POSTGRES_EPOCH_OFFSET_MICROS = 946_684_800_000_000L;
+
+    private final CopyIn copyIn;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE); // Big-endian, as required
+
+    /**
+     * @param copyIn Started copy operation, writing the binary format
+     * @throws SQLException if the header cannot be sent
+     */
+    BinaryCopyWriter(CopyIn copyIn) throws SQLException
+    {
+        this.copyIn = copyIn;
+        buffer.put(SIGNATURE);
+        buffer.putInt(0); // Flags
+        buffer.putInt(0); // Header extension length
+    }
+
+    /**
+     * Starts a new row.
+     * @param fields Number of fields of the row
+     */
+    void startRow(int fields) throws SQLException
+    {
+        ensureCapacity(Short.BYTES);
+        buffer.putShort((short) fields);
+    }
+
+    void writeTimestamp(Instant time) throws SQLException
+    {
+        var micros = Math.addExact(Math.multiplyExact(time.getEpochSecond(), 1_000_000L), time.getNano() / 1_000);
+        writeLong(micros - POSTGRES_EPOCH_OFFSET_MICROS);
+    }
+
+    void writeLong(long value) throws SQLException
+    {
+        ensureCapacity(Integer.BYTES + Long.BYTES);
+        buffer.putInt(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    void writeDouble(double value) throws SQLException
+    {
+        ensureCapacity(Integer.BYTES + Double.BYTES);
+        buffer.putInt(Double.BYTES);
+        buffer.putDouble(value);
+    }
+
+    void writeString(String value) throws SQLException
+    {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(Integer.BYTES);
+        buffer.putInt(bytes.length);
+
+        if (bytes.length > buffer.capacity())
+        {
+            flush();
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            return;
+        }
+
+        ensureCapacity(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Sends the remaining rows and completes the copy.
+     * @return Number of copied rows
+     * @throws SQLException if the rows cannot be sent or are rejected by the database
+     */
+    long finish() throws SQLException
+    {
+        ensureCapacity(Short.BYTES);
+        buffer.putShort(TRAILER);
+        flush();
+        return copyIn.endCopy();
+    }
+
+    private void ensureCapacity(int bytes) throws SQLException
+    {
+        if (buffer.remaining() < bytes)
+            flush();
+    }
+
+    private void flush() throws SQLException
+    {
+        if (buffer.position() == 0)
+            return;
+
+        copyIn.writeToCopy(buffer.array(), 0, buffer.position());
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws SQLException
+    {
+        if (copyIn.isActive())
+            copyIn.cancelCopy();
+    }
+}
@@ -0,0 +1,394 @@
+package io.interfero.stats.repositories;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed-size chunk of a {@link TimeSeriesSegment}, holding the samples of a single series compressed as described in
+ * Facebook's Gorilla paper: timestamps are stored as delta-of-deltas, which take a single bit for samples in a fixed
+ * interval, and every value is XORed with its predecessor, so unchanged values take a single bit and slowly changing
+ * values only their meaningful bits.
+ * <p>
+ * The chunk starts with the number of samples and bits written, followed by the key of the series and the bit stream.
+ * Both counts are updated with a single write after the bits of a sample are written, and the bit length is restored by
+ * decoding the samples when the chunk is opened, so a sample torn by a crash is not part of the chunk. Timestamps are
+ * stored in seconds.
+ */
+final class GorillaChunk
+{
+    static final ValueLayout.OfShort SHORT = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private static final int SAMPLE_COUNT_OFFSET = 0;
+    private static final int BIT_LENGTH_OFFSET = 4;
+    private static final int KEY_LENGTH_OFFSET = 8;
+    private static final int KEY_OFFSET = 10;
+
+    /**
+     * Receives the samples of a series.
+     */
+    @FunctionalInterface
+    interface SampleConsumer
+    {
+        /**
+         * @param time Timestamp of the sample in epoch seconds
+         * @param values Values of the sample. The array is reused for the next sample and must not be retained.
+         */
+        void accept(long time, double[] values);
+    }
+
+    private final MemorySegment memory;
+    private final String key;
+    private final int fieldCount;
+    private final long dataOffset;
+    private final long capacityBits;
+    private final int maxSampleBits;
+
+    private int sampleCount;
+    private long bitLength;
+    private final State state;
+
+    private GorillaChunk(MemorySegment memory, String key, int keyLength, int fieldCount)
+    {
+        this.memory = memory;
+        this.key = key;
+        this.fieldCount = fieldCount;
+        this.dataOffset = KEY_OFFSET + keyLength;
+        this.capacityBits = (memory.byteSize() - dataOffset) * Byte.SIZE;
+        this.maxSampleBits = Math.max(Long.SIZE + fieldCount * Long.SIZE, // First sample
+                4 + Integer.SIZE + fieldCount * (2 + 5 + 6 + Long.SIZE));
+        this.state = new State(fieldCount);
+    }
+
+    /**
+     * Initializes an empty chunk for the given series.
+     * @param memory Memory of the chunk
+     * @param key Key of the series
+     * @param fieldCount Number of values per sample
+     * @return The chunk
+     * @throws IllegalArgumentException if the key leaves no room for samples
+     */
+    static GorillaChunk create(MemorySegment memory, String key, int fieldCount)
+    {
+        var keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        var chunk = new GorillaChunk(memory, key, keyBytes.length, fieldCount);
+        if (chunk.capacityBits < chunk.maxSampleBits)
+            throw new IllegalArgumentException("Key of " + keyBytes.length + " bytes leaves no room for samples");
+
+        memory.fill((byte) 0);
+        memory.set(SHORT, KEY_LENGTH_OFFSET, (short) keyBytes.length);
+        MemorySegment.copy(keyBytes, 0, memory, ValueLayout.JAVA_BYTE, KEY_OFFSET, keyBytes.length);
+        return chunk;
+    }
+
+    /**
+     * Opens a chunk written before, restoring the state to append further samples. The bit length is taken from the
+     * end of the last complete sample, and all bits after it are cleared.
+     * @param memory Memory of the chunk
+     * @param fieldCount Number of values per sample
+     * @return The chunk
+     * @throws IllegalStateException if the chunk is corrupt
+     */
+    static GorillaChunk open(MemorySegment memory, int fieldCount)
+    {
+        var keyLength = Short.toUnsignedInt(memory.get(SHORT, KEY_LENGTH_OFFSET));
+        var keyBytes = memory.asSlice(KEY_OFFSET, keyLength).toArray(ValueLayout.JAVA_BYTE);
+        var chunk = new GorillaChunk(memory, new String(keyBytes, StandardCharsets.UTF_8), keyLength, fieldCount);
+
+        chunk.sampleCount = memory.get(INT, SAMPLE_COUNT_OFFSET);
+        var storedBitLength = memory.get(INT, BIT_LENGTH_OFFSET);
+        if (chunk.sampleCount < 0 || storedBitLength < 0 || storedBitLength > chunk.capacityBits)
+            throw new IllegalStateException("Chunk of series '" + chunk.key + "' is corrupt");
+
+        var reader = chunk.new Reader(chunk.state);
+        try
+        {
+            for (var i = 0; i < chunk.sampleCount; i++)
+                reader.next();
+        }
+        catch (IndexOutOfBoundsException e)
+        {
+            throw new IllegalStateException("Chunk of series '" + chunk.key + "' is corrupt", e);
+        }
+
+        if (reader.position > storedBitLength) // A crash may leave the stored bit length ahead, but never behind
+            throw new IllegalStateException("Chunk of series '" + chunk.key + "' is corrupt");
+
+        chunk.bitLength = reader.position;
+        var partialByte = chunk.dataOffset + chunk.bitLength / Byte.SIZE;
+        var usedBits = (int) (chunk.bitLength % Byte.SIZE);
+        if (usedBits > 0)
+        {
+            var current = memory.get(ValueLayout.JAVA_BYTE, partialByte);
+            memory.set(ValueLayout.JAVA_BYTE, partialByte, (byte) (current & (0xFF << (Byte.SIZE - usedBits))));
+            partialByte++;
+        }
+
+        memory.asSlice(partialByte).fill((byte) 0);
+        chunk.writeCounts();
+        return chunk;
+    }
+
+    String getKey()
+    {
+        return key;
+    }
+
+    int getSampleCount()
+    {
+        return sampleCount;
+    }
+
+    /**
+     * Appends a sample to the chunk.
+     * @param time Timestamp of the sample in epoch seconds
+     * @param values Values of the sample
+     * @return Whether the sample was appended, false if the chunk is full
+     */
+    boolean append(long time, double[] values)
+    {
+        if (capacityBits - bitLength < maxSampleBits)
+            return false;
+
+        var writer = new Writer(bitLength);
+        if (sampleCount == 0)
+        {
+            writer.write(time, Long.SIZE);
+            for (var i = 0; i < fieldCount; i++)
+            {
+                var bits = Double.doubleToRawLongBits(values[i]);
+                writer.write(bits, Long.SIZE);
+                state.values[i] = bits;
+            }
+        }
+        else
+        {
+            var delta = time - state.time;
+            var deltaOfDelta = delta - state.delta;
+            if (deltaOfDelta < Integer.MIN_VALUE || deltaOfDelta > Integer.MAX_VALUE)
+                return false; // Continued in a new chunk
+
+            writeDeltaOfDelta(writer, deltaOfDelta);
+            state.delta = delta;
+            for (var i = 0; i < fieldCount; i++)
+                writeValue(writer, i, Double.doubleToRawLongBits(values[i]));
+        }
+
+        state.time = time;
+        bitLength = writer.position;
+        sampleCount++;
+        writeCounts();
+        return true;
+    }
+
+    /**
+     * Writes the sample count and bit length with a single write, so they cannot be torn apart by a crash.
+     */
+    private void writeCounts()
+    {
+        memory.set(LONG, SAMPLE_COUNT_OFFSET, bitLength << Integer.SIZE | Integer.toUnsignedLong(sampleCount));
+    }
+
+    /**
+     * Decodes all samples of the chunk.
+     * @param consumer Consumer receiving the samples in the order they were appended
+     */
+    void forEach(SampleConsumer consumer)
+    {
+        var reader = new Reader(new State(fieldCount));
+        var values = new double[fieldCount];
+        for (var i = 0; i < sampleCount; i++)
+        {
+            reader.next();
+            for (var field = 0; field < fieldCount; field++)
+                values[field] = Double.longBitsToDouble(reader.state.values[field]);
+
+            consumer.accept(reader.state.time, values);
+        }
+    }
+
+    private static void writeDeltaOfDelta(Writer writer, long deltaOfDelta)
+    {
+        if (deltaOfDelta == 0)
+            writer.write(0b0, 1);
+        else if (deltaOfDelta >= -63 && deltaOfDelta <= 64)
+        {
+            writer.write(0b10, 2);
+            writer.write(deltaOfDelta + 63, 7);
+        }
+        else if (deltaOfDelta >= -255 && deltaOfDelta <= 256)
+        {
+            writer.write(0b110, 3);
+            writer.write(deltaOfDelta + 255, 9);
+        }
+        else if (deltaOfDelta >= -2047 && deltaOfDelta <= 2048)
+        {
+            writer.write(0b1110, 4);
+            writer.write(deltaOfDelta + 2047, 12);
+        }
+        else
+        {
+            writer.write(0b1111, 4);
+            writer.write(deltaOfDelta, Integer.SIZE);
+        }
+    }
+
+    private void writeValue(Writer writer, int field, long bits)
+    {
+        var xor = bits ^ state.values[field];
+        state.values[field] = bits;
+        if (xor == 0)
+        {
+            writer.write(0b0, 1);
+            return;
+        }
+
+        var leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+        var trailing = Long.numberOfTrailingZeros(xor);
+        if (state.significantBits[field] > 0 && leading >= state.leadingZeros[field]
+                && trailing >= state.trailingZeros[field])
+        {
+            writer.write(0b10, 2); // Fits into the previous window
+            writer.write(xor >>> state.trailingZeros[field], state.significantBits[field]);
+            return;
+        }
+
+        var significantBits = Long.SIZE - leading - trailing;
+        writer.write(0b11, 2);
+        writer.write(leading, 5);
+        writer.write(significantBits == Long.SIZE ? 0 : significantBits, 6);
+        writer.write(xor >>> trailing, significantBits);
+        state.leadingZeros[field] = leading;
+        state.trailingZeros[field] = trailing;
+        state.significantBits[field] = significantBits;
+    }
+
+    /**
+     * Decoder state of the previous sample, which the next sample is encoded relative to.
+     */
+    private static final class State
+    {
+        private long time;
+        private long delta;
+        private final long[] values;
+        private final int[] leadingZeros;
+        private final int[] trailingZeros;
+        private final int[] significantBits;
+
+        private State(int fieldCount)
+        {
+            this.values = new long[fieldCount];
+            this.leadingZeros = new int[fieldCount];
+            this.trailingZeros = new int[fieldCount];
+            this.significantBits = new int[fieldCount];
+        }
+    }
+
+    /**
+     * Writes bits to the zeroed data of the chunk, most significant bit first.
+     */
+    private final class Writer
+    {
+        private long position;
+
+        private Writer(long position)
+        {
+            this.position = position;
+        }
+
+        private void write(long value, int bits)
+        {
+            while (bits > 0)
+            {
+                var offset = dataOffset + (position >>> 3);
+                var free = Byte.SIZE - (int) (position & 7);
+                var count = Math.min(free, bits);
+                var part = (int) (value >>> (bits - count)) & ((1 << count) - 1);
+                var current = memory.get(ValueLayout.JAVA_BYTE, offset);
+                memory.set(ValueLayout.JAVA_BYTE, offset, (byte) (current | (part << (free - count))));
+                position += count;
+                bits -= count;
+            }
+        }
+    }
+
+    private final class Reader
+    {
+        private final State state;
+        private long position;
+        private int samples;
+
+        private Reader(State state)
+        {
+            this.state = state;
+        }
+
+        private void next()
+        {
+            if (samples++ == 0)
+            {
+                state.time = read(Long.SIZE);
+                for (var i = 0; i < fieldCount; i++)
+                    state.values[i] = read(Long.SIZE);
+
+                return;
+            }
+
+            state.delta += readDeltaOfDelta();
+            state.time += state.delta;
+            for (var i = 0; i < fieldCount; i++)
+                readValue(i);
+        }
+
+        private long readDeltaOfDelta()
+        {
+            if (read(1) == 0)
+                return 0;
+            if (read(1) == 0)
+                return read(7) - 63;
+            if (read(1) == 0)
+                return read(9) - 255;
+            if (read(1) == 0)
+                return read(12) - 2047;
+
+            return (int) read(Integer.SIZE);
+        }
+
+        private void readValue(int field)
+        {
+            if (read(1) == 0)
+                return; // Unchanged
+
+            if (read(1) == 1)
+            {
+                state.leadingZeros[field] = (int) read(5);
+                var significantBits = (int) read(6);
+                state.significantBits[field] = significantBits == 0 ? Long.SIZE : significantBits;
+                state.trailingZeros[field] = Long.SIZE - state.leadingZeros[field] - state.significantBits[field];
+            }
+
+            var xor = read(state.significantBits[field]) << state.trailingZeros[field];
+            state.values[field] ^= xor;
+        }
+
+        private long read(int bits)
+        {
+            var result = 0L;
+            while (bits > 0)
+            {
+                var offset = dataOffset + (position >>> 3);
+                var available = Byte.SIZE - (int) (position & 7);
+                var count = Math.min(available, bits);
+                var current = memory.get(ValueLayout.JAVA_BYTE, offset) & 0xFF;
+                result = (result << count) | ((current >>> (available - count)) & ((1 << count) - 1));
+                position += count;
+                bits -= count;
+            }
+
+            return result;
+        }
+    }
+}
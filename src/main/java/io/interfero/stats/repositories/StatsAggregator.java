@@ -0,0 +1,166 @@
+package io.interfero.stats.repositories;
+
+import io.interfero.stats.domain.SubscriptionStatsRecord;
+import io.interfero.stats.domain.TopicStatsRecord;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+
+/**
+ * Aggregates raw samples of a topic or subscription into buckets of a resolution, for the stores which keep the samples
+ * as arrays of values instead of in a database. Like with the database vendors, the rates and throughputs are averaged
+ * and the sizes are the maximum within the bucket.
+ * @param <T> Type of the aggregated records
+ */
+public final class StatsAggregator<T>
+{
+    /**
+     * Same origin as the database vendors use, so buckets of a week start on Mondays.
+     */
+    private static final long BUCKET_ORIGIN = Instant.parse("2000-01-03T00:00:00Z").getEpochSecond();
+
+    public static final int TOPIC_FIELDS = 6;
+    private static final int TOPIC_AVERAGED_FIELDS = 4;
+    public static final int SUBSCRIPTION_FIELDS = 3;
+    private static final int SUBSCRIPTION_AVERAGED_FIELDS = 2;
+
+    private final long width;
+    private final int fieldCount;
+    private final int averagedFields;
+    private final BiFunction<Instant, double[], T> recordFactory;
+    private final TreeMap<Long, Bucket> buckets = new TreeMap<>();
+
+    private StatsAggregator(Duration resolution, int fieldCount, int averagedFields,
+                            BiFunction<Instant, double[], T> recordFactory)
+    {
+        this.width = Math.max(resolution.toSeconds(), 1);
+        this.fieldCount = fieldCount;
+        this.averagedFields = averagedFields;
+        this.recordFactory = recordFactory;
+    }
+
+    /**
+     * Creates an aggregator for the samples of a topic.
+     * @param clusterId Cluster id of the topic
+     * @param topic Fully qualified topic name
+     * @param resolution Width of the buckets
+     * @return The aggregator
+     */
+    public static StatsAggregator<TopicStatsRecord> forTopic(String clusterId, String topic, Duration resolution)
+    {
+        return new StatsAggregator<>(resolution, TOPIC_FIELDS, TOPIC_AVERAGED_FIELDS, (time, values) ->
+                new TopicStatsRecord(time, clusterId, topic, values[0], values[1], values[2], values[3],
+                        (long) values[4], (long) values[5]));
+    }
+
+    /**
+     * Creates an aggregator for the samples of a subscription.
+     * @param clusterId Cluster id of the subscribed topic
+     * @param topic Fully qualified name of the subscribed topic
+     * @param subscription Name of the subscription
+     * @param resolution Width of the buckets
+     * @return The aggregator
+     */
+    public static StatsAggregator<SubscriptionStatsRecord> forSubscription(String clusterId, String topic,
+                                                                          String subscription, Duration resolution)
+    {
+        return new StatsAggregator<>(resolution, SUBSCRIPTION_FIELDS, SUBSCRIPTION_AVERAGED_FIELDS, (time, values) ->
+                new SubscriptionStatsRecord(time, clusterId, topic, subscription, values[0], values[1],
+                        (long) values[2]));
+    }
+
+    /**
+     * Returns the key of the series of a topic or subscription.
+     * @param parts Cluster id, topic and, for a subscription, its name
+     * @return The key
+     */
+    public static String key(String... parts)
+    {
+        return String.join("\0", parts);
+    }
+
+    /**
+     * Writes the stats of a topic into the values of a sample.
+     * @param stats Stats of the topic
+     * @param values Values of the sample, with at least {@value #TOPIC_FIELDS} elements
+     */
+    public static void toValues(TopicStatsRecord stats, double[] values)
+    {
+        values[0] = stats.msgRateIn();
+        values[1] = stats.msgRateOut();
+        values[2] = stats.msgThroughputIn();
+        values[3] = stats.msgThroughputOut();
+        values[4] = stats.backlogSize();
+        values[5] = stats.storageSize();
+    }
+
+    /**
+     * Writes the stats of a subscription into the values of a sample.
+     * @param stats Stats of the subscription
+     * @param values Values of the sample, with at least {@value #SUBSCRIPTION_FIELDS} elements
+     */
+    public static void toValues(SubscriptionStatsRecord stats, double[] values)
+    {
+        values[0] = stats.msgRateOut();
+        values[1] = stats.msgThroughputOut();
+        values[2] = stats.msgBacklog();
+    }
+
+    /**
+     * Adds a sample to its bucket.
+     * @param time Timestamp of the sample in epoch seconds
+     * @param values Values of the sample, which are not retained
+     */
+    public void add(long time, double[] values)
+    {
+        var bucketStart = BUCKET_ORIGIN + Math.floorDiv(time - BUCKET_ORIGIN, width) * width;
+        buckets.computeIfAbsent(bucketStart, start -> new Bucket(fieldCount, averagedFields)).add(values);
+    }
+
+    /**
+     * @return Stats per bucket of the added samples, ordered by time
+     */
+    public List<T> result()
+    {
+        return buckets.entrySet().stream()
+                .map(entry -> recordFactory.apply(Instant.ofEpochSecond(entry.getKey()), entry.getValue().result()))
+                .toList();
+    }
+
+    private static final class Bucket
+    {
+        private final int averagedFields;
+        private final double[] values;
+        private int samples;
+
+        private Bucket(int fieldCount, int averagedFields)
+        {
+            this.averagedFields = averagedFields;
+            this.values = new double[fieldCount];
+        }
+
+        private void add(double[] sample)
+        {
+            for (var i = 0; i < values.length; i++)
+            {
+                if (i < averagedFields)
+                    values[i] += sample[i];
+                else
+                    values[i] = samples == 0 ? sample[i] : Math.max(values[i], sample[i]);
+            }
+
+            samples++;
+        }
+
+        private double[] result()
+        {
+            for (var i = 0; i < averagedFields; i++)
+                values[i] /= samples;
+
+            return values;
+        }
+    }
+}
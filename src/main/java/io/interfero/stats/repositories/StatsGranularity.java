@@ -0,0 +1,83 @@
+package io.interfero.stats.repositories;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+
+/**
+ * Granularities the stats are stored in. Besides the raw samples, the stats are rolled up into buckets of five
+ * minutes, one hour and one day, which are kept much longer than the raw samples. Queries read from the coarsest
+ * granularity which still satisfies the requested resolution, so long time ranges never scan raw samples.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum StatsGranularity
+{
+    RAW(Duration.ZERO, "", "time", "1"),
+    FIVE_MINUTES(Duration.ofMinutes(5), "_5m", "bucket", "samples"),
+    ONE_HOUR(Duration.ofHours(1), "_1h", "bucket", "samples"),
+    ONE_DAY(Duration.ofDays(1), "_1d", "bucket", "samples");
+
+    private final Duration bucketWidth;
+    private final String tableSuffix;
+
+    /**
+     * Column holding the time of a sample or the start of a bucket.
+     */
+    private final String timeColumn;
+
+    /**
+     * Column holding the number of samples per bucket, used to weight the averages when grouping buckets.
+     */
+    private final String samplesColumn;
+
+    /**
+     * Returns the coarsest granularity whose buckets fit into the given resolution - and whose buckets therefore can
+     * be grouped into buckets of that resolution.
+     * @param resolution Requested width of the returned buckets
+     * @return The coarsest satisfying granularity, {@link #RAW} if no rollup is fine enough
+     */
+    public static StatsGranularity coarsestFor(Duration resolution)
+    {
+        var granularities = values();
+        for (var i = granularities.length - 1; i > 0; i--)
+        {
+            var bucketWidth = granularities[i].bucketWidth;
+            if (bucketWidth.compareTo(resolution) <= 0 && resolution.toMillis() % bucketWidth.toMillis() == 0)
+                return granularities[i];
+        }
+
+        return RAW;
+    }
+
+    /**
+     * Rounds a resolution up to a multiple of the coarsest rollup whose buckets are at most the given factor wider than
+     * the resolution, so a query in the rounded resolution reads from that rollup instead of the raw samples.
+     * @param resolution Minimum width of the buckets
+     * @param maxWidening Factor the buckets may become wider by at most
+     * @return The rounded resolution, or the given resolution if no rollup is fine enough
+     */
+    public static Duration roundUpToRollup(Duration resolution, int maxWidening)
+    {
+        var granularities = values();
+        for (var i = granularities.length - 1; i > 0; i--)
+        {
+            var bucketWidth = granularities[i].bucketWidth;
+            if (bucketWidth.compareTo(resolution.multipliedBy(maxWidening)) <= 0)
+                return bucketWidth.multipliedBy(Math.ceilDiv(resolution.toMillis(), bucketWidth.toMillis()));
+        }
+
+        return resolution;
+    }
+
+    /**
+     * Returns the name of the table or view holding the stats in this granularity.
+     * @param rawTable Name of the table holding the raw samples
+     * @return Name of the table or view
+     */
+    String tableName(String rawTable)
+    {
+        return rawTable + tableSuffix;
+    }
+}
@@ -0,0 +1,250 @@
+package io.interfero.stats.repositories;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates and drops the partitions of the range partitioned stats tables of the Postgres vendor. Partitions are created
+ * a few periods ahead, so writes never miss their partition, and dropped as a whole once they are older than the
+ * retention of their {@link StatsGranularity} - which is much cheaper than deleting rows. The raw samples and the
+ * five minute rollups are partitioned by day, the hourly rollups by month and the daily rollups by year.
+ * <p>
+ * The partitions are maintained on startup and in the configured interval. If multiple replicas share the database,
+ * only one of them maintains the partitions at a time, guarded by an advisory lock.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnExpression("${interfero.database.enabled:false} and '${interfero.database.vendor:postgres}' == 'postgres'")
+class StatsPartitionManager
+{
+    /**
+     * Key of the advisory lock guarding the partition maintenance across replicas.
+     */
+    private static final long LOCK_KEY = 0x696E_7465_7266_6572L; // "interfer"
+
+    private static final int PERIODS_AHEAD = 2;
+
+    private static final List<String> RAW_TABLES = List.of("topic_stats", "subscription_stats");
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${interfero.stats.partition-maintenance-interval:1h}",
+            fixedDelayString = "${interfero.stats.partition-maintenance-interval:1h}")
+    void maintainPartitions()
+    {
+        try
+        {
+            namedParameterJdbcTemplate.getJdbcOperations().execute((ConnectionCallback<Void>) connection -> {
+                if (!tryLock(connection))
+                {
+                    log.debug("Stats partitions are maintained by another replica");
+                    return null;
+                }
+
+                try
+                {
+                    maintainPartitions(connection, Instant.now());
+                }
+                finally
+                {
+                    unlock(connection);
+                }
+
+                return null;
+            });
+        }
+        catch (DataAccessException e)
+        {
+            log.error("Failed to maintain stats partitions", e);
+        }
+    }
+
+    private void maintainPartitions(Connection connection, Instant now) throws SQLException
+    {
+        var today = LocalDate.ofInstant(now, ZoneOffset.UTC);
+        for (var granularity : StatsGranularity.values())
+        {
+            var unit = partitionUnit(granularity);
+            var oldestRetained = LocalDate.ofInstant(now.minus(retention(granularity)), ZoneOffset.UTC);
+
+            for (var rawTable : RAW_TABLES)
+            {
+                var table = granularity.tableName(rawTable);
+                var currentPeriod = periodStart(today, unit);
+                for (var period = currentPeriod.minus(1, unit); !period.isAfter(currentPeriod.plus(PERIODS_AHEAD, unit));
+                     period = period.plus(1, unit))
+                {
+                    if (period.plus(1, unit).isAfter(oldestRetained))
+                        createPartition(connection, table, period, unit);
+                }
+
+                for (var partition : listPartitions(connection, table))
+                {
+                    var period = parsePeriod(table, partition, unit);
+                    if (period != null && !period.plus(1, unit).isAfter(oldestRetained))
+                        dropPartition(connection, partition);
+                }
+            }
+        }
+    }
+
+    private void createPartition(Connection connection, String table, LocalDate period, ChronoUnit unit)
+            throws SQLException
+    {
+        var partition = partitionName(table, period, unit);
+        try (var statement = connection.createStatement())
+        {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + table +
+                    " FOR VALUES FROM ('" + period + " 00:00:00+00') TO ('" + period.plus(1, unit) + " 00:00:00+00')");
+        }
+    }
+
+    private void dropPartition(Connection connection, String partition) throws SQLException
+    {
+        log.info("Dropping expired stats partition '{}'", partition);
+        try (var statement = connection.createStatement())
+        {
+            statement.execute("DROP TABLE IF EXISTS " + partition);
+        }
+    }
+
+    private List<String> listPartitions(Connection connection, String table) throws SQLException
+    {
+        var sql = """
+                SELECT child.relname
+                FROM pg_inherits
+                JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+                JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+                WHERE parent.oid = CAST(? AS regclass)
+                """;
+        try (var statement = connection.prepareStatement(sql))
+        {
+            statement.setString(1, table);
+            try (var resultSet = statement.executeQuery())
+            {
+                var partitions = new ArrayList<String>();
+                while (resultSet.next())
+                    partitions.add(resultSet.getString(1));
+
+                return partitions;
+            }
+        }
+    }
+
+    static String partitionName(String table, LocalDate period, ChronoUnit unit)
+    {
+        return table + "_p" + period.format(periodFormat(unit));
+    }
+
+    /**
+     * Parses the period of a partition from its name.
+     * @return Start of the period, or null if the partition was not created by this manager
+     */
+    static @Nullable LocalDate parsePeriod(String table, String partition, ChronoUnit unit)
+    {
+        var prefix = table + "_p";
+        if (!partition.startsWith(prefix))
+            return null;
+
+        var period = partition.substring(prefix.length());
+        try
+        {
+            return switch (unit)
+            {
+                case YEARS -> Year.parse(period, periodFormat(unit)).atDay(1);
+                case MONTHS -> YearMonth.parse(period, periodFormat(unit)).atDay(1);
+                default -> LocalDate.parse(period, periodFormat(unit));
+            };
+        }
+        catch (DateTimeParseException e)
+        {
+            return null;
+        }
+    }
+
+    static LocalDate periodStart(LocalDate date, ChronoUnit unit)
+    {
+        return switch (unit)
+        {
+            case YEARS -> date.withDayOfYear(1);
+            case MONTHS -> date.withDayOfMonth(1);
+            default -> date;
+        };
+    }
+
+    private static DateTimeFormatter periodFormat(ChronoUnit unit)
+    {
+        return switch (unit)
+        {
+            case YEARS -> DateTimeFormatter.ofPattern("uuuu");
+            case MONTHS -> DateTimeFormatter.ofPattern("uuuuMM");
+            default -> DateTimeFormatter.ofPattern("uuuuMMdd");
+        };
+    }
+
+    static ChronoUnit partitionUnit(StatsGranularity granularity)
+    {
+        return switch (granularity)
+        {
+            case RAW, FIVE_MINUTES -> ChronoUnit.DAYS;
+            case ONE_HOUR -> ChronoUnit.MONTHS;
+            case ONE_DAY -> ChronoUnit.YEARS;
+        };
+    }
+
+    /**
+     * Returns how long the stats of a granularity are kept - the same as the retention policies of the TimescaleDB
+     * vendor.
+     */
+    static Duration retention(StatsGranularity granularity)
+    {
+        return switch (granularity)
+        {
+            case RAW -> Duration.ofDays(7);
+            case FIVE_MINUTES -> Duration.ofDays(30);
+            case ONE_HOUR -> Duration.ofDays(365);
+            case ONE_DAY -> Duration.ofDays(5 * 365);
+        };
+    }
+
+    private static boolean tryLock(Connection connection) throws SQLException
+    {
+        try (var statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?)"))
+        {
+            statement.setLong(1, LOCK_KEY);
+            try (var resultSet = statement.executeQuery())
+            {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    private static void unlock(Connection connection) throws SQLException
+    {
+        try (var statement = connection.prepareStatement("SELECT pg_advisory_unlock(?)"))
+        {
+            statement.setLong(1, LOCK_KEY);
+            statement.execute();
+        }
+    }
+}
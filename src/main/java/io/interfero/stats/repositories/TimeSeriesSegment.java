@@ -0,0 +1,238 @@
+package io.interfero.stats.repositories;
+
+import io.interfero.stats.repositories.GorillaChunk.SampleConsumer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Memory-mapped file of a fixed size, holding the samples of all series within a time bucket. The file is divided into
+ * fixed-size {@link GorillaChunk}s, which are assigned to the series in the order they are needed - a series continues
+ * in a new chunk once its current chunk is full. The number of assigned chunks is kept in the header, so the chunks
+ * of a series are found again by scanning the chunk headers when the segment is opened.
+ * <p>
+ * A segment is not thread-safe, access has to be synchronized by the {@link TimeSeriesStore}.
+ */
+@Slf4j
+final class TimeSeriesSegment implements AutoCloseable
+{
+    static final int CHUNK_SIZE = 2048;
+
+    private static final int MAGIC = 0x49465453; // IFTS
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+
+    /**
+     * Size of a segment with a single chunk.
+     */
+    static final long MIN_SIZE = HEADER_SIZE + CHUNK_SIZE;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int CHUNK_SIZE_OFFSET = 8;
+    private static final int FIELD_COUNT_OFFSET = 12;
+    private static final int START_OFFSET = 16;
+    private static final int DURATION_OFFSET = 24;
+    private static final int CHUNK_COUNT_OFFSET = 32;
+
+    private final Path path;
+    private final Arena arena;
+    private final MemorySegment memory;
+    private final int fieldCount;
+    private final long start;
+    private final long end;
+    private final int maxChunks;
+
+    private int chunkCount;
+    private final Map<String, List<GorillaChunk>> chunksByKey = new HashMap<>();
+
+    private TimeSeriesSegment(Path path, Arena arena, MemorySegment memory, int fieldCount, long start, long duration)
+    {
+        this.path = path;
+        this.arena = arena;
+        this.memory = memory;
+        this.fieldCount = fieldCount;
+        this.start = start;
+        this.end = start + duration;
+        this.maxChunks = (int) ((memory.byteSize() - HEADER_SIZE) / CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a new segment file of the given size. The file is sparse on most file systems, so only the chunks in use
+     * take up disk space.
+     * @param path Path of the new file
+     * @param size Size of the file in bytes
+     * @param fieldCount Number of values per sample
+     * @param start Start of the time bucket in epoch seconds
+     * @param duration Duration of the time bucket in seconds
+     * @return The segment
+     * @throws IOException if the file cannot be created
+     */
+    static TimeSeriesSegment create(Path path, long size, int fieldCount, long start, long duration) throws IOException
+    {
+        var arena = Arena.ofShared();
+        try (var channel = FileChannel.open(path, CREATE_NEW, READ, WRITE))
+        {
+            var memory = channel.map(FileChannel.MapMode.READ_WRITE, 0, size, arena);
+            memory.set(GorillaChunk.INT, MAGIC_OFFSET, MAGIC);
+            memory.set(GorillaChunk.INT, VERSION_OFFSET, VERSION);
+            memory.set(GorillaChunk.INT, CHUNK_SIZE_OFFSET, CHUNK_SIZE);
+            memory.set(GorillaChunk.INT, FIELD_COUNT_OFFSET, fieldCount);
+            memory.set(GorillaChunk.LONG, START_OFFSET, start);
+            memory.set(GorillaChunk.LONG, DURATION_OFFSET, duration);
+            memory.set(GorillaChunk.INT, CHUNK_COUNT_OFFSET, 0);
+            return new TimeSeriesSegment(path, arena, memory, fieldCount, start, duration);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens an existing segment file and indexes its chunks. Corrupt chunks are skipped.
+     * @param path Path of the file
+     * @param fieldCount Expected number of values per sample
+     * @return The segment
+     * @throws IOException if the file cannot be read or is no segment with the expected number of values
+     */
+    static TimeSeriesSegment open(Path path, int fieldCount) throws IOException
+    {
+        var arena = Arena.ofShared();
+        try (var channel = FileChannel.open(path, READ, WRITE))
+        {
+            var memory = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size(), arena);
+            if (memory.byteSize() < HEADER_SIZE || memory.get(GorillaChunk.INT, MAGIC_OFFSET) != MAGIC
+                    || memory.get(GorillaChunk.INT, VERSION_OFFSET) != VERSION
+                    || memory.get(GorillaChunk.INT, CHUNK_SIZE_OFFSET) != CHUNK_SIZE
+                    || memory.get(GorillaChunk.INT, FIELD_COUNT_OFFSET) != fieldCount)
+                throw new IOException("File '" + path + "' is no time series segment with " + fieldCount + " fields");
+
+            var segment = new TimeSeriesSegment(path, arena, memory, fieldCount,
+                    memory.get(GorillaChunk.LONG, START_OFFSET), memory.get(GorillaChunk.LONG, DURATION_OFFSET));
+            segment.indexChunks();
+            return segment;
+        }
+        catch (IOException | RuntimeException e)
+        {
+            arena.close();
+            throw e;
+        }
+    }
+
+    private void indexChunks()
+    {
+        chunkCount = Math.clamp(memory.get(GorillaChunk.INT, CHUNK_COUNT_OFFSET), 0, maxChunks);
+        for (var i = 0; i < chunkCount; i++)
+        {
+            try
+            {
+                var chunk = GorillaChunk.open(chunkMemory(i), fieldCount);
+                chunksByKey.computeIfAbsent(chunk.getKey(), key -> new ArrayList<>()).add(chunk);
+            }
+            catch (RuntimeException e)
+            {
+                log.warn("Skipping corrupt chunk {} of time series segment '{}'", i, path, e);
+            }
+        }
+    }
+
+    Path getPath()
+    {
+        return path;
+    }
+
+    /**
+     * @return Start of the time bucket in epoch seconds, inclusive
+     */
+    long getStart()
+    {
+        return start;
+    }
+
+    /**
+     * @return End of the time bucket in epoch seconds, exclusive
+     */
+    long getEnd()
+    {
+        return end;
+    }
+
+    /**
+     * Appends a sample to the current chunk of the series, or to a new chunk if the current one is full.
+     * @param key Key of the series
+     * @param time Timestamp of the sample in epoch seconds
+     * @param values Values of the sample
+     * @return Whether the sample was appended, false if the segment has no free chunks left
+     */
+    boolean append(String key, long time, double[] values)
+    {
+        var chunks = chunksByKey.get(key);
+        if (chunks != null && chunks.getLast().append(time, values))
+            return true;
+
+        if (chunkCount == maxChunks)
+            return false;
+
+        var chunk = GorillaChunk.create(chunkMemory(chunkCount), key, fieldCount);
+        chunk.append(time, values);
+        memory.set(GorillaChunk.INT, CHUNK_COUNT_OFFSET, ++chunkCount);
+        chunksByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(chunk);
+        return true;
+    }
+
+    /**
+     * Decodes all samples of the series within the given time range.
+     * @param key Key of the series
+     * @param from Start of the time range in epoch seconds, inclusive
+     * @param to End of the time range in epoch seconds, exclusive
+     * @param consumer Consumer receiving the samples
+     */
+    void read(String key, long from, long to, SampleConsumer consumer)
+    {
+        var chunks = chunksByKey.get(key);
+        if (chunks == null)
+            return;
+
+        for (var chunk : chunks)
+        {
+            chunk.forEach((time, values) -> {
+                if (time >= from && time < to)
+                    consumer.accept(time, values);
+            });
+        }
+    }
+
+    /**
+     * Writes the modified pages of the file to disk.
+     */
+    void force()
+    {
+        memory.force();
+    }
+
+    /**
+     * Unmaps the file. The segment must not be used afterward.
+     */
+    @Override
+    public void close()
+    {
+        arena.close();
+    }
+
+    private MemorySegment chunkMemory(int index)
+    {
+        return memory.asSlice(HEADER_SIZE + (long) index * CHUNK_SIZE, CHUNK_SIZE);
+    }
+}
@@ -0,0 +1,264 @@
+package io.interfero.stats.repositories;
+
+import io.interfero.stats.repositories.GorillaChunk.SampleConsumer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Embedded time series store, keeping the samples of many series with a fixed number of values in memory-mapped
+ * {@link TimeSeriesSegment}s. Each segment covers a time bucket of the configured duration, a new segment is created
+ * when the first sample of a bucket arrives - or when the segment of the bucket is full, so a bucket might span
+ * several segments of the configured size. Whenever a new segment is created, the segments whose bucket ended before
+ * the retention period are deleted.
+ * <p>
+ * All segments within the retention period stay mapped, so reads are served from the page cache. Writes are exclusive,
+ * reads may run concurrently.
+ */
+@Slf4j
+final class TimeSeriesStore implements AutoCloseable
+{
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final DateTimeFormatter START_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+
+    private final Path directory;
+    private final String name;
+    private final int fieldCount;
+    private final long segmentDuration;
+    private final long segmentSize;
+    private final Duration retention;
+    private final Pattern segmentPattern;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<Long, List<TimeSeriesSegment>> segmentsByStart = new TreeMap<>();
+
+    /**
+     * @param directory Directory of the segment files
+     * @param name Name of the store, used as prefix of the segment files
+     * @param fieldCount Number of values per sample
+     * @param segmentDuration Duration of the time bucket of a segment
+     * @param segmentSize Size of a segment file in bytes
+     * @param retention How long samples are kept
+     */
+    TimeSeriesStore(Path directory, String name, int fieldCount, Duration segmentDuration, long segmentSize,
+                    Duration retention)
+    {
+        if (segmentDuration.toSeconds() < 1)
+            throw new IllegalArgumentException("Segment duration must be at least one second");
+        if (segmentSize < TimeSeriesSegment.MIN_SIZE)
+            throw new IllegalArgumentException("Segment size must be at least " + TimeSeriesSegment.MIN_SIZE
+                    + " bytes");
+
+        this.directory = directory;
+        this.name = name;
+        this.fieldCount = fieldCount;
+        this.segmentDuration = segmentDuration.toSeconds();
+        this.segmentSize = segmentSize;
+        this.retention = retention;
+        this.segmentPattern = Pattern.compile(Pattern.quote(name) + "-\\d{8}T\\d{6}Z-\\d+"
+                + Pattern.quote(SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Maps the existing segments of the store and deletes expired ones. Segments which cannot be opened are skipped.
+     * @throws UncheckedIOException if the directory cannot be created or listed
+     */
+    void open()
+    {
+        lock.writeLock().lock();
+        try (var files = Files.list(Files.createDirectories(directory)))
+        {
+            for (var path : files.filter(path -> segmentPattern.matcher(path.getFileName().toString()).matches())
+                    .sorted()
+                    .toList())
+            {
+                try
+                {
+                    var segment = TimeSeriesSegment.open(path, fieldCount);
+                    segmentsByStart.computeIfAbsent(segment.getStart(), start -> new ArrayList<>()).add(segment);
+                }
+                catch (IOException | RuntimeException e)
+                {
+                    log.warn("Skipping time series segment '{}', which cannot be opened", path, e);
+                }
+            }
+
+            log.debug("Opened {} time series segments of '{}'", segmentsByStart.values().stream()
+                    .mapToInt(List::size)
+                    .sum(), name);
+            deleteExpiredSegments();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException("Failed to open time series store '" + name + "'", e);
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Appends a sample to a series. Samples older than the retention period are ignored.
+     * @param key Key of the series
+     * @param time Timestamp of the sample, truncated to seconds
+     * @param values Values of the sample
+     * @return Whether the sample was appended
+     * @throws UncheckedIOException if a new segment cannot be created
+     */
+    boolean append(String key, Instant time, double[] values)
+    {
+        var seconds = time.getEpochSecond();
+        var start = Math.floorDiv(seconds, segmentDuration) * segmentDuration;
+        if (start + segmentDuration <= retentionStart())
+            return false;
+
+        lock.writeLock().lock();
+        try
+        {
+            var segments = segmentsByStart.get(start);
+            if (segments != null && segments.getLast().append(key, seconds, values))
+                return true;
+
+            var segment = createSegment(start, segments == null ? 0 : segments.size());
+            return segment.append(key, seconds, values);
+        }
+        catch (IllegalArgumentException e)
+        {
+            log.warn("Skipping sample of series '{}' in '{}': {}", key, name, e.getMessage());
+            return false;
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException("Failed to create time series segment of '" + name + "'", e);
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Decodes all samples of a series within the given time range.
+     * @param key Key of the series
+     * @param from Start of the time range, inclusive
+     * @param to End of the time range, exclusive
+     * @param consumer Consumer receiving the samples, not necessarily ordered by time
+     */
+    void read(String key, Instant from, Instant to, SampleConsumer consumer)
+    {
+        var fromSeconds = from.getEpochSecond();
+        var toSeconds = to.getEpochSecond() + (to.getNano() > 0 ? 1 : 0);
+
+        lock.readLock().lock();
+        try
+        {
+            for (var segments : segmentsByStart.headMap(toSeconds, false).values())
+            {
+                for (var segment : segments)
+                {
+                    if (segment.getEnd() > fromSeconds)
+                        segment.read(key, fromSeconds, toSeconds, consumer);
+                }
+            }
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    private TimeSeriesSegment createSegment(long start, int sequence) throws IOException
+    {
+        var path = segmentPath(start, sequence);
+        while (Files.exists(path))
+            path = segmentPath(start, ++sequence); // Left by a segment which could not be opened
+        log.debug("Creating time series segment '{}'", path);
+
+        var segment = TimeSeriesSegment.create(path, segmentSize, fieldCount, start, segmentDuration);
+        segmentsByStart.values().forEach(segments -> segments.getLast().force()); // Written less from now on
+        segmentsByStart.computeIfAbsent(start, s -> new ArrayList<>()).add(segment);
+        deleteExpiredSegments();
+        return segment;
+    }
+
+    private Path segmentPath(long start, int sequence)
+    {
+        return directory.resolve("%s-%s-%04d%s".formatted(name, START_FORMAT.format(Instant.ofEpochSecond(start)),
+                sequence, SEGMENT_SUFFIX));
+    }
+
+    private void deleteExpiredSegments()
+    {
+        var retentionStart = retentionStart();
+        var iterator = segmentsByStart.values().iterator();
+        while (iterator.hasNext())
+        {
+            var segments = iterator.next();
+            if (segments.stream().anyMatch(segment -> segment.getEnd() > retentionStart))
+                continue;
+
+            for (var segment : segments)
+            {
+                log.debug("Deleting expired time series segment '{}'", segment.getPath());
+                segment.close();
+                try
+                {
+                    Files.deleteIfExists(segment.getPath());
+                }
+                catch (IOException e)
+                {
+                    log.warn("Failed to delete expired time series segment '{}'", segment.getPath(), e);
+                }
+            }
+
+            iterator.remove();
+        }
+    }
+
+    private long retentionStart()
+    {
+        return Instant.now().minus(retention).getEpochSecond();
+    }
+
+    /**
+     * Writes all segments to disk and unmaps them.
+     */
+    @Override
+    public void close()
+    {
+        lock.writeLock().lock();
+        try
+        {
+            for (var segments : segmentsByStart.values())
+            {
+                for (var segment : segments)
+                {
+                    segment.force();
+                    segment.close();
+                }
+            }
+
+            segmentsByStart.clear();
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package io.interfero.stats.repositories;
+
+import io.interfero.stats.domain.SubscriptionStatsRecord;
+import io.interfero.stats.domain.TopicStatsRecord;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * File-based implementation of {@link TopicStatsRepository}, for deployments without a database. The stats are kept in
+ * two embedded {@link TimeSeriesStore}s in the <code>stats</code> folder of the data directory, one series per topic
+ * and subscription. There are no rollups - queries aggregate the raw samples with a {@link StatsAggregator}, decoding
+ * them from the memory-mapped segments.
+ * <p>
+ * Sizes are stored as doubles, which represent them exactly up to 2<sup>53</sup> bytes.
+ */
+@Slf4j
+@Repository
+@ConditionalOnProperty(value = "interfero.database.enabled", havingValue = "false", matchIfMissing = true)
+public class TopicStatsFileRepository implements TopicStatsRepository
+{
+    private static final String STATS_DIRECTORY = "stats";
+
+    private final TimeSeriesStore topicStatsStore;
+    private final TimeSeriesStore subscriptionStatsStore;
+
+    TopicStatsFileRepository(@Value("${interfero.directories.data}") String dataDirectoryPath,
+                             @Value("${interfero.stats.file.segment-duration:1d}") Duration segmentDuration,
+                             @Value("${interfero.stats.file.segment-size:64MB}") DataSize segmentSize,
+                             @Value("${interfero.stats.file.retention:30d}") Duration retention)
+    {
+        var directory = Path.of(dataDirectoryPath, STATS_DIRECTORY);
+        this.topicStatsStore = new TimeSeriesStore(directory, "topic-stats", StatsAggregator.TOPIC_FIELDS,
+                segmentDuration, segmentSize.toBytes(), retention);
+        this.subscriptionStatsStore = new TimeSeriesStore(directory, "subscription-stats",
+                StatsAggregator.SUBSCRIPTION_FIELDS, segmentDuration, segmentSize.toBytes(), retention);
+    }
+
+    @Override
+    public void saveTopicStats(Collection<TopicStatsRecord> topicStats)
+    {
+        log.debug("Saving {} topic stats", topicStats.size());
+        var values = new double[StatsAggregator.TOPIC_FIELDS];
+        for (var stats : topicStats)
+        {
+            StatsAggregator.toValues(stats, values);
+            topicStatsStore.append(StatsAggregator.key(stats.clusterId(), stats.topic()), stats.time(), values);
+        }
+    }
+
+    @Override
+    public void saveSubscriptionStats(Collection<SubscriptionStatsRecord> subscriptionStats)
+    {
+        log.debug("Saving {} subscription stats", subscriptionStats.size());
+        var values = new double[StatsAggregator.SUBSCRIPTION_FIELDS];
+        for (var stats : subscriptionStats)
+        {
+            StatsAggregator.toValues(stats, values);
+            subscriptionStatsStore.append(StatsAggregator.key(stats.clusterId(), stats.topic(), stats.subscription()),
+                    stats.time(), values);
+        }
+    }
+
+    @Override
+    public List<TopicStatsRecord> findTopicStats(String clusterId, String topic, Instant from, Instant to,
+                                                 Duration resolution)
+    {
+        log.debug("Finding stats of topic '{}' in cluster with id '{}' with resolution {}", topic, clusterId,
+                resolution);
+        var aggregator = StatsAggregator.forTopic(clusterId, topic, resolution);
+        topicStatsStore.read(StatsAggregator.key(clusterId, topic), from, to, aggregator::add);
+        return aggregator.result();
+    }
+
+    @Override
+    public List<SubscriptionStatsRecord> findSubscriptionStats(String clusterId, String topic, String subscription,
+                                                               Instant from, Instant to, Duration resolution)
+    {
+        log.debug("Finding stats of subscription '{}' of topic '{}' in cluster with id '{}' with resolution {}",
+                subscription, topic, clusterId, resolution);
+        var aggregator = StatsAggregator.forSubscription(clusterId, topic, subscription, resolution);
+        subscriptionStatsStore.read(StatsAggregator.key(clusterId, topic, subscription), from, to, aggregator::add);
+        return aggregator.result();
+    }
+
+    @PostConstruct
+    void open()
+    {
+        topicStatsStore.open();
+        subscriptionStatsStore.open();
+    }
+
+    @PreDestroy
+    void close()
+    {
+        topicStatsStore.close();
+        subscriptionStatsStore.close();
+    }
+}
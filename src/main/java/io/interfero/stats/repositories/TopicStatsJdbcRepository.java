@@ -0,0 +1,214 @@
+package io.interfero.stats.repositories;
+
+import io.interfero.stats.StatsConfiguration;
+import io.interfero.stats.domain.SubscriptionStatsRecord;
+import io.interfero.stats.domain.TopicStatsRecord;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Base for the JDBC-based implementations of {@link TopicStatsRepository}. The stats are appended with the binary COPY
+ * protocol of pgjdbc, in copies of the configured batch size - which avoids parsing and planning an insert per batch
+ * and transferring the values as text. All copies of a save run in one transaction, so a save either writes all of its
+ * stats or none of them. Queries read from the rollup of the coarsest {@link StatsGranularity}
+ * satisfying the requested resolution, the vendors only differ in how the rollups are maintained and how timestamps are
+ * bucketed.
+ */
+@Slf4j
+@RequiredArgsConstructor
+abstract class TopicStatsJdbcRepository implements TopicStatsRepository
+{
+    private static final String COPY_TOPIC_STATS_SQL = """
+            COPY topic_stats (time, cluster_id, topic, msg_rate_in, msg_rate_out, msg_throughput_in, msg_throughput_out, backlog_size, storage_size)
+            FROM STDIN (FORMAT binary)
+            """;
+
+    private static final String COPY_SUBSCRIPTION_STATS_SQL = """
+            COPY subscription_stats (time, cluster_id, topic, subscription, msg_rate_out, msg_throughput_out, msg_backlog)
+            FROM STDIN (FORMAT binary)
+            """;
+
+    private static final String FIND_TOPIC_STATS_SQL = """
+            SELECT {bucket} AS bucket,
+                   sum(msg_rate_in * {samples}) / sum({samples}) AS msg_rate_in,
+                   sum(msg_rate_out * {samples}) / sum({samples}) AS msg_rate_out,
+                   sum(msg_throughput_in * {samples}) / sum({samples}) AS msg_throughput_in,
+                   sum(msg_throughput_out * {samples}) / sum({samples}) AS msg_throughput_out,
+                   max(backlog_size) AS backlog_size,
+                   max(storage_size) AS storage_size
+            FROM {table}
+            WHERE cluster_id = :clusterId AND topic = :topic AND {time} >= :from AND {time} < :to
+            GROUP BY 1
+            ORDER BY 1
+            """;
+
+    private static final String FIND_SUBSCRIPTION_STATS_SQL = """
+            SELECT {bucket} AS bucket,
+                   sum(msg_rate_out * {samples}) / sum({samples}) AS msg_rate_out,
+                   sum(msg_throughput_out * {samples}) / sum({samples}) AS msg_throughput_out,
+                   max(msg_backlog) AS msg_backlog
+            FROM {table}
+            WHERE cluster_id = :clusterId AND topic = :topic AND subscription = :subscription
+              AND {time} >= :from AND {time} < :to
+            GROUP BY 1
+            ORDER BY 1
+            """;
+
+    protected final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    protected final StatsConfiguration statsConfiguration;
+
+    /**
+     * Returns the SQL expression which assigns a timestamp to its bucket.
+     * @param interval SQL expression of the bucket width
+     * @param column Column holding the timestamp
+     * @return SQL expression of the bucket start
+     */
+    protected abstract String bucketExpression(String interval, String column);
+
+    @Override
+    @Transactional
+    public void saveTopicStats(Collection<TopicStatsRecord> topicStats)
+    {
+        log.debug("Copying {} topic stats", topicStats.size());
+        copy(COPY_TOPIC_STATS_SQL, topicStats, (writer, stats) -> {
+            writer.startRow(9);
+            writer.writeTimestamp(stats.time());
+            writer.writeString(stats.clusterId());
+            writer.writeString(stats.topic());
+            writer.writeDouble(stats.msgRateIn());
+            writer.writeDouble(stats.msgRateOut());
+            writer.writeDouble(stats.msgThroughputIn());
+            writer.writeDouble(stats.msgThroughputOut());
+            writer.writeLong(stats.backlogSize());
+            writer.writeLong(stats.storageSize());
+        });
+    }
+
+    @Override
+    @Transactional
+    public void saveSubscriptionStats(Collection<SubscriptionStatsRecord> subscriptionStats)
+    {
+        log.debug("Copying {} subscription stats", subscriptionStats.size());
+        copy(COPY_SUBSCRIPTION_STATS_SQL, subscriptionStats, (writer, stats) -> {
+            writer.startRow(7);
+            writer.writeTimestamp(stats.time());
+            writer.writeString(stats.clusterId());
+            writer.writeString(stats.topic());
+            writer.writeString(stats.subscription());
+            writer.writeDouble(stats.msgRateOut());
+            writer.writeDouble(stats.msgThroughputOut());
+            writer.writeLong(stats.msgBacklog());
+        });
+    }
+
+    @Override
+    public List<TopicStatsRecord> findTopicStats(String clusterId, String topic, Instant from, Instant to,
+                                                 Duration resolution)
+    {
+        var granularity = StatsGranularity.coarsestFor(resolution);
+        log.debug("Finding stats of topic '{}' in cluster with id '{}' with resolution {} from {} granularity", topic,
+                clusterId, resolution, granularity);
+
+        var params = new MapSqlParameterSource()
+                .addValue("resolution", resolution.toString())
+                .addValue("clusterId", clusterId)
+                .addValue("topic", topic)
+                .addValue("from", Timestamp.from(from))
+                .addValue("to", Timestamp.from(to));
+
+        return namedParameterJdbcTemplate.query(toSql(FIND_TOPIC_STATS_SQL, "topic_stats", granularity), params,
+                (rs, rowNum) -> new TopicStatsRecord(
+                        rs.getTimestamp("bucket").toInstant(),
+                        clusterId,
+                        topic,
+                        rs.getDouble("msg_rate_in"),
+                        rs.getDouble("msg_rate_out"),
+                        rs.getDouble("msg_throughput_in"),
+                        rs.getDouble("msg_throughput_out"),
+                        rs.getLong("backlog_size"),
+                        rs.getLong("storage_size")));
+    }
+
+    @Override
+    public List<SubscriptionStatsRecord> findSubscriptionStats(String clusterId, String topic, String subscription,
+                                                               Instant from, Instant to, Duration resolution)
+    {
+        var granularity = StatsGranularity.coarsestFor(resolution);
+        log.debug("Finding stats of subscription '{}' of topic '{}' in cluster with id '{}' with resolution {} from {} " +
+                "granularity", subscription, topic, clusterId, resolution, granularity);
+
+        var params = new MapSqlParameterSource()
+                .addValue("resolution", resolution.toString())
+                .addValue("clusterId", clusterId)
+                .addValue("topic", topic)
+                .addValue("subscription", subscription)
+                .addValue("from", Timestamp.from(from))
+                .addValue("to", Timestamp.from(to));
+
+        return namedParameterJdbcTemplate.query(toSql(FIND_SUBSCRIPTION_STATS_SQL, "subscription_stats", granularity),
+                params, (rs, rowNum) -> new SubscriptionStatsRecord(
+                        rs.getTimestamp("bucket").toInstant(),
+                        clusterId,
+                        topic,
+                        subscription,
+                        rs.getDouble("msg_rate_out"),
+                        rs.getDouble("msg_throughput_out"),
+                        rs.getLong("msg_backlog")));
+    }
+
+    /**
+     * Streams the records to the database with one binary COPY per batch, which bounds the rows buffered by a single
+     * copy. The copies run on the connection of the surrounding transaction, so a failing batch rolls back the batches
+     * copied before it.
+     */
+    private <T> void copy(String sql, Collection<T> records, RowWriter<T> rowWriter)
+    {
+        if (records.isEmpty())
+            return;
+
+        namedParameterJdbcTemplate.getJdbcOperations().execute((ConnectionCallback<Void>) connection -> {
+            var copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            var iterator = records.iterator();
+            while (iterator.hasNext())
+            {
+                try (var writer = new BinaryCopyWriter(copyManager.copyIn(sql)))
+                {
+                    for (var rows = 0; rows < statsConfiguration.getBatchSize() && iterator.hasNext(); rows++)
+                        rowWriter.write(writer, iterator.next());
+
+                    var copied = writer.finish();
+                    log.trace("Copied {} rows", copied);
+                }
+            }
+
+            return null;
+        });
+    }
+
+    private String toSql(String template, String rawTable, StatsGranularity granularity)
+    {
+        return template
+                .replace("{bucket}", bucketExpression("CAST(:resolution AS interval)", granularity.getTimeColumn()))
+                .replace("{table}", granularity.tableName(rawTable))
+                .replace("{time}", granularity.getTimeColumn())
+                .replace("{samples}", granularity.getSamplesColumn());
+    }
+
+    @FunctionalInterface
+    private interface RowWriter<T>
+    {
+        void write(BinaryCopyWriter writer, T row) throws SQLException;
+    }
+}
@@ -0,0 +1,129 @@
+package io.interfero.stats.repositories;
+
+import io.interfero.stats.StatsConfiguration;
+import io.interfero.stats.domain.SubscriptionStatsRecord;
+import io.interfero.stats.domain.TopicStatsRecord;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Postgres-based implementation of {@link TopicStatsRepository}, for deployments without TimescaleDB. The stats are
+ * appended to tables which are range partitioned by time - the partitions are created and dropped by the
+ * {@link StatsPartitionManager}. After each write, the written samples are merged into the rollup tables of all
+ * coarser {@link StatsGranularity granularities} by the database, so the rollups are maintained incrementally without
+ * rescanning older samples. The samples and their rollups are written in one transaction, so a failed write leaves
+ * neither raw samples which are missing from the rollups nor rollups counting samples which were not written.
+ */
+@Slf4j
+@Repository
+@ConditionalOnExpression("${interfero.database.enabled:false} and '${interfero.database.vendor:postgres}' == 'postgres'")
+public class TopicStatsPostgresRepository extends TopicStatsJdbcRepository
+{
+    /**
+     * Same origin as TimescaleDB's <code>time_bucket</code>, so weekly buckets start on Mondays with both vendors.
+     */
+    private static final String BUCKET_ORIGIN = "TIMESTAMPTZ '2000-01-03 00:00:00+00'";
+
+    private static final String ROLLUP_TOPIC_STATS_SQL = """
+            INSERT INTO {table} AS rollup (bucket, cluster_id, topic, samples, msg_rate_in, msg_rate_out, msg_throughput_in, msg_throughput_out, backlog_size, storage_size)
+            SELECT {bucket}, cluster_id, topic, count(*), avg(msg_rate_in), avg(msg_rate_out), avg(msg_throughput_in), avg(msg_throughput_out), max(backlog_size), max(storage_size)
+            FROM topic_stats
+            WHERE cluster_id = :clusterId AND time = :time
+            GROUP BY 1, cluster_id, topic
+            ON CONFLICT (cluster_id, topic, bucket) DO UPDATE SET
+                samples = rollup.samples + excluded.samples,
+                msg_rate_in = (rollup.msg_rate_in * rollup.samples + excluded.msg_rate_in * excluded.samples) / (rollup.samples + excluded.samples),
+                msg_rate_out = (rollup.msg_rate_out * rollup.samples + excluded.msg_rate_out * excluded.samples) / (rollup.samples + excluded.samples),
+                msg_throughput_in = (rollup.msg_throughput_in * rollup.samples + excluded.msg_throughput_in * excluded.samples) / (rollup.samples + excluded.samples),
+                msg_throughput_out = (rollup.msg_throughput_out * rollup.samples + excluded.msg_throughput_out * excluded.samples) / (rollup.samples + excluded.samples),
+                backlog_size = greatest(rollup.backlog_size, excluded.backlog_size),
+                storage_size = greatest(rollup.storage_size, excluded.storage_size)
+            """;
+
+    private static final String ROLLUP_SUBSCRIPTION_STATS_SQL = """
+            INSERT INTO {table} AS rollup (bucket, cluster_id, topic, subscription, samples, msg_rate_out, msg_throughput_out, msg_backlog)
+            SELECT {bucket}, cluster_id, topic, subscription, count(*), avg(msg_rate_out), avg(msg_throughput_out), max(msg_backlog)
+            FROM subscription_stats
+            WHERE cluster_id = :clusterId AND time = :time
+            GROUP BY 1, cluster_id, topic, subscription
+            ON CONFLICT (cluster_id, topic, subscription, bucket) DO UPDATE SET
+                samples = rollup.samples + excluded.samples,
+                msg_rate_out = (rollup.msg_rate_out * rollup.samples + excluded.msg_rate_out * excluded.samples) / (rollup.samples + excluded.samples),
+                msg_throughput_out = (rollup.msg_throughput_out * rollup.samples + excluded.msg_throughput_out * excluded.samples) / (rollup.samples + excluded.samples),
+                msg_backlog = greatest(rollup.msg_backlog, excluded.msg_backlog)
+            """;
+
+    TopicStatsPostgresRepository(NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                                 StatsConfiguration statsConfiguration)
+    {
+        super(namedParameterJdbcTemplate, statsConfiguration);
+    }
+
+    @Override
+    protected String bucketExpression(String interval, String column)
+    {
+        return "date_bin(" + interval + ", " + column + ", " + BUCKET_ORIGIN + ")";
+    }
+
+    @Override
+    @Transactional
+    public void saveTopicStats(Collection<TopicStatsRecord> topicStats)
+    {
+        super.saveTopicStats(topicStats);
+        rollUp(ROLLUP_TOPIC_STATS_SQL, "topic_stats", topicStats, TopicStatsRecord::clusterId, TopicStatsRecord::time);
+    }
+
+    @Override
+    @Transactional
+    public void saveSubscriptionStats(Collection<SubscriptionStatsRecord> subscriptionStats)
+    {
+        super.saveSubscriptionStats(subscriptionStats);
+        rollUp(ROLLUP_SUBSCRIPTION_STATS_SQL, "subscription_stats", subscriptionStats,
+                SubscriptionStatsRecord::clusterId, SubscriptionStatsRecord::time);
+    }
+
+    /**
+     * Merges the samples written for the given records into the rollups of all granularities. A collection writes the
+     * samples of a cluster with a single timestamp, so this is usually a single statement per granularity.
+     */
+    private <T> void rollUp(String template, String rawTable, Collection<T> records,
+                            Function<T, String> clusterIdExtractor, Function<T, Instant> timeExtractor)
+    {
+        var params = records.stream()
+                .map(stats -> new SampleKey(clusterIdExtractor.apply(stats), timeExtractor.apply(stats)))
+                .distinct()
+                .map(key -> new MapSqlParameterSource()
+                        .addValue("clusterId", key.clusterId())
+                        .addValue("time", Timestamp.from(key.time())))
+                .toArray(SqlParameterSource[]::new);
+        if (params.length == 0)
+            return;
+
+        for (var granularity : StatsGranularity.values())
+        {
+            if (granularity == StatsGranularity.RAW)
+                continue;
+
+            log.trace("Rolling up {} samples of {} into {} granularity", params.length, rawTable, granularity);
+            var sql = template
+                    .replace("{table}", granularity.tableName(rawTable))
+                    .replace("{bucket}", bucketExpression(
+                            "INTERVAL '" + granularity.getBucketWidth().toSeconds() + " seconds'", "time"));
+            namedParameterJdbcTemplate.batchUpdate(sql, params);
+        }
+    }
+
+    private record SampleKey(String clusterId, Instant time)
+    {
+    }
+}
@@ -0,0 +1,56 @@
+package io.interfero.stats.repositories;
+
+import io.interfero.stats.domain.SubscriptionStatsRecord;
+import io.interfero.stats.domain.TopicStatsRecord;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for storing the collected topic and subscription stats as time series.
+ */
+public interface TopicStatsRepository
+{
+    /**
+     * Appends the given topic stats to the time series.
+     * @param topicStats The topic stats to store
+     */
+    void saveTopicStats(Collection<TopicStatsRecord> topicStats);
+
+    /**
+     * Appends the given subscription stats to the time series.
+     * @param subscriptionStats The subscription stats to store
+     */
+    void saveSubscriptionStats(Collection<SubscriptionStatsRecord> subscriptionStats);
+
+    /**
+     * Returns the stats of a topic in the given time range, aggregated into buckets of the given resolution. Rates are
+     * averaged per bucket, sizes are the maximum per bucket. The stats are read from the coarsest stored granularity
+     * which satisfies the resolution.
+     * @param clusterId Cluster id or the name of the cluster as defined in the configuration
+     * @param topic Fully qualified topic name
+     * @param from Start of the time range (inclusive)
+     * @param to End of the time range (exclusive)
+     * @param resolution Width of the returned buckets
+     * @return Stats per bucket, ordered by time
+     */
+    List<TopicStatsRecord> findTopicStats(String clusterId, String topic, Instant from, Instant to,
+                                          Duration resolution);
+
+    /**
+     * Returns the stats of a subscription in the given time range, aggregated into buckets of the given resolution.
+     * Rates are averaged per bucket, the backlog is the maximum per bucket. The stats are read from the coarsest stored
+     * granularity which satisfies the resolution.
+     * @param clusterId Cluster id or the name of the cluster as defined in the configuration
+     * @param topic Fully qualified name of the subscribed topic
+     * @param subscription Name of the subscription
+     * @param from Start of the time range (inclusive)
+     * @param to End of the time range (exclusive)
+     * @param resolution Width of the returned buckets
+     * @return Stats per bucket, ordered by time
+     */
+    List<SubscriptionStatsRecord> findSubscriptionStats(String clusterId, String topic, String subscription,
+                                                        Instant from, Instant to, Duration resolution);
+}
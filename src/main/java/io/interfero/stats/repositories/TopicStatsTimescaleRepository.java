@@ -0,0 +1,27 @@
+package io.interfero.stats.repositories;
+
+import io.interfero.stats.StatsConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * TimescaleDB-based implementation of {@link TopicStatsRepository}. The stats are appended to hypertables, which are
+ * rolled up by continuous aggregates.
+ */
+@Repository
+@ConditionalOnExpression("${interfero.database.enabled:false} and '${interfero.database.vendor:postgres}' == 'timescaledb'")
+public class TopicStatsTimescaleRepository extends TopicStatsJdbcRepository
+{
+    TopicStatsTimescaleRepository(NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                                  StatsConfiguration statsConfiguration)
+    {
+        super(namedParameterJdbcTemplate, statsConfiguration);
+    }
+
+    @Override
+    protected String bucketExpression(String interval, String column)
+    {
+        return "time_bucket(" + interval + ", " + column + ")";
+    }
+}
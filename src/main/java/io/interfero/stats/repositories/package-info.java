@@ -0,0 +1,4 @@
+@NullMarked
+package io.interfero.stats.repositories;
+
+import org.jspecify.annotations.NullMarked;
@@ -0,0 +1,157 @@
+package io.interfero.stats.services;
+
+import io.interfero.stats.domain.SubscriptionStatsRecord;
+import io.interfero.stats.domain.TopicStatsRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pulsar.client.admin.PulsarAdmin;
+import org.apache.pulsar.client.admin.PulsarAdminException;
+import org.apache.pulsar.common.policies.data.TopicStats;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Requests the stats of every topic via the Pulsar Admin. The topics are listed per namespace and their stats are
+ * requested concurrently on virtual threads - limited to the configured number of concurrent admin requests, so the
+ * brokers are not overwhelmed. This takes one HTTP call per topic, but works with any cluster the admin can reach.
+ */
+@Slf4j
+class AdminTopicStatsSource implements TopicStatsSource
+{
+    private final ExecutorService executor;
+    private final Semaphore requestPermits;
+    private final Counter failedTopics;
+
+    /**
+     * @param executor Executor to run the requests on, should use virtual threads
+     * @param maxConcurrentRequests Maximum number of concurrent admin requests, shared by all clusters
+     * @param meterRegistry Registry for the metrics of failed requests
+     */
+    AdminTopicStatsSource(ExecutorService executor, int maxConcurrentRequests, MeterRegistry meterRegistry)
+    {
+        this.executor = executor;
+        this.requestPermits = new Semaphore(maxConcurrentRequests);
+        this.failedTopics = Counter.builder("interfero.stats.topics.failed")
+                .description("Number of topics whose stats could not be collected")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CollectedStats collect(String clusterId, PulsarAdmin pulsarAdmin, Instant time) throws PulsarAdminException
+    {
+        var topics = listTopics(pulsarAdmin);
+        log.debug("Collecting stats of {} topics in cluster with id '{}'", topics.size(), clusterId);
+
+        var topicStats = new ConcurrentLinkedQueue<TopicStatsRecord>();
+        var subscriptionStats = new ConcurrentLinkedQueue<SubscriptionStatsRecord>();
+        var requests = topics.stream()
+                .map(topic -> CompletableFuture.runAsync(() ->
+                        collectTopic(pulsarAdmin, clusterId, topic, time, topicStats, subscriptionStats), executor))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(requests).join();
+
+        return new CollectedStats(topicStats, subscriptionStats);
+    }
+
+    private List<String> listTopics(PulsarAdmin pulsarAdmin) throws PulsarAdminException
+    {
+        var namespaces = requestConcurrently(pulsarAdmin.tenants().getTenants(),
+                tenant -> pulsarAdmin.namespaces().getNamespaces(tenant));
+
+        return requestConcurrently(namespaces, namespace -> pulsarAdmin.topics().getList(namespace));
+    }
+
+    private <T> List<String> requestConcurrently(Collection<T> inputs, AdminRequest<T> request)
+            throws PulsarAdminException
+    {
+        var futures = inputs.stream()
+                .map(input -> CompletableFuture.supplyAsync(() -> withPermit(() -> request.execute(input)), executor))
+                .toList();
+
+        try
+        {
+            return futures.stream()
+                    .map(CompletableFuture::join)
+                    .flatMap(List::stream)
+                    .toList();
+        }
+        catch (CompletionException e)
+        {
+            if (e.getCause() instanceof PulsarAdminException cause)
+                throw cause;
+
+            throw e;
+        }
+    }
+
+    private void collectTopic(PulsarAdmin pulsarAdmin, String clusterId, String topic, Instant time,
+                              Collection<TopicStatsRecord> topicStats,
+                              Collection<SubscriptionStatsRecord> subscriptionStats)
+    {
+        try
+        {
+            var stats = withPermit(() -> pulsarAdmin.topics().getStats(topic));
+            topicStats.add(toTopicStatsRecord(clusterId, topic, time, stats));
+            stats.getSubscriptions().forEach((subscription, subscriptionStat) ->
+                    subscriptionStats.add(new SubscriptionStatsRecord(time, clusterId, topic, subscription,
+                            subscriptionStat.getMsgRateOut(), subscriptionStat.getMsgThroughputOut(),
+                            subscriptionStat.getMsgBacklog())));
+        }
+        catch (CompletionException e)
+        {
+            failedTopics.increment();
+            log.debug("Failed to collect stats of topic '{}' in cluster with id '{}'", topic, clusterId, e.getCause());
+        }
+    }
+
+    private static TopicStatsRecord toTopicStatsRecord(String clusterId, String topic, Instant time, TopicStats stats)
+    {
+        return new TopicStatsRecord(time, clusterId, topic,
+                stats.getMsgRateIn(),
+                stats.getMsgRateOut(),
+                stats.getMsgThroughputIn(),
+                stats.getMsgThroughputOut(),
+                stats.getBacklogSize(),
+                stats.getStorageSize());
+    }
+
+    /**
+     * Executes the admin request once one of the concurrent request permits is available. Failures are wrapped in a
+     * {@link CompletionException}, so they can be propagated through the futures.
+     */
+    private <R> R withPermit(Callable<R> request)
+    {
+        try
+        {
+            requestPermits.acquire();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+
+        try
+        {
+            return request.call();
+        }
+        catch (Exception e)
+        {
+            throw new CompletionException(e);
+        }
+        finally
+        {
+            requestPermits.release();
+        }
+    }
+
+    @FunctionalInterface
+    private interface AdminRequest<T>
+    {
+        List<String> execute(T input) throws PulsarAdminException;
+    }
+}
@@ -0,0 +1,339 @@
+package io.interfero.stats.services;
+
+import io.interfero.stats.domain.SubscriptionStatsRecord;
+import io.interfero.stats.domain.TopicStatsRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pulsar.client.admin.PulsarAdmin;
+import org.apache.pulsar.client.admin.PulsarAdminException;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Scrapes the Prometheus endpoint of every active broker of a cluster, which returns the stats of all topics owned by
+ * the broker in a single HTTP call. The brokers are discovered via the Pulsar Admin and scraped concurrently, their
+ * responses are parsed while they are streamed. Brokers which cannot be scraped are skipped, so only the stats of their
+ * topics are missing.
+ * <p>
+ * Requires the brokers to expose topic level metrics (<code>exposeTopicLevelMetricsInPrometheus</code>, enabled by
+ * default) and their web service to be reachable from Interfero under the advertised address, with the same scheme as
+ * the admin service URL of the cluster.
+ */
+@Slf4j
+class BrokerMetricsStatsSource implements TopicStatsSource
+{
+    private static final String METRICS_PATH = "/metrics";
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private static final List<String> METRICS = List.of(
+            "pulsar_rate_in",
+            "pulsar_rate_out",
+            "pulsar_throughput_in",
+            "pulsar_throughput_out",
+            "pulsar_storage_backlog_size",
+            "pulsar_storage_size",
+            "pulsar_subscription_msg_rate_out",
+            "pulsar_subscription_msg_throughput_out",
+            "pulsar_subscription_back_log");
+    private static final int RATE_IN = 0;
+    private static final int RATE_OUT = 1;
+    private static final int THROUGHPUT_IN = 2;
+    private static final int THROUGHPUT_OUT = 3;
+    private static final int BACKLOG_SIZE = 4;
+    private static final int STORAGE_SIZE = 5;
+    private static final int SUBSCRIPTION_RATE_OUT = 6;
+    private static final int SUBSCRIPTION_THROUGHPUT_OUT = 7;
+    private static final int SUBSCRIPTION_BACKLOG = 8;
+
+    private static final List<String> LABELS = List.of("topic", "subscription");
+    private static final int TOPIC_LABEL = 0;
+    private static final int SUBSCRIPTION_LABEL = 1;
+
+    private final ExecutorService executor;
+    private final Duration scrapeTimeout;
+    private final HttpClient httpClient;
+    private final Counter failedBrokers;
+
+    /**
+     * @param executor Executor to run the scrapes on, should use virtual threads
+     * @param scrapeTimeout Maximum time the scrape of a broker may take, including reading its response
+     * @param meterRegistry Registry for the metrics of failed scrapes
+     */
+    BrokerMetricsStatsSource(ExecutorService executor, Duration scrapeTimeout, MeterRegistry meterRegistry)
+    {
+        this.executor = executor;
+        this.scrapeTimeout = scrapeTimeout;
+        this.httpClient = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(scrapeTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.failedBrokers = Counter.builder("interfero.stats.brokers.failed")
+                .description("Number of brokers whose metrics could not be scraped")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CollectedStats collect(String clusterId, PulsarAdmin pulsarAdmin, Instant time) throws PulsarAdminException
+    {
+        var scheme = pulsarAdmin.getServiceUrl().startsWith("https") ? "https" : "http";
+        var brokers = pulsarAdmin.brokers().getActiveBrokers();
+        log.debug("Scraping metrics of {} brokers in cluster with id '{}'", brokers.size(), clusterId);
+
+        var scrapes = brokers.stream()
+                .map(broker -> URI.create(scheme + "://" + broker + METRICS_PATH))
+                .map(this::scrapeAsync)
+                .toList();
+
+        var topicStats = new ArrayList<TopicStatsRecord>();
+        var subscriptionStats = new ArrayList<SubscriptionStatsRecord>();
+        var collectedTopics = new HashSet<String>();
+        for (var i = 0; i < scrapes.size(); i++)
+        {
+            try
+            {
+                scrapes.get(i).join().addTo(clusterId, time, collectedTopics, topicStats, subscriptionStats);
+            }
+            catch (CompletionException e)
+            {
+                failedBrokers.increment();
+                log.warn("Failed to scrape metrics of broker '{}' in cluster with id '{}'", brokers.get(i), clusterId,
+                        e.getCause());
+            }
+        }
+
+        return new CollectedStats(topicStats, subscriptionStats);
+    }
+
+    /**
+     * Starts the scrape of a broker, which is aborted once the scrape timeout has passed. The timeout of the request
+     * only covers the wait for the response headers, so a broker stalling while sending the body would otherwise block
+     * the collection forever.
+     */
+    private CompletableFuture<BrokerStats> scrapeAsync(URI uri)
+    {
+        var scrape = new Scrape(uri);
+        return CompletableFuture.supplyAsync(scrape::run, executor)
+                .orTimeout(scrapeTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((brokerStats, e) -> {
+                    if (e != null)
+                        scrape.abort();
+                });
+    }
+
+    @Override
+    public void close()
+    {
+        httpClient.close();
+    }
+
+    /**
+     * Scrape of a single broker, which can be aborted from another thread by interrupting the scraping thread and
+     * closing the response body.
+     */
+    private final class Scrape
+    {
+        private final URI uri;
+        private @Nullable Thread thread;
+        private @Nullable InputStream body;
+        private boolean aborted;
+
+        private Scrape(URI uri)
+        {
+            this.uri = uri;
+        }
+
+        private BrokerStats run()
+        {
+            synchronized (this)
+            {
+                if (aborted)
+                    throw new CancellationException("Scrape of " + uri + " was aborted");
+
+                thread = Thread.currentThread();
+            }
+
+            try
+            {
+                return scrape();
+            }
+            finally
+            {
+                synchronized (this)
+                {
+                    thread = null;
+                }
+            }
+        }
+
+        private BrokerStats scrape()
+        {
+            var request = HttpRequest.newBuilder(uri)
+                    .timeout(scrapeTimeout)
+                    .header("Accept", "text/plain")
+                    .header("Accept-Encoding", "gzip")
+                    .GET()
+                    .build();
+
+            try
+            {
+                var response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                try (var body = response.body())
+                {
+                    synchronized (this)
+                    {
+                        if (aborted)
+                            throw new IOException("Scrape of " + uri + " was aborted");
+
+                        this.body = body;
+                    }
+
+                    if (response.statusCode() != 200)
+                        throw new IOException("Unexpected status code " + response.statusCode() + " from " + uri);
+
+                    var gzip = response.headers().firstValue("Content-Encoding")
+                            .filter("gzip"::equalsIgnoreCase)
+                            .isPresent();
+                    var input = gzip ? new GZIPInputStream(body, GZIP_BUFFER_SIZE) : body;
+
+                    var brokerStats = new BrokerStats();
+                    new PrometheusTextParser(METRICS, LABELS).parse(input, brokerStats);
+                    return brokerStats;
+                }
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+        }
+
+        /**
+         * Aborts the scrape if it is still running, so its thread does not stay blocked on the broker.
+         */
+        private void abort()
+        {
+            InputStream body;
+            synchronized (this)
+            {
+                aborted = true;
+                if (thread != null)
+                    thread.interrupt();
+
+                body = this.body;
+            }
+
+            try
+            {
+                if (body != null)
+                    body.close();
+            }
+            catch (IOException e)
+            {
+                log.debug("Failed to close the response of {}", uri, e);
+            }
+        }
+    }
+
+    /**
+     * Accumulates the samples of a broker per topic and subscription.
+     */
+    private static final class BrokerStats implements PrometheusTextParser.SampleHandler
+    {
+        private final Map<String, TopicSamples> topics = new HashMap<>();
+
+        @Override
+        public void onSample(int metric, @Nullable String[] labelValues, double value)
+        {
+            var topic = labelValues[TOPIC_LABEL];
+            if (topic == null)
+                return; // Namespace level metric
+
+            var samples = topics.computeIfAbsent(topic, key -> new TopicSamples());
+            switch (metric)
+            {
+                case RATE_IN -> samples.msgRateIn = value;
+                case RATE_OUT -> samples.msgRateOut = value;
+                case THROUGHPUT_IN -> samples.msgThroughputIn = value;
+                case THROUGHPUT_OUT -> samples.msgThroughputOut = value;
+                case BACKLOG_SIZE -> samples.backlogSize = (long) value;
+                case STORAGE_SIZE -> samples.storageSize = (long) value;
+                default ->
+                {
+                    var subscription = labelValues[SUBSCRIPTION_LABEL];
+                    if (subscription == null)
+                        return;
+
+                    var subscriptionSamples = samples.subscriptions.computeIfAbsent(subscription,
+                            key -> new SubscriptionSamples());
+                    switch (metric)
+                    {
+                        case SUBSCRIPTION_RATE_OUT -> subscriptionSamples.msgRateOut = value;
+                        case SUBSCRIPTION_THROUGHPUT_OUT -> subscriptionSamples.msgThroughputOut = value;
+                        case SUBSCRIPTION_BACKLOG -> subscriptionSamples.msgBacklog = (long) value;
+                        default -> throw new IllegalStateException("Unexpected metric: " + metric);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Adds the accumulated stats to the given collections. Topics which were already collected from another
+         * broker - e.g. as they were moved during the scrapes - are skipped.
+         */
+        void addTo(String clusterId, Instant time, Set<String> collectedTopics, Collection<TopicStatsRecord> topicStats,
+                   Collection<SubscriptionStatsRecord> subscriptionStats)
+        {
+            topics.forEach((topic, samples) -> {
+                if (!collectedTopics.add(topic))
+                    return;
+
+                topicStats.add(new TopicStatsRecord(time, clusterId, topic, samples.msgRateIn, samples.msgRateOut,
+                        samples.msgThroughputIn, samples.msgThroughputOut, samples.backlogSize, samples.storageSize));
+                samples.subscriptions.forEach((subscription, subscriptionSamples) ->
+                        subscriptionStats.add(new SubscriptionStatsRecord(time, clusterId, topic, subscription,
+                                subscriptionSamples.msgRateOut, subscriptionSamples.msgThroughputOut,
+                                subscriptionSamples.msgBacklog)));
+            });
+        }
+    }
+
+    private static final class TopicSamples
+    {
+        private final Map<String, SubscriptionSamples> subscriptions = new HashMap<>(4);
+        private double msgRateIn;
+        private double msgRateOut;
+        private double msgThroughputIn;
+        private double msgThroughputOut;
+        private long backlogSize;
+        private long storageSize;
+    }
+
+    private static final class SubscriptionSamples
+    {
+        private double msgRateOut;
+        private double msgThroughputOut;
+        private long msgBacklog;
+    }
+}
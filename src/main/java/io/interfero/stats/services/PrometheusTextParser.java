@@ -0,0 +1,460 @@
+package io.interfero.stats.services;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming parser for the Prometheus text exposition format, reading samples straight from the bytes of the response.
+ * Only samples of the requested metrics are parsed - all other lines are skipped without being decoded. Of the parsed
+ * samples, only the values of the requested labels are decoded into strings, and each distinct label value is decoded
+ * only once per parser, so the number of allocations grows with the number of topics instead of the number of lines.
+ * <p>
+ * A parser is not thread-safe and should be used for a single scrape, as it keeps the decoded label values.
+ */
+final class PrometheusTextParser
+{
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_NAME_LENGTH = 256;
+    private static final int MAX_VALUE_LENGTH = 64;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Receives the parsed samples.
+     */
+    @FunctionalInterface
+    interface SampleHandler
+    {
+        /**
+         * Called for every sample of a requested metric.
+         * @param metric Index of the metric in the requested metric names
+         * @param labelValues Values of the requested labels by their index, null if a label is missing. The array is
+         *                    reused for the next sample and must not be retained.
+         * @param value Value of the sample
+         */
+        void onSample(int metric, @Nullable String[] labelValues, double value);
+    }
+
+    private final byte[][] metricNames;
+    private final byte[][] labelNames;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final byte[] name = new byte[MAX_NAME_LENGTH];
+    private final byte[] value = new byte[MAX_VALUE_LENGTH];
+    private byte[] labelValue = new byte[MAX_NAME_LENGTH];
+    private final @Nullable String[] labelValues;
+    private final LabelValueCache labelValueCache = new LabelValueCache();
+
+    private @Nullable InputStream input;
+    private int position;
+    private int limit;
+
+    /**
+     * @param metricNames Names of the metrics to parse the samples of
+     * @param labelNames Names of the labels to decode the values of
+     */
+    PrometheusTextParser(List<String> metricNames, List<String> labelNames)
+    {
+        this.metricNames = toBytes(metricNames);
+        this.labelNames = toBytes(labelNames);
+        this.labelValues = new String[labelNames.size()];
+    }
+
+    /**
+     * Parses all samples of the given exposition, until the end of the stream is reached. The stream is not closed.
+     * @param input Stream of the exposition in the Prometheus text format
+     * @param handler Handler receiving the samples of the requested metrics
+     * @throws IOException if the stream cannot be read
+     */
+    void parse(InputStream input, SampleHandler handler) throws IOException
+    {
+        this.input = input;
+        position = 0;
+        limit = 0;
+
+        int c;
+        while ((c = read()) != -1)
+        {
+            if (c == '\n')
+                continue;
+
+            if (c == '#')
+            {
+                skipLine();
+                continue;
+            }
+
+            var nameLength = 0;
+            while (c != '{' && c != ' ' && c != '\n' && c != -1)
+            {
+                if (nameLength < MAX_NAME_LENGTH)
+                    name[nameLength] = (byte) c;
+
+                nameLength++;
+                c = read();
+            }
+
+            var metric = indexOf(metricNames, name, nameLength);
+            if (metric < 0 || c == '\n' || c == -1)
+            {
+                if (c != '\n' && c != -1)
+                    skipLine();
+
+                continue;
+            }
+
+            Arrays.fill(labelValues, null);
+            if (c == '{')
+            {
+                c = parseLabels();
+                if (c != '}')
+                {
+                    if (c != '\n' && c != -1)
+                        skipLine(); // Malformed labels
+
+                    continue;
+                }
+            }
+
+            var sampleValue = parseValue();
+            if (!Double.isNaN(sampleValue))
+                handler.onSample(metric, labelValues, sampleValue);
+        }
+    }
+
+    /**
+     * Parses the labels up to and including the closing brace, decoding the values of the requested labels.
+     * @return The closing brace, or the character at which the labels turned out to be malformed
+     */
+    private int parseLabels() throws IOException
+    {
+        while (true)
+        {
+            var c = read();
+            while (c == ',' || c == ' ')
+                c = read();
+
+            if (c == '}' || c == '\n' || c == -1)
+                return c;
+
+            var nameLength = 0;
+            while (c != '=' && c != '\n' && c != -1)
+            {
+                if (nameLength < MAX_NAME_LENGTH)
+                    name[nameLength] = (byte) c;
+
+                nameLength++;
+                c = read();
+            }
+
+            if (c != '=')
+                return c;
+
+            c = read();
+            if (c != '"')
+                return c;
+
+            var label = indexOf(labelNames, name, nameLength);
+            var valueLength = 0;
+            while ((c = read()) != '"')
+            {
+                if (c == '\n' || c == -1)
+                    return c;
+
+                if (c == '\\')
+                {
+                    c = read();
+                    if (c == -1)
+                        return c;
+
+                    if (c == 'n')
+                        c = '\n';
+                }
+
+                if (label >= 0)
+                {
+                    if (valueLength == labelValue.length)
+                        labelValue = Arrays.copyOf(labelValue, labelValue.length * 2);
+
+                    labelValue[valueLength++] = (byte) c;
+                }
+            }
+
+            if (label >= 0)
+                labelValues[label] = labelValueCache.get(labelValue, valueLength);
+        }
+    }
+
+    /**
+     * Parses the value of a sample and skips the rest of the line, including the optional timestamp.
+     * @return The value, or NaN if it is malformed
+     */
+    private double parseValue() throws IOException
+    {
+        var c = read();
+        while (c == ' ')
+            c = read();
+
+        var length = 0;
+        while (c != ' ' && c != '\n' && c != -1)
+        {
+            if (length < MAX_VALUE_LENGTH)
+                value[length] = (byte) c;
+
+            length++;
+            c = read();
+        }
+
+        if (c == ' ')
+            skipLine();
+
+        if (length == 0 || length > MAX_VALUE_LENGTH)
+            return Double.NaN;
+
+        return parseDouble(value, length);
+    }
+
+    /**
+     * Parses decimal values with up to 18 significant digits and a small exponent directly from the bytes. Beyond 15
+     * significant digits, the result might differ from {@link Double#parseDouble(String)} in the last bit, which is
+     * irrelevant for stats. All other values, including <code>NaN</code> and <code>Inf</code>, are parsed by
+     * {@link Double#parseDouble(String)}.
+     */
+    static double parseDouble(byte[] bytes, int length)
+    {
+        var i = 0;
+        var negative = false;
+        if (bytes[0] == '-' || bytes[0] == '+')
+        {
+            negative = bytes[0] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        var digits = 0;
+        var exponent = 0;
+        var fraction = false;
+        for (; i < length; i++)
+        {
+            var b = bytes[i];
+            if (b >= '0' && b <= '9')
+            {
+                if (mantissa == 0 && b == '0' && !fraction)
+                    continue; // Leading zeros are not significant
+
+                if (++digits > 18)
+                    return parseDoubleSlow(bytes, length);
+
+                mantissa = mantissa * 10 + (b - '0');
+                if (fraction)
+                    exponent--;
+            }
+            else if (b == '.' && !fraction)
+                fraction = true;
+            else if (b == 'e' || b == 'E')
+            {
+                var explicitExponent = parseExponent(bytes, i + 1, length);
+                if (explicitExponent == Integer.MIN_VALUE)
+                    return parseDoubleSlow(bytes, length);
+
+                exponent += explicitExponent;
+                break;
+            }
+            else
+                return parseDoubleSlow(bytes, length);
+        }
+
+        double result;
+        if (mantissa == 0)
+            result = 0;
+        else if (exponent >= 0 && exponent < POWERS_OF_TEN.length)
+            result = mantissa * POWERS_OF_TEN[exponent];
+        else if (exponent < 0 && -exponent < POWERS_OF_TEN.length)
+            result = mantissa / POWERS_OF_TEN[-exponent];
+        else
+            return parseDoubleSlow(bytes, length);
+
+        return negative ? -result : result;
+    }
+
+    private static int parseExponent(byte[] bytes, int start, int length)
+    {
+        var i = start;
+        var negative = false;
+        if (i < length && (bytes[i] == '-' || bytes[i] == '+'))
+        {
+            negative = bytes[i] == '-';
+            i++;
+        }
+
+        if (i == length || length - i > 3)
+            return Integer.MIN_VALUE;
+
+        var exponent = 0;
+        for (; i < length; i++)
+        {
+            if (bytes[i] < '0' || bytes[i] > '9')
+                return Integer.MIN_VALUE;
+
+            exponent = exponent * 10 + (bytes[i] - '0');
+        }
+
+        return negative ? -exponent : exponent;
+    }
+
+    private static double parseDoubleSlow(byte[] bytes, int length)
+    {
+        var text = new String(bytes, 0, length, StandardCharsets.US_ASCII);
+        return switch (text)
+        {
+            case "+Inf", "Inf" -> Double.POSITIVE_INFINITY;
+            case "-Inf" -> Double.NEGATIVE_INFINITY;
+            default ->
+            {
+                try
+                {
+                    yield Double.parseDouble(text);
+                }
+                catch (NumberFormatException e)
+                {
+                    yield Double.NaN;
+                }
+            }
+        };
+    }
+
+    private void skipLine() throws IOException
+    {
+        while (true)
+        {
+            for (var i = position; i < limit; i++)
+            {
+                if (buffer[i] == '\n')
+                {
+                    position = i + 1;
+                    return;
+                }
+            }
+
+            position = limit;
+            if (!fill())
+                return;
+        }
+    }
+
+    private int read() throws IOException
+    {
+        if (position == limit && !fill())
+            return -1;
+
+        return buffer[position++] & 0xFF;
+    }
+
+    private boolean fill() throws IOException
+    {
+        if (input == null)
+            return false;
+
+        var read = input.read(buffer, 0, BUFFER_SIZE);
+        if (read <= 0)
+            return false;
+
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    private static int indexOf(byte[][] candidates, byte[] bytes, int length)
+    {
+        if (length > bytes.length)
+            return -1; // Truncated
+
+        for (var i = 0; i < candidates.length; i++)
+        {
+            if (Arrays.equals(candidates[i], 0, candidates[i].length, bytes, 0, length))
+                return i;
+        }
+
+        return -1;
+    }
+
+    private static byte[][] toBytes(List<String> strings)
+    {
+        return strings.stream()
+                .map(string -> string.getBytes(StandardCharsets.UTF_8))
+                .toArray(byte[][]::new);
+    }
+
+    /**
+     * Open addressing hash table from the bytes of a label value to its decoded string, so recurring label values
+     * like topic names are decoded only once.
+     */
+    private static final class LabelValueCache
+    {
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private byte[][] keys = new byte[INITIAL_CAPACITY][];
+        private String[] values = new String[INITIAL_CAPACITY];
+        private int size;
+
+        String get(byte[] bytes, int length)
+        {
+            var mask = keys.length - 1;
+            var index = hash(bytes, length) & mask;
+            while (keys[index] != null)
+            {
+                if (Arrays.equals(keys[index], 0, keys[index].length, bytes, 0, length))
+                    return values[index];
+
+                index = (index + 1) & mask;
+            }
+
+            var decoded = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            keys[index] = Arrays.copyOf(bytes, length);
+            values[index] = decoded;
+            if (++size > keys.length / 2)
+                grow();
+
+            return decoded;
+        }
+
+        private void grow()
+        {
+            var oldKeys = keys;
+            var oldValues = values;
+            keys = new byte[oldKeys.length * 2][];
+            values = new String[oldValues.length * 2];
+
+            var mask = keys.length - 1;
+            for (var i = 0; i < oldKeys.length; i++)
+            {
+                if (oldKeys[i] == null)
+                    continue;
+
+                var index = hash(oldKeys[i], oldKeys[i].length) & mask;
+                while (keys[index] != null)
+                    index = (index + 1) & mask;
+
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+
+        private static int hash(byte[] bytes, int length)
+        {
+            var hash = 0x811C9DC5;
+            for (var i = 0; i < length; i++)
+                hash = (hash ^ bytes[i]) * 0x01000193;
+
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
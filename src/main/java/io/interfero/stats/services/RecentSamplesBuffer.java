@@ -0,0 +1,268 @@
+package io.interfero.stats.services;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Off-heap ring buffers holding the most recent samples of many series with a fixed number of values. Every series
+ * gets a fixed-size ring of slots, which are allocated in slabs of {@value #SERIES_PER_SLAB} series outside the heap.
+ * Once the ring of a series is full, its oldest sample is overwritten - so appending samples neither allocates nor
+ * leaves garbage behind, and the heap only holds the key and id of each series.
+ * <p>
+ * Series without samples within the retained window are evicted by {@link #evictOlderThan(long)}, so their slots can
+ * be reused by other series. Writes are exclusive, reads may run concurrently.
+ */
+final class RecentSamplesBuffer implements AutoCloseable
+{
+    private static final int SERIES_PER_SLAB = 1024;
+
+    // Header of a series: index of the next slot, number of samples
+    private static final long HEAD_OFFSET = 0;
+    private static final long COUNT_OFFSET = 4;
+    private static final long SERIES_HEADER_SIZE = 8;
+
+    /**
+     * Receives the samples of a series.
+     */
+    @FunctionalInterface
+    interface SampleConsumer
+    {
+        /**
+         * @param time Timestamp of the sample in epoch seconds
+         * @param values Values of the sample. The array is reused for the next sample and must not be retained.
+         */
+        void accept(long time, double[] values);
+    }
+
+    private final int fieldCount;
+    private final int slots;
+    private final int maxSeries;
+    private final long slotSize;
+    private final long seriesSize;
+
+    private final Arena arena = Arena.ofShared();
+    private final MemorySegment[] slabs;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> seriesIds = new HashMap<>();
+    private final String[] keys;
+    private final int[] freeIds;
+    private int freeIdCount;
+    private int nextId;
+
+    /**
+     * @param fieldCount Number of values per sample
+     * @param slots Number of samples kept per series
+     * @param maxSeries Maximum number of series
+     */
+    RecentSamplesBuffer(int fieldCount, int slots, int maxSeries)
+    {
+        this.fieldCount = fieldCount;
+        this.slots = slots;
+        this.maxSeries = maxSeries;
+        this.slotSize = Long.BYTES + (long) fieldCount * Double.BYTES;
+        this.seriesSize = SERIES_HEADER_SIZE + slots * slotSize;
+        this.slabs = new MemorySegment[(maxSeries + SERIES_PER_SLAB - 1) / SERIES_PER_SLAB];
+        this.keys = new String[maxSeries];
+        this.freeIds = new int[maxSeries];
+    }
+
+    /**
+     * Appends a sample to the ring of a series, overwriting its oldest sample if the ring is full.
+     * @param key Key of the series
+     * @param time Timestamp of the sample in epoch seconds
+     * @param values Values of the sample
+     * @return Whether the sample was appended, false if the maximum number of series is reached
+     */
+    boolean append(String key, long time, double[] values)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            var id = seriesIds.get(key);
+            if (id == null)
+            {
+                id = allocateSeries(key);
+                if (id < 0)
+                    return false;
+            }
+
+            var slab = slabs[id / SERIES_PER_SLAB];
+            var base = seriesOffset(id);
+            var head = slab.get(ValueLayout.JAVA_INT, base + HEAD_OFFSET);
+            var offset = slotOffset(base, head);
+            slab.set(ValueLayout.JAVA_LONG, offset, time);
+            for (var i = 0; i < fieldCount; i++)
+                slab.set(ValueLayout.JAVA_DOUBLE, valueOffset(offset, i), values[i]);
+
+            slab.set(ValueLayout.JAVA_INT, base + HEAD_OFFSET, (head + 1) % slots);
+            var count = slab.get(ValueLayout.JAVA_INT, base + COUNT_OFFSET);
+            if (count < slots)
+                slab.set(ValueLayout.JAVA_INT, base + COUNT_OFFSET, count + 1);
+
+            return true;
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the samples of a series within the given time range, oldest first. The range is only read if the oldest
+     * buffered sample of the series is not after its start - otherwise samples before the series was added or after
+     * the ring wrapped around may be missing.
+     * @param key Key of the series
+     * @param from Start of the time range in epoch seconds, inclusive
+     * @param to End of the time range in epoch seconds, exclusive
+     * @param consumer Consumer receiving the samples
+     * @return Whether the series is buffered since the start of the range
+     */
+    boolean read(String key, long from, long to, SampleConsumer consumer)
+    {
+        lock.readLock().lock();
+        try
+        {
+            var id = seriesIds.get(key);
+            if (id == null)
+                return false;
+
+            var slab = slabs[id / SERIES_PER_SLAB];
+            var base = seriesOffset(id);
+            var head = slab.get(ValueLayout.JAVA_INT, base + HEAD_OFFSET);
+            var count = slab.get(ValueLayout.JAVA_INT, base + COUNT_OFFSET);
+            if (slab.get(ValueLayout.JAVA_LONG, slotOffset(base, (head - count + slots) % slots)) > from)
+                return false;
+
+            var values = new double[fieldCount];
+            for (var i = 0; i < count; i++)
+            {
+                var offset = slotOffset(base, (head - count + i + slots) % slots);
+                var time = slab.get(ValueLayout.JAVA_LONG, offset);
+                if (time < from || time >= to)
+                    continue;
+
+                for (var field = 0; field < fieldCount; field++)
+                    values[field] = slab.get(ValueLayout.JAVA_DOUBLE, valueOffset(offset, field));
+
+                consumer.accept(time, values);
+            }
+
+            return true;
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Evicts all series whose latest sample is older than the given time.
+     * @param time Time in epoch seconds
+     * @return Number of evicted series
+     */
+    int evictOlderThan(long time)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            var evicted = 0;
+            for (var id = 0; id < nextId; id++)
+            {
+                if (keys[id] == null)
+                    continue;
+
+                var slab = slabs[id / SERIES_PER_SLAB];
+                var base = seriesOffset(id);
+                var head = slab.get(ValueLayout.JAVA_INT, base + HEAD_OFFSET);
+                if (slab.get(ValueLayout.JAVA_LONG, slotOffset(base, (head - 1 + slots) % slots)) >= time)
+                    continue;
+
+                seriesIds.remove(keys[id]);
+                keys[id] = null;
+                freeIds[freeIdCount++] = id;
+                evicted++;
+            }
+
+            return evicted;
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return Number of buffered series
+     */
+    int getSeriesCount()
+    {
+        lock.readLock().lock();
+        try
+        {
+            return seriesIds.size();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int allocateSeries(String key)
+    {
+        int id;
+        if (freeIdCount > 0)
+            id = freeIds[--freeIdCount];
+        else if (nextId < maxSeries)
+            id = nextId++;
+        else
+            return -1;
+
+        var slab = id / SERIES_PER_SLAB;
+        if (slabs[slab] == null)
+            slabs[slab] = arena.allocate(SERIES_PER_SLAB * seriesSize, Long.BYTES);
+
+        var base = seriesOffset(id);
+        slabs[slab].set(ValueLayout.JAVA_INT, base + HEAD_OFFSET, 0);
+        slabs[slab].set(ValueLayout.JAVA_INT, base + COUNT_OFFSET, 0);
+        seriesIds.put(key, id);
+        keys[id] = key;
+        return id;
+    }
+
+    private long seriesOffset(int id)
+    {
+        return (id % SERIES_PER_SLAB) * seriesSize;
+    }
+
+    private long slotOffset(long seriesOffset, int slot)
+    {
+        return seriesOffset + SERIES_HEADER_SIZE + slot * slotSize;
+    }
+
+    private static long valueOffset(long slotOffset, int field)
+    {
+        return slotOffset + Long.BYTES + (long) field * Double.BYTES;
+    }
+
+    /**
+     * Frees the off-heap memory. The buffer must not be used afterward.
+     */
+    @Override
+    public void close()
+    {
+        lock.writeLock().lock();
+        try
+        {
+            arena.close();
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+}
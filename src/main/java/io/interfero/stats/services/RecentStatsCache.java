@@ -0,0 +1,173 @@
+package io.interfero.stats.services;
+
+import io.interfero.stats.StatsConfiguration;
+import io.interfero.stats.domain.SubscriptionStatsRecord;
+import io.interfero.stats.domain.TopicStatsRecord;
+import io.interfero.stats.repositories.StatsAggregator;
+import io.interfero.stats.services.TopicStatsSource.CollectedStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps the stats of the configured recent window in {@link RecentSamplesBuffer}s outside the heap, so the queries of
+ * dashboards, which mostly cover the last minutes, are answered without reading from the repository. The buffers are
+ * filled by the {@link TopicStatsCollector} with every collection, independent of when the stats are written.
+ * <p>
+ * A query is only answered from the cache if its whole time range lies within the window and the series is cached
+ * since its start - otherwise the caller has to fall back to the repository. The coverage is tracked per series, as a
+ * series may be cached later than others, like the topics of a cluster registered after startup or a series which was
+ * rejected while the cache was full.
+ */
+@Slf4j
+@Component
+class RecentStatsCache
+{
+    private final Duration window;
+    private final boolean enabled;
+    private final RecentSamplesBuffer topicStatsBuffer;
+    private final RecentSamplesBuffer subscriptionStatsBuffer;
+
+    private final Counter rejectedSamples;
+    private final Counter hits;
+    private final Counter misses;
+
+    RecentStatsCache(StatsConfiguration statsConfiguration, MeterRegistry meterRegistry)
+    {
+        this.window = statsConfiguration.getRecentWindow();
+        var maxSeries = statsConfiguration.getRecentMaxSeries();
+        this.enabled = window.isPositive() && maxSeries > 0;
+
+        // One more slot than the window needs, so the window stays covered until the next collection
+        var slots = enabled ? (int) Math.ceilDiv(window.toSeconds(),
+                Math.max(statsConfiguration.getCollectionInterval().toSeconds(), 1)) + 1 : 1;
+        var bufferedSeries = enabled ? maxSeries : 0;
+        this.topicStatsBuffer = new RecentSamplesBuffer(StatsAggregator.TOPIC_FIELDS, slots, bufferedSeries);
+        this.subscriptionStatsBuffer = new RecentSamplesBuffer(StatsAggregator.SUBSCRIPTION_FIELDS, slots,
+                bufferedSeries);
+
+        Gauge.builder("interfero.stats.cache.series", this, cache ->
+                        cache.topicStatsBuffer.getSeriesCount() + cache.subscriptionStatsBuffer.getSeriesCount())
+                .description("Number of topics and subscriptions whose recent stats are cached")
+                .register(meterRegistry);
+        this.rejectedSamples = Counter.builder("interfero.stats.cache.rejected")
+                .description("Number of stats samples not cached because the maximum number of series is reached")
+                .register(meterRegistry);
+        this.hits = Counter.builder("interfero.stats.cache.requests")
+                .description("Number of stats queries by whether they were answered from the cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("interfero.stats.cache.requests")
+                .description("Number of stats queries by whether they were answered from the cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds the stats of a collection to the cache.
+     * @param stats Collected stats
+     */
+    void put(CollectedStats stats)
+    {
+        if (!enabled)
+            return;
+
+        var rejected = 0;
+        var values = new double[StatsAggregator.TOPIC_FIELDS];
+        for (var topicStats : stats.topicStats())
+        {
+            StatsAggregator.toValues(topicStats, values);
+            if (!topicStatsBuffer.append(StatsAggregator.key(topicStats.clusterId(), topicStats.topic()),
+                    topicStats.time().getEpochSecond(), values))
+                rejected++;
+        }
+
+        for (var subscriptionStats : stats.subscriptionStats())
+        {
+            StatsAggregator.toValues(subscriptionStats, values);
+            if (!subscriptionStatsBuffer.append(StatsAggregator.key(subscriptionStats.clusterId(),
+                    subscriptionStats.topic(), subscriptionStats.subscription()),
+                    subscriptionStats.time().getEpochSecond(), values))
+                rejected++;
+        }
+
+        if (rejected > 0)
+        {
+            rejectedSamples.increment(rejected);
+            log.debug("Cache of recent stats is full, {} samples were not cached", rejected);
+        }
+    }
+
+    /**
+     * Returns the cached stats of a topic in the given time range.
+     * @return Stats per bucket, ordered by time, or empty if the query cannot be answered from the cache
+     */
+    Optional<List<TopicStatsRecord>> findTopicStats(String clusterId, String topic, Instant from, Instant to,
+                                                    Duration resolution)
+    {
+        return find(topicStatsBuffer, StatsAggregator.key(clusterId, topic), from, to,
+                StatsAggregator.forTopic(clusterId, topic, resolution));
+    }
+
+    /**
+     * Returns the cached stats of a subscription in the given time range.
+     * @return Stats per bucket, ordered by time, or empty if the query cannot be answered from the cache
+     */
+    Optional<List<SubscriptionStatsRecord>> findSubscriptionStats(String clusterId, String topic, String subscription,
+                                                                  Instant from, Instant to, Duration resolution)
+    {
+        return find(subscriptionStatsBuffer, StatsAggregator.key(clusterId, topic, subscription), from, to,
+                StatsAggregator.forSubscription(clusterId, topic, subscription, resolution));
+    }
+
+    /**
+     * Aggregates the cached samples of a series into buckets, like the file-based repository does.
+     */
+    private <T> Optional<List<T>> find(RecentSamplesBuffer buffer, String key, Instant from, Instant to,
+                                       StatsAggregator<T> aggregator)
+    {
+        var windowStart = Instant.now().minus(window);
+        if (!enabled || from.isBefore(windowStart) || !buffer.read(key, from.getEpochSecond(),
+                to.getEpochSecond() + (to.getNano() > 0 ? 1 : 0), aggregator::add))
+        {
+            misses.increment();
+            return Optional.empty();
+        }
+
+        hits.increment();
+        return Optional.of(aggregator.result());
+    }
+
+    /**
+     * Evicts topics and subscriptions which were not collected within the window anymore, like deleted ones. Runs in
+     * the collection interval, as the window may be zero to disable the cache, which is no valid rate.
+     */
+    @Scheduled(initialDelayString = "${interfero.stats.collection-interval:1m}",
+            fixedRateString = "${interfero.stats.collection-interval:1m}")
+    void evictStaleSeries()
+    {
+        if (!enabled)
+            return;
+
+        var windowStart = Instant.now().minus(window).getEpochSecond();
+        var evicted = topicStatsBuffer.evictOlderThan(windowStart)
+                + subscriptionStatsBuffer.evictOlderThan(windowStart);
+        log.debug("Evicted {} stale series from the cache of recent stats", evicted);
+    }
+
+    @PreDestroy
+    void close()
+    {
+        topicStatsBuffer.close();
+        subscriptionStatsBuffer.close();
+    }
+}
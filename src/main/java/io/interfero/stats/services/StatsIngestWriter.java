@@ -0,0 +1,226 @@
+package io.interfero.stats.services;
+
+import io.interfero.database.DatabaseConnectionConsumer;
+import io.interfero.stats.StatsConfiguration;
+import io.interfero.stats.domain.SubscriptionStatsRecord;
+import io.interfero.stats.domain.TopicStatsRecord;
+import io.interfero.stats.repositories.TopicStatsRepository;
+import io.interfero.stats.services.TopicStatsSource.CollectedStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Writes the collected stats to the {@link TopicStatsRepository} on a dedicated virtual thread, so collections never
+ * wait for the database. The stats are double-buffered: collections append to the pending buffer while the writer
+ * drains the other one, and the buffers are swapped once the writer is done - so all stats collected in the meantime
+ * are written together.
+ * <p>
+ * If the database falls behind, the pending buffer is bounded by the configured maximum of pending rows. Stats which
+ * do not fit anymore are dropped as a whole instead of blocking the collection, which keeps the stats of a cluster and
+ * collection consistent and bounds the memory used while the database is slow or unavailable. A single collection with
+ * more rows than the maximum is still accepted while nothing else is pending, as it could never be written otherwise.
+ */
+@Slf4j
+@Component
+class StatsIngestWriter implements DatabaseConnectionConsumer
+{
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final TopicStatsRepository topicStatsRepository;
+    private final int maxPendingRows;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition statsPending = lock.newCondition();
+    private List<CollectedStats> pending = new ArrayList<>();
+    private List<CollectedStats> writing = new ArrayList<>();
+    private volatile int pendingRows;
+    private volatile int writingRows;
+    private boolean running = true;
+    private @Nullable Thread writerThread;
+
+    private final Timer writeTimer;
+    private final Counter droppedRows;
+    private final Counter failedRows;
+
+    StatsIngestWriter(TopicStatsRepository topicStatsRepository, StatsConfiguration statsConfiguration,
+                      MeterRegistry meterRegistry)
+    {
+        this.topicStatsRepository = topicStatsRepository;
+        this.maxPendingRows = statsConfiguration.getMaxPendingRows();
+
+        Gauge.builder("interfero.stats.ingest.pending", this, StatsIngestWriter::getPendingRows)
+                .description("Number of collected stats rows which are not yet written to the database")
+                .register(meterRegistry);
+        this.writeTimer = Timer.builder("interfero.stats.ingest.duration")
+                .description("Duration of writing the pending stats to the database")
+                .register(meterRegistry);
+        this.droppedRows = Counter.builder("interfero.stats.ingest.dropped")
+                .description("Number of stats rows dropped because too many rows were pending")
+                .register(meterRegistry);
+        this.failedRows = Counter.builder("interfero.stats.ingest.failed")
+                .description("Number of stats rows which could not be written to the database")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start()
+    {
+        writerThread = Thread.ofVirtual()
+                .name("stats-ingest-writer")
+                .start(this::writeLoop);
+    }
+
+    @Override
+    public int getRequiredConnections()
+    {
+        return 1; // Single writer
+    }
+
+    /**
+     * Hands the stats over to be written, without waiting for the database.
+     * @param stats Collected stats
+     * @return Whether the stats were accepted, false if they were dropped as too many rows are pending
+     */
+    boolean offer(CollectedStats stats)
+    {
+        var rows = stats.rows();
+        lock.lock();
+        try
+        {
+            var waitingRows = getPendingRows();
+            if (running && (waitingRows == 0 || waitingRows + rows <= maxPendingRows))
+            {
+                pending.add(stats);
+                pendingRows += rows;
+                statsPending.signal();
+                return true;
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        droppedRows.increment(rows);
+        log.warn("Dropped {} stats rows, as {} rows are still waiting to be written to the database", rows,
+                getPendingRows());
+        return false;
+    }
+
+    /**
+     * @return Number of rows which are pending or currently being written
+     */
+    int getPendingRows()
+    {
+        return pendingRows + writingRows;
+    }
+
+    private void writeLoop()
+    {
+        while (true)
+        {
+            lock.lock();
+            try
+            {
+                while (pending.isEmpty() && running)
+                    statsPending.awaitUninterruptibly();
+
+                if (pending.isEmpty())
+                    return; // Stopped and drained
+
+                var swapped = writing;
+                writing = pending;
+                pending = swapped;
+                writingRows = pendingRows;
+                pendingRows = 0;
+            }
+            finally
+            {
+                lock.unlock();
+            }
+
+            write(writing);
+            writing.clear();
+            writingRows = 0;
+        }
+    }
+
+    private void write(List<CollectedStats> batch)
+    {
+        var topicStats = new ArrayList<TopicStatsRecord>();
+        var subscriptionStats = new ArrayList<SubscriptionStatsRecord>();
+        for (var stats : batch)
+        {
+            topicStats.addAll(stats.topicStats());
+            subscriptionStats.addAll(stats.subscriptionStats());
+        }
+
+        log.debug("Writing {} topic and {} subscription stats", topicStats.size(), subscriptionStats.size());
+        var start = System.nanoTime();
+        try
+        {
+            topicStatsRepository.saveTopicStats(topicStats);
+        }
+        catch (RuntimeException e)
+        {
+            failedRows.increment(topicStats.size());
+            log.warn("Failed to write {} topic stats", topicStats.size(), e);
+        }
+
+        try
+        {
+            topicStatsRepository.saveSubscriptionStats(subscriptionStats);
+        }
+        catch (RuntimeException e)
+        {
+            failedRows.increment(subscriptionStats.size());
+            log.warn("Failed to write {} subscription stats", subscriptionStats.size(), e);
+        }
+
+        writeTimer.record(Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Stops accepting stats and waits for the pending stats to be written.
+     */
+    @PreDestroy
+    void shutdown()
+    {
+        lock.lock();
+        try
+        {
+            running = false;
+            statsPending.signal();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        if (writerThread == null)
+            return;
+
+        try
+        {
+            if (!writerThread.join(SHUTDOWN_TIMEOUT))
+                log.warn("Stopped waiting for {} pending stats rows to be written", getPendingRows());
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package io.interfero.stats.services;
+
+import io.interfero.clusters.ClusterClientsLease;
+import io.interfero.clusters.ClusterUnavailableException;
+import io.interfero.clusters.PulsarClusterRegistry;
+import io.interfero.stats.StatsConfiguration;
+import io.interfero.stats.repositories.TopicStatsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pulsar.client.admin.PulsarAdminException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Periodically collects the stats of all topics and their subscriptions from every registered cluster and appends
+ * them to the {@link TopicStatsRepository}. All clusters are collected at once on virtual threads, the stats are
+ * requested from the configured {@link TopicStatsSource} - either per topic via the Pulsar Admin or in bulk from the
+ * Prometheus endpoints of the brokers.
+ * <p>
+ * The stats of all topics are sampled with the same timestamp per collection, so they can be compared across topics
+ * and clusters. The collected stats are added to the {@link RecentStatsCache} and handed over to the
+ * {@link StatsIngestWriter}, so a slow database never delays the next collection.
+ * <p>
+ * The scheduled method only starts a collection and returns, so it does not block the scheduler thread shared with all
+ * other scheduled tasks. A collection is skipped while the previous one is still running.
+ */
+@Slf4j
+@Service
+public class TopicStatsCollector
+{
+    private final PulsarClusterRegistry clusterRegistry;
+    private final StatsIngestWriter ingestWriter;
+    private final RecentStatsCache recentStatsCache;
+    private final StatsConfiguration statsConfiguration;
+
+    private final ExecutorService collectionExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final TopicStatsSource statsSource;
+
+    private CompletableFuture<Void> runningCollection = CompletableFuture.completedFuture(null);
+
+    private final Timer collectionTimer;
+    private final Counter collectedTopics;
+    private final Counter skippedCollections;
+
+    TopicStatsCollector(PulsarClusterRegistry clusterRegistry, StatsIngestWriter ingestWriter,
+                        RecentStatsCache recentStatsCache, StatsConfiguration statsConfiguration,
+                        MeterRegistry meterRegistry)
+    {
+        this.clusterRegistry = clusterRegistry;
+        this.ingestWriter = ingestWriter;
+        this.recentStatsCache = recentStatsCache;
+        this.statsConfiguration = statsConfiguration;
+        this.statsSource = switch (statsConfiguration.getSource())
+        {
+            case ADMIN -> new AdminTopicStatsSource(collectionExecutor, statsConfiguration.getMaxConcurrentRequests(),
+                    meterRegistry);
+            case BROKER_METRICS -> new BrokerMetricsStatsSource(collectionExecutor,
+                    statsConfiguration.getScrapeTimeout(), meterRegistry);
+        };
+
+        this.collectionTimer = Timer.builder("interfero.stats.collection.duration")
+                .description("Duration of collecting the topic stats of all clusters")
+                .register(meterRegistry);
+        this.collectedTopics = Counter.builder("interfero.stats.topics.collected")
+                .description("Number of topics whose stats were collected")
+                .register(meterRegistry);
+        this.skippedCollections = Counter.builder("interfero.stats.collection.skipped")
+                .description("Number of collections skipped because the previous collection was still running")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${interfero.stats.collection-interval:1m}",
+            fixedRateString = "${interfero.stats.collection-interval:1m}")
+    void collect()
+    {
+        collectAsync();
+    }
+
+    /**
+     * Starts collecting the stats of all clusters without waiting for them. If the previous collection is still
+     * running, no new collection is started.
+     * @return Future completing once the stats of all clusters are collected, or the still running collection
+     */
+    synchronized CompletableFuture<Void> collectAsync()
+    {
+        if (!runningCollection.isDone())
+        {
+            skippedCollections.increment();
+            log.warn("Skipping collection of topic stats, as the previous collection still runs longer than the "
+                    + "collection interval of {}", statsConfiguration.getCollectionInterval());
+            return runningCollection;
+        }
+
+        var time = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        var clusterIds = clusterRegistry.getRegisteredClusterIds();
+        log.debug("Collecting topic stats of {} clusters from {}", clusterIds.size(), statsConfiguration.getSource());
+
+        var start = System.nanoTime();
+        var collections = clusterIds.stream()
+                .map(clusterId -> CompletableFuture.runAsync(() -> collectCluster(clusterId, time), collectionExecutor))
+                .toArray(CompletableFuture[]::new);
+        runningCollection = CompletableFuture.allOf(collections)
+                .exceptionally(e -> null) // Handled per cluster
+                .thenRun(() -> recordDuration(Duration.ofNanos(System.nanoTime() - start)));
+        return runningCollection;
+    }
+
+    private void recordDuration(Duration duration)
+    {
+        collectionTimer.record(duration);
+        if (duration.compareTo(statsConfiguration.getCollectionInterval()) > 0)
+            log.warn("Collecting topic stats took {}, which exceeds the collection interval of {}", duration,
+                    statsConfiguration.getCollectionInterval());
+    }
+
+    private void collectCluster(String clusterId, Instant time)
+    {
+        Optional<ClusterClientsLease> lease;
+        try
+        {
+            lease = clusterRegistry.acquireClients(clusterId);
+        }
+        catch (ClusterUnavailableException e)
+        {
+            log.debug("Skipping collection of topic stats in cluster with id '{}': {}", clusterId, e.getMessage());
+            return;
+        }
+
+        if (lease.isEmpty())
+            return; // Unregistered in the meantime
+
+        try (var clients = lease.get())
+        {
+            var stats = statsSource.collect(clusterId, clients.getPulsarAdmin(), time);
+            recentStatsCache.put(stats);
+            ingestWriter.offer(stats);
+
+            collectedTopics.increment(stats.topicStats().size());
+            log.debug("Collected stats of {} topics in cluster with id '{}'", stats.topicStats().size(), clusterId);
+        }
+        catch (PulsarAdminException | RuntimeException e)
+        {
+            log.warn("Failed to collect topic stats of cluster with id '{}'", clusterId, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown()
+    {
+        statsSource.close();
+        collectionExecutor.shutdownNow();
+    }
+}
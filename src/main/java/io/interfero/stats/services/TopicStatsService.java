@@ -0,0 +1,92 @@
+package io.interfero.stats.services;
+
+import io.interfero.stats.StatsConfiguration;
+import io.interfero.stats.domain.SubscriptionStatsRecord;
+import io.interfero.stats.domain.TopicStatsRecord;
+import io.interfero.stats.repositories.StatsGranularity;
+import io.interfero.stats.repositories.TopicStatsRepository;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.Nullable;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Service for querying the collected topic and subscription stats. The resolution of a query is never finer than the
+ * collection interval and coarse enough to return at most {@value #MAX_BUCKETS} buckets. If it has to be raised for
+ * that, it is rounded up to a multiple of a rollup, so a query over a long time range is answered from the rolled up
+ * stats. Queries within the recent window are answered from the {@link RecentStatsCache} instead of the repository.
+ */
+@Service
+@RequiredArgsConstructor
+public class TopicStatsService
+{
+    static final int MAX_BUCKETS = 1000;
+
+    /**
+     * Rounding up to a rollup may reduce the number of buckets to a quarter of {@link #MAX_BUCKETS}.
+     */
+    private static final int MAX_ROLLUP_WIDENING = 4;
+
+    private final TopicStatsRepository topicStatsRepository;
+    private final StatsConfiguration statsConfiguration;
+    private final RecentStatsCache recentStatsCache;
+
+    /**
+     * Determines the resolution a query over the given time range is answered in.
+     * @param from Start of the time range (inclusive)
+     * @param to End of the time range (exclusive)
+     * @param requestedResolution Requested width of the buckets, or null to use the finest possible resolution
+     * @return The effective width of the buckets, in whole seconds
+     */
+    public Duration getEffectiveResolution(Instant from, Instant to, @Nullable Duration requestedResolution)
+    {
+        var resolution = statsConfiguration.getCollectionInterval();
+        if (requestedResolution != null && requestedResolution.compareTo(resolution) > 0)
+            resolution = requestedResolution;
+
+        var minimumResolution = Duration.between(from, to).dividedBy(MAX_BUCKETS);
+        if (minimumResolution.compareTo(resolution) > 0)
+            resolution = StatsGranularity.roundUpToRollup(minimumResolution, MAX_ROLLUP_WIDENING);
+
+        var truncated = resolution.truncatedTo(ChronoUnit.SECONDS);
+        return truncated.equals(resolution) ? resolution : truncated.plusSeconds(1);
+    }
+
+    /**
+     * Returns the stats of a topic in the given time range.
+     * @param clusterId Cluster id or the name of the cluster as defined in the configuration
+     * @param topic Fully qualified topic name
+     * @param from Start of the time range (inclusive)
+     * @param to End of the time range (exclusive)
+     * @param resolution Effective resolution as determined by {@link #getEffectiveResolution(Instant, Instant, Duration)}
+     * @return Stats per bucket, ordered by time
+     */
+    public List<TopicStatsRecord> getTopicStats(String clusterId, String topic, Instant from, Instant to,
+                                                Duration resolution)
+    {
+        return recentStatsCache.findTopicStats(clusterId, topic, from, to, resolution)
+                .orElseGet(() -> topicStatsRepository.findTopicStats(clusterId, topic, from, to, resolution));
+    }
+
+    /**
+     * Returns the stats of a subscription in the given time range.
+     * @param clusterId Cluster id or the name of the cluster as defined in the configuration
+     * @param topic Fully qualified name of the subscribed topic
+     * @param subscription Name of the subscription
+     * @param from Start of the time range (inclusive)
+     * @param to End of the time range (exclusive)
+     * @param resolution Effective resolution as determined by {@link #getEffectiveResolution(Instant, Instant, Duration)}
+     * @return Stats per bucket, ordered by time
+     */
+    public List<SubscriptionStatsRecord> getSubscriptionStats(String clusterId, String topic, String subscription,
+                                                              Instant from, Instant to, Duration resolution)
+    {
+        return recentStatsCache.findSubscriptionStats(clusterId, topic, subscription, from, to, resolution)
+                .orElseGet(() -> topicStatsRepository.findSubscriptionStats(clusterId, topic, subscription, from, to,
+                        resolution));
+    }
+}
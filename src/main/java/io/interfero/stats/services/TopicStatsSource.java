@@ -0,0 +1,45 @@
+package io.interfero.stats.services;
+
+import io.interfero.stats.domain.SubscriptionStatsRecord;
+import io.interfero.stats.domain.TopicStatsRecord;
+import org.apache.pulsar.client.admin.PulsarAdmin;
+import org.apache.pulsar.client.admin.PulsarAdminException;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Source the {@link TopicStatsCollector} requests the stats of all topics of a cluster from.
+ */
+interface TopicStatsSource extends AutoCloseable
+{
+    /**
+     * Requests the stats of all topics and their subscriptions of the given cluster. Topics whose stats cannot be
+     * requested are skipped.
+     * @param clusterId Cluster id or the name of the cluster as defined in the configuration
+     * @param pulsarAdmin Leased Pulsar Admin of the cluster
+     * @param time Point in time to record the stats with
+     * @return The collected stats
+     * @throws PulsarAdminException if the topics or brokers of the cluster cannot be listed
+     */
+    CollectedStats collect(String clusterId, PulsarAdmin pulsarAdmin, Instant time) throws PulsarAdminException;
+
+    @Override
+    default void close()
+    {
+    }
+
+    /**
+     * Stats of all topics of a cluster, collected at the same point in time.
+     * @param topicStats Stats of the topics
+     * @param subscriptionStats Stats of the subscriptions of the topics
+     */
+    record CollectedStats(Collection<TopicStatsRecord> topicStats,
+                          Collection<SubscriptionStatsRecord> subscriptionStats)
+    {
+        int rows()
+        {
+            return topicStats.size() + subscriptionStats.size();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package io.interfero.web;
 
 import io.interfero.clusters.ClusterConnectionVerificationException;
+import io.interfero.clusters.ClusterUnavailableException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -17,5 +19,12 @@ class GlobalWebExceptionHandler extends ResponseEntityExceptionHandler
         return ResponseEntity.badRequest().body(errorResponse);
     }
 
+    @ExceptionHandler(ClusterUnavailableException.class)
+    ResponseEntity<ErrorResponse> handleClusterUnavailableException(ClusterUnavailableException ex)
+    {
+        var errorResponse = new ErrorResponse(ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+    }
+
     private record ErrorResponse(String error) {}
 }
@@ -54,12 +54,12 @@ public class TestcontainersConfiguration
                 .load();
     }
 
-    private static boolean isPostgres()
+    public static boolean isPostgres()
     {
         return DatabaseVendor.postgres.name().equalsIgnoreCase(dotenv.get("INTERFERO_DATABASE_VENDOR"));
     }
 
-    private static boolean isTimescaledb()
+    public static boolean isTimescaledb()
     {
         return DatabaseVendor.timescaledb.name().equalsIgnoreCase(dotenv.get("INTERFERO_DATABASE_VENDOR"));
     }
@@ -2,6 +2,7 @@ package io.interfero.clusters.mappers;
 
 import io.interfero.clusters.domain.ClusterAuthenticationMethod;
 import io.interfero.clusters.domain.ClusterConnectionSettingsEntity;
+import io.interfero.clusters.domain.ClusterConnectionTuningProfile;
 import io.interfero.clusters.dtos.ClusterConnectionSettings;
 import org.junit.jupiter.api.Test;
 
@@ -15,7 +16,7 @@ class ClusterConnectionSettingsMapperTest
     void shouldMapDtoToEntity()
     {
         var dto = new ClusterConnectionSettings(42L, "http://localhost:8080",
-                ClusterAuthenticationMethod.NO_AUTH, "{}");
+                ClusterAuthenticationMethod.NO_AUTH, "{}", ClusterConnectionTuningProfile.MINIMAL);
 
         var entity = mapper.toEntity(dto);
 
@@ -23,13 +24,25 @@ class ClusterConnectionSettingsMapperTest
         assertThat(entity.serviceUrl()).isEqualTo(dto.serviceUrl());
         assertThat(entity.authenticationMethod()).isEqualTo(dto.authenticationMethod());
         assertThat(entity.authenticationDetails()).isEqualTo(dto.authenticationDetails());
+        assertThat(entity.tuningProfile()).isEqualTo(dto.tuningProfile());
+    }
+
+    @Test
+    void shouldDefaultToStandardTuningProfile()
+    {
+        var dto = new ClusterConnectionSettings(null, "http://localhost:8080",
+                ClusterAuthenticationMethod.NO_AUTH, null);
+
+        var entity = mapper.toEntity(dto);
+
+        assertThat(entity.tuningProfile()).isEqualTo(ClusterConnectionTuningProfile.STANDARD);
     }
 
     @Test
     void shouldMapEntityToDto()
     {
         var entity = new ClusterConnectionSettingsEntity(999L, "https://my-pulsar.internal:6550",
-                ClusterAuthenticationMethod.NO_AUTH, "{\"token\":\"1234567890\"}");
+                ClusterAuthenticationMethod.NO_AUTH, "{\"token\":\"1234567890\"}", ClusterConnectionTuningProfile.LARGE);
 
         var dto = mapper.toDto(entity);
 
@@ -37,5 +50,6 @@ class ClusterConnectionSettingsMapperTest
         assertThat(dto.serviceUrl()).isEqualTo(entity.serviceUrl());
         assertThat(dto.authenticationMethod()).isEqualTo(entity.authenticationMethod());
         assertThat(dto.authenticationDetails()).isEqualTo(entity.authenticationDetails());
+        assertThat(dto.tuningProfile()).isEqualTo(entity.tuningProfile());
     }
 }
\ No newline at end of file
@@ -2,9 +2,12 @@ package io.interfero.clusters.repositories;
 
 import io.interfero.clusters.domain.ClusterAuthenticationMethod;
 import io.interfero.clusters.domain.ClusterConnectionSettingsEntity;
+import io.interfero.clusters.domain.ClusterConnectionTuningProfile;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 abstract class ClusterConnectionSettingsRepositoryIT
@@ -36,7 +39,8 @@ abstract class ClusterConnectionSettingsRepositoryIT
         shouldBeEqual(savedSettings, settingsById.get());
 
         var settingsToUpdate = new ClusterConnectionSettingsEntity(savedSettings.id(),
-                "http://localhost:9090", ClusterAuthenticationMethod.NO_AUTH, "{\"username\": \"user\", \"password\": \"pass\"}");
+                "http://localhost:9090", ClusterAuthenticationMethod.NO_AUTH, "{\"username\": \"user\", \"password\": \"pass\"}",
+                ClusterConnectionTuningProfile.LARGE);
 
         var updatedSettings = clusterConnectionSettingsRepository.save(settingsToUpdate);
         assertThat(updatedSettings.id()).isNotNull();
@@ -47,6 +51,32 @@ abstract class ClusterConnectionSettingsRepositoryIT
         shouldBeEqual(updatedSettings, settingsById.get());
     }
 
+    @Test
+    void shouldSaveAllClusterConnectionSettings()
+    {
+        var existingSettings = clusterConnectionSettingsRepository.save(new ClusterConnectionSettingsEntity(null,
+                "http://localhost:8080", ClusterAuthenticationMethod.NO_AUTH, "{}"));
+
+        var settingsToUpdate = new ClusterConnectionSettingsEntity(existingSettings.id(), "http://localhost:9090",
+                ClusterAuthenticationMethod.NO_AUTH, "{}", ClusterConnectionTuningProfile.LARGE);
+        var newSettings = new ClusterConnectionSettingsEntity(null, "http://localhost:6650",
+                ClusterAuthenticationMethod.NO_AUTH, "{}");
+        var settingsWithUnknownId = new ClusterConnectionSettingsEntity(9999L, "http://localhost:6651",
+                ClusterAuthenticationMethod.NO_AUTH, "{}", ClusterConnectionTuningProfile.MINIMAL);
+
+        var savedSettings = clusterConnectionSettingsRepository.saveAll(
+                List.of(settingsToUpdate, newSettings, settingsWithUnknownId));
+
+        assertThat(savedSettings).hasSize(3);
+        assertThat(savedSettings.get(0).id()).isEqualTo(existingSettings.id());
+        shouldBeEqual(settingsToUpdate, savedSettings.get(0));
+        shouldBeEqual(newSettings, savedSettings.get(1));
+        shouldBeEqual(settingsWithUnknownId, savedSettings.get(2));
+        assertThat(savedSettings.get(2).id()).isNotEqualTo(9999L);
+
+        assertThat(clusterConnectionSettingsRepository.findAll()).containsExactlyInAnyOrderElementsOf(savedSettings);
+    }
+
     @Test
     void shouldNotFindNonExistingClusterConnectionSettings()
     {
@@ -96,5 +126,6 @@ abstract class ClusterConnectionSettingsRepositoryIT
         assertThat(actual.serviceUrl()).isEqualTo(expected.serviceUrl());
         assertThat(actual.authenticationMethod()).isEqualTo(expected.authenticationMethod());
         assertThat(actual.authenticationDetails()).isEqualTo(expected.authenticationDetails());
+        assertThat(actual.tuningProfile()).isEqualTo(expected.tuningProfile());
     }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import io.interfero.clusters.domain.ClusterInfoRecord;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -56,6 +57,19 @@ abstract class ClusterInfoRepositoryIT
         assertThat(clusterInfoByName).isNotPresent();
     }
 
+    @Test
+    void shouldSaveAllClusterInfoRecords()
+    {
+        var clusterInfo1 = new ClusterInfoRecord("cluster-1", "Cluster 1", "icon1", "red");
+        var clusterInfo2 = new ClusterInfoRecord("cluster-2", "Cluster 2", "icon2", "blue");
+        clusterInfoRepository.save(new ClusterInfoRecord("cluster-1"));
+
+        var savedClusterInfoRecords = clusterInfoRepository.saveAll(List.of(clusterInfo1, clusterInfo2));
+
+        assertThat(savedClusterInfoRecords).containsExactly(clusterInfo1, clusterInfo2);
+        assertThat(clusterInfoRepository.findAll()).containsExactlyInAnyOrder(clusterInfo1, clusterInfo2);
+    }
+
     @Test
     void shouldDeleteAllClusterInfoRecords()
     {
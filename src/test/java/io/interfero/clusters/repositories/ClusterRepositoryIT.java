@@ -2,10 +2,14 @@ package io.interfero.clusters.repositories;
 
 import io.interfero.clusters.domain.ClusterAuthenticationMethod;
 import io.interfero.clusters.domain.ClusterConnectionSettingsEntity;
+import io.interfero.clusters.domain.ClusterConnectionTuningProfile;
 import io.interfero.clusters.domain.ClusterEntity;
+import io.interfero.clusters.domain.ClusterWithConnectionSettings;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 abstract class ClusterRepositoryIT
@@ -56,6 +60,80 @@ abstract class ClusterRepositoryIT
         assertThat(clusterById.get()).isEqualTo(updatedCluster);
     }
 
+    @Test
+    void shouldPersistInternalName()
+    {
+        var clientConnectionSettings = clusterConnectionSettingsRepository.save(new ClusterConnectionSettingsEntity(null,
+                "http://localhost:6550", ClusterAuthenticationMethod.NO_AUTH, "{}"));
+        var adminConnectionSettings = clusterConnectionSettingsRepository.save(new ClusterConnectionSettingsEntity(null,
+                "http://localhost:8080", ClusterAuthenticationMethod.NO_AUTH, "{}"));
+
+        var clusterToSave = new ClusterEntity("ABCD1234", "Test Cluster", "star", "#FF0000",
+                clientConnectionSettings.id(), adminConnectionSettings.id());
+        clusterRepository.save(clusterToSave);
+        assertThat(clusterRepository.findById("ABCD1234").orElseThrow().getInternalName()).isNull();
+
+        clusterRepository.updateInternalName("ABCD1234", "standalone");
+        assertThat(clusterRepository.findById("ABCD1234").orElseThrow().getInternalName()).isEqualTo("standalone");
+
+        var clusterToUpdate = new ClusterEntity("ABCD1234", "Updated Test Cluster", "circle", "#00FF00",
+                clientConnectionSettings.id(), adminConnectionSettings.id());
+        var updatedCluster = clusterRepository.save(clusterToUpdate);
+        assertThat(updatedCluster.getDisplayName()).isEqualTo("Updated Test Cluster");
+        assertThat(updatedCluster.getInternalName()).isEqualTo("standalone");
+    }
+
+    @Test
+    void shouldSaveAllClusters()
+    {
+        var clientConnectionSettings = clusterConnectionSettingsRepository.save(new ClusterConnectionSettingsEntity(null,
+                "http://localhost:6550", ClusterAuthenticationMethod.NO_AUTH, "{}"));
+        var adminConnectionSettings = clusterConnectionSettingsRepository.save(new ClusterConnectionSettingsEntity(null,
+                "http://localhost:8080", ClusterAuthenticationMethod.NO_AUTH, "{}"));
+        var clientConnectionSettings2 = clusterConnectionSettingsRepository.save(new ClusterConnectionSettingsEntity(null,
+                "http://localhost:16550", ClusterAuthenticationMethod.NO_AUTH, "{}"));
+        var adminConnectionSettings2 = clusterConnectionSettingsRepository.save(new ClusterConnectionSettingsEntity(null,
+                "http://localhost:18080", ClusterAuthenticationMethod.NO_AUTH, "{}"));
+
+        var existingCluster = new ClusterEntity("A0000001", "Cluster One", "circle", "#FF0000",
+                clientConnectionSettings.id(), adminConnectionSettings.id());
+        clusterRepository.save(existingCluster);
+        clusterRepository.updateInternalName(existingCluster.getId(), "standalone");
+
+        var cluster1 = new ClusterEntity("A0000001", "Updated Cluster One", "circle", "#FF0000",
+                clientConnectionSettings.id(), adminConnectionSettings.id());
+        var cluster2 = new ClusterEntity("B0000002", "Cluster Two", "square", "#00FF00",
+                clientConnectionSettings2.id(), adminConnectionSettings2.id());
+
+        var savedClusters = clusterRepository.saveAll(List.of(cluster1, cluster2));
+
+        assertThat(savedClusters).hasSize(2);
+        assertThat(savedClusters.get(0).getDisplayName()).isEqualTo("Updated Cluster One");
+        assertThat(savedClusters.get(0).getInternalName()).isEqualTo("standalone");
+        assertThat(savedClusters.get(1)).isEqualTo(cluster2);
+        assertThat(clusterRepository.findAll()).containsExactlyInAnyOrderElementsOf(savedClusters);
+    }
+
+    @Test
+    void shouldFindClustersWithConnectionSettings()
+    {
+        var clientConnectionSettings = clusterConnectionSettingsRepository.save(new ClusterConnectionSettingsEntity(null,
+                "http://localhost:6550", ClusterAuthenticationMethod.NO_AUTH, "{}"));
+        var adminConnectionSettings = clusterConnectionSettingsRepository.save(new ClusterConnectionSettingsEntity(null,
+                "http://localhost:8080", ClusterAuthenticationMethod.NO_AUTH, "{}",
+                ClusterConnectionTuningProfile.LARGE));
+
+        var cluster = clusterRepository.save(new ClusterEntity("ABCD1234", "Test Cluster", "star", "#FF0000",
+                clientConnectionSettings.id(), adminConnectionSettings.id()));
+        clusterRepository.updateInternalName(cluster.getId(), "standalone");
+        cluster.setInternalName("standalone");
+
+        var expected = new ClusterWithConnectionSettings(cluster, clientConnectionSettings, adminConnectionSettings);
+        assertThat(clusterRepository.findAllWithConnectionSettings()).containsExactly(expected);
+        assertThat(clusterRepository.findByIdWithConnectionSettings(cluster.getId())).contains(expected);
+        assertThat(clusterRepository.findByIdWithConnectionSettings("XXXX0000")).isEmpty();
+    }
+
     @Test
     void shouldNotFindNonExistingCluster()
     {
@@ -0,0 +1,76 @@
+package io.interfero.clusters.repositories;
+
+import io.interfero.clusters.domain.ClusterInfoRecord;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import tools.jackson.databind.JavaType;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of writing and reading a snapshot in the different {@link FileStoreFormat}s. Run via the main
+ * method, e.g. from the IDE - the snapshot size per format is printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileStoreFormatBenchmark
+{
+    @Param({"JSON", "SMILE", "CBOR"})
+    private FileStoreFormat format;
+
+    @Param({"100", "10000"})
+    private int entries;
+
+    private ObjectWriter writer;
+    private ObjectMapper mapper;
+    private JavaType entriesType;
+    private List<ClusterInfoRecord> snapshot;
+    private byte[] serializedSnapshot;
+
+    @Setup
+    public void setUp()
+    {
+        mapper = format.createMapper(JsonMapper.builder().build());
+        writer = format == FileStoreFormat.JSON ? mapper.writerWithDefaultPrettyPrinter() : mapper.writer();
+        entriesType = mapper.getTypeFactory().constructCollectionType(List.class, ClusterInfoRecord.class);
+
+        snapshot = new ArrayList<>(entries);
+        for (var i = 0; i < entries; i++)
+            snapshot.add(new ClusterInfoRecord("cluster-" + i, "Cluster " + i, "star", "#FF5733"));
+
+        serializedSnapshot = writer.writeValueAsBytes(snapshot);
+        System.out.printf("%n%s snapshot with %d entries: %d bytes%n", format, entries, serializedSnapshot.length);
+    }
+
+    @Benchmark
+    public byte[] writeSnapshot()
+    {
+        return writer.writeValueAsBytes(snapshot);
+    }
+
+    @Benchmark
+    public List<ClusterInfoRecord> readSnapshot()
+    {
+        return mapper.readValue(serializedSnapshot, entriesType);
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        var options = new OptionsBuilder()
+                .include(FileStoreFormatBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+}
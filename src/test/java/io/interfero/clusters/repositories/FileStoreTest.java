@@ -0,0 +1,398 @@
+package io.interfero.clusters.repositories;
+
+import io.interfero.clusters.domain.ClusterInfoRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileStoreTest
+{
+    @TempDir
+    private Path dataDirectory;
+
+    private File file;
+    private FileStore<String, ClusterInfoRecord> fileStore;
+
+    @BeforeEach
+    void setUp()
+    {
+        file = dataDirectory.resolve("cluster-info.json").toFile();
+        fileStore = createFileStore(FileStoreFormat.JSON);
+        fileStore.open();
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        fileStore.close();
+    }
+
+    @Test
+    void shouldCreateEmptyFile()
+    {
+        assertThat(file).exists();
+        assertThat(fileStore.findAll()).isEmpty();
+    }
+
+    @Test
+    void shouldAppendModificationsToJournal() throws Exception
+    {
+        var snapshot = Files.readString(file.toPath());
+
+        fileStore.put(new ClusterInfoRecord("cluster-a"));
+        fileStore.put(new ClusterInfoRecord("cluster-b"));
+        fileStore.remove("cluster-a");
+
+        assertThat(Files.readString(file.toPath())).isEqualTo(snapshot);
+        assertThat(Files.readAllLines(journalPath())).hasSize(3);
+    }
+
+    @Test
+    void shouldReplayJournalAndSkipTornRecord() throws Exception
+    {
+        fileStore.put(new ClusterInfoRecord("cluster-a"));
+        fileStore.put(new ClusterInfoRecord("cluster-b"));
+        var journal = Files.readAllLines(journalPath());
+
+        // Simulate a crash before compaction, which left a torn record at the end of the journal
+        fileStore.close();
+        Files.writeString(file.toPath(), "[]");
+        Files.writeString(journalPath(), String.join("\n", journal) + "\n{\"operation\":\"PUT\",\"ent");
+
+        var reopenedFileStore = createFileStore(FileStoreFormat.JSON);
+        reopenedFileStore.open();
+        assertThat(reopenedFileStore.findAll())
+                .containsExactlyInAnyOrder(new ClusterInfoRecord("cluster-a"), new ClusterInfoRecord("cluster-b"));
+        assertThat(Files.size(journalPath())).isZero();
+        reopenedFileStore.close();
+    }
+
+    @Test
+    void shouldTruncateJournalAfterFailedAppend() throws Exception
+    {
+        fileStore.close();
+        var failNextWrite = new AtomicBoolean();
+        var failingFileStore = new FileStore<>(dataDirectory.toFile(), "cluster-info", FileStoreFormat.JSON,
+                JsonMapper.builder().build(), String.class, ClusterInfoRecord.class, ClusterInfoRecord::name,
+                UnaryOperator.identity(), Duration.ofMillis(5))
+        {
+            @Override
+            FileChannel openJournal(Path journalPath) throws IOException
+            {
+                return new FailingFileChannel(super.openJournal(journalPath), failNextWrite);
+            }
+        };
+        failingFileStore.open();
+
+        failingFileStore.put(new ClusterInfoRecord("cluster-a"));
+        failNextWrite.set(true);
+        assertThatThrownBy(() -> failingFileStore.put(new ClusterInfoRecord("cluster-b")))
+                .hasCauseInstanceOf(IOException.class);
+        failingFileStore.put(new ClusterInfoRecord("cluster-c"));
+        var journal = Files.readAllLines(journalPath());
+
+        // Simulate a crash before compaction
+        failingFileStore.close();
+        Files.writeString(file.toPath(), "[]");
+        Files.write(journalPath(), journal);
+
+        fileStore = createFileStore(FileStoreFormat.JSON);
+        fileStore.open();
+        assertThat(journal).hasSize(2);
+        assertThat(fileStore.findAll())
+                .containsExactlyInAnyOrder(new ClusterInfoRecord("cluster-a"), new ClusterInfoRecord("cluster-c"));
+    }
+
+    @Test
+    void shouldCompactJournalIntoSnapshot() throws Exception
+    {
+        for (var i = 0; i < FileStore.COMPACTION_THRESHOLD; i++)
+            fileStore.put(new ClusterInfoRecord("cluster-" + (i % 10), "Cluster " + i, null, null));
+
+        assertThat(Files.size(journalPath())).isZero();
+        assertThat(Files.readString(file.toPath())).contains("Cluster 999");
+        assertThat(dataDirectory.resolve("cluster-info.json.tmp")).doesNotExist();
+    }
+
+    @Test
+    void shouldCommitConcurrentModificationsInBatches() throws Exception
+    {
+        var futures = new ArrayList<CompletableFuture<?>>();
+        for (var i = 0; i < 100; i++)
+        {
+            var name = "cluster-" + i;
+            futures.add(fileStore.modifyAsync(entries -> entries.put(name, new ClusterInfoRecord(name))));
+        }
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        assertThat(fileStore.findAll()).hasSize(100);
+        assertThat(Files.readAllLines(journalPath())).hasSize(100);
+    }
+
+    @Test
+    void shouldOnlyRollBackFailedModificationOfBatch()
+    {
+        var failed = fileStore.modifyAsync(entries -> {
+            entries.put("cluster-a", new ClusterInfoRecord("cluster-a"));
+            throw new IllegalStateException("Expected test exception");
+        });
+        var succeeded = fileStore.modifyAsync(entries -> entries.put("cluster-b", new ClusterInfoRecord("cluster-b")));
+
+        assertThatThrownBy(failed::join).hasCauseInstanceOf(IllegalStateException.class);
+        succeeded.join();
+        assertThat(fileStore.find("cluster-a")).isNotPresent();
+        assertThat(fileStore.find("cluster-b")).isPresent();
+    }
+
+    @Test
+    void shouldRejectModificationsAfterClose()
+    {
+        fileStore.close();
+
+        assertThatThrownBy(() -> fileStore.put(new ClusterInfoRecord("cluster-a")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldWriteThroughToFile()
+    {
+        fileStore.put(new ClusterInfoRecord("cluster-a", "Cluster A", "star", "#FF0000"));
+        fileStore.put(new ClusterInfoRecord("cluster-b"));
+        fileStore.remove("cluster-b");
+
+        assertThat(fileStore.find("cluster-a")).isPresent();
+        assertThat(fileStore.find("cluster-b")).isNotPresent();
+
+        var reopenedFileStore = createFileStore(FileStoreFormat.JSON);
+        reopenedFileStore.open();
+        assertThat(reopenedFileStore.findAll())
+                .containsExactly(new ClusterInfoRecord("cluster-a", "Cluster A", "star", "#FF0000"));
+        reopenedFileStore.close();
+    }
+
+    @Test
+    void shouldKeepIndexUnchangedIfModificationFails()
+    {
+        fileStore.put(new ClusterInfoRecord("cluster-a"));
+
+        assertThatThrownBy(() -> fileStore.modify(entries -> {
+            entries.clear();
+            throw new IllegalStateException("Expected test exception");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(fileStore.find("cluster-a")).isPresent();
+    }
+
+    @Test
+    void shouldOnlyJournalChangedEntries() throws Exception
+    {
+        fileStore.put(new ClusterInfoRecord("cluster-a"));
+        fileStore.put(new ClusterInfoRecord("cluster-b"));
+
+        var names = fileStore.modify(entries -> {
+            entries.put("cluster-a", new ClusterInfoRecord("cluster-a"));
+            entries.keySet().removeIf(name -> name.equals("cluster-b"));
+            return List.copyOf(entries.keySet());
+        });
+
+        assertThat(names).containsExactly("cluster-a");
+        assertThat(fileStore.find("cluster-b")).isNotPresent();
+        var journal = Files.readAllLines(journalPath());
+        assertThat(journal).hasSize(3);
+        assertThat(journal.getLast()).contains("\"REMOVE\"");
+    }
+
+    @Test
+    void shouldReplayJournalAfterExternalModification() throws Exception
+    {
+        fileStore.put(new ClusterInfoRecord("cluster-a"));
+
+        Files.writeString(file.toPath(), """
+                [ { "name": "cluster-b", "displayName": "Cluster B" } ]
+                """);
+
+        var deadline = System.currentTimeMillis() + 10_000;
+        while (fileStore.find("cluster-b").isEmpty() && System.currentTimeMillis() < deadline)
+            Thread.sleep(50);
+
+        assertThat(fileStore.find("cluster-b")).isPresent();
+        assertThat(fileStore.find("cluster-a")).isPresent();
+    }
+
+    @Test
+    void shouldMigrateSnapshotToConfiguredFormat()
+    {
+        var clusterInfoRecord = new ClusterInfoRecord("cluster-a", "Cluster A", "star", "#FF0000");
+        fileStore.put(clusterInfoRecord);
+        fileStore.close();
+
+        for (var format : List.of(FileStoreFormat.SMILE, FileStoreFormat.CBOR, FileStoreFormat.JSON))
+        {
+            var migratedFileStore = createFileStore(format);
+            migratedFileStore.open();
+            assertThat(migratedFileStore.findAll()).containsExactly(clusterInfoRecord);
+            migratedFileStore.close();
+
+            assertThat(dataDirectory.resolve("cluster-info." + format.getFileExtension())).exists();
+            assertThat(dataDirectory.toFile().list((_, name) -> name.startsWith("cluster-info."))).hasSize(2);
+        }
+    }
+
+    private Path journalPath()
+    {
+        return dataDirectory.resolve("cluster-info.journal");
+    }
+
+    /**
+     * Journal which writes only half of the next append before failing, like a full disk.
+     */
+    private static final class FailingFileChannel extends FileChannel
+    {
+        private final FileChannel delegate;
+        private final AtomicBoolean failNextWrite;
+
+        private FailingFileChannel(FileChannel delegate, AtomicBoolean failNextWrite)
+        {
+            this.delegate = delegate;
+            this.failNextWrite = failNextWrite;
+        }
+
+        @Override
+        public int write(ByteBuffer source) throws IOException
+        {
+            if (!failNextWrite.getAndSet(false))
+                return delegate.write(source);
+
+            delegate.write(source.slice(source.position(), source.remaining() / 2));
+            throw new IOException("No space left on device");
+        }
+
+        @Override
+        public int read(ByteBuffer destination) throws IOException
+        {
+            return delegate.read(destination);
+        }
+
+        @Override
+        public long read(ByteBuffer[] destinations, int offset, int length) throws IOException
+        {
+            return delegate.read(destinations, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] sources, int offset, int length) throws IOException
+        {
+            return delegate.write(sources, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException
+        {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException
+        {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException
+        {
+            return delegate.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException
+        {
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException
+        {
+            delegate.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException
+        {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel source, long position, long count) throws IOException
+        {
+            return delegate.transferFrom(source, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer destination, long position) throws IOException
+        {
+            return delegate.read(destination, position);
+        }
+
+        @Override
+        public int write(ByteBuffer source, long position) throws IOException
+        {
+            return delegate.write(source, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException
+        {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException
+        {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException
+        {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException
+        {
+            delegate.close();
+        }
+    }
+
+    private FileStore<String, ClusterInfoRecord> createFileStore(FileStoreFormat format)
+    {
+        return new FileStore<>(dataDirectory.toFile(), "cluster-info", format, JsonMapper.builder().build(),
+                String.class, ClusterInfoRecord.class, ClusterInfoRecord::name, UnaryOperator.identity(),
+                Duration.ofMillis(5));
+    }
+}
@@ -0,0 +1,80 @@
+package io.interfero.clusters.repositories;
+
+import io.interfero.clusters.domain.ClusterEntity;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RepositoryCacheTest
+{
+    private final RepositoryCache<String, ClusterEntity> cache = new RepositoryCache<>(ClusterEntity::getId,
+            ClusterEntity::copy);
+
+    @Test
+    void shouldLoadAllEntriesOnlyOnce()
+    {
+        var loads = new AtomicInteger();
+        var cluster = new ClusterEntity("A0000001", "Cluster One", "star", "#FF0000", 1L, 2L);
+
+        cache.findAll(() -> {
+            loads.incrementAndGet();
+            return Set.of(cluster);
+        });
+        var cachedClusters = cache.findAll(() -> {
+            loads.incrementAndGet();
+            return Set.of();
+        });
+
+        assertThat(loads).hasValue(1);
+        assertThat(cachedClusters).containsExactly(cluster);
+        assertThat(cache.find("A0000001", _ -> Optional.empty())).contains(cluster);
+        assertThat(cache.find("B0000002", _ -> Optional.of(cluster))).isEmpty();
+    }
+
+    @Test
+    void shouldReturnCopiesOfCachedEntries()
+    {
+        var cluster = new ClusterEntity("A0000001", "Cluster One", "star", "#FF0000", 1L, 2L);
+        cache.find("A0000001", _ -> Optional.of(cluster));
+
+        cache.find("A0000001", _ -> Optional.empty()).orElseThrow().setInternalName("modified");
+
+        assertThat(cache.find("A0000001", _ -> Optional.empty()).orElseThrow().getInternalName()).isNull();
+    }
+
+    @Test
+    void shouldLoadInvalidatedEntryAgain()
+    {
+        var cluster = new ClusterEntity("A0000001", "Cluster One", "star", "#FF0000", 1L, 2L);
+        var updatedCluster = new ClusterEntity("A0000001", "Updated Cluster One", "star", "#FF0000", 1L, 2L);
+        var newCluster = new ClusterEntity("B0000002", "Cluster Two", "star", "#00FF00", 3L, 4L);
+        cache.findAll(() -> Set.of(cluster));
+
+        cache.invalidate("A0000001");
+        cache.invalidate("B0000002");
+
+        assertThat(cache.find("A0000001", _ -> Optional.of(updatedCluster))).contains(updatedCluster);
+        assertThat(cache.find("B0000002", _ -> Optional.of(newCluster))).contains(newCluster);
+        assertThat(cache.findAll(() -> Set.of(updatedCluster, newCluster)))
+                .containsExactlyInAnyOrder(updatedCluster, newCluster);
+    }
+
+    @Test
+    void shouldNotCacheLoadOverlappingWithInvalidation()
+    {
+        var staleCluster = new ClusterEntity("A0000001", "Stale Cluster", "star", "#FF0000", 1L, 2L);
+        var currentCluster = new ClusterEntity("A0000001", "Current Cluster", "star", "#FF0000", 1L, 2L);
+
+        var loadedCluster = cache.find("A0000001", _ -> {
+            cache.invalidate("A0000001"); // Changed while the stale state was loaded
+            return Optional.of(staleCluster);
+        });
+
+        assertThat(loadedCluster).contains(staleCluster);
+        assertThat(cache.find("A0000001", _ -> Optional.of(currentCluster))).contains(currentCluster);
+    }
+}
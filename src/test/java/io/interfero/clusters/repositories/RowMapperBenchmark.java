@@ -0,0 +1,128 @@
+package io.interfero.clusters.repositories;
+
+import io.github.cdimascio.dotenv.Dotenv;
+import io.interfero.clusters.domain.ClusterConnectionSettingsEntity;
+import io.interfero.clusters.domain.ClusterInfoRecord;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the reflective mapping of {@code SELECT *} queries via {@code JdbcClient.query(Class)} with the explicit
+ * column lists and hand-written row mappers of the JDBC repositories. Requires Docker, as the queries run against a
+ * Postgres container in the version configured in the {@code .env} file. Run via the main method, e.g. from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMapperBenchmark
+{
+    @Param({"100", "10000"})
+    private int rows;
+
+    private PostgreSQLContainer postgresContainer;
+    private JdbcClient jdbcClient;
+
+    @Setup
+    public void setUp()
+    {
+        var postgresVersion = Dotenv.configure().load().get("POSTGRES_VERSION");
+        postgresContainer = new PostgreSQLContainer(DockerImageName.parse("postgres:" + postgresVersion));
+        postgresContainer.start();
+
+        var dataSource = new DriverManagerDataSource(postgresContainer.getJdbcUrl(), postgresContainer.getUsername(),
+                postgresContainer.getPassword());
+        jdbcClient = JdbcClient.create(dataSource);
+
+        jdbcClient.sql("""
+                CREATE TABLE cluster_info (
+                    name varchar(128) PRIMARY KEY,
+                    display_name varchar(255),
+                    icon varchar(64),
+                    color varchar(10)
+                )
+                """).update();
+        jdbcClient.sql("""
+                CREATE TABLE cluster_connection_settings (
+                    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                    service_url varchar(512) NOT NULL,
+                    authentication_method varchar(50) NOT NULL,
+                    authentication_details text,
+                    tuning_profile varchar(20)
+                )
+                """).update();
+
+        jdbcClient.sql("""
+                INSERT INTO cluster_info
+                SELECT 'cluster-' || i, 'Cluster ' || i, 'star', '#FF5733' FROM generate_series(1, :rows) AS i
+                """).param("rows", rows).update();
+        jdbcClient.sql("""
+                INSERT INTO cluster_connection_settings (service_url, authentication_method, authentication_details, tuning_profile)
+                SELECT 'pulsar://broker-' || i || ':6650', 'NO_AUTH', '{}', 'STANDARD' FROM generate_series(1, :rows) AS i
+                """).param("rows", rows).update();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        postgresContainer.stop();
+    }
+
+    @Benchmark
+    public Set<ClusterInfoRecord> reflectiveClusterInfoMapping()
+    {
+        return jdbcClient.sql("SELECT * FROM cluster_info")
+                .query(ClusterInfoRecord.class)
+                .set()
+                .stream().filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    @Benchmark
+    public Set<ClusterInfoRecord> handWrittenClusterInfoMapping()
+    {
+        return jdbcClient.sql("SELECT " + ClusterInfoPostgresRepository.COLUMNS + " FROM cluster_info")
+                .query(ClusterInfoPostgresRepository.ROW_MAPPER)
+                .set();
+    }
+
+    @Benchmark
+    public Set<ClusterConnectionSettingsEntity> reflectiveConnectionSettingsMapping()
+    {
+        return jdbcClient.sql("SELECT * FROM cluster_connection_settings")
+                .query(ClusterConnectionSettingsEntity.class)
+                .set()
+                .stream().filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    @Benchmark
+    public Set<ClusterConnectionSettingsEntity> handWrittenConnectionSettingsMapping()
+    {
+        return jdbcClient.sql("SELECT " + ClusterConnectionSettingsJdbcRepository.COLUMNS + " FROM cluster_connection_settings")
+                .query(ClusterConnectionSettingsJdbcRepository.ROW_MAPPER)
+                .set();
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        var options = new OptionsBuilder()
+                .include(RowMapperBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,135 @@
+package io.interfero.clusters.services;
+
+import io.interfero.clusters.domain.ClusterAuthenticationMethod;
+import io.interfero.clusters.domain.ClusterConnectionSettingsEntity;
+import io.interfero.clusters.domain.ClusterEntity;
+import io.interfero.clusters.domain.ClusterWithConnectionSettings;
+import io.interfero.clusters.repositories.ClusterRepository;
+import io.interfero.clusters.repositories.RemoteClusterChangeEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClusterChangeSynchronizerTest
+{
+    @Mock
+    private ClusterRepository clusterRepository;
+
+    @Mock
+    private ClusterClientRegistry clientRegistry;
+
+    @InjectMocks
+    private ClusterChangeSynchronizer clusterChangeSynchronizer;
+
+    @AfterEach
+    void tearDown()
+    {
+        clusterChangeSynchronizer.shutdown();
+    }
+
+    @Test
+    void shouldRegisterClusterChangedByAnotherReplica()
+    {
+        var cluster = clusterWithConnectionSettings("A0000001", 1L, 2L);
+        when(clusterRepository.findByIdWithConnectionSettings("A0000001")).thenReturn(Optional.of(cluster));
+
+        clusterChangeSynchronizer.onRemoteClusterChange(
+                new RemoteClusterChangeEvent(RemoteClusterChangeEvent.Type.CLUSTER, "A0000001"));
+
+        verify(clientRegistry, timeout(1000)).registerClientsForCluster(cluster);
+    }
+
+    @Test
+    void shouldUnregisterClusterDeletedByAnotherReplica()
+    {
+        when(clusterRepository.findByIdWithConnectionSettings("A0000001")).thenReturn(Optional.empty());
+
+        clusterChangeSynchronizer.onRemoteClusterChange(
+                new RemoteClusterChangeEvent(RemoteClusterChangeEvent.Type.CLUSTER, "A0000001"));
+
+        verify(clientRegistry).unregisterClientsForCluster("A0000001");
+    }
+
+    @Test
+    void shouldRegisterClustersUsingChangedConnectionSettings()
+    {
+        var affectedCluster = clusterWithConnectionSettings("A0000001", 1L, 2L);
+        var unaffectedCluster = clusterWithConnectionSettings("B0000002", 3L, 4L);
+        when(clusterRepository.findAllWithConnectionSettings()).thenReturn(List.of(affectedCluster, unaffectedCluster));
+
+        clusterChangeSynchronizer.onRemoteClusterChange(
+                new RemoteClusterChangeEvent(RemoteClusterChangeEvent.Type.CONNECTION_SETTINGS, "2"));
+
+        verify(clientRegistry, timeout(1000)).registerClientsForCluster(affectedCluster);
+        verify(clientRegistry, never()).registerClientsForCluster(unaffectedCluster);
+    }
+
+    @Test
+    void shouldSynchronizeAllClustersIfNotificationsWereMissed()
+    {
+        var registeredCluster = clusterWithConnectionSettings("A0000001", 1L, 2L);
+        var changedCluster = clusterWithConnectionSettings("D0000004", 5L, 6L);
+        var createdCluster = clusterWithConnectionSettings("B0000002", 3L, 4L);
+        when(clusterRepository.findAllWithConnectionSettings())
+                .thenReturn(List.of(registeredCluster, changedCluster, createdCluster));
+        when(clientRegistry.getRegisteredClusterIds())
+                .thenReturn(Set.of("A0000001", "C0000003", "D0000004", "cluster-a"));
+        when(clientRegistry.getConfiguredClusterNames()).thenReturn(Set.of("cluster-a"));
+        when(clientRegistry.isRegisteredWith(registeredCluster)).thenReturn(true);
+
+        clusterChangeSynchronizer.onRemoteClusterChange(
+                new RemoteClusterChangeEvent(RemoteClusterChangeEvent.Type.CLUSTER, null));
+
+        verify(clientRegistry, timeout(1000)).registerClientsForCluster(createdCluster);
+        verify(clientRegistry, timeout(1000)).registerClientsForCluster(changedCluster);
+        verify(clientRegistry, never()).registerClientsForCluster(registeredCluster);
+        verify(clientRegistry).unregisterClientsForCluster("C0000003");
+        verify(clientRegistry, never()).unregisterClientsForCluster("cluster-a");
+    }
+
+    @Test
+    void shouldSynchronizeAllClustersIfConnectionSettingsNotificationsWereMissed()
+    {
+        var changedCluster = clusterWithConnectionSettings("A0000001", 1L, 2L);
+        when(clusterRepository.findAllWithConnectionSettings()).thenReturn(List.of(changedCluster));
+        when(clientRegistry.getRegisteredClusterIds()).thenReturn(Set.of("A0000001"));
+
+        clusterChangeSynchronizer.onRemoteClusterChange(
+                new RemoteClusterChangeEvent(RemoteClusterChangeEvent.Type.CONNECTION_SETTINGS, null));
+
+        verify(clientRegistry, timeout(1000)).registerClientsForCluster(changedCluster);
+        verify(clientRegistry, never()).unregisterClientsForCluster(any());
+    }
+
+    @Test
+    void shouldIgnoreChangedInternalName()
+    {
+        clusterChangeSynchronizer.onRemoteClusterChange(
+                new RemoteClusterChangeEvent(RemoteClusterChangeEvent.Type.CLUSTER_INTERNAL_NAME, "A0000001"));
+
+        verifyNoInteractions(clusterRepository, clientRegistry);
+    }
+
+    private static ClusterWithConnectionSettings clusterWithConnectionSettings(String id, Long clientConnectionSettingsId,
+                                                                               Long adminConnectionSettingsId)
+    {
+        var cluster = new ClusterEntity(id, "Cluster " + id, "star", "#FF5733", clientConnectionSettingsId,
+                adminConnectionSettingsId);
+        var clientConnectionSettings = new ClusterConnectionSettingsEntity(clientConnectionSettingsId,
+                "pulsar://localhost:6650", ClusterAuthenticationMethod.NO_AUTH, null);
+        var adminConnectionSettings = new ClusterConnectionSettingsEntity(adminConnectionSettingsId,
+                "http://localhost:8080", ClusterAuthenticationMethod.NO_AUTH, null);
+
+        return new ClusterWithConnectionSettings(cluster, clientConnectionSettings, adminConnectionSettings);
+    }
+}
@@ -1,28 +1,44 @@
 package io.interfero.clusters.services;
 
+import io.interfero.clusters.ClusterClientsConfiguration;
+import io.interfero.clusters.ClusterUnavailableException;
 import io.interfero.clusters.domain.ClusterAuthenticationMethod;
 import io.interfero.clusters.domain.ClusterConnectionSettingsEntity;
 import io.interfero.clusters.domain.ClusterEntity;
+import io.interfero.clusters.domain.ClusterWithConnectionSettings;
 import io.interfero.clusters.events.ClusterClientsRegisteredEvent;
 import io.interfero.clusters.events.ClusterClientsUnregisteredEvent;
+import io.interfero.pulsar.PulsarClientFactory;
+import io.interfero.pulsar.PulsarConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.pulsar.client.admin.PulsarAdmin;
+import org.apache.pulsar.client.admin.PulsarAdminBuilder;
+import org.apache.pulsar.client.api.ClientBuilder;
 import org.apache.pulsar.client.api.PulsarClient;
 import org.apache.pulsar.client.api.PulsarClientException;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,46 +50,61 @@ class ClusterClientRegistryTest
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
-    @InjectMocks
+    @Mock
+    private PulsarClientFactory pulsarClientFactory;
+
     private ClusterClientRegistry clusterClientRegistry;
 
+    @BeforeEach
+    void setUp() throws PulsarClientException
+    {
+        lenient().when(pulsarClientFactory.createClient(any())).thenAnswer(invocation ->
+                invocation.<UnaryOperator<ClientBuilder>>getArgument(0).apply(PulsarClient.builder()).build());
+        lenient().when(pulsarClientFactory.createAdmin(any())).thenAnswer(invocation ->
+                invocation.<UnaryOperator<PulsarAdminBuilder>>getArgument(0).apply(PulsarAdmin.builder()).build());
+        clusterClientRegistry = createRegistry(new ClusterClientsConfiguration(null, false, null));
+    }
+
+    private ClusterClientRegistry createRegistry(ClusterClientsConfiguration clientsConfiguration)
+    {
+        return new ClusterClientRegistry(connectionSettingsService, eventPublisher, clientsConfiguration,
+                pulsarClientFactory, new SimpleMeterRegistry(), new PulsarConfiguration());
+    }
+
     @Test
     void shouldReturnPulsarAdminForCluster() throws PulsarClientException
     {
         var clusterId = "1234ABCD";
-        var mockPulsarAdmins = new ConcurrentHashMap<>();
+        var mockClusterClients = new ConcurrentHashMap<>();
         var mockPulsarAdmin = PulsarAdmin.builder().serviceHttpUrl("http://localhost:8080").build();
-        mockPulsarAdmins.put(clusterId, mockPulsarAdmin);
-        ReflectionTestUtils.setField(clusterClientRegistry, "pulsarAdmins", mockPulsarAdmins);
-
-        var retrievedPulsarAdmin = clusterClientRegistry.getPulsarAdminForCluster(clusterId);
+        mockClusterClients.put(clusterId, new ClusterClients(clusterId, mockPulsarAdmin, () -> null, false));
+        ReflectionTestUtils.setField(clusterClientRegistry, "clusterClients", mockClusterClients);
 
-        assertThat(retrievedPulsarAdmin).isPresent();
-        assertThat(retrievedPulsarAdmin.get()).isEqualTo(mockPulsarAdmin);
+        try (var clients = clusterClientRegistry.acquireClients(clusterId).orElseThrow())
+        {
+            assertThat(clients.getPulsarAdmin()).isEqualTo(mockPulsarAdmin);
+        }
     }
 
     @Test
-    void shouldReturnEmptyWhenNoPulsarAdminForCluster()
+    void shouldReturnEmptyWhenNoClientsForCluster()
     {
         var clusterId = "NON_EXISTENT_CLUSTER";
 
-        var retrievedPulsarAdmin = clusterClientRegistry.getPulsarAdminForCluster(clusterId);
+        var clients = clusterClientRegistry.acquireClients(clusterId);
 
-        assertThat(retrievedPulsarAdmin).isNotPresent();
+        assertThat(clients).isNotPresent();
     }
 
     @Test
     void shouldRegisterClientsForCluster() throws PulsarClientException
     {
         var clusterId = "1234ABCD";
-        var mockPulsarClients = new ConcurrentHashMap<>();
-        var mockPulsarAdmins = new ConcurrentHashMap<>();
+        var mockClusterClients = new ConcurrentHashMap<>();
         var mockPulsarClient = PulsarClient.builder().serviceUrl("pulsar://oldhost:6650").build();
         var mockPulsarAdmin = PulsarAdmin.builder().serviceHttpUrl("http://oldhost:8080").build();
-        mockPulsarClients.put(clusterId, mockPulsarClient);
-        mockPulsarAdmins.put(clusterId, mockPulsarAdmin);
-        ReflectionTestUtils.setField(clusterClientRegistry, "pulsarClients", mockPulsarClients);
-        ReflectionTestUtils.setField(clusterClientRegistry, "pulsarAdmins", mockPulsarAdmins);
+        mockClusterClients.put(clusterId, new ClusterClients(clusterId, mockPulsarAdmin, () -> mockPulsarClient, false));
+        ReflectionTestUtils.setField(clusterClientRegistry, "clusterClients", mockClusterClients);
 
         var clientConnectionSettings = new ClusterConnectionSettingsEntity(1L, "pulsar://localhost:6650",
                 ClusterAuthenticationMethod.NO_AUTH, "{}");
@@ -85,26 +116,92 @@ class ClusterClientRegistryTest
         when(connectionSettingsService.findById(2L)).thenReturn(Optional.of(adminConnectionSettings));
 
         // Before registration
-        var registeredPulsarAdmin = clusterClientRegistry.getPulsarAdminForCluster(clusterId);
-        assertThat(registeredPulsarAdmin).isPresent();
-        assertThat(registeredPulsarAdmin.get().getServiceUrl()).isEqualTo("http://oldhost:8080");
+        try (var clients = clusterClientRegistry.acquireClients(clusterId).orElseThrow())
+        {
+            assertThat(clients.getPulsarAdmin().getServiceUrl()).isEqualTo("http://oldhost:8080");
+        }
 
         // Register clients
         clusterClientRegistry.registerClientsForCluster(clusterEntity);
 
         verify(connectionSettingsService).findById(1L);
         verify(connectionSettingsService).findById(2L);
-        verify(eventPublisher).publishEvent(any(ClusterClientsUnregisteredEvent.class));
+        verify(eventPublisher, never()).publishEvent(any(ClusterClientsUnregisteredEvent.class));
         verify(eventPublisher).publishEvent(any(ClusterClientsRegisteredEvent.class));
 
         // After registration
-        registeredPulsarAdmin = clusterClientRegistry.getPulsarAdminForCluster(clusterId);
-        assertThat(registeredPulsarAdmin).isPresent();
-        assertThat(registeredPulsarAdmin.get().getServiceUrl()).isEqualTo(adminConnectionSettings.serviceUrl());
+        try (var clients = clusterClientRegistry.acquireClients(clusterId).orElseThrow())
+        {
+            assertThat(clients.getPulsarAdmin().getServiceUrl()).isEqualTo(adminConnectionSettings.serviceUrl());
+        }
+    }
+
+    @Test
+    void shouldCloseReplacedClientsOnceAllLeasesAreReleased()
+    {
+        var clusterId = "1234ABCD";
+        var oldPulsarAdmin = mock(PulsarAdmin.class);
+        var mockClusterClients = new ConcurrentHashMap<>();
+        mockClusterClients.put(clusterId, new ClusterClients(clusterId, oldPulsarAdmin, () -> null, true));
+        ReflectionTestUtils.setField(clusterClientRegistry, "clusterClients", mockClusterClients);
+
+        var clientConnectionSettings = new ClusterConnectionSettingsEntity(1L, "pulsar://localhost:6650",
+                ClusterAuthenticationMethod.NO_AUTH, "{}");
+        var adminConnectionSettings = new ClusterConnectionSettingsEntity(2L, "http://localhost:8080",
+                ClusterAuthenticationMethod.NO_AUTH, "{}");
+        var clusterEntity = new ClusterEntity(clusterId, "Test Cluster", "star", "#123456",
+                1L, 2L);
+        when(connectionSettingsService.findById(1L)).thenReturn(Optional.of(clientConnectionSettings));
+        when(connectionSettingsService.findById(2L)).thenReturn(Optional.of(adminConnectionSettings));
+
+        var lease = clusterClientRegistry.acquireClients(clusterId).orElseThrow();
+        clusterClientRegistry.registerClientsForCluster(clusterEntity);
+
+        // In-flight lease still uses the replaced admin, which must not be closed yet
+        assertThat(lease.getPulsarAdmin()).isSameAs(oldPulsarAdmin);
+        verify(oldPulsarAdmin, never()).close();
+
+        try (var clients = clusterClientRegistry.acquireClients(clusterId).orElseThrow())
+        {
+            assertThat(clients.getPulsarAdmin()).isNotSameAs(oldPulsarAdmin);
+        }
+
+        lease.close();
+        verify(oldPulsarAdmin, timeout(1000)).close();
     }
 
     @Test
-    void shouldUnregisterAndRegisterClientsForCluster()
+    void shouldKeepPreviousClientsIfRegistrationFails() throws PulsarClientException
+    {
+        var clusterId = "1234ABCD";
+        var oldPulsarAdmin = mock(PulsarAdmin.class);
+        var mockClusterClients = new ConcurrentHashMap<>();
+        mockClusterClients.put(clusterId, new ClusterClients(clusterId, oldPulsarAdmin, () -> null, true));
+        ReflectionTestUtils.setField(clusterClientRegistry, "clusterClients", mockClusterClients);
+
+        var clientConnectionSettings = new ClusterConnectionSettingsEntity(1L, "pulsar://localhost:6650",
+                ClusterAuthenticationMethod.NO_AUTH, "{}");
+        var adminConnectionSettings = new ClusterConnectionSettingsEntity(2L, "http://localhost:8080",
+                ClusterAuthenticationMethod.NO_AUTH, "{}");
+        var clusterEntity = new ClusterEntity(clusterId, "Test Cluster", "star", "#123456",
+                1L, 2L);
+        when(connectionSettingsService.findById(1L)).thenReturn(Optional.of(clientConnectionSettings));
+        when(connectionSettingsService.findById(2L)).thenReturn(Optional.of(adminConnectionSettings));
+        when(pulsarClientFactory.createAdmin(any())).thenThrow(new PulsarClientException("Invalid settings"));
+
+        assertThatThrownBy(() -> clusterClientRegistry.registerClientsForCluster(clusterEntity))
+                .isInstanceOf(RuntimeException.class);
+
+        try (var clients = clusterClientRegistry.acquireClients(clusterId).orElseThrow())
+        {
+            assertThat(clients.getPulsarAdmin()).isSameAs(oldPulsarAdmin);
+        }
+        verify(oldPulsarAdmin, never()).close();
+        verify(eventPublisher, never()).publishEvent(any(ClusterClientsUnregisteredEvent.class));
+    }
+
+    @Test
+    void shouldRegisterClientsForNewCluster()
     {
         var clientConnectionSettings = new ClusterConnectionSettingsEntity(1L, "pulsar://localhost:6650",
                 ClusterAuthenticationMethod.NO_AUTH, "{}");
@@ -119,8 +216,101 @@ class ClusterClientRegistryTest
 
         verify(connectionSettingsService).findById(1L);
         verify(connectionSettingsService).findById(2L);
-        verify(eventPublisher).publishEvent(any(ClusterClientsUnregisteredEvent.class));
         verify(eventPublisher).publishEvent(any(ClusterClientsRegisteredEvent.class));
+        assertThat(clusterClientRegistry.acquireClients("1234ABCD")).isPresent();
+    }
+
+    @Test
+    void shouldRegisterClientsForClusterWithLoadedConnectionSettings()
+    {
+        var clientConnectionSettings = new ClusterConnectionSettingsEntity(1L, "pulsar://localhost:6650",
+                ClusterAuthenticationMethod.NO_AUTH, "{}");
+        var adminConnectionSettings = new ClusterConnectionSettingsEntity(2L, "http://localhost:8080",
+                ClusterAuthenticationMethod.NO_AUTH, "{}");
+        var clusterEntity = new ClusterEntity("1234ABCD", "Test Cluster", "star", "#123456",
+                1L, 2L);
+
+        clusterClientRegistry.registerClientsForCluster(new ClusterWithConnectionSettings(clusterEntity,
+                clientConnectionSettings, adminConnectionSettings));
+
+        verifyNoInteractions(connectionSettingsService);
+        verify(eventPublisher).publishEvent(any(ClusterClientsRegisteredEvent.class));
+        assertThat(clusterClientRegistry.acquireClients("1234ABCD")).isPresent();
+    }
+
+    @Test
+    void shouldTellWhetherClusterIsRegisteredWithConnectionSettings()
+    {
+        var clientConnectionSettings = new ClusterConnectionSettingsEntity(1L, "pulsar://localhost:6650",
+                ClusterAuthenticationMethod.NO_AUTH, "{}");
+        var adminConnectionSettings = new ClusterConnectionSettingsEntity(2L, "http://localhost:8080",
+                ClusterAuthenticationMethod.NO_AUTH, "{}");
+        var clusterEntity = new ClusterEntity("1234ABCD", "Test Cluster", "star", "#123456",
+                1L, 2L);
+        var cluster = new ClusterWithConnectionSettings(clusterEntity, clientConnectionSettings, adminConnectionSettings);
+        var changedCluster = new ClusterWithConnectionSettings(clusterEntity, clientConnectionSettings,
+                new ClusterConnectionSettingsEntity(2L, "http://otherhost:8080", ClusterAuthenticationMethod.NO_AUTH,
+                        "{}"));
+
+        assertThat(clusterClientRegistry.isRegisteredWith(cluster)).isFalse();
+
+        clusterClientRegistry.registerClientsForCluster(cluster);
+
+        assertThat(clusterClientRegistry.isRegisteredWith(cluster)).isTrue();
+        assertThat(clusterClientRegistry.isRegisteredWith(changedCluster)).isFalse();
+
+        clusterClientRegistry.unregisterClientsForCluster("1234ABCD");
+
+        assertThat(clusterClientRegistry.isRegisteredWith(cluster)).isFalse();
+    }
+
+    @Test
+    void shouldRejectLeasesWhileCircuitIsOpen()
+    {
+        var clientConnectionSettings = new ClusterConnectionSettingsEntity(1L, "pulsar://localhost:6650",
+                ClusterAuthenticationMethod.NO_AUTH, "{}");
+        var adminConnectionSettings = new ClusterConnectionSettingsEntity(2L, "http://localhost:8080",
+                ClusterAuthenticationMethod.NO_AUTH, "{}");
+        var clusterEntity = new ClusterEntity("1234ABCD", "Test Cluster", "star", "#123456",
+                1L, 2L);
+        var cluster = new ClusterWithConnectionSettings(clusterEntity, clientConnectionSettings, adminConnectionSettings);
+        clusterClientRegistry.registerClientsForCluster(cluster);
+
+        clusterClientRegistry.openCircuit("1234ABCD", "Connection refused");
+
+        assertThatThrownBy(() -> clusterClientRegistry.acquireClients("1234ABCD"))
+                .isInstanceOf(ClusterUnavailableException.class)
+                .hasMessageContaining("Connection refused");
+        try (var clients = clusterClientRegistry.acquireClientsIgnoringCircuit("1234ABCD").orElseThrow())
+        {
+            assertThat(clients.getPulsarAdmin()).isNotNull();
+        }
+
+        clusterClientRegistry.closeCircuit("1234ABCD");
+        assertThat(clusterClientRegistry.acquireClients("1234ABCD")).isPresent();
+
+        // New clients start over with a closed circuit
+        clusterClientRegistry.openCircuit("1234ABCD", "Connection refused");
+        clusterClientRegistry.registerClientsForCluster(cluster);
+        assertThat(clusterClientRegistry.acquireClients("1234ABCD")).isPresent();
+
+        // Clusters without clients never get an open circuit
+        clusterClientRegistry.openCircuit("UNKNOWN", "Connection refused");
+        assertThat(clusterClientRegistry.acquireClients("UNKNOWN")).isNotPresent();
+    }
+
+    @Test
+    void shouldFailToRegisterClientsForClusterWithMissingConnectionSettings()
+    {
+        var clusterEntity = new ClusterEntity("1234ABCD", "Test Cluster", "star", "#123456",
+                1L, 2L);
+        var clientConnectionSettings = new ClusterConnectionSettingsEntity(1L, "pulsar://localhost:6650",
+                ClusterAuthenticationMethod.NO_AUTH, "{}");
+
+        assertThatThrownBy(() -> clusterClientRegistry.registerClientsForCluster(
+                new ClusterWithConnectionSettings(clusterEntity, clientConnectionSettings, null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Admin connection settings with id [2] not found");
     }
 
     @Test
@@ -133,4 +323,66 @@ class ClusterClientRegistryTest
         assertThatThrownBy(() -> clusterClientRegistry.registerClientsForCluster(clusterEntity))
                 .isInstanceOf(IllegalArgumentException.class);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldCreatePulsarClientOnFirstUseInLazyMode()
+    {
+        clusterClientRegistry = createRegistry(new ClusterClientsConfiguration(null, true, null));
+        var clientConnectionSettings = new ClusterConnectionSettingsEntity(1L, "pulsar://localhost:6650",
+                ClusterAuthenticationMethod.NO_AUTH, "{}");
+        var adminConnectionSettings = new ClusterConnectionSettingsEntity(2L, "http://localhost:8080",
+                ClusterAuthenticationMethod.NO_AUTH, "{}");
+        var clusterEntity = new ClusterEntity("1234ABCD", "Test Cluster", "star", "#123456",
+                1L, 2L);
+        when(connectionSettingsService.findById(1L)).thenReturn(Optional.of(clientConnectionSettings));
+        when(connectionSettingsService.findById(2L)).thenReturn(Optional.of(adminConnectionSettings));
+
+        clusterClientRegistry.registerClientsForCluster(clusterEntity);
+
+        Map<String, ClusterClients> clusterClients = getClusterClients();
+        assertThat(clusterClients.get("1234ABCD").hasPulsarClient()).isFalse();
+
+        try (var clients = clusterClientRegistry.acquireClients("1234ABCD").orElseThrow())
+        {
+            assertThat(clients.getPulsarClient()).isNotNull();
+        }
+
+        assertThat(clusterClients.get("1234ABCD").hasPulsarClient()).isTrue();
+    }
+
+    @Test
+    void shouldCloseIdlePulsarClientsInLazyMode()
+    {
+        clusterClientRegistry = createRegistry(new ClusterClientsConfiguration(null, true, Duration.ZERO));
+        var clientConnectionSettings = new ClusterConnectionSettingsEntity(1L, "pulsar://localhost:6650",
+                ClusterAuthenticationMethod.NO_AUTH, "{}");
+        var adminConnectionSettings = new ClusterConnectionSettingsEntity(2L, "http://localhost:8080",
+                ClusterAuthenticationMethod.NO_AUTH, "{}");
+        var clusterEntity = new ClusterEntity("1234ABCD", "Test Cluster", "star", "#123456",
+                1L, 2L);
+        when(connectionSettingsService.findById(1L)).thenReturn(Optional.of(clientConnectionSettings));
+        when(connectionSettingsService.findById(2L)).thenReturn(Optional.of(adminConnectionSettings));
+
+        clusterClientRegistry.registerClientsForCluster(clusterEntity);
+        try (var clients = clusterClientRegistry.acquireClients("1234ABCD").orElseThrow())
+        {
+            clients.getPulsarClient();
+
+            // Leased clients are never closed as idle
+            clusterClientRegistry.closeIdlePulsarClients();
+            assertThat(getClusterClients().get("1234ABCD").hasPulsarClient()).isTrue();
+        }
+
+        clusterClientRegistry.closeIdlePulsarClients();
+
+        Map<String, ClusterClients> clusterClients = getClusterClients();
+        assertThat(clusterClients.get("1234ABCD").hasPulsarClient()).isFalse();
+        assertThat(clusterClientRegistry.acquireClients("1234ABCD")).isPresent();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ClusterClients> getClusterClients()
+    {
+        return (Map<String, ClusterClients>) ReflectionTestUtils.getField(clusterClientRegistry, "clusterClients");
+    }
+}
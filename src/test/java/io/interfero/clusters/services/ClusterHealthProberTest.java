@@ -0,0 +1,161 @@
+package io.interfero.clusters.services;
+
+import io.interfero.clusters.ClusterClientsLease;
+import io.interfero.clusters.ClusterHealthConfiguration;
+import io.interfero.clusters.ClusterUnavailableException;
+import io.interfero.clusters.domain.ClusterHealthStatus;
+import io.interfero.clusters.events.ClusterClientsRegisteredEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pulsar.client.admin.Clusters;
+import org.apache.pulsar.client.admin.PulsarAdmin;
+import org.apache.pulsar.client.admin.PulsarAdminException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClusterHealthProberTest
+{
+    private static final String CLUSTER_ID = "1234ABCD";
+
+    @Mock
+    private ClusterClientRegistry clusterClientRegistry;
+
+    @Mock
+    private ClusterClientsLease clientsLease;
+
+    @Mock
+    private PulsarAdmin pulsarAdmin;
+
+    @Mock
+    private Clusters clusters;
+
+    private ClusterHealthProber clusterHealthProber;
+
+    @BeforeEach
+    void setUp()
+    {
+        var healthConfiguration = new ClusterHealthConfiguration(Duration.ofMillis(200), 2);
+        clusterHealthProber = new ClusterHealthProber(clusterClientRegistry, healthConfiguration,
+                new SimpleMeterRegistry());
+
+        lenient().when(clusterClientRegistry.getRegisteredClusterIds()).thenReturn(Set.of(CLUSTER_ID));
+        lenient().when(clusterClientRegistry.acquireClientsIgnoringCircuit(CLUSTER_ID))
+                .thenReturn(Optional.of(clientsLease));
+        lenient().when(clientsLease.getPulsarAdmin()).thenReturn(pulsarAdmin);
+        lenient().when(pulsarAdmin.clusters()).thenReturn(clusters);
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        clusterHealthProber.shutdown();
+    }
+
+    @Test
+    void shouldConsiderUnprobedClustersHealthy()
+    {
+        assertThat(clusterHealthProber.getHealthStatus(CLUSTER_ID)).isEqualTo(ClusterHealthStatus.HEALTHY);
+        clusterHealthProber.ensureAvailable(CLUSTER_ID);
+    }
+
+    @Test
+    void shouldMarkClusterHealthyAfterSuccessfulProbe()
+    {
+        when(clusters.getClustersAsync()).thenReturn(CompletableFuture.completedFuture(List.of("standalone")));
+
+        clusterHealthProber.probeClustersAsync().join();
+
+        assertThat(clusterHealthProber.getHealthStatus(CLUSTER_ID)).isEqualTo(ClusterHealthStatus.HEALTHY);
+        verify(clientsLease).close();
+    }
+
+    @Test
+    void shouldOpenCircuitAfterFailureThreshold()
+    {
+        when(clusters.getClustersAsync())
+                .thenReturn(CompletableFuture.failedFuture(new PulsarAdminException("Connection refused")));
+
+        clusterHealthProber.probeClustersAsync().join();
+        assertThat(clusterHealthProber.getHealthStatus(CLUSTER_ID)).isEqualTo(ClusterHealthStatus.DEGRADED);
+        clusterHealthProber.ensureAvailable(CLUSTER_ID);
+
+        clusterHealthProber.probeClustersAsync().join();
+        assertThat(clusterHealthProber.getHealthStatus(CLUSTER_ID)).isEqualTo(ClusterHealthStatus.OPEN);
+        assertThatThrownBy(() -> clusterHealthProber.ensureAvailable(CLUSTER_ID))
+                .isInstanceOf(ClusterUnavailableException.class)
+                .hasMessageContaining("Connection refused");
+        verify(clusterClientRegistry).openCircuit(CLUSTER_ID, "Connection refused");
+    }
+
+    @Test
+    void shouldTreatTimedOutProbeAsFailure()
+    {
+        when(clusters.getClustersAsync()).thenReturn(new CompletableFuture<>());
+
+        clusterHealthProber.probeClustersAsync().join();
+
+        var health = clusterHealthProber.getClusterHealth().get(CLUSTER_ID);
+        assertThat(health.status()).isEqualTo(ClusterHealthStatus.DEGRADED);
+        assertThat(health.message()).contains("did not complete within");
+    }
+
+    @Test
+    void shouldCloseCircuitAfterSuccessfulProbe()
+    {
+        when(clusters.getClustersAsync())
+                .thenReturn(CompletableFuture.failedFuture(new PulsarAdminException("Connection refused")))
+                .thenReturn(CompletableFuture.failedFuture(new PulsarAdminException("Connection refused")))
+                .thenReturn(CompletableFuture.completedFuture(List.of("standalone")));
+
+        clusterHealthProber.probeClustersAsync().join();
+        clusterHealthProber.probeClustersAsync().join();
+        assertThat(clusterHealthProber.getHealthStatus(CLUSTER_ID)).isEqualTo(ClusterHealthStatus.OPEN);
+
+        clusterHealthProber.probeClustersAsync().join();
+        assertThat(clusterHealthProber.getHealthStatus(CLUSTER_ID)).isEqualTo(ClusterHealthStatus.HEALTHY);
+        verify(clusterClientRegistry).closeCircuit(CLUSTER_ID);
+    }
+
+    @Test
+    void shouldNotWaitForRunningProbes()
+    {
+        var pendingProbe = new CompletableFuture<List<String>>();
+        when(clusters.getClustersAsync()).thenReturn(pendingProbe);
+
+        var probes = clusterHealthProber.probeClustersAsync();
+        clusterHealthProber.probeClusters();
+
+        assertThat(probes).isNotDone();
+        assertThat(clusterHealthProber.probeClustersAsync()).isSameAs(probes);
+
+        probes.join(); // Bounded by the probe timeout
+        verify(clusters).getClustersAsync();
+    }
+
+    @Test
+    void shouldResetHealthOnReRegistration()
+    {
+        when(clusters.getClustersAsync())
+                .thenReturn(CompletableFuture.failedFuture(new PulsarAdminException("Connection refused")));
+        clusterHealthProber.probeClustersAsync().join();
+        clusterHealthProber.probeClustersAsync().join();
+
+        clusterHealthProber.onClusterClientsRegistered(new ClusterClientsRegisteredEvent(CLUSTER_ID));
+
+        assertThat(clusterHealthProber.getHealthStatus(CLUSTER_ID)).isEqualTo(ClusterHealthStatus.HEALTHY);
+    }
+}
@@ -1,5 +1,7 @@
 package io.interfero.clusters.services;
 
+import io.interfero.clusters.ClusterClientsLease;
+import io.interfero.clusters.ClustersConfiguration;
 import io.interfero.clusters.PulsarClusterRegistry;
 import io.interfero.clusters.repositories.ClusterInfoRepository;
 import org.apache.pulsar.client.admin.Clusters;
@@ -7,19 +9,24 @@ import org.apache.pulsar.client.admin.PulsarAdmin;
 import org.apache.pulsar.client.admin.PulsarAdminException;
 import org.apache.pulsar.common.policies.data.ClusterData;
 import org.apache.pulsar.common.policies.data.ClusterDataImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,19 +35,38 @@ class ClusterInfoServiceTest
     @Mock
     private PulsarClusterRegistry clusterRegistry;
 
+    @Mock
+    private ClusterInfoRepository clusterInfoRepository;
+
+    @Mock
+    private ClusterClientsLease clientsLease;
+
     @Mock
     private PulsarAdmin pulsarAdmin;
 
     @Mock
     private Clusters clusters;
 
-    @InjectMocks
     private ClusterInfoService service;
 
+    @BeforeEach
+    void setUp()
+    {
+        service = new ClusterInfoService(clusterInfoRepository, clusterRegistry,
+                new ClustersConfiguration(Duration.ofMillis(500)));
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        service.shutdown();
+    }
+
     @Test
     void shouldHaveMissingClusterInfo() throws PulsarAdminException
     {
-        when(clusterRegistry.getPulsarAdmin(any(String.class))).thenReturn(pulsarAdmin);
+        when(clusterRegistry.acquireClients(any(String.class))).thenReturn(Optional.of(clientsLease));
+        when(clientsLease.getPulsarAdmin()).thenReturn(pulsarAdmin);
         when(clusterRegistry.getConfiguredClusterNames()).thenReturn(Set.of("cluster-a", "cluster-b"));
         when(pulsarAdmin.clusters()).thenReturn(clusters);
         when(clusters.getClusters()).thenThrow(new PulsarAdminException("This is an expected test exception"));
@@ -48,13 +74,59 @@ class ClusterInfoServiceTest
         var clusterInfos = service.getClusterInfos();
 
         assertThat(clusterInfos).isNotNull();
-        assertThat(clusterInfos).isEmpty();
+        assertThat(clusterInfos).hasSize(2);
+        assertThat(clusterInfos).allSatisfy(clusterInfo -> {
+            assertThat(clusterInfo.internalName()).isNull();
+            assertThat(clusterInfo.error()).isEqualTo("This is an expected test exception");
+        });
+    }
+
+    @Test
+    void shouldReturnPartialResultsForSlowClusters() throws PulsarAdminException
+    {
+        var slowClientsLease = mock(ClusterClientsLease.class);
+        var slowPulsarAdmin = mock(PulsarAdmin.class);
+        var slowClusters = mock(Clusters.class);
+        when(clusterRegistry.getConfiguredClusterNames()).thenReturn(Set.of("fast-cluster", "slow-cluster"));
+        when(clusterRegistry.acquireClients("fast-cluster")).thenReturn(Optional.of(clientsLease));
+        when(clusterRegistry.acquireClients("slow-cluster")).thenReturn(Optional.of(slowClientsLease));
+        when(clientsLease.getPulsarAdmin()).thenReturn(pulsarAdmin);
+        when(slowClientsLease.getPulsarAdmin()).thenReturn(slowPulsarAdmin);
+        when(pulsarAdmin.clusters()).thenReturn(clusters);
+        when(slowPulsarAdmin.clusters()).thenReturn(slowClusters);
+        when(clusters.getClusters()).thenReturn(List.of("standalone"));
+        when(clusters.getCluster("standalone"))
+                .thenReturn(ClusterData.builder().serviceUrl("http://localhost:8080").build());
+        when(slowClusters.getClusters()).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return List.of("standalone");
+        });
+
+        var start = System.nanoTime();
+        var clusterInfos = service.getClusterInfos();
+        var duration = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(duration).isLessThan(Duration.ofSeconds(2));
+        assertThat(clusterInfos).hasSize(2);
+        assertThat(clusterInfos).filteredOn(clusterInfo -> clusterInfo.name().equals("fast-cluster"))
+                .singleElement()
+                .satisfies(clusterInfo -> {
+                    assertThat(clusterInfo.internalName()).isEqualTo("standalone");
+                    assertThat(clusterInfo.error()).isNull();
+                });
+        assertThat(clusterInfos).filteredOn(clusterInfo -> clusterInfo.name().equals("slow-cluster"))
+                .singleElement()
+                .satisfies(clusterInfo -> {
+                    assertThat(clusterInfo.internalName()).isNull();
+                    assertThat(clusterInfo.error()).contains("could not be resolved within");
+                });
     }
 
     @Test
     void shouldGetInternalClusterName() throws PulsarAdminException
     {
-        when(clusterRegistry.getPulsarAdmin("cluster-a")).thenReturn(pulsarAdmin);
+        when(clusterRegistry.acquireClients("cluster-a")).thenReturn(Optional.of(clientsLease));
+        when(clientsLease.getPulsarAdmin()).thenReturn(pulsarAdmin);
         when(pulsarAdmin.clusters()).thenReturn(clusters);
         when(clusters.getClusters()).thenReturn(List.of( "cluster-b", "standalone"));
         when(clusters.getCluster(eq("cluster-b")))
@@ -65,12 +137,14 @@ class ClusterInfoServiceTest
         var internalName = service.getInternalClusterName("cluster-a");
 
         assertThat(internalName).isEqualTo("standalone");
+        verify(clientsLease).close();
     }
 
     @Test
     void shouldFailToGetInternalClusterNameWithMisingLocalhostServiceUrl() throws PulsarAdminException
     {
-        when(clusterRegistry.getPulsarAdmin("cluster-a")).thenReturn(pulsarAdmin);
+        when(clusterRegistry.acquireClients("cluster-a")).thenReturn(Optional.of(clientsLease));
+        when(clientsLease.getPulsarAdmin()).thenReturn(pulsarAdmin);
         when(pulsarAdmin.clusters()).thenReturn(clusters);
         when(clusters.getClusters()).thenReturn(List.of("cluster-b", "cluster-c"));
         when(clusters.getCluster(eq("cluster-b")))
@@ -82,4 +156,14 @@ class ClusterInfoServiceTest
                 .isInstanceOf(PulsarAdminException.class)
                 .hasMessage("Could not determine internal cluster name for configured cluster: cluster-a");
     }
+
+    @Test
+    void shouldFailToGetInternalClusterNameForUnknownCluster()
+    {
+        when(clusterRegistry.acquireClients("unknown")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.getInternalClusterName("unknown"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Pulsar cluster not found: unknown");
+    }
 }
\ No newline at end of file
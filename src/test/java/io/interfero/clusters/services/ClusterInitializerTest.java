@@ -1,15 +1,24 @@
 package io.interfero.clusters.services;
 
+import io.interfero.clusters.ClusterClientsConfiguration;
+import io.interfero.clusters.domain.ClusterAuthenticationMethod;
+import io.interfero.clusters.domain.ClusterConnectionSettingsEntity;
 import io.interfero.clusters.domain.ClusterEntity;
+import io.interfero.clusters.domain.ClusterRegistrationStatus;
+import io.interfero.clusters.domain.ClusterWithConnectionSettings;
 import io.interfero.clusters.repositories.ClusterRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.Set;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -21,43 +30,111 @@ class ClusterInitializerTest
     @Mock
     private ClusterClientRegistry clientRegistry;
 
-    @InjectMocks
     private ClusterInitializer clusterInitializer;
 
+    @BeforeEach
+    void setUp()
+    {
+        var clientsConfiguration = new ClusterClientsConfiguration(Duration.ofSeconds(5), null, null);
+        clusterInitializer = new ClusterInitializer(clusterRepository, clientRegistry, clientsConfiguration);
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        clusterInitializer.shutdown();
+    }
+
     @Test
     void shouldInitializeClientsForConfiguredClusters()
     {
-        var cluster1 = new ClusterEntity("1", "Cluster 1", null, null, 1L, 2L);
-        var cluster2 = new ClusterEntity("2", "Cluster 2", null, null, 3L, 4L);
-        when(clusterRepository.findAll()).thenReturn(Set.of(cluster1, cluster2));
+        var cluster1 = clusterWithConnectionSettings("1", "Cluster 1");
+        var cluster2 = clusterWithConnectionSettings("2", "Cluster 2");
+        when(clusterRepository.findAllWithConnectionSettings()).thenReturn(List.of(cluster1, cluster2));
 
         clusterInitializer.initializeClients();
 
         verify(clientRegistry).registerClientsForCluster(cluster1);
         verify(clientRegistry).registerClientsForCluster(cluster2);
+
+        var outcomes = clusterInitializer.getRegistrationOutcomes();
+        assertThat(outcomes).hasSize(2);
+        assertThat(outcomes.get("1").status()).isEqualTo(ClusterRegistrationStatus.REGISTERED);
+        assertThat(outcomes.get("2").status()).isEqualTo(ClusterRegistrationStatus.REGISTERED);
     }
 
     @Test
     void shouldHandleRegistrationFailureGracefully()
     {
-        var cluster1 = new ClusterEntity("1", "Cluster 1", null, null, 1L, 2L);
-        var cluster2 = new ClusterEntity("2", "Cluster 2", null, null, 3L, 4L);
-        when(clusterRepository.findAll()).thenReturn(Set.of(cluster1, cluster2));
+        var cluster1 = clusterWithConnectionSettings("1", "Cluster 1");
+        var cluster2 = clusterWithConnectionSettings("2", "Cluster 2");
+        when(clusterRepository.findAllWithConnectionSettings()).thenReturn(List.of(cluster1, cluster2));
         doThrow(new RuntimeException("Failed to register")).when(clientRegistry).registerClientsForCluster(cluster1);
 
         clusterInitializer.initializeClients();
 
         verify(clientRegistry).registerClientsForCluster(cluster1);
         verify(clientRegistry).registerClientsForCluster(cluster2);
+
+        var outcomes = clusterInitializer.getRegistrationOutcomes();
+        assertThat(outcomes.get("1").status()).isEqualTo(ClusterRegistrationStatus.FAILED);
+        assertThat(outcomes.get("1").message()).isEqualTo("Failed to register");
+        assertThat(outcomes.get("2").status()).isEqualTo(ClusterRegistrationStatus.REGISTERED);
+    }
+
+    @Test
+    void shouldMarkRegistrationsExceedingTheTimeoutAsDegraded()
+    {
+        clusterInitializer = new ClusterInitializer(clusterRepository, clientRegistry,
+                new ClusterClientsConfiguration(Duration.ofMillis(50), null, null));
+        var slowCluster = clusterWithConnectionSettings("1", "Slow Cluster");
+        when(clusterRepository.findAllWithConnectionSettings()).thenReturn(List.of(slowCluster));
+        doAnswer(invocation -> {
+            Thread.sleep(1000);
+            return null;
+        }).when(clientRegistry).registerClientsForCluster(slowCluster);
+
+        clusterInitializer.initializeClients();
+
+        var outcomes = clusterInitializer.getRegistrationOutcomes();
+        assertThat(outcomes.get("1").status()).isEqualTo(ClusterRegistrationStatus.DEGRADED);
+    }
+
+    @Test
+    void shouldRetryFailedRegistrations()
+    {
+        var cluster = clusterWithConnectionSettings("1", "Cluster 1");
+        when(clusterRepository.findAllWithConnectionSettings()).thenReturn(List.of(cluster));
+        when(clusterRepository.findByIdWithConnectionSettings("1")).thenReturn(Optional.of(cluster));
+        doThrow(new RuntimeException("Failed to register"))
+                .doNothing()
+                .when(clientRegistry).registerClientsForCluster(cluster);
+
+        clusterInitializer.initializeClients();
+        clusterInitializer.retryFailedRegistrations();
+
+        verify(clientRegistry, timeout(1000).times(2)).registerClientsForCluster(cluster);
     }
 
     @Test
     void shouldDoNothingWhenNoClustersConfigured()
     {
-        when(clusterRepository.findAll()).thenReturn(Set.of());
+        when(clusterRepository.findAllWithConnectionSettings()).thenReturn(List.of());
 
         clusterInitializer.initializeClients();
 
-        verify(clientRegistry, never()).registerClientsForCluster(any());
+        verify(clientRegistry, never()).registerClientsForCluster(any(ClusterWithConnectionSettings.class));
+        assertThat(clusterInitializer.getRegistrationOutcomes()).isEmpty();
+    }
+
+    private static ClusterWithConnectionSettings clusterWithConnectionSettings(String id, String displayName)
+    {
+        var cluster = new ClusterEntity(id, displayName, null, null, 1L, 2L);
+        var clientConnectionSettings = new ClusterConnectionSettingsEntity(1L, "pulsar://localhost:6650",
+                ClusterAuthenticationMethod.NO_AUTH, null);
+        var adminConnectionSettings = new ClusterConnectionSettingsEntity(2L, "http://localhost:8080",
+                ClusterAuthenticationMethod.NO_AUTH, null);
+
+        return new ClusterWithConnectionSettings(cluster, clientConnectionSettings, adminConnectionSettings);
     }
 }
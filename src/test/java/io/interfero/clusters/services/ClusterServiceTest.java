@@ -1,23 +1,23 @@
 package io.interfero.clusters.services;
 
+import io.interfero.clusters.ClusterUnavailableException;
+import io.interfero.clusters.ClustersConfiguration;
 import io.interfero.clusters.domain.ClusterEntity;
+import io.interfero.clusters.domain.ClusterHealthStatus;
 import io.interfero.clusters.repositories.ClusterRepository;
-import org.apache.pulsar.client.admin.Clusters;
-import org.apache.pulsar.client.admin.PulsarAdmin;
-import org.apache.pulsar.client.admin.PulsarAdminException;
-import org.apache.pulsar.common.policies.data.ClusterData;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.List;
+import java.time.Duration;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,38 +30,101 @@ class ClusterServiceTest
     private ClusterClientRegistry clusterClientRegistry;
 
     @Mock
-    private PulsarAdmin pulsarAdmin;
+    private ClusterHealthProber clusterHealthProber;
 
     @Mock
-    private Clusters pulsarClusters;
+    private InternalClusterNameCache internalClusterNameCache;
 
-    @InjectMocks
     private ClusterService clusterService;
 
+    @BeforeEach
+    void setUp()
+    {
+        clusterService = new ClusterService(clusterRepository, clusterClientRegistry, clusterHealthProber,
+                internalClusterNameCache, new ClustersConfiguration(Duration.ofMillis(200)));
+    }
+
     @Test
-    void shouldGetAllClusters() throws PulsarAdminException
+    void shouldGetAllClusters()
     {
         var mockInternalName = "standalone";
         var mockCluster = new ClusterEntity("ABCD1234", "Test Cluster", "star", "#FF5733", 1L, 2L);
         var mockClusters = Set.of(mockCluster);
         when(clusterRepository.findAll()).thenReturn(mockClusters);
-        when(clusterClientRegistry.getPulsarAdminForCluster(mockCluster.getId())).thenReturn(Optional.of(pulsarAdmin));
-        when(pulsarAdmin.clusters()).thenReturn(pulsarClusters);
-        when(pulsarClusters.getClusters()).thenReturn(List.of(mockInternalName));
-        when(pulsarClusters.getCluster(mockInternalName)).thenReturn(ClusterData.builder().serviceUrl("http://localhost:8080").build());
+        when(clusterHealthProber.getHealthStatus(mockCluster.getId())).thenReturn(ClusterHealthStatus.HEALTHY);
+        when(internalClusterNameCache.getIfPresent(mockCluster.getId())).thenReturn(Optional.of(mockInternalName));
 
         var clusters = clusterService.getAll();
 
         verify(clusterRepository).findAll();
-        verify(clusterClientRegistry).getPulsarAdminForCluster(eq(mockCluster.getId()));
-        verify(pulsarAdmin, atLeast(1)).clusters();
-        verify(pulsarClusters).getClusters();
-        verify(pulsarClusters).getCluster(mockInternalName);
+        verify(internalClusterNameCache, never()).get(anyString());
+        verifyNoInteractions(clusterClientRegistry);
 
         assertThat(clusters).isNotNull();
         assertThat(clusters).hasSize(1);
         var cluster = clusters.stream().toList().getFirst();
         shouldBeEqual(mockCluster, mockInternalName, cluster);
+        assertThat(cluster.getHealthStatus()).isEqualTo(ClusterHealthStatus.HEALTHY);
+    }
+
+    @Test
+    void shouldUseStoredInternalNameWithoutContactingCluster()
+    {
+        var mockCluster = new ClusterEntity("ABCD1234", "Test Cluster", "star", "#FF5733", 1L, 2L);
+        mockCluster.setInternalName("standalone");
+        when(clusterRepository.findAll()).thenReturn(Set.of(mockCluster));
+        when(clusterHealthProber.getHealthStatus(mockCluster.getId())).thenReturn(ClusterHealthStatus.OPEN);
+
+        var clusters = clusterService.getAll();
+
+        verifyNoInteractions(internalClusterNameCache);
+        var cluster = clusters.stream().toList().getFirst();
+        assertThat(cluster.getInternalName()).isEqualTo("standalone");
+        assertThat(cluster.getError()).isNull();
+    }
+
+    @Test
+    void shouldNotWaitForClustersWithOpenCircuit()
+    {
+        var mockCluster = new ClusterEntity("ABCD1234", "Test Cluster", "star", "#FF5733", 1L, 2L);
+        when(clusterRepository.findAll()).thenReturn(Set.of(mockCluster));
+        when(clusterHealthProber.getHealthStatus(mockCluster.getId())).thenReturn(ClusterHealthStatus.OPEN);
+        when(internalClusterNameCache.getIfPresent(mockCluster.getId())).thenReturn(Optional.empty());
+
+        var clusters = clusterService.getAll();
+
+        verify(internalClusterNameCache, never()).get(anyString());
+        assertThat(clusters).hasSize(1);
+        var cluster = clusters.stream().toList().getFirst();
+        assertThat(cluster.getHealthStatus()).isEqualTo(ClusterHealthStatus.OPEN);
+        assertThat(cluster.getInternalName()).isNull();
+        assertThat(cluster.getError()).isEqualTo("Cluster is unavailable");
+    }
+
+    @Test
+    void shouldResolveUncachedInternalNamesConcurrentlyWithinDeadline()
+    {
+        var resolvedCluster = new ClusterEntity("AAAA1111", "Resolved Cluster", "star", "#FF5733", 1L, 2L);
+        var failingCluster = new ClusterEntity("BBBB2222", "Failing Cluster", "star", "#FF5733", 3L, 4L);
+        var slowCluster = new ClusterEntity("CCCC3333", "Slow Cluster", "star", "#FF5733", 5L, 6L);
+        when(clusterRepository.findAll()).thenReturn(Set.of(resolvedCluster, failingCluster, slowCluster));
+        when(clusterHealthProber.getHealthStatus(anyString())).thenReturn(ClusterHealthStatus.HEALTHY);
+        when(internalClusterNameCache.getIfPresent(anyString())).thenReturn(Optional.empty());
+        when(internalClusterNameCache.get(resolvedCluster.getId()))
+                .thenReturn(CompletableFuture.completedFuture("standalone"));
+        when(internalClusterNameCache.get(failingCluster.getId()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Connection refused")));
+        when(internalClusterNameCache.get(slowCluster.getId())).thenReturn(new CompletableFuture<>());
+
+        var clusters = clusterService.getAll();
+
+        assertThat(clusters).hasSize(3);
+        assertThat(resolvedCluster.getInternalName()).isEqualTo("standalone");
+        assertThat(resolvedCluster.getError()).isNull();
+        assertThat(failingCluster.getInternalName()).isNull();
+        assertThat(failingCluster.getError()).isEqualTo("Connection refused");
+        assertThat(slowCluster.getInternalName()).isNull();
+        assertThat(slowCluster.getError()).contains("could not be resolved within");
     }
 
     @Test
@@ -77,26 +140,21 @@ class ClusterServiceTest
     }
 
     @Test
-    void shouldGetClusterById() throws PulsarAdminException
+    void shouldGetClusterById()
     {
         var mockInternalName = "internal";
         var mockCluster = new ClusterEntity("1234ABCD", "Test Cluster", "circle", "#123456", 42L, 99L);
         when(clusterRepository.findById(mockCluster.getId())).thenReturn(Optional.of(mockCluster));
-        when(clusterClientRegistry.getPulsarAdminForCluster(mockCluster.getId())).thenReturn(Optional.of(pulsarAdmin));
-        when(pulsarAdmin.clusters()).thenReturn(pulsarClusters);
-        when(pulsarClusters.getClusters()).thenReturn(List.of(mockInternalName));
-        when(pulsarClusters.getCluster(mockInternalName)).thenReturn(ClusterData.builder().serviceUrl("http://localhost:8080").build());
+        when(clusterHealthProber.getHealthStatus(mockCluster.getId())).thenReturn(ClusterHealthStatus.DEGRADED);
+        when(internalClusterNameCache.getIfPresent(mockCluster.getId())).thenReturn(Optional.of(mockInternalName));
 
         var clusterOpt = clusterService.getById(mockCluster.getId());
 
         verify(clusterRepository).findById(mockCluster.getId());
-        verify(clusterClientRegistry).getPulsarAdminForCluster(eq(mockCluster.getId()));
-        verify(pulsarAdmin, atLeast(1)).clusters();
-        verify(pulsarClusters).getClusters();
-        verify(pulsarClusters).getCluster(mockInternalName);
         assertThat(clusterOpt).isPresent();
         var cluster = clusterOpt.get();
         shouldBeEqual(mockCluster, mockInternalName, cluster);
+        assertThat(cluster.getHealthStatus()).isEqualTo(ClusterHealthStatus.DEGRADED);
     }
 
     @Test
@@ -112,29 +170,35 @@ class ClusterServiceTest
     }
 
     @Test
-    void shouldCreateCluster() throws PulsarAdminException
+    void shouldCreateCluster()
     {
         var mockInternalName = "prod-cluster";
         var clusterToCreate = new ClusterEntity(null, "Production Cluster", "diamond", "#00FF00", 5L, 10L);
         when(clusterRepository.save(any(ClusterEntity.class))).thenAnswer(i -> i.getArgument(0));
-        when(clusterClientRegistry.getPulsarAdminForCluster(anyString())).thenReturn(Optional.of(pulsarAdmin));
-        when(pulsarAdmin.clusters()).thenReturn(pulsarClusters);
-        when(pulsarClusters.getClusters()).thenReturn(List.of(mockInternalName));
-        when(pulsarClusters.getCluster(mockInternalName)).thenReturn(ClusterData.builder().serviceUrl("http://localhost:8080").build());
+        when(internalClusterNameCache.get(anyString())).thenReturn(CompletableFuture.completedFuture(mockInternalName));
 
         var createdCluster = clusterService.create(clusterToCreate);
 
         verify(clusterRepository).save(any(ClusterEntity.class));
         verify(clusterClientRegistry).registerClientsForCluster(any(ClusterEntity.class));
-        verify(clusterClientRegistry).getPulsarAdminForCluster(createdCluster.getId());
-        verify(pulsarAdmin, atLeast(1)).clusters();
-        verify(pulsarClusters).getClusters();
-        verify(pulsarClusters).getCluster(mockInternalName);
+        verify(internalClusterNameCache).get(createdCluster.getId());
+        verify(clusterRepository).updateInternalName(createdCluster.getId(), mockInternalName);
 
         assertThat(createdCluster).isNotNull();
         shouldBeEqualExceptId(clusterToCreate, mockInternalName, createdCluster);
     }
 
+    @Test
+    void shouldPropagateFailureToResolveInternalName()
+    {
+        when(internalClusterNameCache.get("1234ABCD"))
+                .thenReturn(CompletableFuture.failedFuture(new ClusterUnavailableException("Cluster is unavailable")));
+
+        assertThatThrownBy(() -> clusterService.getInternalClusterName("1234ABCD"))
+                .isInstanceOf(ClusterUnavailableException.class)
+                .hasMessage("Cluster is unavailable");
+    }
+
     private void shouldBeEqual(ClusterEntity expected, String expectedInternalName, ClusterEntity actual)
     {
         assertThat(actual.getId()).isEqualTo(expected.getId());
@@ -148,5 +212,6 @@ class ClusterServiceTest
         assertThat(actual.getColor()).isEqualTo(expected.getColor());
         assertThat(actual.getClientConnectionSettingsId()).isEqualTo(expected.getClientConnectionSettingsId());
         assertThat(actual.getAdminConnectionSettingsId()).isEqualTo(expected.getAdminConnectionSettingsId());
+        assertThat(actual.getInternalName()).isEqualTo(expectedInternalName);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,131 @@
+package io.interfero.clusters.services;
+
+import io.interfero.clusters.ClusterClientsLease;
+import io.interfero.clusters.ClusterUnavailableException;
+import io.interfero.clusters.events.ClusterClientsRegisteredEvent;
+import io.interfero.clusters.events.ClusterClientsUnregisteredEvent;
+import org.apache.pulsar.client.admin.Clusters;
+import org.apache.pulsar.client.admin.PulsarAdmin;
+import org.apache.pulsar.client.admin.PulsarAdminException;
+import org.apache.pulsar.common.policies.data.ClusterData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InternalClusterNameCacheTest
+{
+    private static final String CLUSTER_ID = "1234ABCD";
+
+    @Mock
+    private ClusterClientRegistry clusterClientRegistry;
+
+    @Mock
+    private ClusterHealthProber clusterHealthProber;
+
+    @Mock
+    private ClusterClientsLease clientsLease;
+
+    @Mock
+    private PulsarAdmin pulsarAdmin;
+
+    @Mock
+    private Clusters pulsarClusters;
+
+    @InjectMocks
+    private InternalClusterNameCache internalClusterNameCache;
+
+    @BeforeEach
+    void setUp()
+    {
+        lenient().when(clusterClientRegistry.acquireClients(CLUSTER_ID)).thenReturn(Optional.of(clientsLease));
+        lenient().when(clientsLease.getPulsarAdmin()).thenReturn(pulsarAdmin);
+        lenient().when(pulsarAdmin.clusters()).thenReturn(pulsarClusters);
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        internalClusterNameCache.shutdown();
+    }
+
+    @Test
+    void shouldResolveAndCacheInternalName() throws PulsarAdminException
+    {
+        when(pulsarClusters.getClusters()).thenReturn(List.of("cluster-b", "standalone"));
+        when(pulsarClusters.getCluster("cluster-b"))
+                .thenReturn(ClusterData.builder().serviceUrl("http://cluster-b:8080").build());
+        when(pulsarClusters.getCluster("standalone"))
+                .thenReturn(ClusterData.builder().serviceUrl("http://localhost:8080").build());
+
+        assertThat(internalClusterNameCache.getIfPresent(CLUSTER_ID)).isNotPresent();
+        assertThat(internalClusterNameCache.get(CLUSTER_ID).join()).isEqualTo("standalone");
+        assertThat(internalClusterNameCache.get(CLUSTER_ID).join()).isEqualTo("standalone");
+
+        assertThat(internalClusterNameCache.getIfPresent(CLUSTER_ID)).contains("standalone");
+        verify(pulsarClusters, times(1)).getClusters();
+        verify(clientsLease).close();
+    }
+
+    @Test
+    void shouldFailWithoutLocalhostServiceUrl() throws PulsarAdminException
+    {
+        when(pulsarClusters.getClusters()).thenReturn(List.of("cluster-b"));
+        when(pulsarClusters.getCluster("cluster-b"))
+                .thenReturn(ClusterData.builder().serviceUrl("http://cluster-b:8080").build());
+
+        assertThatThrownBy(() -> internalClusterNameCache.get(CLUSTER_ID).join())
+                .isInstanceOf(CompletionException.class)
+                .hasMessageContaining("Could not determine internal cluster name for cluster with id '1234ABCD'");
+        assertThat(internalClusterNameCache.getIfPresent(CLUSTER_ID)).isNotPresent();
+    }
+
+    @Test
+    void shouldNotContactClusterWithOpenCircuit()
+    {
+        doThrow(new ClusterUnavailableException("Cluster is unavailable"))
+                .when(clusterHealthProber).ensureAvailable(CLUSTER_ID);
+
+        assertThatThrownBy(() -> internalClusterNameCache.get(CLUSTER_ID).join())
+                .hasCauseInstanceOf(ClusterUnavailableException.class);
+        verify(clusterClientRegistry, never()).acquireClients(anyString());
+    }
+
+    @Test
+    void shouldRefreshInternalNameOnReRegistration() throws PulsarAdminException
+    {
+        when(pulsarClusters.getClusters()).thenReturn(List.of("old-name"), List.of("new-name"));
+        when(pulsarClusters.getCluster(anyString()))
+                .thenReturn(ClusterData.builder().serviceUrl("http://localhost:8080").build());
+        internalClusterNameCache.get(CLUSTER_ID).join();
+
+        internalClusterNameCache.onClusterClientsRegistered(new ClusterClientsRegisteredEvent(CLUSTER_ID));
+
+        assertThat(internalClusterNameCache.get(CLUSTER_ID).join()).isEqualTo("new-name");
+    }
+
+    @Test
+    void shouldInvalidateInternalNameOnUnregistration() throws PulsarAdminException
+    {
+        when(pulsarClusters.getClusters()).thenReturn(List.of("standalone"));
+        when(pulsarClusters.getCluster("standalone"))
+                .thenReturn(ClusterData.builder().serviceUrl("http://localhost:8080").build());
+        internalClusterNameCache.get(CLUSTER_ID).join();
+
+        internalClusterNameCache.onClusterClientsUnregistered(new ClusterClientsUnregisteredEvent(CLUSTER_ID));
+
+        assertThat(internalClusterNameCache.getIfPresent(CLUSTER_ID)).isNotPresent();
+    }
+}
@@ -0,0 +1,99 @@
+package io.interfero.clusters.services;
+
+import io.interfero.clusters.domain.ClusterEntity;
+import io.interfero.clusters.domain.ClusterHealthStatus;
+import io.interfero.clusters.repositories.ClusterRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InternalClusterNameVerifierTest
+{
+    private static final String CLUSTER_ID = "1234ABCD";
+
+    @Mock
+    private ClusterRepository clusterRepository;
+
+    @Mock
+    private ClusterHealthProber clusterHealthProber;
+
+    @Mock
+    private InternalClusterNameCache internalClusterNameCache;
+
+    @InjectMocks
+    private InternalClusterNameVerifier internalClusterNameVerifier;
+
+    @Test
+    void shouldKeepMatchingInternalName()
+    {
+        mockStoredCluster("standalone");
+        when(internalClusterNameCache.refresh(CLUSTER_ID)).thenReturn(CompletableFuture.completedFuture("standalone"));
+
+        internalClusterNameVerifier.verifyInternalNames();
+
+        verify(clusterRepository, never()).updateInternalName(anyString(), anyString());
+    }
+
+    @Test
+    void shouldUpdateDriftedInternalName()
+    {
+        mockStoredCluster("old-name");
+        when(internalClusterNameCache.refresh(CLUSTER_ID)).thenReturn(CompletableFuture.completedFuture("new-name"));
+
+        internalClusterNameVerifier.verifyInternalNames();
+
+        verify(clusterRepository).updateInternalName(CLUSTER_ID, "new-name");
+    }
+
+    @Test
+    void shouldStoreMissingInternalName()
+    {
+        mockStoredCluster(null);
+        when(internalClusterNameCache.refresh(CLUSTER_ID)).thenReturn(CompletableFuture.completedFuture("standalone"));
+
+        internalClusterNameVerifier.verifyInternalNames();
+
+        verify(clusterRepository).updateInternalName(CLUSTER_ID, "standalone");
+    }
+
+    @Test
+    void shouldIgnoreFailedResolution()
+    {
+        mockStoredCluster("standalone");
+        when(internalClusterNameCache.refresh(CLUSTER_ID))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Connection refused")));
+
+        internalClusterNameVerifier.verifyInternalNames();
+
+        verify(clusterRepository, never()).updateInternalName(anyString(), anyString());
+    }
+
+    @Test
+    void shouldSkipClustersWithOpenCircuit()
+    {
+        var cluster = new ClusterEntity(CLUSTER_ID, "Test Cluster", "star", "#FF5733", 1L, 2L);
+        when(clusterRepository.findAll()).thenReturn(Set.of(cluster));
+        when(clusterHealthProber.getHealthStatus(CLUSTER_ID)).thenReturn(ClusterHealthStatus.OPEN);
+
+        internalClusterNameVerifier.verifyInternalNames();
+
+        verifyNoInteractions(internalClusterNameCache);
+        verify(clusterRepository, never()).updateInternalName(anyString(), anyString());
+    }
+
+    private void mockStoredCluster(String internalName)
+    {
+        var cluster = new ClusterEntity(CLUSTER_ID, "Test Cluster", "star", "#FF5733", 1L, 2L);
+        cluster.setInternalName(internalName);
+        when(clusterRepository.findAll()).thenReturn(Set.of(cluster));
+        when(clusterHealthProber.getHealthStatus(CLUSTER_ID)).thenReturn(ClusterHealthStatus.HEALTHY);
+    }
+}
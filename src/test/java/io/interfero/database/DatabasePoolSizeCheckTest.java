@@ -0,0 +1,37 @@
+package io.interfero.database;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DatabasePoolSizeCheckTest
+{
+    @Test
+    void shouldSumRequiredConnectionsOfAllConsumers()
+    {
+        var beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("listener", (DatabaseConnectionConsumer) () -> 1);
+        beanFactory.addBean("collector", (DatabaseConnectionConsumer) () -> 4);
+
+        var poolSizeCheck = new DatabasePoolSizeCheck(new HikariDataSource(),
+                beanFactory.getBeanProvider(DatabaseConnectionConsumer.class));
+
+        assertThat(poolSizeCheck.getRequiredConnections()).isEqualTo(5 + DatabasePoolSizeCheck.REQUEST_CONNECTIONS);
+    }
+
+    @Test
+    void shouldApplyTunedDefaults()
+    {
+        var dataSource = new HikariDataSource();
+
+        DatabaseConfiguration.applyTunedDefaults(dataSource);
+
+        assertThat(dataSource.getPoolName()).isEqualTo(DatabaseConfiguration.POOL_NAME);
+        assertThat(dataSource.getMaximumPoolSize()).isGreaterThanOrEqualTo(DatabaseConfiguration.MIN_POOL_SIZE);
+        assertThat(dataSource.getDataSourceProperties())
+                .containsEntry("prepareThreshold", 5)
+                .containsEntry("reWriteBatchedInserts", true);
+    }
+}
@@ -0,0 +1,89 @@
+package io.interfero.pulsar;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pulsar.client.api.PulsarClient;
+import org.apache.pulsar.client.api.PulsarClientException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class PulsarClientFactoryTest
+{
+    private SimpleMeterRegistry meterRegistry;
+    private PulsarClientFactory pulsarClientFactory;
+
+    @BeforeEach
+    void setUp()
+    {
+        meterRegistry = new SimpleMeterRegistry();
+        pulsarClientFactory = new PulsarClientFactory(new PulsarConfiguration(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        pulsarClientFactory.close();
+    }
+
+    @Test
+    void shouldBuildClientsOnSharedResources() throws PulsarClientException
+    {
+        try (var clientA = pulsarClientFactory.createClient(builder -> builder.serviceUrl("pulsar://host-a:6650"));
+             var clientB = pulsarClientFactory.createClient(builder -> builder.serviceUrl("pulsar://host-b:6650"));
+             var ownClient = PulsarClient.builder().serviceUrl("pulsar://host-c:6650").build())
+        {
+            for (var resource : new String[] {"eventLoopGroup", "externalExecutorProvider", "timer"})
+            {
+                assertThat(ReflectionTestUtils.getField(clientA, resource))
+                        .as(resource)
+                        .isNotNull()
+                        .isSameAs(ReflectionTestUtils.getField(clientB, resource))
+                        .isNotSameAs(ReflectionTestUtils.getField(ownClient, resource));
+            }
+        }
+
+        assertThat(meterRegistry.get("interfero.pulsar.clients.created").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldExportCpuTimeOfSharedThreads()
+    {
+        var threadBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean.isThreadCpuTimeSupported() && threadBean.isThreadCpuTimeEnabled());
+
+        for (var pool : new String[] {"io", "listener"})
+        {
+            var cpuTime = meterRegistry.get("interfero.pulsar.shared.cpu.time").tag("pool", pool).functionCounter();
+            assertThat(cpuTime.count()).isGreaterThanOrEqualTo(0);
+        }
+    }
+
+    @Test
+    void shouldSumCpuTimeOfThreadsWithPoolName() throws InterruptedException
+    {
+        var threadBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean.isThreadCpuTimeSupported() && threadBean.isThreadCpuTimeEnabled());
+        var busyThread = new Thread(PulsarClientFactoryTest::spin, "interfero-test-pool-1");
+
+        assertThat(PulsarClientFactory.cpuSeconds("interfero-test-pool")).isZero();
+
+        busyThread.start();
+        Thread.sleep(200);
+
+        assertThat(PulsarClientFactory.cpuSeconds("interfero-test-pool")).isPositive();
+        busyThread.interrupt();
+        busyThread.join();
+    }
+
+    private static void spin()
+    {
+        while (!Thread.currentThread().isInterrupted())
+            Thread.onSpinWait();
+    }
+}
@@ -49,16 +49,16 @@ public class PulsarClusterRegistryIT
 
     private void shouldFindPulsarClient(String clusterName)
     {
-        var client = pulsarClusterRegistry.getPulsarClient(clusterName);
-        assertThat(client).isNotNull();
+        try (var clients = pulsarClusterRegistry.acquireClients(clusterName).orElseThrow())
+        {
+            assertThat(clients.getPulsarClient()).isNotNull();
+        }
     }
 
     @Test
-    void shouldNotFindInvalidClusterClient()
+    void shouldNotFindInvalidClusterClients()
     {
-        assertThatThrownBy(() -> pulsarClusterRegistry.getPulsarClient("non-existent-cluster"))
-            .isInstanceOf(IllegalArgumentException.class)
-            .hasMessageContaining("Pulsar cluster not found: non-existent-cluster");
+        assertThat(pulsarClusterRegistry.acquireClients("non-existent-cluster")).isNotPresent();
     }
 
     @Test
@@ -69,16 +69,20 @@ public class PulsarClusterRegistryIT
 
     private void shouldFindPulsarAdmin(String clusterName)
     {
-        var admin = pulsarClusterRegistry.getPulsarAdmin(clusterName);
-        assertThat(admin).isNotNull();
+        try (var clients = pulsarClusterRegistry.acquireClients(clusterName).orElseThrow())
+        {
+            assertThat(clients.getPulsarAdmin()).isNotNull();
+        }
     }
 
     @Test
-    void shouldNotFindInvalidClusterAdmin()
+    void shouldNotUseReleasedLease()
     {
-        assertThatThrownBy(() -> pulsarClusterRegistry.getPulsarAdmin("non-existent-cluster"))
-            .isInstanceOf(IllegalArgumentException.class)
-            .hasMessageContaining("Pulsar cluster not found: non-existent-cluster");
+        var clients = pulsarClusterRegistry.acquireClients("cluster-a").orElseThrow();
+        clients.close();
+
+        assertThatThrownBy(clients::getPulsarAdmin)
+            .isInstanceOf(IllegalStateException.class);
     }
 
     @Test
@@ -89,9 +93,9 @@ public class PulsarClusterRegistryIT
 
     private void shouldFindDefaultTenants(String clusterName)
     {
-        try
+        try (var clients = pulsarClusterRegistry.acquireClients(clusterName).orElseThrow())
         {
-            var pulsarAdmin = pulsarClusterRegistry.getPulsarAdmin(clusterName);
+            var pulsarAdmin = clients.getPulsarAdmin();
             var tenants = pulsarAdmin.tenants().getTenants();
             assertThat(tenants).isNotNull();
             assertThat(tenants).contains("public", "pulsar");
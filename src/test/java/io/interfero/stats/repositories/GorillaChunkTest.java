@@ -0,0 +1,120 @@
+package io.interfero.stats.repositories;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GorillaChunkTest
+{
+    private static final int CHUNK_SIZE = 2048;
+    private static final long START = 1_767_225_600L; // 2026-01-01T00:00:00Z
+
+    @Test
+    void shouldDecodeAppendedSamples()
+    {
+        var chunk = GorillaChunk.create(MemorySegment.ofArray(new byte[CHUNK_SIZE]), "cluster\0topic", 3);
+        var random = new Random(42);
+        var expected = new ArrayList<Sample>();
+        for (var i = 0; i < 20; i++)
+        {
+            var time = START + i * 60L + (i % 3 == 0 ? random.nextInt(5000) : 0);
+            var values = new double[]{random.nextDouble() * 1000, i % 5, i == 7 ? Double.NaN : -i * 0.1};
+            assertThat(chunk.append(time, values)).isTrue();
+            expected.add(new Sample(time, values.clone()));
+        }
+
+        assertThat(decode(chunk)).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void shouldCompressRegularSamplesWithConstantValues()
+    {
+        var chunk = GorillaChunk.create(MemorySegment.ofArray(new byte[CHUNK_SIZE]), "cluster\0topic", 6);
+
+        var samples = 0;
+        while (chunk.append(START + samples * 60L, new double[]{1.5, 2.5, 100, 200, 42, 4096}))
+            samples++;
+
+        // One bit for the timestamp and each value, except for the first sample
+        assertThat(samples).isGreaterThan(2000);
+        assertThat(chunk.getSampleCount()).isEqualTo(samples);
+    }
+
+    @Test
+    void shouldRestoreStateWhenOpened()
+    {
+        var memory = MemorySegment.ofArray(new byte[CHUNK_SIZE]);
+        var chunk = GorillaChunk.create(memory, "cluster\0topic", 2);
+        chunk.append(START, new double[]{1, 10});
+        chunk.append(START + 60, new double[]{2, 10});
+
+        var reopened = GorillaChunk.open(memory, 2);
+        reopened.append(START + 120, new double[]{3, 11});
+
+        assertThat(reopened.getKey()).isEqualTo("cluster\0topic");
+        assertThat(decode(reopened)).usingRecursiveFieldByFieldElementComparator().containsExactly(
+                new Sample(START, new double[]{1, 10}),
+                new Sample(START + 60, new double[]{2, 10}),
+                new Sample(START + 120, new double[]{3, 11}));
+    }
+
+    @Test
+    void shouldDiscardTornSampleWhenOpened()
+    {
+        var memory = MemorySegment.ofArray(new byte[CHUNK_SIZE]);
+        var chunk = GorillaChunk.create(memory, "cluster\0topic", 2);
+        chunk.append(START, new double[]{1, 10});
+        chunk.append(START + 60, new double[]{2, 10});
+        chunk.append(START + 120, new double[]{-7.25, 1e300});
+        memory.set(GorillaChunk.INT, 0, 2); // Sample count of a crash before it was updated
+
+        var reopened = GorillaChunk.open(memory, 2);
+        reopened.append(START + 120, new double[]{3, 11});
+
+        assertThat(decode(reopened)).usingRecursiveFieldByFieldElementComparator().containsExactly(
+                new Sample(START, new double[]{1, 10}),
+                new Sample(START + 60, new double[]{2, 10}),
+                new Sample(START + 120, new double[]{3, 11}));
+    }
+
+    @Test
+    void shouldReserveRoomForFirstSampleWithFewFields()
+    {
+        var key = "cluster\0topic";
+        var headerSize = 10 + key.length();
+
+        assertThatThrownBy(() -> GorillaChunk.create(MemorySegment.ofArray(new byte[headerSize + 15]), key, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        var chunk = GorillaChunk.create(MemorySegment.ofArray(new byte[headerSize + 16]), key, 1);
+        assertThat(chunk.append(START, new double[]{42})).isTrue();
+        assertThat(chunk.append(START + 60, new double[]{42})).isFalse();
+    }
+
+    @Test
+    void shouldRejectCorruptChunk()
+    {
+        var memory = MemorySegment.ofArray(new byte[CHUNK_SIZE]);
+        GorillaChunk.create(memory, "cluster\0topic", 2).append(START, new double[]{1, 10});
+        memory.set(GorillaChunk.INT, 4, Integer.MAX_VALUE); // Bit length
+
+        assertThatThrownBy(() -> GorillaChunk.open(memory, 2)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static List<Sample> decode(GorillaChunk chunk)
+    {
+        var samples = new ArrayList<Sample>();
+        chunk.forEach((time, values) -> samples.add(new Sample(time, values.clone())));
+        return samples;
+    }
+
+    private record Sample(long time, double[] values)
+    {
+    }
+}
@@ -0,0 +1,43 @@
+package io.interfero.stats.repositories;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatsGranularityTest
+{
+    @Test
+    void shouldUseRawSamplesForFineResolutions()
+    {
+        assertThat(StatsGranularity.coarsestFor(Duration.ofMinutes(1))).isEqualTo(StatsGranularity.RAW);
+        assertThat(StatsGranularity.coarsestFor(Duration.ofMinutes(4))).isEqualTo(StatsGranularity.RAW);
+    }
+
+    @Test
+    void shouldUseCoarsestSatisfyingRollup()
+    {
+        assertThat(StatsGranularity.coarsestFor(Duration.ofMinutes(5))).isEqualTo(StatsGranularity.FIVE_MINUTES);
+        assertThat(StatsGranularity.coarsestFor(Duration.ofMinutes(30))).isEqualTo(StatsGranularity.FIVE_MINUTES);
+        assertThat(StatsGranularity.coarsestFor(Duration.ofHours(6))).isEqualTo(StatsGranularity.ONE_HOUR);
+        assertThat(StatsGranularity.coarsestFor(Duration.ofDays(7))).isEqualTo(StatsGranularity.ONE_DAY);
+    }
+
+    @Test
+    void shouldNotUseRollupsWhichDoNotDivideTheResolution()
+    {
+        assertThat(StatsGranularity.coarsestFor(Duration.ofMinutes(90))).isEqualTo(StatsGranularity.FIVE_MINUTES);
+        assertThat(StatsGranularity.coarsestFor(Duration.ofMinutes(7))).isEqualTo(StatsGranularity.RAW);
+    }
+
+    @Test
+    void shouldRoundUpToCoarsestRollupWithinWidening()
+    {
+        assertThat(StatsGranularity.roundUpToRollup(Duration.ofSeconds(8), 4)).isEqualTo(Duration.ofSeconds(8));
+        assertThat(StatsGranularity.roundUpToRollup(Duration.ofMillis(86_400), 4)).isEqualTo(Duration.ofMinutes(5));
+        assertThat(StatsGranularity.roundUpToRollup(Duration.ofMillis(604_800), 4)).isEqualTo(Duration.ofMinutes(15));
+        assertThat(StatsGranularity.roundUpToRollup(Duration.ofSeconds(2_592), 4)).isEqualTo(Duration.ofHours(1));
+        assertThat(StatsGranularity.roundUpToRollup(Duration.ofSeconds(31_536), 4)).isEqualTo(Duration.ofDays(1));
+    }
+}
@@ -0,0 +1,52 @@
+package io.interfero.stats.repositories;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatsPartitionManagerTest
+{
+    @Test
+    void shouldNamePartitionsByPeriod()
+    {
+        var date = LocalDate.of(2026, 3, 7);
+
+        assertThat(StatsPartitionManager.partitionName("topic_stats", date, ChronoUnit.DAYS))
+                .isEqualTo("topic_stats_p20260307");
+        assertThat(StatsPartitionManager.partitionName("topic_stats_1h", date, ChronoUnit.MONTHS))
+                .isEqualTo("topic_stats_1h_p202603");
+        assertThat(StatsPartitionManager.partitionName("topic_stats_1d", date, ChronoUnit.YEARS))
+                .isEqualTo("topic_stats_1d_p2026");
+    }
+
+    @Test
+    void shouldParsePeriodOfPartitions()
+    {
+        assertThat(StatsPartitionManager.parsePeriod("topic_stats", "topic_stats_p20260307", ChronoUnit.DAYS))
+                .isEqualTo(LocalDate.of(2026, 3, 7));
+        assertThat(StatsPartitionManager.parsePeriod("topic_stats_1h", "topic_stats_1h_p202603", ChronoUnit.MONTHS))
+                .isEqualTo(LocalDate.of(2026, 3, 1));
+        assertThat(StatsPartitionManager.parsePeriod("topic_stats_1d", "topic_stats_1d_p2026", ChronoUnit.YEARS))
+                .isEqualTo(LocalDate.of(2026, 1, 1));
+    }
+
+    @Test
+    void shouldIgnoreForeignPartitions()
+    {
+        assertThat(StatsPartitionManager.parsePeriod("topic_stats", "topic_stats_default", ChronoUnit.DAYS)).isNull();
+        assertThat(StatsPartitionManager.parsePeriod("topic_stats", "other_p20260307", ChronoUnit.DAYS)).isNull();
+    }
+
+    @Test
+    void shouldAlignPeriodsToPartitionUnit()
+    {
+        var date = LocalDate.of(2026, 3, 7);
+
+        assertThat(StatsPartitionManager.periodStart(date, ChronoUnit.DAYS)).isEqualTo(date);
+        assertThat(StatsPartitionManager.periodStart(date, ChronoUnit.MONTHS)).isEqualTo(LocalDate.of(2026, 3, 1));
+        assertThat(StatsPartitionManager.periodStart(date, ChronoUnit.YEARS)).isEqualTo(LocalDate.of(2026, 1, 1));
+    }
+}
@@ -0,0 +1,120 @@
+package io.interfero.stats.repositories;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeSeriesStoreTest
+{
+    private static final Instant START = Instant.now().truncatedTo(ChronoUnit.DAYS).minus(Duration.ofDays(1));
+    private static final long SEGMENT_SIZE = TimeSeriesSegment.MIN_SIZE + 2L * TimeSeriesSegment.CHUNK_SIZE;
+
+    @TempDir
+    private Path directory;
+
+    private TimeSeriesStore store;
+
+    @BeforeEach
+    void setUp()
+    {
+        store = createStore(Duration.ofDays(7));
+        store.open();
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        store.close();
+    }
+
+    @Test
+    void shouldReadSamplesWithinTimeRange()
+    {
+        for (var minute = 0; minute < 10; minute++)
+            store.append("series-a", START.plus(Duration.ofMinutes(minute)), new double[]{minute, -minute});
+        store.append("series-b", START, new double[]{100, 100});
+
+        assertThat(read("series-a", START.plus(Duration.ofMinutes(2)), START.plus(Duration.ofMinutes(5))))
+                .containsExactly(2.0, 3.0, 4.0);
+    }
+
+    @Test
+    void shouldRotateSegmentsPerTimeBucket() throws IOException
+    {
+        store.append("series-a", START, new double[]{1, 1});
+        store.append("series-a", START.plus(Duration.ofHours(1)), new double[]{2, 2});
+        store.append("series-a", START.plus(Duration.ofHours(2)), new double[]{3, 3});
+
+        assertThat(segmentFiles()).hasSize(3);
+        assertThat(read("series-a", START, START.plus(Duration.ofHours(3)))).containsExactly(1.0, 2.0, 3.0);
+    }
+
+    @Test
+    void shouldContinueInNewSegmentIfSegmentIsFull() throws IOException
+    {
+        for (var series = 0; series < 5; series++)
+            assertThat(store.append("series-" + series, START, new double[]{series, series})).isTrue();
+
+        assertThat(segmentFiles()).hasSize(2);
+        assertThat(read("series-4", START, START.plusSeconds(1))).containsExactly(4.0);
+    }
+
+    @Test
+    void shouldKeepSamplesWhenReopened()
+    {
+        store.append("series-a", START, new double[]{1, 1});
+        store.close();
+
+        store = createStore(Duration.ofDays(7));
+        store.open();
+        store.append("series-a", START.plus(Duration.ofMinutes(1)), new double[]{2, 2});
+
+        assertThat(read("series-a", START, START.plus(Duration.ofHours(1)))).containsExactly(1.0, 2.0);
+    }
+
+    @Test
+    void shouldDeleteExpiredSegments() throws IOException
+    {
+        store.append("series-a", START, new double[]{1, 1});
+        store.close();
+
+        store = createStore(Duration.ofHours(1));
+        store.open();
+
+        assertThat(segmentFiles()).isEmpty();
+        assertThat(store.append("series-a", START, new double[]{1, 1})).isFalse();
+        assertThat(read("series-a", START, START.plus(Duration.ofHours(1)))).isEmpty();
+    }
+
+    private TimeSeriesStore createStore(Duration retention)
+    {
+        return new TimeSeriesStore(directory, "test", 2, Duration.ofHours(1), SEGMENT_SIZE, retention);
+    }
+
+    private List<Double> read(String key, Instant from, Instant to)
+    {
+        var values = new ArrayList<Double>();
+        store.read(key, from, to, (time, sample) -> values.add(sample[0]));
+        return values;
+    }
+
+    private List<Path> segmentFiles() throws IOException
+    {
+        try (var files = Files.list(directory))
+        {
+            return files.toList();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package io.interfero.stats.repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles({"it", "db-disabled"})
+class TopicStatsFileRepositoryIT extends TopicStatsRepositoryIT
+{
+    @Autowired
+    private TopicStatsRepository topicStatsFileRepository;
+
+    @BeforeEach
+    void setUp()
+    {
+        this.topicStatsRepository = topicStatsFileRepository;
+    }
+}
@@ -0,0 +1,33 @@
+package io.interfero.stats.repositories;
+
+import io.interfero.TestcontainersConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+@SpringBootTest
+@ActiveProfiles("it")
+@Import(TestcontainersConfiguration.class)
+@EnabledIf("io.interfero.TestcontainersConfiguration#isPostgres")
+class TopicStatsPostgresRepositoryIT extends TopicStatsRepositoryIT
+{
+    @Autowired
+    private TopicStatsRepository topicStatsPostgresRepository;
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry)
+    {
+        TestcontainersConfiguration.updateContainerProperties(registry);
+    }
+
+    @BeforeEach
+    void setUp()
+    {
+        this.topicStatsRepository = topicStatsPostgresRepository;
+    }
+}
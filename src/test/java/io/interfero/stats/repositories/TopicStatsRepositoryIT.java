@@ -0,0 +1,83 @@
+package io.interfero.stats.repositories;
+
+import io.interfero.stats.domain.SubscriptionStatsRecord;
+import io.interfero.stats.domain.TopicStatsRecord;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+abstract class TopicStatsRepositoryIT
+{
+    // Recent enough to not be dropped by the retention policies while the test is running
+    private static final Instant START = Instant.now().truncatedTo(ChronoUnit.DAYS).minus(Duration.ofDays(1));
+    private static final String TOPIC = "persistent://public/default/stats";
+
+    protected TopicStatsRepository topicStatsRepository;
+
+    @Test
+    void shouldFindRawTopicStats()
+    {
+        var clusterId = UUID.randomUUID().toString().substring(0, 8);
+        topicStatsRepository.saveTopicStats(topicStatsPerMinute(clusterId, 10));
+
+        var stats = topicStatsRepository.findTopicStats(clusterId, TOPIC, START, START.plus(Duration.ofMinutes(10)),
+                Duration.ofMinutes(1));
+
+        assertThat(stats).hasSize(10);
+        assertThat(stats.getFirst()).isEqualTo(new TopicStatsRecord(START, clusterId, TOPIC, 0, 0, 0, 0, 0, 0));
+        assertThat(stats.getLast().msgRateIn()).isEqualTo(9.0);
+    }
+
+    @Test
+    void shouldAggregateTopicStatsIntoRequestedResolution()
+    {
+        var clusterId = UUID.randomUUID().toString().substring(0, 8);
+        topicStatsRepository.saveTopicStats(topicStatsPerMinute(clusterId, 120));
+
+        var stats = topicStatsRepository.findTopicStats(clusterId, TOPIC, START, START.plus(Duration.ofHours(2)),
+                Duration.ofHours(1));
+
+        assertThat(stats)
+                .extracting(TopicStatsRecord::time, TopicStatsRecord::msgRateIn, TopicStatsRecord::backlogSize)
+                .containsExactly(
+                        tuple(START, 29.5, 59L),
+                        tuple(START.plus(Duration.ofHours(1)), 89.5, 119L));
+    }
+
+    @Test
+    void shouldAggregateSubscriptionStatsIntoRequestedResolution()
+    {
+        var clusterId = UUID.randomUUID().toString().substring(0, 8);
+        var subscriptionStats = new ArrayList<SubscriptionStatsRecord>();
+        for (var minute = 0; minute < 10; minute++)
+            subscriptionStats.add(new SubscriptionStatsRecord(START.plus(Duration.ofMinutes(minute)), clusterId, TOPIC,
+                    "sub-1", minute, minute * 100, minute));
+        topicStatsRepository.saveSubscriptionStats(subscriptionStats);
+
+        var stats = topicStatsRepository.findSubscriptionStats(clusterId, TOPIC, "sub-1", START,
+                START.plus(Duration.ofMinutes(10)), Duration.ofMinutes(5));
+
+        assertThat(stats).containsExactly(
+                new SubscriptionStatsRecord(START, clusterId, TOPIC, "sub-1", 2.0, 200.0, 4),
+                new SubscriptionStatsRecord(START.plus(Duration.ofMinutes(5)), clusterId, TOPIC, "sub-1", 7.0, 700.0,
+                        9));
+    }
+
+    private static List<TopicStatsRecord> topicStatsPerMinute(String clusterId, int minutes)
+    {
+        var topicStats = new ArrayList<TopicStatsRecord>();
+        for (var minute = 0; minute < minutes; minute++)
+            topicStats.add(new TopicStatsRecord(START.plus(Duration.ofMinutes(minute)), clusterId, TOPIC, minute,
+                    minute, minute, minute, minute, minute));
+
+        return topicStats;
+    }
+}
@@ -0,0 +1,166 @@
+package io.interfero.stats.services;
+
+import com.sun.net.httpserver.HttpServer;
+import io.interfero.stats.domain.SubscriptionStatsRecord;
+import io.interfero.stats.domain.TopicStatsRecord;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pulsar.client.admin.PulsarAdmin;
+import org.apache.pulsar.client.admin.PulsarAdminException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BrokerMetricsStatsSourceTest
+{
+    private static final Instant TIME = Instant.parse("2026-01-01T00:00:00Z");
+
+    private static final String METRICS = """
+            # TYPE pulsar_rate_in gauge
+            pulsar_rate_in{cluster="standalone",namespace="public/default",topic="persistent://public/default/a"} 10.0
+            pulsar_rate_in{cluster="standalone",namespace="public/default"} 99.0
+            pulsar_rate_out{cluster="standalone",namespace="public/default",topic="persistent://public/default/a"} 5.0
+            pulsar_throughput_in{cluster="standalone",namespace="public/default",topic="persistent://public/default/a"} 1000.0
+            pulsar_throughput_out{cluster="standalone",namespace="public/default",topic="persistent://public/default/a"} 500.0
+            pulsar_storage_backlog_size{cluster="standalone",namespace="public/default",topic="persistent://public/default/a"} 2048
+            pulsar_storage_size{cluster="standalone",namespace="public/default",topic="persistent://public/default/a"} 4096
+            pulsar_subscription_msg_rate_out{topic="persistent://public/default/a",subscription="sub-1"} 5.0
+            pulsar_subscription_msg_throughput_out{topic="persistent://public/default/a",subscription="sub-1"} 500.0
+            pulsar_subscription_back_log{topic="persistent://public/default/a",subscription="sub-1"} 42
+            """;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private PulsarAdmin pulsarAdmin;
+
+    private HttpServer broker;
+    private ExecutorService executor;
+    private BrokerMetricsStatsSource statsSource;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        broker = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        broker.createContext("/metrics", exchange -> {
+            var gzipped = new ByteArrayOutputStream();
+            try (var gzip = new GZIPOutputStream(gzipped))
+            {
+                gzip.write(METRICS.getBytes(StandardCharsets.UTF_8));
+            }
+
+            exchange.getResponseHeaders().add("Content-Type", "text/plain; version=0.0.4");
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, gzipped.size());
+            try (var body = exchange.getResponseBody())
+            {
+                gzipped.writeTo(body);
+            }
+        });
+        broker.start();
+
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        statsSource = new BrokerMetricsStatsSource(executor, Duration.ofSeconds(5), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        statsSource.close();
+        executor.shutdownNow();
+        broker.stop(0);
+    }
+
+    @Test
+    void shouldCollectStatsFromBrokerMetrics() throws PulsarAdminException
+    {
+        when(pulsarAdmin.getServiceUrl()).thenReturn("http://localhost:" + broker.getAddress().getPort());
+        when(pulsarAdmin.brokers().getActiveBrokers())
+                .thenReturn(List.of("localhost:" + broker.getAddress().getPort()));
+
+        var stats = statsSource.collect("A0000001", pulsarAdmin, TIME);
+
+        assertThat(stats.topicStats()).containsExactly(new TopicStatsRecord(TIME, "A0000001",
+                "persistent://public/default/a", 10.0, 5.0, 1000.0, 500.0, 2048, 4096));
+        assertThat(stats.subscriptionStats()).containsExactly(new SubscriptionStatsRecord(TIME, "A0000001",
+                "persistent://public/default/a", "sub-1", 5.0, 500.0, 42));
+    }
+
+    @Test
+    void shouldSkipBrokersWhichCannotBeScraped() throws PulsarAdminException
+    {
+        var port = broker.getAddress().getPort();
+        when(pulsarAdmin.getServiceUrl()).thenReturn("http://localhost:" + port);
+        when(pulsarAdmin.brokers().getActiveBrokers()).thenReturn(List.of("localhost:" + port, "localhost:1"));
+
+        var stats = statsSource.collect("A0000001", pulsarAdmin, TIME);
+
+        assertThat(stats.topicStats())
+                .extracting(TopicStatsRecord::topic)
+                .containsExactly("persistent://public/default/a");
+    }
+
+    @Test
+    void shouldAbortBrokersWhichStallWhileSendingMetrics() throws IOException, PulsarAdminException
+    {
+        var release = new CountDownLatch(1);
+        var stalledBroker = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stalledBroker.createContext("/metrics", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            var body = exchange.getResponseBody();
+            body.write(METRICS.substring(0, 100).getBytes(StandardCharsets.UTF_8));
+            body.flush();
+            try
+            {
+                release.await();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        });
+        stalledBroker.start();
+
+        var meterRegistry = new SimpleMeterRegistry();
+        var timingOutSource = new BrokerMetricsStatsSource(executor, Duration.ofMillis(500), meterRegistry);
+        try
+        {
+            var port = broker.getAddress().getPort();
+            when(pulsarAdmin.getServiceUrl()).thenReturn("http://localhost:" + port);
+            when(pulsarAdmin.brokers().getActiveBrokers()).thenReturn(List.of("localhost:" + port,
+                    "localhost:" + stalledBroker.getAddress().getPort()));
+
+            var start = System.nanoTime();
+            var stats = timingOutSource.collect("A0000001", pulsarAdmin, TIME);
+
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+            assertThat(stats.topicStats())
+                    .extracting(TopicStatsRecord::topic)
+                    .containsExactly("persistent://public/default/a");
+            assertThat(meterRegistry.get("interfero.stats.brokers.failed").counter().count()).isEqualTo(1);
+        }
+        finally
+        {
+            release.countDown();
+            timingOutSource.close();
+            stalledBroker.stop(0);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package io.interfero.stats.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PrometheusTextParserTest
+{
+    private final PrometheusTextParser parser = new PrometheusTextParser(
+            List.of("pulsar_rate_in", "pulsar_subscription_back_log"),
+            List.of("topic", "subscription"));
+
+    @Test
+    void shouldParseSamplesOfRequestedMetrics() throws IOException
+    {
+        var samples = parse("""
+                # TYPE pulsar_rate_in gauge
+                pulsar_rate_in{cluster="standalone",namespace="public/default",topic="persistent://public/default/a"} 12.5 1700000000000
+                pulsar_rate_in{cluster="standalone",namespace="public/default",topic="persistent://public/default/b"} 3
+                # TYPE pulsar_subscription_back_log gauge
+                pulsar_subscription_back_log{topic="persistent://public/default/a",subscription="sub-1"} 42
+                """);
+
+        assertThat(samples).containsExactly(
+                new Sample(0, "persistent://public/default/a", null, 12.5),
+                new Sample(0, "persistent://public/default/b", null, 3),
+                new Sample(1, "persistent://public/default/a", "sub-1", 42));
+    }
+
+    @Test
+    void shouldSkipOtherMetrics() throws IOException
+    {
+        var samples = parse("""
+                jvm_memory_bytes_used{area="heap"} 1.0E8
+                pulsar_rate_in_total{topic="persistent://public/default/a"} 1
+                pulsar_rate_in{topic="persistent://public/default/a"} 1
+                process_cpu_seconds_total 12.0
+                """);
+
+        assertThat(samples).containsExactly(new Sample(0, "persistent://public/default/a", null, 1));
+    }
+
+    @Test
+    void shouldDecodeEscapedLabelValues() throws IOException
+    {
+        var samples = parse("""
+                pulsar_subscription_back_log{topic="a",subscription="quoted \\"sub\\" with \\\\ and \\n"} 1
+                """);
+
+        assertThat(samples).containsExactly(new Sample(1, "a", "quoted \"sub\" with \\ and \n", 1));
+    }
+
+    @Test
+    void shouldReuseDecodedLabelValues() throws IOException
+    {
+        var topics = new ArrayList<String>();
+        parser.parse(input("""
+                pulsar_rate_in{topic="persistent://public/default/a"} 1
+                pulsar_subscription_back_log{topic="persistent://public/default/a",subscription="sub-1"} 2
+                """), (metric, labelValues, value) -> topics.add(labelValues[0]));
+
+        assertThat(topics).hasSize(2);
+        assertThat(topics.get(0)).isSameAs(topics.get(1));
+    }
+
+    @Test
+    void shouldSkipMalformedLines() throws IOException
+    {
+        var samples = parse("""
+                pulsar_rate_in{topic="persistent://public/default/a
+                pulsar_rate_in{topic="persistent://public/default/b"} abc
+                pulsar_rate_in
+                pulsar_rate_in{topic="persistent://public/default/c"} 2""");
+
+        assertThat(samples).containsExactly(new Sample(0, "persistent://public/default/c", null, 2));
+    }
+
+    @Test
+    void shouldParseLinesSpanningBuffers() throws IOException
+    {
+        var exposition = new StringBuilder();
+        for (var i = 0; i < 10_000; i++)
+            exposition.append("pulsar_rate_in{topic=\"persistent://public/default/topic-").append(i).append("\"} ")
+                    .append(i).append(".5\n");
+
+        var samples = parse(exposition.toString());
+
+        assertThat(samples).hasSize(10_000);
+        assertThat(samples.get(9_999)).isEqualTo(new Sample(0, "persistent://public/default/topic-9999", null, 9_999.5));
+    }
+
+    @Test
+    void shouldParseDoublesLikeTheJdk()
+    {
+        assertThat(parseDouble("0")).isEqualTo(0.0);
+        assertThat(parseDouble("-0.0")).isEqualTo(-0.0);
+        assertThat(parseDouble("12.5")).isEqualTo(12.5);
+        assertThat(parseDouble("1.0E8")).isEqualTo(1.0E8);
+        assertThat(parseDouble("1.5e-3")).isEqualTo(1.5e-3);
+        assertThat(parseDouble("-2.25E+2")).isEqualTo(-225.0);
+        assertThat(parseDouble("123456789012345")).isEqualTo(123456789012345.0);
+        assertThat(parseDouble("1e400")).isEqualTo(Double.POSITIVE_INFINITY);
+        assertThat(parseDouble("+Inf")).isEqualTo(Double.POSITIVE_INFINITY);
+        assertThat(parseDouble("-Inf")).isEqualTo(Double.NEGATIVE_INFINITY);
+        assertThat(parseDouble("NaN")).isNaN();
+        assertThat(parseDouble("0.016666666666666666"))
+                .isCloseTo(0.016666666666666666, within(Math.ulp(0.016666666666666666)));
+    }
+
+    private List<Sample> parse(String exposition) throws IOException
+    {
+        var samples = new ArrayList<Sample>();
+        parser.parse(input(exposition), (metric, labelValues, value) ->
+                samples.add(new Sample(metric, labelValues[0], labelValues[1], value)));
+        return samples;
+    }
+
+    private static double parseDouble(String value)
+    {
+        var bytes = value.getBytes(StandardCharsets.US_ASCII);
+        return PrometheusTextParser.parseDouble(bytes, bytes.length);
+    }
+
+    private static ByteArrayInputStream input(String exposition)
+    {
+        return new ByteArrayInputStream(exposition.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private record Sample(int metric, String topic, String subscription, double value)
+    {
+    }
+}
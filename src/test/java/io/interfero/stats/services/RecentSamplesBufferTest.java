@@ -0,0 +1,85 @@
+package io.interfero.stats.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecentSamplesBufferTest
+{
+    private RecentSamplesBuffer buffer;
+
+    @BeforeEach
+    void setUp()
+    {
+        buffer = new RecentSamplesBuffer(2, 3, 2);
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        buffer.close();
+    }
+
+    @Test
+    void shouldKeepMostRecentSamples()
+    {
+        for (var time = 0; time < 5; time++)
+            buffer.append("series-a", time, new double[]{time, -time});
+
+        assertThat(read("series-a", 2, 10)).containsExactly(2.0, 3.0, 4.0);
+        assertThat(read("series-a", 3, 4)).containsExactly(3.0);
+    }
+
+    @Test
+    void shouldNotReadBeforeOldestSample()
+    {
+        for (var time = 0; time < 5; time++)
+            buffer.append("series-a", time, new double[]{time, -time});
+
+        assertThat(buffer.read("series-a", 1, 10, (time, values) -> {})).isFalse();
+        assertThat(buffer.read("series-a", 2, 10, (time, values) -> {})).isTrue();
+    }
+
+    @Test
+    void shouldNotReadUnknownSeries()
+    {
+        assertThat(buffer.read("series-a", 0, 10, (time, values) -> {})).isFalse();
+    }
+
+    @Test
+    void shouldRejectSeriesBeyondMaximum()
+    {
+        assertThat(buffer.append("series-a", 0, new double[]{1, 1})).isTrue();
+        assertThat(buffer.append("series-b", 0, new double[]{2, 2})).isTrue();
+
+        assertThat(buffer.append("series-c", 0, new double[]{3, 3})).isFalse();
+        assertThat(buffer.getSeriesCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldReuseSlotsOfEvictedSeries()
+    {
+        buffer.append("series-a", 10, new double[]{1, 1});
+        buffer.append("series-b", 20, new double[]{2, 2});
+
+        assertThat(buffer.evictOlderThan(15)).isEqualTo(1);
+        assertThat(buffer.append("series-c", 30, new double[]{3, 3})).isTrue();
+
+        assertThat(buffer.read("series-a", 0, 100, (time, values) -> {})).isFalse();
+        assertThat(read("series-b", 20, 100)).containsExactly(2.0);
+        assertThat(read("series-c", 30, 100)).containsExactly(3.0);
+        assertThat(buffer.read("series-c", 20, 100, (time, values) -> {})).isFalse();
+    }
+
+    private List<Double> read(String key, long from, long to)
+    {
+        var values = new ArrayList<Double>();
+        buffer.read(key, from, to, (time, sample) -> values.add(sample[0]));
+        return values;
+    }
+}
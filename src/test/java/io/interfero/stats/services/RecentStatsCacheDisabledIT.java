@@ -0,0 +1,28 @@
+package io.interfero.stats.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "interfero.stats.recent-window=0")
+@ActiveProfiles({"it", "db-disabled"})
+class RecentStatsCacheDisabledIT
+{
+    @Autowired
+    private RecentStatsCache recentStatsCache;
+
+    @Test
+    void shouldStartWithDisabledCache()
+    {
+        var now = Instant.now();
+
+        assertThat(recentStatsCache.findTopicStats("A0000001", "persistent://public/default/topic-a",
+                now.minus(Duration.ofMinutes(5)), now, Duration.ofMinutes(1))).isEmpty();
+    }
+}
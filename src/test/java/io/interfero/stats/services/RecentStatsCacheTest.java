@@ -0,0 +1,128 @@
+package io.interfero.stats.services;
+
+import io.interfero.stats.StatsConfiguration;
+import io.interfero.stats.domain.SubscriptionStatsRecord;
+import io.interfero.stats.domain.TopicStatsRecord;
+import io.interfero.stats.services.TopicStatsSource.CollectedStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecentStatsCacheTest
+{
+    private static final String TOPIC = "persistent://public/default/topic-a";
+
+    // Aligned to buckets of 5 minutes and well within the window
+    private static final Instant START = Instant.ofEpochSecond(
+            Math.floorDiv(Instant.now().minus(Duration.ofMinutes(30)).getEpochSecond(), 300) * 300);
+
+    private RecentStatsCache recentStatsCache;
+
+    @BeforeEach
+    void setUp()
+    {
+        var statsConfiguration = new StatsConfiguration(Duration.ofMinutes(1), null, null, null, null, null,
+                Duration.ofHours(1), 100);
+        recentStatsCache = new RecentStatsCache(statsConfiguration, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        recentStatsCache.close();
+    }
+
+    @Test
+    void shouldAggregateCachedStatsIntoRequestedResolution()
+    {
+        for (var minute = 0; minute < 10; minute++)
+        {
+            var time = START.plus(Duration.ofMinutes(minute));
+            recentStatsCache.put(new CollectedStats(
+                    List.of(new TopicStatsRecord(time, "A0000001", TOPIC, minute, 0, 0, 0, minute, 0)),
+                    List.of(new SubscriptionStatsRecord(time, "A0000001", TOPIC, "sub-1", minute, 0, minute))));
+        }
+
+        var topicStats = recentStatsCache.findTopicStats("A0000001", TOPIC, START, START.plus(Duration.ofMinutes(10)),
+                Duration.ofMinutes(5));
+        var subscriptionStats = recentStatsCache.findSubscriptionStats("A0000001", TOPIC, "sub-1", START,
+                START.plus(Duration.ofMinutes(10)), Duration.ofMinutes(5));
+
+        assertThat(topicStats).contains(List.of(
+                new TopicStatsRecord(START, "A0000001", TOPIC, 2.0, 0, 0, 0, 4, 0),
+                new TopicStatsRecord(START.plus(Duration.ofMinutes(5)), "A0000001", TOPIC, 7.0, 0, 0, 0, 9, 0)));
+        assertThat(subscriptionStats).contains(List.of(
+                new SubscriptionStatsRecord(START, "A0000001", TOPIC, "sub-1", 2.0, 0, 4),
+                new SubscriptionStatsRecord(START.plus(Duration.ofMinutes(5)), "A0000001", TOPIC, "sub-1", 7.0, 0,
+                        9)));
+    }
+
+    @Test
+    void shouldNotAnswerQueriesBeforeFirstCollection()
+    {
+        recentStatsCache.put(new CollectedStats(
+                List.of(new TopicStatsRecord(START, "A0000001", TOPIC, 1, 1, 1, 1, 1, 1)), List.of()));
+
+        var stats = recentStatsCache.findTopicStats("A0000001", TOPIC, START.minus(Duration.ofMinutes(5)),
+                START.plus(Duration.ofMinutes(5)), Duration.ofMinutes(1));
+
+        assertThat(stats).isEmpty();
+    }
+
+    @Test
+    void shouldNotAnswerQueriesBeforeSeriesWasFirstCached()
+    {
+        var otherTopic = "persistent://public/default/topic-b";
+        for (var minute = 0; minute < 10; minute++)
+        {
+            var time = START.plus(Duration.ofMinutes(minute));
+            var topicStats = new ArrayList<TopicStatsRecord>();
+            topicStats.add(new TopicStatsRecord(time, "A0000001", TOPIC, 1, 1, 1, 1, 1, 1));
+            if (minute >= 5) // Like a topic of a cluster registered later
+                topicStats.add(new TopicStatsRecord(time, "A0000002", otherTopic, 1, 1, 1, 1, 1, 1));
+
+            recentStatsCache.put(new CollectedStats(topicStats, List.of()));
+        }
+
+        assertThat(recentStatsCache.findTopicStats("A0000001", TOPIC, START, START.plus(Duration.ofMinutes(10)),
+                Duration.ofMinutes(5))).isPresent();
+        assertThat(recentStatsCache.findTopicStats("A0000002", otherTopic, START, START.plus(Duration.ofMinutes(10)),
+                Duration.ofMinutes(5))).isEmpty();
+        assertThat(recentStatsCache.findTopicStats("A0000002", otherTopic, START.plus(Duration.ofMinutes(5)),
+                START.plus(Duration.ofMinutes(10)), Duration.ofMinutes(5))).isPresent();
+    }
+
+    @Test
+    void shouldNotAnswerQueriesOfUnknownTopics()
+    {
+        recentStatsCache.put(new CollectedStats(
+                List.of(new TopicStatsRecord(START, "A0000001", TOPIC, 1, 1, 1, 1, 1, 1)), List.of()));
+
+        var stats = recentStatsCache.findTopicStats("A0000001", "persistent://public/default/other", START,
+                START.plus(Duration.ofMinutes(5)), Duration.ofMinutes(1));
+
+        assertThat(stats).isEmpty();
+    }
+
+    @Test
+    void shouldNotAnswerQueriesIfDisabled()
+    {
+        var statsConfiguration = new StatsConfiguration(Duration.ofMinutes(1), null, null, null, null, null,
+                Duration.ZERO, null);
+        var disabledCache = new RecentStatsCache(statsConfiguration, new SimpleMeterRegistry());
+        disabledCache.put(new CollectedStats(
+                List.of(new TopicStatsRecord(START, "A0000001", TOPIC, 1, 1, 1, 1, 1, 1)), List.of()));
+
+        assertThat(disabledCache.findTopicStats("A0000001", TOPIC, START, START.plus(Duration.ofMinutes(5)),
+                Duration.ofMinutes(1))).isEmpty();
+        disabledCache.close();
+    }
+}
@@ -0,0 +1,143 @@
+package io.interfero.stats.services;
+
+import io.interfero.stats.StatsConfiguration;
+import io.interfero.stats.domain.SubscriptionStatsRecord;
+import io.interfero.stats.domain.TopicStatsRecord;
+import io.interfero.stats.repositories.TopicStatsRepository;
+import io.interfero.stats.services.TopicStatsSource.CollectedStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatsIngestWriterTest
+{
+    private static final Instant TIME = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Mock
+    private TopicStatsRepository topicStatsRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private StatsIngestWriter ingestWriter;
+
+    @BeforeEach
+    void setUp()
+    {
+        meterRegistry = new SimpleMeterRegistry();
+        ingestWriter = new StatsIngestWriter(topicStatsRepository,
+                new StatsConfiguration(null, null, null, null, null, 4, null, null), meterRegistry);
+        ingestWriter.start();
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        ingestWriter.shutdown();
+    }
+
+    @Test
+    void shouldWriteOfferedStats()
+    {
+        var stats = collectedStats("topic-a", 1);
+
+        assertThat(ingestWriter.offer(stats)).isTrue();
+
+        verify(topicStatsRepository, timeout(1000)).saveTopicStats(List.copyOf(stats.topicStats()));
+        verify(topicStatsRepository, timeout(1000)).saveSubscriptionStats(List.copyOf(stats.subscriptionStats()));
+    }
+
+    @Test
+    void shouldDropStatsWhileTooManyRowsArePending() throws InterruptedException
+    {
+        var writing = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return null;
+        }).when(topicStatsRepository).saveTopicStats(anyCollection());
+
+        ingestWriter.offer(collectedStats("topic-a", 1)); // Blocks the writer
+        assertThat(writing.await(1, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(ingestWriter.offer(collectedStats("topic-b", 0))).isTrue();
+        assertThat(ingestWriter.offer(collectedStats("topic-c", 1))).isFalse();
+        assertThat(ingestWriter.getPendingRows()).isEqualTo(3);
+        assertThat(meterRegistry.get("interfero.stats.ingest.dropped").counter().count()).isEqualTo(2);
+
+        release.countDown();
+        verify(topicStatsRepository, timeout(1000).times(2)).saveTopicStats(anyCollection());
+    }
+
+    @Test
+    void shouldAcceptOversizedStatsIfNothingIsPending() throws InterruptedException
+    {
+        var writing = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return null;
+        }).when(topicStatsRepository).saveTopicStats(anyCollection());
+
+        assertThat(ingestWriter.offer(collectedStats("topic-a", 5))).isTrue();
+        assertThat(writing.await(1, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(ingestWriter.offer(collectedStats("topic-b", 5))).isFalse();
+        assertThat(meterRegistry.get("interfero.stats.ingest.dropped").counter().count()).isEqualTo(6);
+
+        release.countDown();
+        verify(topicStatsRepository, timeout(1000)).saveSubscriptionStats(anyCollection());
+    }
+
+    @Test
+    void shouldKeepWritingAfterFailedWrite()
+    {
+        doThrow(new IllegalStateException("Database unavailable"))
+                .doNothing()
+                .when(topicStatsRepository).saveTopicStats(anyCollection());
+
+        ingestWriter.offer(collectedStats("topic-a", 0));
+        verify(topicStatsRepository, timeout(1000)).saveTopicStats(anyCollection());
+        ingestWriter.offer(collectedStats("topic-b", 0));
+
+        verify(topicStatsRepository, timeout(1000).times(2)).saveTopicStats(anyCollection());
+        assertThat(meterRegistry.get("interfero.stats.ingest.failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldWritePendingStatsOnShutdown()
+    {
+        ingestWriter.offer(collectedStats("topic-a", 0));
+
+        ingestWriter.shutdown();
+
+        verify(topicStatsRepository).saveTopicStats(anyCollection());
+        assertThat(ingestWriter.getPendingRows()).isZero();
+        assertThat(ingestWriter.offer(collectedStats("topic-b", 0))).isFalse();
+    }
+
+    private static CollectedStats collectedStats(String topic, int subscriptions)
+    {
+        var topicStats = new TopicStatsRecord(TIME, "A0000001", topic, 1.0, 1.0, 100.0, 100.0, 0L, 0L);
+        var subscriptionStats = new ArrayList<SubscriptionStatsRecord>();
+        for (var i = 0; i < subscriptions; i++)
+            subscriptionStats.add(new SubscriptionStatsRecord(TIME, "A0000001", topic, "sub-" + i, 1.0, 100.0, 0L));
+
+        return new CollectedStats(List.of(topicStats), subscriptionStats);
+    }
+}
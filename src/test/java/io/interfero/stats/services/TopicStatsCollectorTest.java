@@ -0,0 +1,208 @@
+package io.interfero.stats.services;
+
+import io.interfero.clusters.ClusterClientsLease;
+import io.interfero.clusters.ClusterUnavailableException;
+import io.interfero.clusters.PulsarClusterRegistry;
+import io.interfero.stats.StatsConfiguration;
+import io.interfero.stats.domain.SubscriptionStatsRecord;
+import io.interfero.stats.domain.TopicStatsRecord;
+import io.interfero.stats.services.TopicStatsSource.CollectedStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pulsar.client.admin.PulsarAdmin;
+import org.apache.pulsar.client.admin.PulsarAdminException;
+import org.apache.pulsar.common.policies.data.SubscriptionStats;
+import org.apache.pulsar.common.policies.data.TopicStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TopicStatsCollectorTest
+{
+    private static final String TOPIC_A = "persistent://public/default/topic-a";
+    private static final String TOPIC_B = "persistent://public/default/topic-b";
+
+    @Mock
+    private PulsarClusterRegistry clusterRegistry;
+
+    @Mock
+    private StatsIngestWriter ingestWriter;
+
+    @Mock
+    private RecentStatsCache recentStatsCache;
+
+    @Mock
+    private ClusterClientsLease lease;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private PulsarAdmin pulsarAdmin;
+
+    @Captor
+    private ArgumentCaptor<CollectedStats> statsCaptor;
+
+    private TopicStatsCollector topicStatsCollector;
+
+    @BeforeEach
+    void setUp()
+    {
+        topicStatsCollector = new TopicStatsCollector(clusterRegistry, ingestWriter, recentStatsCache,
+                new StatsConfiguration(null, null, 2, null, null, null, null, null), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        topicStatsCollector.shutdown();
+    }
+
+    @Test
+    void shouldCollectStatsOfAllTopics() throws PulsarAdminException
+    {
+        givenClusterWithTopics(TOPIC_A, TOPIC_B);
+
+        var subscriptionStats = mock(SubscriptionStats.class);
+        when(subscriptionStats.getMsgRateOut()).thenReturn(5.0);
+        when(subscriptionStats.getMsgThroughputOut()).thenReturn(500.0);
+        when(subscriptionStats.getMsgBacklog()).thenReturn(42L);
+
+        var topicStatsA = topicStats(10.0, Map.of("sub-1", subscriptionStats));
+        var topicStatsB = topicStats(20.0, Map.of());
+        when(pulsarAdmin.topics().getStats(TOPIC_A)).thenReturn(topicStatsA);
+        when(pulsarAdmin.topics().getStats(TOPIC_B)).thenReturn(topicStatsB);
+
+        topicStatsCollector.collectAsync().join();
+
+        verify(ingestWriter).offer(statsCaptor.capture());
+        verify(recentStatsCache).put(statsCaptor.getValue());
+        verify(lease).close();
+
+        var topicStats = statsCaptor.getValue().topicStats();
+        assertThat(topicStats)
+                .extracting(TopicStatsRecord::topic, TopicStatsRecord::msgRateIn)
+                .containsExactlyInAnyOrder(
+                        tuple(TOPIC_A, 10.0),
+                        tuple(TOPIC_B, 20.0));
+        assertThat(topicStats)
+                .extracting(TopicStatsRecord::time)
+                .containsOnly(topicStats.iterator().next().time());
+        assertThat(topicStats)
+                .extracting(TopicStatsRecord::clusterId)
+                .containsOnly("A0000001");
+
+        assertThat(statsCaptor.getValue().subscriptionStats())
+                .containsExactly(new SubscriptionStatsRecord(topicStats.iterator().next().time(), "A0000001",
+                        TOPIC_A, "sub-1", 5.0, 500.0, 42L));
+    }
+
+    @Test
+    void shouldSkipTopicsWhoseStatsCannotBeRequested() throws PulsarAdminException
+    {
+        givenClusterWithTopics(TOPIC_A, TOPIC_B);
+
+        var topicStatsA = topicStats(10.0, Map.of());
+        when(pulsarAdmin.topics().getStats(TOPIC_A)).thenReturn(topicStatsA);
+        when(pulsarAdmin.topics().getStats(TOPIC_B)).thenThrow(new PulsarAdminException("Topic not found"));
+
+        topicStatsCollector.collectAsync().join();
+
+        verify(ingestWriter).offer(statsCaptor.capture());
+        assertThat(statsCaptor.getValue().topicStats())
+                .extracting(TopicStatsRecord::topic)
+                .containsExactly(TOPIC_A);
+    }
+
+    @Test
+    void shouldNotSaveStatsIfTopicsCannotBeListed() throws PulsarAdminException
+    {
+        when(clusterRegistry.getRegisteredClusterIds()).thenReturn(Set.of("A0000001"));
+        when(clusterRegistry.acquireClients("A0000001")).thenReturn(Optional.of(lease));
+        when(lease.getPulsarAdmin()).thenReturn(pulsarAdmin);
+        when(pulsarAdmin.tenants().getTenants()).thenThrow(new PulsarAdminException("Unauthorized"));
+
+        topicStatsCollector.collectAsync().join();
+
+        verifyNoInteractions(ingestWriter);
+        verify(lease).close();
+    }
+
+    @Test
+    void shouldSkipClustersWhichWereUnregistered()
+    {
+        when(clusterRegistry.getRegisteredClusterIds()).thenReturn(Set.of("A0000001"));
+        when(clusterRegistry.acquireClients("A0000001")).thenReturn(Optional.empty());
+
+        topicStatsCollector.collectAsync().join();
+
+        verifyNoInteractions(ingestWriter);
+    }
+
+    @Test
+    void shouldSkipClustersWithOpenCircuit()
+    {
+        when(clusterRegistry.getRegisteredClusterIds()).thenReturn(Set.of("A0000001"));
+        when(clusterRegistry.acquireClients("A0000001"))
+                .thenThrow(new ClusterUnavailableException("Cluster with id 'A0000001' is unavailable"));
+
+        topicStatsCollector.collectAsync().join();
+
+        verifyNoInteractions(ingestWriter, recentStatsCache);
+    }
+
+    @Test
+    void shouldSkipCollectionWhilePreviousCollectionIsRunning() throws InterruptedException
+    {
+        var collecting = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(clusterRegistry.getRegisteredClusterIds()).thenReturn(Set.of("A0000001"));
+        when(clusterRegistry.acquireClients("A0000001")).thenAnswer(invocation -> {
+            collecting.countDown();
+            release.await();
+            return Optional.empty();
+        });
+
+        var collection = topicStatsCollector.collectAsync();
+        collecting.await();
+
+        assertThat(topicStatsCollector.collectAsync()).isSameAs(collection);
+        assertThat(collection).isNotDone();
+
+        release.countDown();
+        collection.join();
+        verify(clusterRegistry, times(1)).getRegisteredClusterIds();
+    }
+
+    private void givenClusterWithTopics(String... topics) throws PulsarAdminException
+    {
+        when(clusterRegistry.getRegisteredClusterIds()).thenReturn(Set.of("A0000001"));
+        when(clusterRegistry.acquireClients("A0000001")).thenReturn(Optional.of(lease));
+        when(lease.getPulsarAdmin()).thenReturn(pulsarAdmin);
+        when(pulsarAdmin.tenants().getTenants()).thenReturn(List.of("public"));
+        when(pulsarAdmin.namespaces().getNamespaces("public")).thenReturn(List.of("public/default"));
+        when(pulsarAdmin.topics().getList("public/default")).thenReturn(List.of(topics));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static TopicStats topicStats(double msgRateIn, Map<String, SubscriptionStats> subscriptions)
+    {
+        var topicStats = mock(TopicStats.class);
+        when(topicStats.getMsgRateIn()).thenReturn(msgRateIn);
+        when(topicStats.getSubscriptions()).thenReturn((Map) subscriptions);
+        return topicStats;
+    }
+}
@@ -0,0 +1,138 @@
+package io.interfero.stats.services;
+
+import io.interfero.stats.StatsConfiguration;
+import io.interfero.stats.domain.TopicStatsRecord;
+import io.interfero.stats.repositories.StatsGranularity;
+import io.interfero.stats.repositories.TopicStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TopicStatsServiceTest
+{
+    private static final Instant FROM = Instant.parse("2026-01-01T00:00:00Z");
+    private static final String TOPIC = "persistent://public/default/topic-a";
+
+    @Mock
+    private TopicStatsRepository topicStatsRepository;
+
+    @Mock
+    private RecentStatsCache recentStatsCache;
+
+    private TopicStatsService topicStatsService;
+
+    @BeforeEach
+    void setUp()
+    {
+        var statsConfiguration = new StatsConfiguration(Duration.ofMinutes(1), null, null, null, null, null, null,
+                null);
+        topicStatsService = new TopicStatsService(topicStatsRepository, statsConfiguration, recentStatsCache);
+    }
+
+    @Test
+    void shouldUseRequestedResolution()
+    {
+        var resolution = topicStatsService.getEffectiveResolution(FROM, FROM.plus(Duration.ofHours(1)),
+                Duration.ofMinutes(5));
+
+        assertThat(resolution).isEqualTo(Duration.ofMinutes(5));
+    }
+
+    @Test
+    void shouldNotGoBelowCollectionInterval()
+    {
+        var resolution = topicStatsService.getEffectiveResolution(FROM, FROM.plus(Duration.ofHours(1)),
+                Duration.ofSeconds(10));
+
+        assertThat(resolution).isEqualTo(Duration.ofMinutes(1));
+    }
+
+    @Test
+    void shouldUseCollectionIntervalIfNoResolutionIsRequested()
+    {
+        var resolution = topicStatsService.getEffectiveResolution(FROM, FROM.plus(Duration.ofHours(1)), null);
+
+        assertThat(resolution).isEqualTo(Duration.ofMinutes(1));
+    }
+
+    @Test
+    void shouldLimitNumberOfBuckets()
+    {
+        var resolution = topicStatsService.getEffectiveResolution(FROM, FROM.plus(Duration.ofHours(2)),
+                Duration.ofMinutes(1));
+
+        assertThat(resolution).isEqualTo(Duration.ofSeconds(8));
+    }
+
+    @Test
+    void shouldReadFiveMinuteRollupForSevenDays()
+    {
+        var resolution = topicStatsService.getEffectiveResolution(FROM, FROM.plus(Duration.ofDays(7)),
+                Duration.ofMinutes(1));
+
+        assertThat(resolution).isEqualTo(Duration.ofMinutes(15));
+        assertThat(Duration.ofDays(7).dividedBy(resolution)).isLessThanOrEqualTo(TopicStatsService.MAX_BUCKETS);
+        assertThat(StatsGranularity.coarsestFor(resolution)).isEqualTo(StatsGranularity.FIVE_MINUTES);
+    }
+
+    @Test
+    void shouldReadHourlyRollupForThirtyDays()
+    {
+        var resolution = topicStatsService.getEffectiveResolution(FROM, FROM.plus(Duration.ofDays(30)),
+                Duration.ofMinutes(1));
+
+        assertThat(resolution).isEqualTo(Duration.ofHours(1));
+        assertThat(StatsGranularity.coarsestFor(resolution)).isEqualTo(StatsGranularity.ONE_HOUR);
+    }
+
+    @Test
+    void shouldReadFiveMinuteRollupForOneDay()
+    {
+        var resolution = topicStatsService.getEffectiveResolution(FROM, FROM.plus(Duration.ofDays(1)),
+                Duration.ofMinutes(1));
+
+        assertThat(resolution).isEqualTo(Duration.ofMinutes(5));
+        assertThat(StatsGranularity.coarsestFor(resolution)).isEqualTo(StatsGranularity.FIVE_MINUTES);
+    }
+
+    @Test
+    void shouldAnswerFromRecentStatsCache()
+    {
+        var to = FROM.plus(Duration.ofMinutes(15));
+        var cached = List.of(new TopicStatsRecord(FROM, "A0000001", TOPIC, 1, 1, 1, 1, 1, 1));
+        when(recentStatsCache.findTopicStats("A0000001", TOPIC, FROM, to, Duration.ofMinutes(1)))
+                .thenReturn(Optional.of(cached));
+
+        var stats = topicStatsService.getTopicStats("A0000001", TOPIC, FROM, to, Duration.ofMinutes(1));
+
+        assertThat(stats).isEqualTo(cached);
+        verifyNoInteractions(topicStatsRepository);
+    }
+
+    @Test
+    void shouldFallBackToRepositoryIfNotCached()
+    {
+        var to = FROM.plus(Duration.ofDays(1));
+        var stored = List.of(new TopicStatsRecord(FROM, "A0000001", TOPIC, 1, 1, 1, 1, 1, 1));
+        when(recentStatsCache.findTopicStats("A0000001", TOPIC, FROM, to, Duration.ofMinutes(5)))
+                .thenReturn(Optional.empty());
+        when(topicStatsRepository.findTopicStats("A0000001", TOPIC, FROM, to, Duration.ofMinutes(5)))
+                .thenReturn(stored);
+
+        var stats = topicStatsService.getTopicStats("A0000001", TOPIC, FROM, to, Duration.ofMinutes(5));
+
+        assertThat(stats).isEqualTo(stored);
+    }
+}